@@ -47,6 +47,15 @@ public abstract class LeaderConfig {
         return new File("var/data/paxos/acceptor");
     }
 
+    /**
+     * Whether to keep the paxos logs in append-only segment files rather than one file per round. Existing logs
+     * are migrated on startup, and cannot be read by older versions once migrated.
+     */
+    @Value.Default
+    public boolean useSegmentedStateLog() {
+        return false;
+    }
+
     public abstract String localServer();
 
     @Size(min = 1)
@@ -77,8 +86,20 @@ public abstract class LeaderConfig {
         return 5000L;
     }
 
+    /**
+     * How long the leader may serve requests after a quorum last confirmed its leadership, without confirming it
+     * again for every request. A newly elected leader waits twice this long before serving anything. Zero disables
+     * leader leases; if set, it must be the same on all nodes.
+     */
+    @Value.Default
+    public long leaderLeaseDurationMs() {
+        return 0L;
+    }
+
     @Value.Check
     protected final void check() {
+        Preconditions.checkState(leaderLeaseDurationMs() >= 0,
+                "The leaderLeaseDurationMs '%s' must not be negative.", leaderLeaseDurationMs());
         Preconditions.checkState(quorumSize() > leaders().size() / 2,
                 "The quorumSize '%s' must be over half the amount of leader entries %s.", quorumSize(), leaders());
         Preconditions.checkState(leaders().size() >= quorumSize(),
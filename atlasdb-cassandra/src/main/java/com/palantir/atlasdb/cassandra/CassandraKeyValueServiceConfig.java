@@ -241,6 +241,25 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         return 1_000;
     }
 
+    /**
+     * If true, multi-host gets, getRows, multiPuts and range pages are issued as non-blocking Thrift requests instead
+     * of on the KVS thread pool, so that fanning out across hosts does not need a thread per in-flight request.
+     * Not supported together with SSL.
+     */
+    @Value.Default
+    public boolean asyncTransport() {
+        return false;
+    }
+
+    /**
+     * The maximum number of requests in flight to a single host when using the {@link #asyncTransport()}. Each one
+     * uses its own connection; further requests to the host are queued until earlier ones complete.
+     */
+    @Value.Default
+    public int maxConcurrentAsyncRequestsPerHost() {
+        return maxConnectionBurstSize();
+    }
+
     public abstract Optional<CassandraJmxCompactionConfig> jmx();
 
     @Override
@@ -269,5 +288,9 @@ public abstract class CassandraKeyValueServiceConfig implements KeyValueServiceC
         double evictionCheckProportion = proportionConnectionsToCheckPerEvictionRun();
         Preconditions.checkArgument(evictionCheckProportion > 0.01 && evictionCheckProportion <= 1,
                 "'proportionConnectionsToCheckPerEvictionRun' must be between 0.01 and 1");
+        Preconditions.checkArgument(!asyncTransport() || !usingSsl(),
+                "'asyncTransport' cannot be used with SSL");
+        Preconditions.checkArgument(maxConcurrentAsyncRequestsPerHost() > 0,
+                "'maxConcurrentAsyncRequestsPerHost' must be positive");
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cassandra.thrift.CqlRow;
+import org.apache.cassandra.thrift.KeyRange;
+import org.apache.cassandra.thrift.KeySlice;
+import org.apache.cassandra.thrift.SlicePredicate;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
+import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates;
+import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates.Limit;
+import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates.Range;
+import com.palantir.common.base.Throwables;
+
+/**
+ * Produces the candidate cells for sweeping of a table in a single scan: row keys are paged in token order, and
+ * every version of each row is then paged through once in clustering order (by column, then from the newest
+ * timestamp to the oldest). Each cell's timestamps are collected into a reused primitive buffer, and when the
+ * request asks whether the latest value is empty the values are selected in the same queries, so there is no
+ * second scan to zip against.
+ *
+ * Each batch holds the candidates of one page of row keys.
+ */
+final class CandidateCellsForSweepingIterator extends AbstractIterator<List<CandidateCellForSweeping>> {
+    private static final SlicePredicate ROW_KEYS_ONLY = SlicePredicates.create(Range.ALL, Limit.ONE);
+
+    private final RowGetter rowGetter;
+    private final CqlExecutor cqlExecutor;
+    private final TableReference tableRef;
+    private final long sweepTimestamp;
+    private final boolean shouldCheckIfLatestValueIsEmpty;
+    private final long[] sortedTimestampsToIgnore;
+    private final int rowBatchSize;
+    private final int cellBatchSize;
+
+    private byte[] nextStartRow;
+    private long numCellsTsPairsExamined = 0;
+
+    // State of the cell currently being read, reused from one cell to the next.
+    private byte[] currentColumn = null;
+    private boolean currentCellIsCandidate = false;
+    private boolean currentLatestValueIsEmpty = false;
+    private long[] currentTimestamps = new long[16];
+    private int numCurrentTimestamps = 0;
+
+    CandidateCellsForSweepingIterator(
+            RowGetter rowGetter,
+            CqlExecutor cqlExecutor,
+            TableReference tableRef,
+            CandidateCellForSweepingRequest request,
+            int cellBatchSize) {
+        this.rowGetter = rowGetter;
+        this.cqlExecutor = cqlExecutor;
+        this.tableRef = tableRef;
+        this.sweepTimestamp = request.sweepTimestamp();
+        this.shouldCheckIfLatestValueIsEmpty = request.shouldCheckIfLatestValueIsEmpty();
+        this.sortedTimestampsToIgnore = request.timestampsToIgnore().clone();
+        Arrays.sort(sortedTimestampsToIgnore);
+        this.rowBatchSize = request.batchSizeHint()
+                .orElse(AtlasDbConstants.DEFAULT_SWEEP_CANDIDATE_BATCH_HINT_CASSANDRA);
+        this.cellBatchSize = cellBatchSize;
+        this.nextStartRow = request.startRowInclusive();
+    }
+
+    @Override
+    protected List<CandidateCellForSweeping> computeNext() {
+        while (nextStartRow != null) {
+            List<byte[]> rows = getRowKeys(nextStartRow);
+            nextStartRow = rows.size() < rowBatchSize
+                    ? null
+                    : RangeRequests.getNextStartRowUnlessTerminal(false, rows.get(rows.size() - 1));
+
+            List<CandidateCellForSweeping> candidates = Lists.newArrayList();
+            for (byte[] row : rows) {
+                addCandidatesForRow(row, candidates);
+            }
+            if (!candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+        return endOfData();
+    }
+
+    private List<byte[]> getRowKeys(byte[] startRow) {
+        KeyRange keyRange = new KeyRange(rowBatchSize);
+        keyRange.setStart_key(startRow);
+        keyRange.setEnd_key(PtBytes.EMPTY_BYTE_ARRAY);
+        List<KeySlice> keySlices;
+        try {
+            keySlices = rowGetter.getRows(keyRange, ROW_KEYS_ONLY);
+        } catch (Exception e) {
+            throw Throwables.throwUncheckedException(e);
+        }
+        List<byte[]> rows = Lists.newArrayListWithCapacity(keySlices.size());
+        for (KeySlice keySlice : keySlices) {
+            rows.add(keySlice.getKey());
+        }
+        rows.sort(PtBytes.BYTES_COMPARATOR);
+        return rows;
+    }
+
+    private void addCandidatesForRow(byte[] row, List<CandidateCellForSweeping> candidates) {
+        List<CqlRow> versions = cqlExecutor.getVersionsForRow(
+                tableRef, row, shouldCheckIfLatestValueIsEmpty, cellBatchSize);
+        addVersions(row, versions, candidates);
+        while (versions.size() >= cellBatchSize) {
+            CqlRow last = versions.get(versions.size() - 1);
+            byte[] column = CqlExecutor.getColumnName(last);
+            versions = Lists.newArrayList(cqlExecutor.getOlderVersionsOfColumn(
+                    tableRef, row, column, CqlExecutor.getTimestamp(last), shouldCheckIfLatestValueIsEmpty,
+                    cellBatchSize));
+            if (versions.size() < cellBatchSize) {
+                // We finished with this column, but there might be more
+                versions.addAll(cqlExecutor.getVersionsOfNextColumns(
+                        tableRef, row, column, shouldCheckIfLatestValueIsEmpty, cellBatchSize - versions.size()));
+            }
+            addVersions(row, versions, candidates);
+        }
+        finishCell(row, candidates);
+    }
+
+    private void addVersions(byte[] row, List<CqlRow> versions, List<CandidateCellForSweeping> candidates) {
+        for (CqlRow version : versions) {
+            byte[] column = CqlExecutor.getColumnName(version);
+            if (currentColumn == null || !Arrays.equals(column, currentColumn)) {
+                finishCell(row, candidates);
+                currentColumn = column;
+            }
+
+            long timestamp = CqlExecutor.getTimestamp(version);
+            if (timestamp >= sweepTimestamp) {
+                continue;
+            }
+            currentCellIsCandidate = true;
+            if (Arrays.binarySearch(sortedTimestampsToIgnore, timestamp) >= 0) {
+                continue;
+            }
+            if (numCurrentTimestamps == 0 && shouldCheckIfLatestValueIsEmpty) {
+                // Versions come from newest to oldest, so this is the latest timestamp we return for the cell.
+                currentLatestValueIsEmpty = CqlExecutor.getValue(version).length == 0;
+            }
+            if (numCurrentTimestamps == currentTimestamps.length) {
+                currentTimestamps = Arrays.copyOf(currentTimestamps, 2 * currentTimestamps.length);
+            }
+            currentTimestamps[numCurrentTimestamps++] = timestamp;
+        }
+    }
+
+    private void finishCell(byte[] row, List<CandidateCellForSweeping> candidates) {
+        if (currentColumn != null && currentCellIsCandidate) {
+            long[] sortedTimestamps = new long[numCurrentTimestamps];
+            for (int i = 0; i < numCurrentTimestamps; i++) {
+                sortedTimestamps[i] = currentTimestamps[numCurrentTimestamps - 1 - i];
+            }
+            numCellsTsPairsExamined += numCurrentTimestamps;
+            candidates.add(ImmutableCandidateCellForSweeping.builder()
+                    .cell(Cell.create(row, currentColumn))
+                    .sortedTimestamps(sortedTimestamps)
+                    .isLatestValueEmpty(currentLatestValueIsEmpty)
+                    .numCellsTsPairsExamined(numCellsTsPairsExamined)
+                    .build());
+        }
+        currentColumn = null;
+        currentCellIsCandidate = false;
+        currentLatestValueIsEmpty = false;
+        numCurrentTimestamps = 0;
+    }
+}
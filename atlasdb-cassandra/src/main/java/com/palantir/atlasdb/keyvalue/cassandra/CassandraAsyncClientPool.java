@@ -0,0 +1,366 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.cassandra.thrift.AuthenticationRequest;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.apache.thrift.async.TAsyncClientManager;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TNonblockingSocket;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.cassandra.CassandraCredentialsConfig;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * Non-blocking Thrift connections to the Cassandra cluster, so that requests can be fanned out across hosts without
+ * holding a thread per in-flight request.
+ *
+ * All connections share a single selector thread. A Thrift async client can only have one call in flight, so each
+ * host gets up to {@link CassandraKeyValueServiceConfig#maxConcurrentAsyncRequestsPerHost()} connections; further
+ * requests to that host wait in a queue and are started as earlier ones complete, which makes this the per-host
+ * concurrency limit. Connections are opened lazily, and log in and select the keyspace before their first request.
+ *
+ * The returned futures are completed on the selector thread, so callers should wait on them rather than attach
+ * expensive work to them. SSL is not supported, since Thrift's non-blocking transport cannot do SSL.
+ */
+@ThreadSafe
+public final class CassandraAsyncClientPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CassandraAsyncClientPool.class);
+
+    /**
+     * A pooled connection that has been idle may have been closed by the server, so a request that fails at the
+     * transport level is retried once on a new connection.
+     */
+    private static final int MAX_ATTEMPTS = 2;
+
+    @FunctionalInterface
+    public interface AsyncCall<C> {
+        void start(Cassandra.AsyncClient client, AsyncMethodCallback<C> callback) throws TException;
+    }
+
+    @FunctionalInterface
+    public interface ResultGetter<C, V> {
+        V getResult(C completedCall) throws Exception;
+    }
+
+    private final CassandraKeyValueServiceConfig config;
+    private final TAsyncClientManager clientManager;
+    private final TBinaryProtocol.Factory protocolFactory = new TBinaryProtocol.Factory();
+    private final Map<InetSocketAddress, HostPool> hostPools = new ConcurrentHashMap<>();
+    private final Set<PendingCall<?, ?>> outstandingCalls = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean closed = false;
+
+    private CassandraAsyncClientPool(CassandraKeyValueServiceConfig config, TAsyncClientManager clientManager) {
+        this.config = config;
+        this.clientManager = clientManager;
+    }
+
+    public static CassandraAsyncClientPool create(CassandraKeyValueServiceConfig config) {
+        Preconditions.checkArgument(!config.usingSsl(),
+                "The asynchronous Cassandra transport does not support SSL");
+        try {
+            return new CassandraAsyncClientPool(config, new TAsyncClientManager());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the asynchronous Cassandra client manager", e);
+        }
+    }
+
+    /**
+     * Issues a Thrift call against the given host, e.g.
+     * {@code submit(host, (client, callback) -> client.multiget_slice(..., callback), multiget_slice_call::getResult)}.
+     */
+    public <C, V> CompletableFuture<V> submit(
+            InetSocketAddress host,
+            AsyncCall<C> call,
+            ResultGetter<C, V> resultGetter) {
+        PendingCall<C, V> pendingCall = new PendingCall<>(call, resultGetter);
+        if (closed) {
+            pendingCall.future.completeExceptionally(closedException());
+            return pendingCall.future;
+        }
+        outstandingCalls.add(pendingCall);
+        pendingCall.future.whenComplete((result, throwable) -> outstandingCalls.remove(pendingCall));
+        hostPools.computeIfAbsent(host, HostPool::new).submit(pendingCall);
+        return pendingCall.future;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        clientManager.stop();
+        for (HostPool hostPool : hostPools.values()) {
+            hostPool.closeConnections();
+        }
+        for (PendingCall<?, ?> pendingCall : outstandingCalls) {
+            pendingCall.future.completeExceptionally(closedException());
+        }
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("The asynchronous Cassandra client pool has been closed");
+    }
+
+    private static boolean isTransportFailure(Exception exception) {
+        return exception instanceof IOException || exception instanceof TTransportException;
+    }
+
+    private final class HostPool {
+        private final InetSocketAddress host;
+
+        @GuardedBy("this")
+        private final Set<Connection> openConnections = Sets.newHashSet();
+        @GuardedBy("this")
+        private final Deque<Connection> idleConnections = new ArrayDeque<>();
+        @GuardedBy("this")
+        private final Queue<PendingCall<?, ?>> waitingCalls = new ArrayDeque<>();
+        @GuardedBy("this")
+        private int activeCalls = 0;
+
+        HostPool(InetSocketAddress host) {
+            this.host = host;
+        }
+
+        void submit(PendingCall<?, ?> pendingCall) {
+            Connection connection;
+            synchronized (this) {
+                if (activeCalls >= config.maxConcurrentAsyncRequestsPerHost()) {
+                    waitingCalls.add(pendingCall);
+                    return;
+                }
+                activeCalls++;
+                connection = idleConnections.pollFirst();
+            }
+            dispatch(connection, pendingCall);
+        }
+
+        /**
+         * Hands the connection slot of a finished call to the next waiting call, if any. A null connection means
+         * the finished call's connection was broken and has been closed.
+         */
+        void release(@Nullable Connection connection) {
+            PendingCall<?, ?> next;
+            synchronized (this) {
+                next = pollLiveWaitingCall();
+                if (next == null) {
+                    activeCalls--;
+                    if (connection != null) {
+                        idleConnections.addFirst(connection);
+                    }
+                    return;
+                }
+            }
+            dispatch(connection, next);
+        }
+
+        synchronized void closeConnections() {
+            for (Connection connection : ImmutableList.copyOf(openConnections)) {
+                connection.close();
+            }
+            idleConnections.clear();
+        }
+
+        @GuardedBy("this")
+        private PendingCall<?, ?> pollLiveWaitingCall() {
+            PendingCall<?, ?> next = waitingCalls.poll();
+            while (next != null && next.future.isDone()) {
+                // Cancelled, or failed because the pool was closed.
+                next = waitingCalls.poll();
+            }
+            return next;
+        }
+
+        private void dispatch(@Nullable Connection idleConnection, PendingCall<?, ?> pendingCall) {
+            if (closed) {
+                pendingCall.future.completeExceptionally(closedException());
+                release(idleConnection);
+                return;
+            }
+            Connection connection;
+            try {
+                connection = idleConnection != null ? idleConnection : new Connection(this);
+            } catch (IOException e) {
+                pendingCall.future.completeExceptionally(e);
+                release(null);
+                return;
+            }
+            connection.run(pendingCall);
+        }
+    }
+
+    private final class Connection {
+        private final HostPool hostPool;
+        private final TNonblockingSocket socket;
+        private final Cassandra.AsyncClient client;
+        private boolean loggedIn;
+        private boolean keyspaceSet = false;
+
+        Connection(HostPool hostPool) throws IOException {
+            this.hostPool = hostPool;
+            this.socket = new TNonblockingSocket(
+                    hostPool.host.getHostString(),
+                    hostPool.host.getPort(),
+                    config.socketTimeoutMillis());
+            this.client = new Cassandra.AsyncClient(protocolFactory, clientManager, socket);
+            this.client.setTimeout(config.socketQueryTimeoutMillis());
+            this.loggedIn = !config.credentials().isPresent();
+            synchronized (hostPool) {
+                hostPool.openConnections.add(this);
+            }
+        }
+
+        /**
+         * Runs the call once the connection is set up. Only one call (including the set up calls) is ever in flight
+         * on a connection, and each step is started from the completion callback of the one before.
+         */
+        void run(PendingCall<?, ?> pendingCall) {
+            try {
+                if (!loggedIn) {
+                    CassandraCredentialsConfig credentials = config.credentials().get();
+                    AuthenticationRequest request = new AuthenticationRequest(ImmutableMap.of(
+                            "username", credentials.username(),
+                            "password", credentials.password()));
+                    client.login(request, new SetupCallback<Cassandra.AsyncClient.login_call>(pendingCall) {
+                        @Override
+                        void onSuccess(Cassandra.AsyncClient.login_call response) throws TException {
+                            response.getResult();
+                            loggedIn = true;
+                        }
+                    });
+                } else if (!keyspaceSet) {
+                    client.set_keyspace(config.getKeyspaceOrThrow(),
+                            new SetupCallback<Cassandra.AsyncClient.set_keyspace_call>(pendingCall) {
+                                @Override
+                                void onSuccess(Cassandra.AsyncClient.set_keyspace_call response) throws TException {
+                                    response.getResult();
+                                    keyspaceSet = true;
+                                }
+                            });
+                } else {
+                    pendingCall.startOn(this);
+                }
+            } catch (Exception e) {
+                fail(pendingCall, e);
+            }
+        }
+
+        void succeed() {
+            hostPool.release(this);
+        }
+
+        void fail(PendingCall<?, ?> pendingCall, Exception exception) {
+            close();
+            hostPool.release(null);
+            if (isTransportFailure(exception) && ++pendingCall.attempts < MAX_ATTEMPTS && !closed) {
+                log.debug("Retrying a Cassandra call to {} on a new connection after a transport failure",
+                        SafeArg.of("host", CassandraLogHelper.host(hostPool.host)), exception);
+                hostPool.submit(pendingCall);
+            } else {
+                pendingCall.future.completeExceptionally(exception);
+            }
+        }
+
+        void close() {
+            socket.close();
+            synchronized (hostPool) {
+                hostPool.openConnections.remove(this);
+            }
+        }
+
+        private abstract class SetupCallback<T> implements AsyncMethodCallback<T> {
+            private final PendingCall<?, ?> pendingCall;
+
+            SetupCallback(PendingCall<?, ?> pendingCall) {
+                this.pendingCall = pendingCall;
+            }
+
+            abstract void onSuccess(T response) throws TException;
+
+            @Override
+            public void onComplete(T response) {
+                try {
+                    onSuccess(response);
+                } catch (Exception e) {
+                    fail(pendingCall, e);
+                    return;
+                }
+                run(pendingCall);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                fail(pendingCall, exception);
+            }
+        }
+    }
+
+    private static final class PendingCall<C, V> {
+        private final AsyncCall<C> call;
+        private final ResultGetter<C, V> resultGetter;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private int attempts = 0;
+
+        PendingCall(AsyncCall<C> call, ResultGetter<C, V> resultGetter) {
+            this.call = call;
+            this.resultGetter = resultGetter;
+        }
+
+        void startOn(Connection connection) throws TException {
+            call.start(connection.client, new AsyncMethodCallback<C>() {
+                @Override
+                public void onComplete(C response) {
+                    // The connection is free again as soon as the response has been read, whatever it says.
+                    connection.succeed();
+                    try {
+                        future.complete(resultGetter.getResult(response));
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    connection.fail(PendingCall.this, exception);
+                }
+            });
+        }
+    }
+}
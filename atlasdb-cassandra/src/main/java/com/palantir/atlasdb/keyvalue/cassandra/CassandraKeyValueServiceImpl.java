@@ -32,6 +32,8 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -41,6 +43,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.cassandra.thrift.CASResult;
+import org.apache.cassandra.thrift.Cassandra;
 import org.apache.cassandra.thrift.Cassandra.Client;
 import org.apache.cassandra.thrift.CfDef;
 import org.apache.cassandra.thrift.Column;
@@ -120,7 +123,6 @@ import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates.Limit;
 import com.palantir.atlasdb.keyvalue.cassandra.thrift.SlicePredicates.Range;
 import com.palantir.atlasdb.keyvalue.impl.AbstractKeyValueService;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
-import com.palantir.atlasdb.keyvalue.impl.GetCandidateCellsForSweepingShim;
 import com.palantir.atlasdb.keyvalue.impl.KeyValueServices;
 import com.palantir.atlasdb.keyvalue.impl.LocalRowColumnRangeIterator;
 import com.palantir.atlasdb.logging.LoggingArgs;
@@ -201,6 +203,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
 
     private final Optional<CassandraJmxCompactionManager> compactionManager;
     private final CassandraClientPool clientPool;
+    private final Optional<CassandraAsyncClientPool> asyncClientPool;
 
     private SchemaMutationLock schemaMutationLock;
     private final Optional<LeaderConfig> leaderConfig;
@@ -214,6 +217,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     private final ConsistencyLevel deleteConsistency = ConsistencyLevel.ALL;
 
     private final TracingQueryRunner queryRunner;
+    private final ThriftPreparedStatementCache preparedStatementCache;
     private final CassandraTables cassandraTables;
 
     private final InitializingWrapper wrapper = new InitializingWrapper();
@@ -262,6 +266,9 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         this.log = log;
         this.configManager = configManager;
         this.clientPool = CassandraClientPoolImpl.create(configManager.getConfig(), initializeAsync);
+        this.asyncClientPool = configManager.getConfig().asyncTransport()
+                ? Optional.of(CassandraAsyncClientPool.create(configManager.getConfig()))
+                : Optional.empty();
         this.compactionManager = compactionManager;
         this.leaderConfig = leaderConfig;
         this.hiddenTables = new HiddenTables();
@@ -270,6 +277,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         this.schemaMutationLockTable = new UniqueSchemaMutationLockTable(lockTables, whoIsTheLockCreator());
 
         this.queryRunner = new TracingQueryRunner(log, tracingPrefs);
+        this.preparedStatementCache = new ThriftPreparedStatementCache();
         this.cassandraTables = new CassandraTables(clientPool, configManager);
     }
 
@@ -447,6 +455,9 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         if (!selection.allColumnsSelected()) {
             return getRowsForSpecificColumns(tableRef, rows, selection, startTs);
         }
+        if (useAsyncTransport(ImmutableSet.of(tableRef))) {
+            return getRowsWithAsyncTransport(tableRef, rows, startTs);
+        }
 
         Set<Entry<InetSocketAddress, List<byte[]>>> rowsByHost = partitionByHost(rows, Functions.identity()).entrySet();
         List<Callable<Map<Cell, Value>>> tasks = Lists.newArrayListWithCapacity(rowsByHost.size());
@@ -516,6 +527,28 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    private Map<Cell, Value> getRowsWithAsyncTransport(TableReference tableRef, Iterable<byte[]> rows, long startTs) {
+        // We want to get all the columns in the row so set start and end to empty.
+        SlicePredicate pred = SlicePredicates.create(Range.ALL, Limit.NO_LIMIT);
+        ColumnParent colFam = new ColumnParent(internalTableName(tableRef));
+        int fetchBatchCount = configManager.getConfig().fetchBatchCount();
+
+        List<InFlightRequest<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> requests = Lists.newArrayList();
+        for (Map.Entry<InetSocketAddress, List<byte[]>> hostAndRows
+                : partitionByHost(rows, Functions.identity()).entrySet()) {
+            for (List<byte[]> batch : Lists.partition(hostAndRows.getValue(), fetchBatchCount)) {
+                requests.add(startMultiget(hostAndRows.getKey(), tableRef, wrap(batch), colFam, pred, readConsistency));
+            }
+        }
+
+        Map<Cell, Value> result = Maps.newHashMapWithExpectedSize(Iterables.size(rows));
+        ValueExtractor extractor = new ValueExtractor(result);
+        for (Map<ByteBuffer, List<ColumnOrSuperColumn>> results : awaitAll(requests)) {
+            extractor.extractResults(results, startTs, ColumnSelection.all());
+        }
+        return result;
+    }
+
     private List<ByteBuffer> wrap(List<byte[]> arrays) {
         List<ByteBuffer> byteBuffers = Lists.newArrayListWithCapacity(arrays.size());
         for (byte[] r : arrays) {
@@ -606,6 +639,11 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                     SafeArg.of("totalPartitions", totalPartitions));
         }
 
+        if (useAsyncTransport(ImmutableSet.of(tableRef))) {
+            loadWithTsWithAsyncTransport(tableRef, hostsAndCells, startTs, loadAllTs, visitor, consistency);
+            return;
+        }
+
         List<Callable<Void>> tasks = Lists.newArrayList();
         for (Map.Entry<InetSocketAddress, List<Cell>> hostAndCells : hostsAndCells.entrySet()) {
             if (log.isTraceEnabled()) {
@@ -637,25 +675,10 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
                                                                  final ThreadSafeResultVisitor visitor,
                                                                  final ConsistencyLevel consistency) {
         final ColumnParent colFam = new ColumnParent(internalTableName(tableRef));
-        Multimap<byte[], Cell> cellsByCol =
-                TreeMultimap.create(UnsignedBytes.lexicographicalComparator(), Ordering.natural());
-        for (Cell cell : cells) {
-            cellsByCol.put(cell.getColumnName(), cell);
-        }
         List<Callable<Void>> tasks = Lists.newArrayList();
-        int fetchBatchCount = configManager.getConfig().fetchBatchCount();
-        for (Entry<byte[], Collection<Cell>> entry : Multimaps.asMap(cellsByCol).entrySet()) {
+        for (Entry<byte[], List<List<Cell>>> entry : batchCellsByColumn(host, tableRef, cells).entrySet()) {
             final byte[] col = entry.getKey();
-            Collection<Cell> columnCells = entry.getValue();
-            if (columnCells.size() > fetchBatchCount) {
-                log.warn("Re-batching in getLoadWithTsTasksForSingleHost a call to {} for table {} that attempted to "
-                                + "multiget {} rows; this may indicate overly-large batching on a higher level.\n{}",
-                        SafeArg.of("host", CassandraLogHelper.host(host)),
-                        LoggingArgs.tableRef(tableRef),
-                        SafeArg.of("rows", columnCells.size()),
-                        SafeArg.of("stacktrace", CassandraKeyValueServices.getFilteredStackTrace("com.palantir")));
-            }
-            for (final List<Cell> partition : Lists.partition(ImmutableList.copyOf(columnCells), fetchBatchCount)) {
+            for (final List<Cell> partition : entry.getValue()) {
                 Callable<Void> multiGetCallable = () -> clientPool.runWithRetryOnHost(host,
                         new FunctionCheckedException<Client, Void, Exception>() {
                             @Override
@@ -699,6 +722,65 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         return tasks;
     }
 
+    private void loadWithTsWithAsyncTransport(TableReference tableRef,
+                                              Map<InetSocketAddress, List<Cell>> hostsAndCells,
+                                              long startTs,
+                                              boolean loadAllTs,
+                                              ThreadSafeResultVisitor visitor,
+                                              ConsistencyLevel consistency) {
+        ColumnParent colFam = new ColumnParent(internalTableName(tableRef));
+        Limit limit = loadAllTs ? Limit.NO_LIMIT : Limit.ONE;
+
+        List<InFlightRequest<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> requests = Lists.newArrayList();
+        for (Map.Entry<InetSocketAddress, List<Cell>> hostAndCells : hostsAndCells.entrySet()) {
+            InetSocketAddress host = hostAndCells.getKey();
+            for (Entry<byte[], List<List<Cell>>> entry
+                    : batchCellsByColumn(host, tableRef, hostAndCells.getValue()).entrySet()) {
+                SlicePredicate predicate = SlicePredicates.create(Range.singleColumn(entry.getKey(), startTs), limit);
+                for (List<Cell> partition : entry.getValue()) {
+                    List<ByteBuffer> rowNames = Lists.newArrayListWithCapacity(partition.size());
+                    for (Cell c : partition) {
+                        rowNames.add(ByteBuffer.wrap(c.getRowName()));
+                    }
+                    requests.add(startMultiget(host, tableRef, rowNames, colFam, predicate, consistency));
+                }
+            }
+        }
+
+        for (Map<ByteBuffer, List<ColumnOrSuperColumn>> results : awaitAll(requests)) {
+            visitor.visit(results);
+        }
+    }
+
+    /**
+     * Groups the cells by column, since a multiget slice selects the same columns in every row, and splits each
+     * group into batches of at most {@link CassandraKeyValueServiceConfig#fetchBatchCount()} cells.
+     */
+    private Map<byte[], List<List<Cell>>> batchCellsByColumn(InetSocketAddress host,
+                                                           TableReference tableRef,
+                                                           Collection<Cell> cells) {
+        Multimap<byte[], Cell> cellsByCol =
+                TreeMultimap.create(UnsignedBytes.lexicographicalComparator(), Ordering.natural());
+        for (Cell cell : cells) {
+            cellsByCol.put(cell.getColumnName(), cell);
+        }
+        Map<byte[], List<List<Cell>>> batchesByCol = new LinkedHashMap<>();
+        int fetchBatchCount = configManager.getConfig().fetchBatchCount();
+        for (Entry<byte[], Collection<Cell>> entry : Multimaps.asMap(cellsByCol).entrySet()) {
+            Collection<Cell> columnCells = entry.getValue();
+            if (columnCells.size() > fetchBatchCount) {
+                log.warn("Re-batching in getLoadWithTsTasksForSingleHost a call to {} for table {} that attempted to "
+                                + "multiget {} rows; this may indicate overly-large batching on a higher level.\n{}",
+                        SafeArg.of("host", CassandraLogHelper.host(host)),
+                        LoggingArgs.tableRef(tableRef),
+                        SafeArg.of("rows", columnCells.size()),
+                        SafeArg.of("stacktrace", CassandraKeyValueServices.getFilteredStackTrace("com.palantir")));
+            }
+            batchesByCol.put(entry.getKey(), Lists.partition(ImmutableList.copyOf(columnCells), fetchBatchCount));
+        }
+        return batchesByCol;
+    }
+
     /**
      * Gets values from the key-value store for the specified rows and column range
      * as separate iterators for each row.
@@ -1100,6 +1182,15 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         Map<InetSocketAddress, List<TableCellAndValue>> partitionedByHost =
                 partitionByHost(flattened, TableCellAndValue.EXTRACT_ROW_NAME_FUNCTION);
 
+        if (useAsyncTransport(valuesByTable.keySet())) {
+            List<InFlightRequest<Void>> requests = Lists.newArrayList();
+            for (Map.Entry<InetSocketAddress, List<TableCellAndValue>> entry : partitionedByHost.entrySet()) {
+                requests.addAll(startMultiPutForSingleHost(entry.getKey(), entry.getValue(), timestamp));
+            }
+            awaitAll(requests);
+            return;
+        }
+
         List<Callable<Void>> callables = Lists.newArrayList();
         for (Map.Entry<InetSocketAddress, List<TableCellAndValue>> entry : partitionedByHost.entrySet()) {
             callables.addAll(getMultiPutTasksForSingleHost(entry.getKey(), entry.getValue(), timestamp));
@@ -1127,6 +1218,31 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         return tasks;
     }
 
+    private List<InFlightRequest<Void>> startMultiPutForSingleHost(InetSocketAddress host,
+                                                                   Collection<TableCellAndValue> values,
+                                                                   long timestamp) {
+        Iterable<List<TableCellAndValue>> partitioned =
+                partitionByCountAndBytes(values,
+                        getMultiPutBatchCount(),
+                        getMultiPutBatchSizeBytes(),
+                        extractTableNames(values).toString(),
+                        TableCellAndValue.SIZING_FUNCTION);
+        List<InFlightRequest<Void>> requests = Lists.newArrayList();
+        for (List<TableCellAndValue> batch : partitioned) {
+            Set<TableReference> tableRefs = extractTableNames(batch);
+            Map<ByteBuffer, Map<String, List<Mutation>>> map = convertToMutations(batch, timestamp);
+            CompletableFuture<Void> future = asyncClientPool.get().submit(host,
+                    (client, callback) -> client.batch_mutate(map, writeConsistency, callback),
+                    (Cassandra.AsyncClient.batch_mutate_call call) -> {
+                        call.getResult();
+                        return null;
+                    });
+            requests.add(new InFlightRequest<>(host, future,
+                    () -> multiPutForSingleHostInternal(host, tableRefs, batch, timestamp)));
+        }
+        return requests;
+    }
+
     private Set<TableReference> extractTableNames(Iterable<TableCellAndValue> tableCellAndValues) {
         Set<TableReference> tableRefs = Sets.newHashSet();
         for (TableCellAndValue tableCellAndValue : tableCellAndValues) {
@@ -1219,6 +1335,30 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         });
     }
 
+    private InFlightRequest<Map<ByteBuffer, List<ColumnOrSuperColumn>>> startMultiget(
+            InetSocketAddress host,
+            TableReference tableRef,
+            List<ByteBuffer> rowNames,
+            ColumnParent colFam,
+            SlicePredicate pred,
+            ConsistencyLevel consistency) {
+        CompletableFuture<Map<ByteBuffer, List<ColumnOrSuperColumn>>> future = asyncClientPool.get().submit(host,
+                (client, callback) -> client.multiget_slice(rowNames, colFam, pred, consistency, callback),
+                Cassandra.AsyncClient.multiget_slice_call::getResult);
+        return new InFlightRequest<>(host, future, () -> clientPool.runWithRetryOnHost(host,
+                new FunctionCheckedException<Client, Map<ByteBuffer, List<ColumnOrSuperColumn>>, Exception>() {
+                    @Override
+                    public Map<ByteBuffer, List<ColumnOrSuperColumn>> apply(Client client) throws Exception {
+                        return multigetInternal(client, tableRef, rowNames, colFam, pred, consistency);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "multiget_slice(" + host + ", " + colFam + ", " + rowNames.size() + " rows" + ")";
+                    }
+                }));
+    }
+
     private Map<ByteBuffer, List<ColumnOrSuperColumn>> multigetInternal(
             Client client,
             TableReference tableRef,
@@ -1475,7 +1615,15 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
     @Override
     public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(TableReference tableRef,
             CandidateCellForSweepingRequest request) {
-        return new GetCandidateCellsForSweepingShim(this).getCandidateCellsForSweeping(tableRef, request);
+        // Like getRangeOfTimestamps, read with the delete consistency so that no version is missed.
+        RowGetter rowGetter = new RowGetter(clientPool, asyncClientPool, queryRunner, deleteConsistency, tableRef);
+        CqlExecutor cqlExecutor = new CqlExecutor(clientPool, preparedStatementCache, deleteConsistency);
+        return ClosableIterators.wrap(new CandidateCellsForSweepingIterator(
+                rowGetter,
+                cqlExecutor,
+                tableRef,
+                request,
+                configManager.getConfig().timestampsGetterBatchSize()));
     }
 
     private ClosableIterator<RowResult<Set<Long>>> getTimestampsInBatchesWithPageCreator(
@@ -1485,9 +1633,9 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             long timestamp,
             ConsistencyLevel consistency) {
         SlicePredicate predicate = SlicePredicates.create(Range.ALL, Limit.ONE);
-        RowGetter rowGetter = new RowGetter(clientPool, queryRunner, consistency, tableRef);
+        RowGetter rowGetter = new RowGetter(clientPool, asyncClientPool, queryRunner, consistency, tableRef);
 
-        CqlExecutor cqlExecutor = new CqlExecutor(clientPool, consistency);
+        CqlExecutor cqlExecutor = new CqlExecutor(clientPool, preparedStatementCache, consistency);
         ColumnGetter columnGetter = new CqlColumnGetter(cqlExecutor, tableRef, columnBatchSize);
 
         return getRangeWithPageCreator(rowGetter, predicate, columnGetter, rangeRequest, TimestampExtractor::new,
@@ -1509,7 +1657,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
             // each column. note that if no columns are specified, it's a special case that means all columns
             predicate = SlicePredicates.create(Range.ALL, Limit.NO_LIMIT);
         }
-        RowGetter rowGetter = new RowGetter(clientPool, queryRunner, consistency, tableRef);
+        RowGetter rowGetter = new RowGetter(clientPool, asyncClientPool, queryRunner, consistency, tableRef);
         ColumnGetter columnGetter = new ThriftColumnGetter();
 
         return getRangeWithPageCreator(rowGetter, predicate, columnGetter, rangeRequest, resultsExtractor, startTs);
@@ -2039,6 +2187,7 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
      */
     @Override
     public void close() {
+        asyncClientPool.ifPresent(CassandraAsyncClientPool::close);
         clientPool.shutdown();
         if (compactionManager.isPresent()) {
             compactionManager.get().close();
@@ -2461,6 +2610,57 @@ public class CassandraKeyValueServiceImpl extends AbstractKeyValueService implem
         }
     }
 
+    /**
+     * Tracing needs a call on the same connection before the traced query, which only the pooled clients support.
+     */
+    private boolean useAsyncTransport(Set<TableReference> tableRefs) {
+        return asyncClientPool.isPresent() && !queryRunner.shouldTraceQuery(tableRefs);
+    }
+
+    /*
+     * Waits for requests issued through the asynchronous transport. A request that failed is retried in the caller's
+     * thread on the pooled clients, which blacklist unresponsive hosts and retry on other hosts.
+     */
+    private <V> List<V> awaitAll(List<InFlightRequest<V>> requests) {
+        try {
+            //Requests for Void return null, so can't use immutable list
+            List<V> results = Lists.newArrayListWithCapacity(requests.size());
+            for (InFlightRequest<V> request : requests) {
+                results.add(await(request));
+            }
+            return results;
+        } catch (Exception e) {
+            throw Throwables.unwrapAndThrowUncheckedException(e);
+        } finally {
+            for (InFlightRequest<V> request : requests) {
+                request.future.cancel(false);
+            }
+        }
+    }
+
+    private <V> V await(InFlightRequest<V> request) throws Exception {
+        try {
+            return request.future.get();
+        } catch (ExecutionException e) {
+            log.warn("Asynchronous request to {} failed, retrying it on the pooled clients",
+                    SafeArg.of("host", CassandraLogHelper.host(request.host)),
+                    e.getCause());
+            return request.fallback.call();
+        }
+    }
+
+    private static final class InFlightRequest<V> {
+        private final InetSocketAddress host;
+        private final CompletableFuture<V> future;
+        private final Callable<V> fallback;
+
+        InFlightRequest(InetSocketAddress host, CompletableFuture<V> future, Callable<V> fallback) {
+            this.host = host;
+            this.future = future;
+            this.fallback = fallback;
+        }
+    }
+
     private static class TableCellAndValue {
         private static final Function<TableCellAndValue, byte[]> EXTRACT_ROW_NAME_FUNCTION =
                 input -> input.cell.getRowName();
@@ -19,12 +19,11 @@ package com.palantir.atlasdb.keyvalue.cassandra;
 
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.cassandra.thrift.Cassandra;
-import org.apache.cassandra.thrift.Compression;
 import org.apache.cassandra.thrift.ConsistencyLevel;
 import org.apache.cassandra.thrift.CqlResult;
 import org.apache.cassandra.thrift.CqlRow;
@@ -32,6 +31,7 @@ import org.apache.thrift.TException;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
+import com.google.common.primitives.Ints;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
@@ -47,11 +47,12 @@ public class CqlExecutor {
     private QueryExecutor queryExecutor;
 
     public interface QueryExecutor {
-        CqlResult execute(byte[] row, String query);
+        CqlResult execute(byte[] row, String query, List<ByteBuffer> values);
     }
 
-    CqlExecutor(CassandraClientPool clientPool, ConsistencyLevel consistency) {
-        this.queryExecutor = new QueryExecutorImpl(clientPool, consistency);
+    CqlExecutor(CassandraClientPool clientPool, ThriftPreparedStatementCache statementCache,
+            ConsistencyLevel consistency) {
+        this.queryExecutor = new QueryExecutorImpl(clientPool, statementCache, consistency);
     }
 
     @VisibleForTesting
@@ -66,12 +67,58 @@ public class CqlExecutor {
      * @return up to <code>limit</code> cells that match the row name
      */
     List<CellWithTimestamp> getColumnsForRow(TableReference tableRef, byte[] row, int limit) {
+        return getCells(row, getVersionsForRow(tableRef, row, false, limit));
+    }
+
+    /**
+     * @param tableRef the table from which to select
+     * @param row the row key
+     * @param column the column name
+     * @param maxTimestampExclusive the maximum timestamp, exclusive
+     * @param limit the maximum number of results to return.
+     * @return up to <code>limit</code> cells that exactly match the row and column name, and have a timestamp less than
+     * <code>maxTimestampExclusive</code>
+     */
+    List<CellWithTimestamp> getTimestampsForRowAndColumn(
+            TableReference tableRef,
+            byte[] row,
+            byte[] column,
+            long maxTimestampExclusive,
+            int limit) {
+        return getCells(row, getOlderVersionsOfColumn(tableRef, row, column, maxTimestampExclusive, false, limit));
+    }
+
+    /**
+     * @param tableRef the table from which to select
+     * @param row the row key
+     * @param previousColumn the lexicographic lower bound (exclusive) for the column name
+     * @param limit the maximum number of results to return.
+     * @return up to <code>limit</code> results where the column name is lexicographically later than the supplied
+     * <code>previousColumn</code>. Note that this can return results from multiple columns
+     */
+    List<CellWithTimestamp> getNextColumnsForRow(
+            TableReference tableRef,
+            byte[] row,
+            byte[] previousColumn,
+            int limit) {
+        return getCells(row, getVersionsOfNextColumns(tableRef, row, previousColumn, false, limit));
+    }
+
+    /**
+     * @param tableRef the table from which to select
+     * @param row the row key
+     * @param withValues whether to select the values as well as the column names and timestamps
+     * @param limit the maximum number of results to return.
+     * @return up to <code>limit</code> versions of cells in the row, ordered by column name and then from the newest
+     * timestamp to the oldest
+     */
+    List<CqlRow> getVersionsForRow(TableReference tableRef, byte[] row, boolean withValues, int limit) {
         CqlQuery query = new CqlQuery(
-                "SELECT column1, column2 FROM %s WHERE key = %s LIMIT %s;",
+                "SELECT " + selection(withValues) + " FROM %s WHERE key = ? LIMIT ?;",
                 quotedTableName(tableRef),
                 key(row),
                 limit(limit));
-        return query.executeAndGetCells(row);
+        return query.execute(row);
     }
 
     /**
@@ -79,63 +126,96 @@ public class CqlExecutor {
      * @param row the row key
      * @param column the column name
      * @param maxTimestampExclusive the maximum timestamp, exclusive
+     * @param withValues whether to select the values as well as the column names and timestamps
      * @param limit the maximum number of results to return.
-     * @return up to <code>limit</code> cells that exactly match the row and column name, and have a timestamp less than
-     * <code>maxTimestampExclusive</code>
+     * @return up to <code>limit</code> versions of the cell with a timestamp less than
+     * <code>maxTimestampExclusive</code>, from the newest to the oldest
      */
-    List<CellWithTimestamp> getTimestampsForRowAndColumn(
+    List<CqlRow> getOlderVersionsOfColumn(
             TableReference tableRef,
             byte[] row,
             byte[] column,
             long maxTimestampExclusive,
+            boolean withValues,
             int limit) {
         long invertedTimestamp = ~maxTimestampExclusive;
         CqlQuery query = new CqlQuery(
-                "SELECT column1, column2 FROM %s WHERE key = %s AND column1 = %s AND column2 > %s LIMIT %s;",
+                "SELECT " + selection(withValues)
+                        + " FROM %s WHERE key = ? AND column1 = ? AND column2 > ? LIMIT ?;",
                 quotedTableName(tableRef),
                 key(row),
                 column1(column),
                 column2(invertedTimestamp),
                 limit(limit));
-        return query.executeAndGetCells(row);
+        return query.execute(row);
     }
 
     /**
      * @param tableRef the table from which to select
      * @param row the row key
      * @param previousColumn the lexicographic lower bound (exclusive) for the column name
+     * @param withValues whether to select the values as well as the column names and timestamps
      * @param limit the maximum number of results to return.
-     * @return up to <code>limit</code> results where the column name is lexicographically later than the supplied
-     * <code>previousColumn</code>. Note that this can return results from multiple columns
+     * @return up to <code>limit</code> versions of cells in the row whose column name is lexicographically later
+     * than the supplied <code>previousColumn</code>, in the same order as {@link #getVersionsForRow}
      */
-    List<CellWithTimestamp> getNextColumnsForRow(
+    List<CqlRow> getVersionsOfNextColumns(
             TableReference tableRef,
             byte[] row,
             byte[] previousColumn,
+            boolean withValues,
             int limit) {
         CqlQuery query = new CqlQuery(
-                "SELECT column1, column2 FROM %s WHERE key = %s AND column1 > %s LIMIT %s;",
+                "SELECT " + selection(withValues) + " FROM %s WHERE key = ? AND column1 > ? LIMIT ?;",
                 quotedTableName(tableRef),
                 key(row),
                 column1(previousColumn),
                 limit(limit));
-        return query.executeAndGetCells(row);
+        return query.execute(row);
+    }
+
+    static byte[] getColumnName(CqlRow cqlRow) {
+        return cqlRow.getColumns().get(0).getValue();
     }
 
-    private Arg<String> key(byte[] row) {
-        return UnsafeArg.of("key", CassandraKeyValueServices.encodeAsHex(row));
+    static long getTimestamp(CqlRow cqlRow) {
+        byte[] flippedTimestampAsBytes = cqlRow.getColumns().get(1).getValue();
+        return ~PtBytes.toLong(flippedTimestampAsBytes);
     }
 
-    private Arg<String> column1(byte[] column) {
-        return UnsafeArg.of("column1", CassandraKeyValueServices.encodeAsHex(column));
+    /**
+     * Only available for rows selected with values.
+     */
+    static byte[] getValue(CqlRow cqlRow) {
+        return cqlRow.getColumns().get(2).getValue();
     }
 
-    private Arg<Long> column2(long invertedTimestamp) {
-        return SafeArg.of("column2", invertedTimestamp);
+    private static String selection(boolean withValues) {
+        return withValues ? "column1, column2, value" : "column1, column2";
     }
 
-    private Arg<Long> limit(long limit) {
-        return SafeArg.of("limit", limit);
+    private BoundValue key(byte[] row) {
+        return new BoundValue(
+                UnsafeArg.of("key", CassandraKeyValueServices.encodeAsHex(row)),
+                ByteBuffer.wrap(row));
+    }
+
+    private BoundValue column1(byte[] column) {
+        return new BoundValue(
+                UnsafeArg.of("column1", CassandraKeyValueServices.encodeAsHex(column)),
+                ByteBuffer.wrap(column));
+    }
+
+    private BoundValue column2(long invertedTimestamp) {
+        return new BoundValue(
+                SafeArg.of("column2", invertedTimestamp),
+                ByteBuffer.wrap(PtBytes.toBytes(invertedTimestamp)));
+    }
+
+    private BoundValue limit(int limit) {
+        return new BoundValue(
+                SafeArg.of("limit", limit),
+                ByteBuffer.wrap(Ints.toByteArray(limit)));
     }
 
     private Arg<String> quotedTableName(TableReference tableRef) {
@@ -143,43 +223,66 @@ public class CqlExecutor {
         return LoggingArgs.customTableName(tableRef, tableNameWithQuotes);
     }
 
-    private List<CellWithTimestamp> getCells(byte[] key, CqlResult cqlResult) {
-        return cqlResult.getRows().stream().map(cqlRow -> getCell(key, cqlRow)).collect(Collectors.toList());
+    private List<CellWithTimestamp> getCells(byte[] key, List<CqlRow> cqlRows) {
+        return cqlRows.stream().map(cqlRow -> getCell(key, cqlRow)).collect(Collectors.toList());
     }
 
     private CellWithTimestamp getCell(byte[] key, CqlRow cqlRow) {
-        byte[] columnName = cqlRow.getColumns().get(0).getValue();
-        byte[] flippedTimestampAsBytes = cqlRow.getColumns().get(1).getValue();
-        long timestampLong = ~PtBytes.toLong(flippedTimestampAsBytes);
+        return new CellWithTimestamp.Builder()
+                .cell(Cell.create(key, getColumnName(cqlRow)))
+                .timestamp(getTimestamp(cqlRow))
+                .build();
+    }
 
-        return new CellWithTimestamp.Builder().cell(Cell.create(key, columnName)).timestamp(timestampLong).build();
+    /**
+     * A value bound to a marker of a prepared query, along with how it should appear in logs.
+     */
+    private static final class BoundValue {
+        private final Arg<?> logArg;
+        private final ByteBuffer value;
+
+        BoundValue(Arg<?> logArg, ByteBuffer value) {
+            this.logArg = logArg;
+            this.value = value;
+        }
     }
 
+    /**
+     * A query whose table name is part of the query text, so that each table and query shape is prepared
+     * separately, and whose other parameters are bound to its markers.
+     */
     private final class CqlQuery {
         private final String queryFormat;
-        private final Arg<?>[] queryArgs;
+        private final Arg<String> tableName;
+        private final BoundValue[] boundValues;
 
-        CqlQuery(String queryFormat, Arg<?>... args) {
+        CqlQuery(String queryFormat, Arg<String> tableName, BoundValue... boundValues) {
             this.queryFormat = queryFormat;
-            this.queryArgs = args;
+            this.tableName = tableName;
+            this.boundValues = boundValues;
         }
 
-        public List<CellWithTimestamp> executeAndGetCells(byte[] row) {
+        public List<CqlRow> execute(byte[] row) {
+            List<ByteBuffer> values = Arrays.stream(boundValues)
+                    .map(boundValue -> boundValue.value)
+                    .collect(Collectors.toList());
             CqlResult cqlResult = KvsProfilingLogger.maybeLog(
-                    () -> queryExecutor.execute(row, toString()),
+                    () -> queryExecutor.execute(row, toString(), values),
                     this::logSlowResult,
                     this::logResultSize);
-            return getCells(row, cqlResult);
+            return cqlResult.getRows();
         }
 
         private void logSlowResult(KvsProfilingLogger.LoggingFunction log, Stopwatch timer) {
-            Object[] allArgs = new Object[queryArgs.length + 3];
+            Object[] allArgs = new Object[boundValues.length + 3];
             allArgs[0] = SafeArg.of("queryFormat", queryFormat);
-            allArgs[1] = UnsafeArg.of("fullQuery", toString());
+            allArgs[1] = tableName;
             allArgs[2] = LoggingArgs.durationMillis(timer);
-            System.arraycopy(queryArgs, 0, allArgs, 3, queryArgs.length);
+            for (int i = 0; i < boundValues.length; i++) {
+                allArgs[i + 3] = boundValues[i].logArg;
+            }
 
-            log.log("A CQL query was slow: queryFormat = [{}], fullQuery = [{}], durationMillis = {}", allArgs);
+            log.log("A CQL query was slow: queryFormat = [{}], table = [{}], durationMillis = {}", allArgs);
         }
 
         private void logResultSize(KvsProfilingLogger.LoggingFunction log, CqlResult result) {
@@ -189,43 +292,46 @@ public class CqlExecutor {
 
         @Override
         public String toString() {
-            return String.format(queryFormat, queryArgs);
+            return String.format(queryFormat, tableName.getValue());
         }
     }
 
     private static class QueryExecutorImpl implements QueryExecutor {
         private final CassandraClientPool clientPool;
+        private final ThriftPreparedStatementCache statementCache;
         private final ConsistencyLevel consistency;
 
-        QueryExecutorImpl(CassandraClientPool clientPool, ConsistencyLevel consistency) {
+        QueryExecutorImpl(CassandraClientPool clientPool, ThriftPreparedStatementCache statementCache,
+                ConsistencyLevel consistency) {
             this.clientPool = clientPool;
+            this.statementCache = statementCache;
             this.consistency = consistency;
         }
 
         @Override
-        public CqlResult execute(byte[] row, String query) {
-            return executeQueryOnHost(query, getHostForRow(row));
+        public CqlResult execute(byte[] row, String query, List<ByteBuffer> values) {
+            return executeQueryOnHost(query, values, getHostForRow(row));
         }
 
         private InetSocketAddress getHostForRow(byte[] row) {
             return clientPool.getRandomHostForKey(row);
         }
 
-        private CqlResult executeQueryOnHost(String query, InetSocketAddress host) {
+        private CqlResult executeQueryOnHost(String query, List<ByteBuffer> values, InetSocketAddress host) {
             try {
-                return clientPool.runWithRetryOnHost(host, createCqlFunction(query));
+                return clientPool.runWithRetryOnHost(host, createCqlFunction(query, values));
             } catch (TException e) {
                 throw Throwables.throwUncheckedException(e);
             }
         }
 
-        private FunctionCheckedException<Cassandra.Client, CqlResult, TException> createCqlFunction(String query) {
-            ByteBuffer queryBytes = ByteBuffer.wrap(query.getBytes(StandardCharsets.UTF_8));
-
+        private FunctionCheckedException<Cassandra.Client, CqlResult, TException> createCqlFunction(
+                String query,
+                List<ByteBuffer> values) {
             return new FunctionCheckedException<Cassandra.Client, CqlResult, TException>() {
                 @Override
                 public CqlResult apply(Cassandra.Client client) throws TException {
-                    return client.execute_cql3_query(queryBytes, Compression.NONE, consistency);
+                    return statementCache.execute(client, query, values, consistency);
                 }
 
                 @Override
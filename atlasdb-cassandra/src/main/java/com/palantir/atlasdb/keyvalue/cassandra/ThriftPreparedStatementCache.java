@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.thrift.TException;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Caches the ids of CQL statements prepared over Thrift, keyed by query text, so that each statement is parsed
+ * by Cassandra once rather than on every execution.
+ *
+ * Cassandra derives the id of a Thrift prepared statement from the query text and keyspace, so an id obtained from
+ * one node is valid on every node that has prepared the same query. A node that has not (for instance because it
+ * has restarted, or has evicted the statement) rejects the id, in which case the statement is prepared again on
+ * that node and the execution retried once.
+ */
+class ThriftPreparedStatementCache {
+    private final ConcurrentMap<String, Integer> preparedIds = Maps.newConcurrentMap();
+
+    CqlResult execute(
+            Cassandra.Client client,
+            String query,
+            List<ByteBuffer> values,
+            ConsistencyLevel consistency) throws TException {
+        Integer itemId = preparedIds.get(query);
+        if (itemId != null) {
+            try {
+                return client.execute_prepared_cql3_query(itemId, values, consistency);
+            } catch (InvalidRequestException e) {
+                // The statement may not be prepared on this node; if the query itself is invalid, preparing it
+                // again below will fail with the same exception.
+            }
+        }
+        itemId = prepare(client, query);
+        return client.execute_prepared_cql3_query(itemId, values, consistency);
+    }
+
+    private int prepare(Cassandra.Client client, String query) throws TException {
+        ByteBuffer queryBytes = ByteBuffer.wrap(query.getBytes(StandardCharsets.UTF_8));
+        int itemId = client.prepare_cql3_query(queryBytes, Compression.NONE).getItemId();
+        preparedIds.put(query, itemId);
+        return itemId;
+    }
+}
@@ -76,7 +76,7 @@ public class TracingQueryRunner {
         }
     }
 
-    private boolean shouldTraceQuery(Set<TableReference> tableRefs) {
+    public boolean shouldTraceQuery(Set<TableReference> tableRefs) {
         for (TableReference tableRef : tableRefs) {
             if (tracingPrefs.shouldTraceQuery(tableRef.getQualifiedName())) {
                 return true;
@@ -17,6 +17,8 @@ package com.palantir.atlasdb.keyvalue.cassandra.paging;
 
 import java.net.InetSocketAddress;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.cassandra.thrift.Cassandra;
 import org.apache.cassandra.thrift.ColumnParent;
@@ -25,16 +27,24 @@ import org.apache.cassandra.thrift.KeyRange;
 import org.apache.cassandra.thrift.KeySlice;
 import org.apache.cassandra.thrift.SlicePredicate;
 import org.apache.cassandra.thrift.UnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.cassandra.CassandraAsyncClientPool;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraClientPool;
 import com.palantir.atlasdb.keyvalue.cassandra.CassandraKeyValueServiceImpl;
 import com.palantir.atlasdb.keyvalue.cassandra.TracingQueryRunner;
 import com.palantir.common.base.FunctionCheckedException;
+import com.palantir.logsafe.SafeArg;
 
 public class RowGetter {
+    private static final Logger log = LoggerFactory.getLogger(RowGetter.class);
+
     private CassandraClientPool clientPool;
+    private Optional<CassandraAsyncClientPool> asyncClientPool;
     private TracingQueryRunner queryRunner;
     private ConsistencyLevel consistency;
     private TableReference tableRef;
@@ -44,7 +54,17 @@ public class RowGetter {
             TracingQueryRunner queryRunner,
             ConsistencyLevel consistency,
             TableReference tableRef) {
+        this(clientPool, Optional.empty(), queryRunner, consistency, tableRef);
+    }
+
+    public RowGetter(
+            CassandraClientPool clientPool,
+            Optional<CassandraAsyncClientPool> asyncClientPool,
+            TracingQueryRunner queryRunner,
+            ConsistencyLevel consistency,
+            TableReference tableRef) {
         this.clientPool = clientPool;
+        this.asyncClientPool = asyncClientPool;
         this.queryRunner = queryRunner;
         this.consistency = consistency;
         this.tableRef = tableRef;
@@ -53,6 +73,19 @@ public class RowGetter {
     public List<KeySlice> getRows(KeyRange keyRange, SlicePredicate slicePredicate) throws Exception {
         ColumnParent colFam = new ColumnParent(CassandraKeyValueServiceImpl.internalTableName(tableRef));
         InetSocketAddress host = clientPool.getRandomHostForKey(keyRange.getStart_key());
+        if (asyncClientPool.isPresent() && !queryRunner.shouldTraceQuery(ImmutableSet.of(tableRef))) {
+            try {
+                return asyncClientPool.get().submit(host,
+                        (client, callback) -> client.get_range_slices(
+                                colFam, slicePredicate, keyRange, consistency, callback),
+                        Cassandra.AsyncClient.get_range_slices_call::getResult).get();
+            } catch (ExecutionException e) {
+                // The pooled clients below map an unavailable exception, and retry on other hosts.
+                log.warn("Asynchronous get_range_slices to {} failed, retrying it on the pooled clients",
+                        SafeArg.of("host", host.getHostString()),
+                        e.getCause());
+            }
+        }
         return clientPool.runWithRetryOnHost(
                 host,
                 new FunctionCheckedException<Cassandra.Client, List<KeySlice>, Exception>() {
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.cassandra.thrift.Column;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.CqlRow;
+import org.apache.cassandra.thrift.KeyRange;
+import org.apache.cassandra.thrift.KeySlice;
+import org.apache.cassandra.thrift.SlicePredicate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.cassandra.paging.RowGetter;
+
+public class CandidateCellsForSweepingIteratorTest {
+    private static final TableReference TABLE_REF = TableReference.create(Namespace.create("foo"), "bar");
+    private static final int CELL_BATCH_SIZE = 2;
+
+    private final RowGetter rowGetter = mock(RowGetter.class);
+    private final List<Version> versions = Lists.newArrayList();
+    private final List<String> queries = Lists.newArrayList();
+    private final CqlExecutor cqlExecutor = new CqlExecutor(this::execute);
+
+    @Before
+    public void setUp() throws Exception {
+        when(rowGetter.getRows(any(KeyRange.class), any(SlicePredicate.class))).thenAnswer(invocation -> {
+            KeyRange keyRange = invocation.getArgumentAt(0, KeyRange.class);
+            return versions.stream()
+                    .map(version -> version.row)
+                    .distinct()
+                    .filter(row -> row.compareTo(ByteBuffer.wrap(keyRange.getStart_key())) >= 0)
+                    .sorted()
+                    .limit(keyRange.getCount())
+                    .map(row -> new KeySlice(row, ImmutableList.of()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void returnsTimestampsOfCellSpanningSeveralPagesInAscendingOrder() {
+        put("row", "col", Value.INVALID_VALUE_TIMESTAMP, "");
+        for (long ts = 1; ts <= 5; ts++) {
+            put("row", "col", ts, "value");
+        }
+
+        assertThat(getAllCandidates(conservativeRequest(5L, 10))).containsExactly(
+                candidate("row", "col", new long[] {1L, 2L, 3L, 4L}, false, 4));
+        assertThat(queries).allMatch(query -> !query.contains("value"));
+    }
+
+    @Test
+    public void checksWhetherTheLatestValueBelowTheSweepTimestampIsEmpty() {
+        put("row", "col", 1L, "value");
+        put("row", "col", 2L, "");
+        put("row", "col", 3L, "value");
+
+        assertThat(getAllCandidates(thoroughRequest(3L, 10))).containsExactly(
+                candidate("row", "col", new long[] {1L, 2L}, true, 2));
+        assertThat(getAllCandidates(thoroughRequest(4L, 10))).containsExactly(
+                candidate("row", "col", new long[] {1L, 2L, 3L}, false, 3));
+    }
+
+    @Test
+    public void reportsCellsWithOnlyIgnoredTimestampsButNotCellsWithOnlyNewerTimestamps() {
+        put("row", "swept", Value.INVALID_VALUE_TIMESTAMP, "");
+        put("row", "unswept", 20L, "value");
+
+        assertThat(getAllCandidates(conservativeRequest(10L, 10))).containsExactly(
+                candidate("row", "swept", new long[] {}, false, 0));
+    }
+
+    @Test
+    public void batchesByPageOfRowsAndCountsExaminedPairsAcrossBatches() {
+        put("row1", "col1", 1L, "value");
+        put("row1", "col1", 2L, "value");
+        put("row2", "col1", 3L, "value");
+        put("row2", "col2", 4L, "value");
+        put("row2", "col2", 5L, "value");
+        put("row2", "col3", 6L, "value");
+
+        List<List<CandidateCellForSweeping>> batches = Lists.newArrayList(new CandidateCellsForSweepingIterator(
+                rowGetter, cqlExecutor, TABLE_REF, conservativeRequest(10L, 1), CELL_BATCH_SIZE));
+
+        assertThat(batches).containsExactly(
+                ImmutableList.of(candidate("row1", "col1", new long[] {1L, 2L}, false, 2)),
+                ImmutableList.of(
+                        candidate("row2", "col1", new long[] {3L}, false, 3),
+                        candidate("row2", "col2", new long[] {4L, 5L}, false, 5),
+                        candidate("row2", "col3", new long[] {6L}, false, 6)));
+    }
+
+    private List<CandidateCellForSweeping> getAllCandidates(ImmutableCandidateCellForSweepingRequest request) {
+        List<CandidateCellForSweeping> candidates = Lists.newArrayList();
+        new CandidateCellsForSweepingIterator(rowGetter, cqlExecutor, TABLE_REF, request, CELL_BATCH_SIZE)
+                .forEachRemaining(candidates::addAll);
+        return candidates;
+    }
+
+    private static ImmutableCandidateCellForSweepingRequest conservativeRequest(long sweepTimestamp, int batchSize) {
+        return ImmutableCandidateCellForSweepingRequest.builder()
+                .startRowInclusive(PtBytes.EMPTY_BYTE_ARRAY)
+                .batchSizeHint(batchSize)
+                .sweepTimestamp(sweepTimestamp)
+                .shouldCheckIfLatestValueIsEmpty(false)
+                .timestampsToIgnore(new long[] {Value.INVALID_VALUE_TIMESTAMP})
+                .build();
+    }
+
+    private static ImmutableCandidateCellForSweepingRequest thoroughRequest(long sweepTimestamp, int batchSize) {
+        return ImmutableCandidateCellForSweepingRequest.builder()
+                .startRowInclusive(PtBytes.EMPTY_BYTE_ARRAY)
+                .batchSizeHint(batchSize)
+                .sweepTimestamp(sweepTimestamp)
+                .shouldCheckIfLatestValueIsEmpty(true)
+                .timestampsToIgnore(new long[] {})
+                .build();
+    }
+
+    private static CandidateCellForSweeping candidate(
+            String row, String column, long[] timestamps, boolean latestValueEmpty, long numExamined) {
+        return ImmutableCandidateCellForSweeping.builder()
+                .cell(Cell.create(PtBytes.toBytes(row), PtBytes.toBytes(column)))
+                .sortedTimestamps(timestamps)
+                .isLatestValueEmpty(latestValueEmpty)
+                .numCellsTsPairsExamined(numExamined)
+                .build();
+    }
+
+    private void put(String row, String column, long timestamp, String value) {
+        versions.add(new Version(row, column, timestamp, value));
+    }
+
+    /**
+     * Answers the queries of the {@link CqlExecutor} from the versions put, in Cassandra's clustering order.
+     */
+    private CqlResult execute(byte[] row, String query, List<ByteBuffer> values) {
+        queries.add(query);
+        ByteBuffer column = values.size() > 2 ? values.get(1) : null;
+        int limit = Ints.fromByteArray(values.get(values.size() - 1).array());
+
+        List<CqlRow> rows = versions.stream()
+                .filter(version -> version.row.equals(ByteBuffer.wrap(row)))
+                .filter(version -> {
+                    if (query.contains("column2 > ?")) {
+                        long maxTimestampExclusive = ~PtBytes.toLong(values.get(2).array());
+                        return version.column.equals(column) && version.timestamp < maxTimestampExclusive;
+                    } else if (query.contains("column1 > ?")) {
+                        return version.column.compareTo(column) > 0;
+                    }
+                    return true;
+                })
+                .sorted((first, second) -> first.column.equals(second.column)
+                        ? Long.compare(second.timestamp, first.timestamp)
+                        : first.column.compareTo(second.column))
+                .limit(limit)
+                .map(version -> version.toCqlRow(query.contains("value")))
+                .collect(Collectors.toList());
+        return new CqlResult().setRows(rows);
+    }
+
+    private static final class Version {
+        private final ByteBuffer row;
+        private final ByteBuffer column;
+        private final long timestamp;
+        private final byte[] value;
+
+        Version(String row, String column, long timestamp, String value) {
+            this.row = ByteBuffer.wrap(PtBytes.toBytes(row));
+            this.column = ByteBuffer.wrap(PtBytes.toBytes(column));
+            this.timestamp = timestamp;
+            this.value = PtBytes.toBytes(value);
+        }
+
+        CqlRow toCqlRow(boolean withValue) {
+            List<Column> columns = Lists.newArrayList(
+                    new Column(ByteBuffer.wrap(PtBytes.toBytes("column1"))).setValue(column.array()),
+                    new Column(ByteBuffer.wrap(PtBytes.toBytes("column2"))).setValue(PtBytes.toBytes(~timestamp)));
+            if (withValue) {
+                columns.add(new Column(ByteBuffer.wrap(PtBytes.toBytes("value"))).setValue(value));
+            }
+            return new CqlRow(row, columns);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cassandra.thrift.AuthenticationRequest;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.ColumnOrSuperColumn;
+import org.apache.cassandra.thrift.ColumnParent;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.cassandra.thrift.SlicePredicate;
+import org.apache.thrift.server.THsHaServer;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.cassandra.CassandraKeyValueServiceConfig;
+import com.palantir.atlasdb.cassandra.ImmutableCassandraCredentialsConfig;
+import com.palantir.atlasdb.cassandra.ImmutableCassandraKeyValueServiceConfig;
+
+public class CassandraAsyncClientPoolTest {
+    private static final int MAX_CONCURRENT_REQUESTS = 3;
+    private static final String KEYSPACE = "atlasdb";
+    private static final ColumnParent COLUMN_PARENT = new ColumnParent("table");
+
+    private final Cassandra.Iface cassandra = mock(Cassandra.Iface.class);
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxRequestsInFlight = new AtomicInteger();
+
+    private TServer server;
+    private InetSocketAddress host;
+    private CassandraAsyncClientPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        when(cassandra.multiget_slice(anyListOf(ByteBuffer.class), any(), any(), any())).thenAnswer(invocation -> {
+            int inFlight = requestsInFlight.incrementAndGet();
+            maxRequestsInFlight.accumulateAndGet(inFlight, Math::max);
+            Thread.sleep(20);
+            requestsInFlight.decrementAndGet();
+            List<?> rows = invocation.getArgumentAt(0, List.class);
+            return ImmutableMap.of(rows.get(0), ImmutableList.of());
+        });
+
+        TNonblockingServerSocket serverSocket = new TNonblockingServerSocket(new InetSocketAddress("localhost", 0));
+        server = new THsHaServer(new THsHaServer.Args(serverSocket)
+                .processor(new Cassandra.Processor<>(cassandra))
+                .workerThreads(2 * MAX_CONCURRENT_REQUESTS));
+        new Thread(server::serve).start();
+        host = new InetSocketAddress("localhost", serverSocket.getPort());
+
+        pool = CassandraAsyncClientPool.create(configFor(host));
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+        server.stop();
+    }
+
+    @Test
+    public void completesRequestsWithTheirResults() throws Exception {
+        assertThat(multiget(row(1)).get(10, TimeUnit.SECONDS)).containsOnlyKeys(row(1));
+    }
+
+    @Test
+    public void limitsRequestsInFlightPerHost() throws Exception {
+        List<CompletableFuture<Map<ByteBuffer, List<ColumnOrSuperColumn>>>> futures = Lists.newArrayList();
+        for (int i = 0; i < 10 * MAX_CONCURRENT_REQUESTS; i++) {
+            futures.add(multiget(row(i)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(10, TimeUnit.SECONDS)).containsOnlyKeys(row(i));
+        }
+
+        assertThat(maxRequestsInFlight.get()).isEqualTo(MAX_CONCURRENT_REQUESTS);
+    }
+
+    @Test
+    public void setsUpEachConnectionOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            multiget(row(i)).get(10, TimeUnit.SECONDS);
+        }
+
+        verify(cassandra, times(1)).login(any(AuthenticationRequest.class));
+        verify(cassandra, times(1)).set_keyspace(KEYSPACE);
+    }
+
+    @Test
+    public void failsRequestWithServerException() throws Exception {
+        doThrow(new InvalidRequestException("bad request"))
+                .when(cassandra).multiget_slice(eq(ImmutableList.of(row(1))), any(), any(), any());
+
+        assertThatThrownBy(() -> multiget(row(1)).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InvalidRequestException.class);
+        assertThat(multiget(row(2)).get(10, TimeUnit.SECONDS)).containsOnlyKeys(row(2));
+    }
+
+    @Test
+    public void failsRequestToUnreachableHost() throws Exception {
+        TNonblockingServerSocket unusedSocket = new TNonblockingServerSocket(new InetSocketAddress("localhost", 0));
+        InetSocketAddress unreachableHost = new InetSocketAddress("localhost", unusedSocket.getPort());
+        unusedSocket.close();
+
+        assertThatThrownBy(() -> multiget(unreachableHost, row(1)).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ConnectException.class);
+    }
+
+    @Test
+    public void failsRequestsAfterClose() {
+        pool.close();
+
+        assertThatThrownBy(() -> multiget(row(1)).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void cannotBeCreatedWithSsl() {
+        CassandraKeyValueServiceConfig config = ImmutableCassandraKeyValueServiceConfig.copyOf(configFor(host))
+                .withSsl(true);
+
+        assertThatThrownBy(() -> CassandraAsyncClientPool.create(config))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CompletableFuture<Map<ByteBuffer, List<ColumnOrSuperColumn>>> multiget(ByteBuffer row) {
+        return multiget(host, row);
+    }
+
+    private CompletableFuture<Map<ByteBuffer, List<ColumnOrSuperColumn>>> multiget(
+            InetSocketAddress target,
+            ByteBuffer row) {
+        return pool.submit(target,
+                (client, callback) -> client.multiget_slice(
+                        ImmutableList.of(row), COLUMN_PARENT, new SlicePredicate(), ConsistencyLevel.ONE, callback),
+                Cassandra.AsyncClient.multiget_slice_call::getResult);
+    }
+
+    private static ByteBuffer row(int row) {
+        return ByteBuffer.wrap(new byte[] {(byte) row});
+    }
+
+    private static CassandraKeyValueServiceConfig configFor(InetSocketAddress server) {
+        return ImmutableCassandraKeyValueServiceConfig.builder()
+                .addServers(server)
+                .replicationFactor(1)
+                .keyspace(KEYSPACE)
+                .credentials(ImmutableCassandraCredentialsConfig.builder()
+                        .username("cassandra")
+                        .password("cassandra")
+                        .build())
+                .maxConcurrentAsyncRequestsPerHost(MAX_CONCURRENT_REQUESTS)
+                .build();
+    }
+}
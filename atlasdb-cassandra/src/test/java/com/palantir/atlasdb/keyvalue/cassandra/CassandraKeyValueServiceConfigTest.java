@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.keyvalue.cassandra;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -62,4 +63,14 @@ public class CassandraKeyValueServiceConfigTest {
     public void notUsingSslIfSslParamNotPresentAndSslConfigurationNotPresent() {
         assertFalse(CASSANDRA_CONFIG.usingSsl());
     }
+
+    @Test
+    public void maxConcurrentAsyncRequestsPerHostDefaultsToMaxConnectionBurstSize() {
+        assertEquals(CASSANDRA_CONFIG.maxConnectionBurstSize(), CASSANDRA_CONFIG.maxConcurrentAsyncRequestsPerHost());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void asyncTransportCannotBeUsedWithSsl() {
+        CASSANDRA_CONFIG.withSslConfiguration(SSL_CONFIGURATION).withAsyncTransport(true);
+    }
 }
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.cassandra.thrift.CqlResult;
@@ -28,7 +29,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.logging.KvsProfilingLogger;
@@ -50,7 +53,7 @@ public class CqlExecutorTest {
     public void before() {
         CqlResult result = new CqlResult();
         result.setRows(ImmutableList.of());
-        when(queryExecutor.execute(any(), any())).thenAnswer(invocation -> {
+        when(queryExecutor.execute(any(), any(), any())).thenAnswer(invocation -> {
             Uninterruptibles.sleepUninterruptibly(queryDelayMillis, TimeUnit.MILLISECONDS);
             return result;
         });
@@ -58,31 +61,51 @@ public class CqlExecutorTest {
 
     @Test
     public void getColumnsForRow() {
-        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = 0x0102 LIMIT 100;";
+        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = ? LIMIT ?;";
 
         executor.getColumnsForRow(TABLE_REF, ROW, LIMIT);
 
-        verify(queryExecutor).execute(ROW, expected);
+        verify(queryExecutor).execute(ROW, expected, ImmutableList.of(
+                ByteBuffer.wrap(ROW),
+                ByteBuffer.wrap(Ints.toByteArray(LIMIT))));
     }
 
     @Test
     public void getTimestampsForRowAndColumn() {
-        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = 0x0102 AND column1 = 0x0304 "
-                + "AND column2 > -124 LIMIT 100;";
+        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = ? AND column1 = ? "
+                + "AND column2 > ? LIMIT ?;";
 
         executor.getTimestampsForRowAndColumn(TABLE_REF, ROW, COLUMN, TIMESTAMP, LIMIT);
 
-        verify(queryExecutor).execute(ROW, expected);
+        verify(queryExecutor).execute(ROW, expected, ImmutableList.of(
+                ByteBuffer.wrap(ROW),
+                ByteBuffer.wrap(COLUMN),
+                ByteBuffer.wrap(PtBytes.toBytes(-124L)),
+                ByteBuffer.wrap(Ints.toByteArray(LIMIT))));
     }
 
     @Test
     public void getNextColumnsForRow() {
-        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = 0x0102 AND column1 > 0x0304 "
-                + "LIMIT 100;";
+        String expected = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = ? AND column1 > ? LIMIT ?;";
 
         executor.getNextColumnsForRow(TABLE_REF, ROW, COLUMN, LIMIT);
 
-        verify(queryExecutor).execute(ROW, expected);
+        verify(queryExecutor).execute(ROW, expected, ImmutableList.of(
+                ByteBuffer.wrap(ROW),
+                ByteBuffer.wrap(COLUMN),
+                ByteBuffer.wrap(Ints.toByteArray(LIMIT))));
+    }
+
+    @Test
+    public void getVersionsOfNextColumnsWithValues() {
+        String expected = "SELECT column1, column2, value FROM \"foo__bar\" WHERE key = ? AND column1 > ? LIMIT ?;";
+
+        executor.getVersionsOfNextColumns(TABLE_REF, ROW, COLUMN, true, LIMIT);
+
+        verify(queryExecutor).execute(ROW, expected, ImmutableList.of(
+                ByteBuffer.wrap(ROW),
+                ByteBuffer.wrap(COLUMN),
+                ByteBuffer.wrap(Ints.toByteArray(LIMIT))));
     }
 
     // this test just verifies that nothing blows up when logging a slow query, and the output can be verified manually
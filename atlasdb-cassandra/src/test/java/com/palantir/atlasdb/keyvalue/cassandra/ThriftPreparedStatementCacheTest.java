@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.atlasdb.keyvalue.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.Compression;
+import org.apache.cassandra.thrift.ConsistencyLevel;
+import org.apache.cassandra.thrift.CqlPreparedResult;
+import org.apache.cassandra.thrift.CqlResult;
+import org.apache.cassandra.thrift.InvalidRequestException;
+import org.apache.thrift.TException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ThriftPreparedStatementCacheTest {
+    private static final String QUERY = "SELECT column1, column2 FROM \"foo__bar\" WHERE key = ? LIMIT ?;";
+    private static final ByteBuffer QUERY_BYTES = ByteBuffer.wrap(QUERY.getBytes(StandardCharsets.UTF_8));
+    private static final List<ByteBuffer> VALUES = ImmutableList.of(ByteBuffer.wrap(new byte[] {1, 2}));
+    private static final ConsistencyLevel CONSISTENCY = ConsistencyLevel.LOCAL_QUORUM;
+    private static final int ITEM_ID = 42;
+
+    private final Cassandra.Client client = mock(Cassandra.Client.class);
+    private final CqlResult result = new CqlResult();
+    private final ThriftPreparedStatementCache cache = new ThriftPreparedStatementCache();
+
+    @Before
+    public void setUp() throws TException {
+        when(client.prepare_cql3_query(any(), any())).thenReturn(preparedResult(ITEM_ID));
+        when(client.execute_prepared_cql3_query(ITEM_ID, VALUES, CONSISTENCY)).thenReturn(result);
+    }
+
+    @Test
+    public void preparesQueryOnFirstExecution() throws TException {
+        assertThat(cache.execute(client, QUERY, VALUES, CONSISTENCY)).isEqualTo(result);
+
+        verify(client).prepare_cql3_query(QUERY_BYTES, Compression.NONE);
+        verify(client).execute_prepared_cql3_query(ITEM_ID, VALUES, CONSISTENCY);
+    }
+
+    @Test
+    public void reusesPreparedQuery() throws TException {
+        cache.execute(client, QUERY, VALUES, CONSISTENCY);
+        cache.execute(client, QUERY, VALUES, CONSISTENCY);
+
+        verify(client, times(1)).prepare_cql3_query(any(), any());
+        verify(client, times(2)).execute_prepared_cql3_query(ITEM_ID, VALUES, CONSISTENCY);
+    }
+
+    @Test
+    public void preparesAgainIfNodeDoesNotKnowTheQuery() throws TException {
+        cache.execute(client, QUERY, VALUES, CONSISTENCY);
+
+        Cassandra.Client otherClient = mock(Cassandra.Client.class);
+        when(otherClient.execute_prepared_cql3_query(ITEM_ID, VALUES, CONSISTENCY))
+                .thenThrow(new InvalidRequestException("Prepared query with ID 42 not found"))
+                .thenReturn(result);
+        when(otherClient.prepare_cql3_query(any(), any())).thenReturn(preparedResult(ITEM_ID));
+
+        assertThat(cache.execute(otherClient, QUERY, VALUES, CONSISTENCY)).isEqualTo(result);
+        verify(otherClient).prepare_cql3_query(QUERY_BYTES, Compression.NONE);
+    }
+
+    @Test
+    public void propagatesExceptionIfQueryCannotBePrepared() throws TException {
+        InvalidRequestException exception = new InvalidRequestException("unconfigured table foo__bar");
+        when(client.prepare_cql3_query(any(), any())).thenThrow(exception);
+
+        assertThatThrownBy(() -> cache.execute(client, QUERY, VALUES, CONSISTENCY)).isEqualTo(exception);
+        verify(client, times(0)).execute_prepared_cql3_query(anyInt(), any(), eq(CONSISTENCY));
+    }
+
+    private static CqlPreparedResult preparedResult(int itemId) {
+        CqlPreparedResult preparedResult = new CqlPreparedResult();
+        preparedResult.setItemId(itemId);
+        return preparedResult;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.palantir.atlasdb.cli.command;
 
+import java.util.Optional;
+
 import org.immutables.value.Value;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +28,7 @@ import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.cli.output.OutputPrinter;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.schema.KeyValueServiceMigrator;
+import com.palantir.atlasdb.schema.StreamingMigrationConfig;
 import com.palantir.atlasdb.schema.TaskProgress;
 import com.palantir.atlasdb.services.AtlasDbServices;
 import com.palantir.timestamp.TimestampManagementService;
@@ -80,7 +83,8 @@ public final class KeyValueServiceMigrators {
                         //
                     }
                 },
-                ImmutableSet.of());
+                ImmutableSet.of(),
+                migratorSpec.streamingConfig());
     }
 
     @VisibleForTesting
@@ -111,6 +115,11 @@ public final class KeyValueServiceMigrators {
             return 100;
         }
 
+        /**
+         * If present, tables are streamed from the source instead of being copied transactionally.
+         */
+        public abstract Optional<StreamingMigrationConfig> streamingConfig();
+
         @Value.Check
         void check() {
             Preconditions.checkArgument(threads() > 0, "Threads used for migration should be positive.");
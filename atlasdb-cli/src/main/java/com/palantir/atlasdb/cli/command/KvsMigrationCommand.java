@@ -17,6 +17,7 @@ package com.palantir.atlasdb.cli.command;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 
 import org.slf4j.LoggerFactory;
@@ -27,8 +28,10 @@ import com.palantir.atlasdb.cli.output.OutputPrinter;
 import com.palantir.atlasdb.config.AtlasDbConfig;
 import com.palantir.atlasdb.config.AtlasDbConfigs;
 import com.palantir.atlasdb.config.AtlasDbRuntimeConfig;
+import com.palantir.atlasdb.schema.ImmutableStreamingMigrationConfig;
 import com.palantir.atlasdb.schema.KeyValueServiceMigrator;
 import com.palantir.atlasdb.schema.KeyValueServiceValidator;
+import com.palantir.atlasdb.schema.StreamingMigrationConfig;
 import com.palantir.atlasdb.services.AtlasDbServices;
 import com.palantir.atlasdb.services.DaggerAtlasDbServices;
 import com.palantir.atlasdb.services.ServicesConfigModule;
@@ -74,6 +77,25 @@ public class KvsMigrationCommand implements Callable<Integer> {
             arity = 1)
     private int batchSize = 100;
 
+    @Option(name = {"--streaming"},
+            description = "Stream rows from the source into the target instead of copying them in transactions,"
+                    + " splitting ranges between threads as they go and reporting throughput while migrating.")
+    private boolean streaming = false;
+
+    @Option(name = {"--max-bytes-per-second"},
+            title = "BYTES PER SECOND",
+            description = "limit on the number of bytes written per second across all threads when streaming",
+            required = false,
+            arity = 1)
+    private Long maxBytesPerSecond;
+
+    @Option(name = {"--checkpoint-interval-bytes"},
+            title = "CHECKPOINT INTERVAL",
+            description = "number of bytes copied from a range between two checkpoints when streaming",
+            required = false,
+            arity = 1)
+    private long checkpointIntervalBytes = StreamingMigrationConfig.DEFAULT_CHECKPOINT_INTERVAL_BYTES;
+
     @Option(name = {"-s", "--setup"},
             description = "Setup migration by dropping and creating tables.")
     private boolean setup = false;
@@ -176,6 +198,17 @@ public class KvsMigrationCommand implements Callable<Integer> {
                 .toServices(toServices)
                 .threads(threads)
                 .batchSize(batchSize)
+                .streamingConfig(getStreamingConfig())
+                .build());
+    }
+
+    private Optional<StreamingMigrationConfig> getStreamingConfig() {
+        if (!streaming) {
+            return Optional.empty();
+        }
+        return Optional.of(ImmutableStreamingMigrationConfig.builder()
+                .maxBytesPerSecond(Optional.ofNullable(maxBytesPerSecond))
+                .checkpointIntervalBytes(checkpointIntervalBytes)
                 .build());
     }
 }
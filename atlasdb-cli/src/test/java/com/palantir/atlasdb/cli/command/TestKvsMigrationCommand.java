@@ -59,8 +59,27 @@ public class TestKvsMigrationCommand {
         runTestWithTableSpecs(10, 257);
     }
 
+    @Test
+    public void canStreamZeroTables() throws Exception {
+        runTestWithTableSpecs(0, 0, "-smv", "--streaming");
+    }
+
+    @Test
+    public void canStreamMultipleTables() throws Exception {
+        runTestWithTableSpecs(10, 257, "-smv", "--streaming", "--checkpoint-interval-bytes", "1024");
+    }
+
+    @Test
+    public void canStreamWithThrottle() throws Exception {
+        runTestWithTableSpecs(2, 100, "-smv", "--streaming", "--max-bytes-per-second", "1000000");
+    }
+
     private void runTestWithTableSpecs(int numTables, int numEntriesPerTable) throws Exception {
-        KvsMigrationCommand cmd = getCommand(new String[] { "-smv" });
+        runTestWithTableSpecs(numTables, numEntriesPerTable, "-smv");
+    }
+
+    private void runTestWithTableSpecs(int numTables, int numEntriesPerTable, String... args) throws Exception {
+        KvsMigrationCommand cmd = getCommand(args);
         AtlasDbServices fromServices = cmd.connectFromServices();
 
         // CLIs don't currently reinitialize the KVS
@@ -184,6 +184,14 @@ public final class TableMetadataPersistence {
      * <code>SNAPPY = 2;</code>
      */
     SNAPPY(1, 2),
+    /**
+     * <code>LZ4 = 3;</code>
+     */
+    LZ4(2, 3),
+    /**
+     * <code>ZSTD = 4;</code>
+     */
+    ZSTD(3, 4),
     ;
 
     /**
@@ -194,6 +202,14 @@ public final class TableMetadataPersistence {
      * <code>SNAPPY = 2;</code>
      */
     public static final int SNAPPY_VALUE = 2;
+    /**
+     * <code>LZ4 = 3;</code>
+     */
+    public static final int LZ4_VALUE = 3;
+    /**
+     * <code>ZSTD = 4;</code>
+     */
+    public static final int ZSTD_VALUE = 4;
 
 
     public final int getNumber() { return value; }
@@ -202,6 +218,8 @@ public final class TableMetadataPersistence {
       switch (value) {
         case 1: return NONE;
         case 2: return SNAPPY;
+        case 3: return LZ4;
+        case 4: return ZSTD;
         default: return null;
       }
     }
@@ -1109,6 +1127,23 @@ public final class TableMetadataPersistence {
      * <code>optional .com.palantir.atlasdb.protos.generated.LogSafety nameLogSafety = 12 [default = UNSAFE];</code>
      */
     com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety getNameLogSafety();
+
+    /**
+     * <code>optional bool immutableValues = 13;</code>
+     *
+     * <pre>
+     * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+     * </pre>
+     */
+    boolean hasImmutableValues();
+    /**
+     * <code>optional bool immutableValues = 13;</code>
+     *
+     * <pre>
+     * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+     * </pre>
+     */
+    boolean getImmutableValues();
   }
   /**
    * Protobuf type {@code com.palantir.atlasdb.protos.generated.TableMetadata}
@@ -1268,6 +1303,11 @@ public final class TableMetadataPersistence {
               }
               break;
             }
+            case 104: {
+              bitField0_ |= 0x00001000;
+              immutableValues_ = input.readBool();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -1500,6 +1540,29 @@ public final class TableMetadataPersistence {
       return nameLogSafety_;
     }
 
+    public static final int IMMUTABLEVALUES_FIELD_NUMBER = 13;
+    private boolean immutableValues_;
+    /**
+     * <code>optional bool immutableValues = 13;</code>
+     *
+     * <pre>
+     * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+     * </pre>
+     */
+    public boolean hasImmutableValues() {
+      return ((bitField0_ & 0x00001000) == 0x00001000);
+    }
+    /**
+     * <code>optional bool immutableValues = 13;</code>
+     *
+     * <pre>
+     * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+     * </pre>
+     */
+    public boolean getImmutableValues() {
+      return immutableValues_;
+    }
+
     private void initFields() {
       rowName_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.NameMetadataDescription.getDefaultInstance();
       columns_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ColumnMetadataDescription.getDefaultInstance();
@@ -1513,6 +1576,7 @@ public final class TableMetadataPersistence {
       explicitCompressionBlockSizeKiloBytes_ = 0;
       appendHeavyAndReadLight_ = false;
       nameLogSafety_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety.UNSAFE;
+      immutableValues_ = false;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -1583,6 +1647,9 @@ public final class TableMetadataPersistence {
       if (((bitField0_ & 0x00000800) == 0x00000800)) {
         output.writeEnum(12, nameLogSafety_.getNumber());
       }
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
+        output.writeBool(13, immutableValues_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1640,6 +1707,10 @@ public final class TableMetadataPersistence {
         size += com.google.protobuf.CodedOutputStream
           .computeEnumSize(12, nameLogSafety_.getNumber());
       }
+      if (((bitField0_ & 0x00001000) == 0x00001000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(13, immutableValues_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -1791,6 +1862,8 @@ public final class TableMetadataPersistence {
         bitField0_ = (bitField0_ & ~0x00000400);
         nameLogSafety_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety.UNSAFE;
         bitField0_ = (bitField0_ & ~0x00000800);
+        immutableValues_ = false;
+        bitField0_ = (bitField0_ & ~0x00001000);
         return this;
       }
 
@@ -1875,6 +1948,10 @@ public final class TableMetadataPersistence {
           to_bitField0_ |= 0x00000800;
         }
         result.nameLogSafety_ = nameLogSafety_;
+        if (((from_bitField0_ & 0x00001000) == 0x00001000)) {
+          to_bitField0_ |= 0x00001000;
+        }
+        result.immutableValues_ = immutableValues_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -1927,6 +2004,9 @@ public final class TableMetadataPersistence {
         if (other.hasNameLogSafety()) {
           setNameLogSafety(other.getNameLogSafety());
         }
+        if (other.hasImmutableValues()) {
+          setImmutableValues(other.getImmutableValues());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -2541,6 +2621,54 @@ public final class TableMetadataPersistence {
         return this;
       }
 
+      private boolean immutableValues_ ;
+      /**
+       * <code>optional bool immutableValues = 13;</code>
+       *
+       * <pre>
+       * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+       * </pre>
+       */
+      public boolean hasImmutableValues() {
+        return ((bitField0_ & 0x00001000) == 0x00001000);
+      }
+      /**
+       * <code>optional bool immutableValues = 13;</code>
+       *
+       * <pre>
+       * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+       * </pre>
+       */
+      public boolean getImmutableValues() {
+        return immutableValues_;
+      }
+      /**
+       * <code>optional bool immutableValues = 13;</code>
+       *
+       * <pre>
+       * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+       * </pre>
+       */
+      public Builder setImmutableValues(boolean value) {
+        bitField0_ |= 0x00001000;
+        immutableValues_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bool immutableValues = 13;</code>
+       *
+       * <pre>
+       * Set if a cell, once committed, is never overwritten or deleted, so its value may be cached across transactions.
+       * </pre>
+       */
+      public Builder clearImmutableValues() {
+        bitField0_ = (bitField0_ & ~0x00001000);
+        immutableValues_ = false;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:com.palantir.atlasdb.protos.generated.TableMetadata)
     }
 
@@ -7097,6 +7225,23 @@ public final class TableMetadataPersistence {
      * <code>optional .com.palantir.atlasdb.protos.generated.FileDescriptorTreeProto protoFileDescriptorTree = 8;</code>
      */
     com.palantir.atlasdb.protos.generated.TableMetadataPersistence.FileDescriptorTreeProtoOrBuilder getProtoFileDescriptorTreeOrBuilder();
+
+    /**
+     * <code>optional bytes compressionDictionary = 9;</code>
+     *
+     * <pre>
+     * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+     * </pre>
+     */
+    boolean hasCompressionDictionary();
+    /**
+     * <code>optional bytes compressionDictionary = 9;</code>
+     *
+     * <pre>
+     * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+     * </pre>
+     */
+    com.google.protobuf.ByteString getCompressionDictionary();
   }
   /**
    * Protobuf type {@code com.palantir.atlasdb.protos.generated.ColumnValueDescription}
@@ -7219,6 +7364,11 @@ public final class TableMetadataPersistence {
               bitField0_ |= 0x00000080;
               break;
             }
+            case 74: {
+              bitField0_ |= 0x00000100;
+              compressionDictionary_ = input.readBytes();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -7486,6 +7636,29 @@ public final class TableMetadataPersistence {
       return protoFileDescriptorTree_;
     }
 
+    public static final int COMPRESSIONDICTIONARY_FIELD_NUMBER = 9;
+    private com.google.protobuf.ByteString compressionDictionary_;
+    /**
+     * <code>optional bytes compressionDictionary = 9;</code>
+     *
+     * <pre>
+     * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+     * </pre>
+     */
+    public boolean hasCompressionDictionary() {
+      return ((bitField0_ & 0x00000100) == 0x00000100);
+    }
+    /**
+     * <code>optional bytes compressionDictionary = 9;</code>
+     *
+     * <pre>
+     * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+     * </pre>
+     */
+    public com.google.protobuf.ByteString getCompressionDictionary() {
+      return compressionDictionary_;
+    }
+
     private void initFields() {
       type_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueType.VAR_LONG;
       className_ = "";
@@ -7495,6 +7668,7 @@ public final class TableMetadataPersistence {
       protoFileDescriptor_ = com.google.protobuf.ByteString.EMPTY;
       protoMessageName_ = "";
       protoFileDescriptorTree_ = com.palantir.atlasdb.protos.generated.TableMetadataPersistence.FileDescriptorTreeProto.getDefaultInstance();
+      compressionDictionary_ = com.google.protobuf.ByteString.EMPTY;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -7543,6 +7717,9 @@ public final class TableMetadataPersistence {
       if (((bitField0_ & 0x00000080) == 0x00000080)) {
         output.writeMessage(8, protoFileDescriptorTree_);
       }
+      if (((bitField0_ & 0x00000100) == 0x00000100)) {
+        output.writeBytes(9, compressionDictionary_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -7584,6 +7761,10 @@ public final class TableMetadataPersistence {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(8, protoFileDescriptorTree_);
       }
+      if (((bitField0_ & 0x00000100) == 0x00000100)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(9, compressionDictionary_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -7722,6 +7903,8 @@ public final class TableMetadataPersistence {
           protoFileDescriptorTreeBuilder_.clear();
         }
         bitField0_ = (bitField0_ & ~0x00000080);
+        compressionDictionary_ = com.google.protobuf.ByteString.EMPTY;
+        bitField0_ = (bitField0_ & ~0x00000100);
         return this;
       }
 
@@ -7786,6 +7969,10 @@ public final class TableMetadataPersistence {
         } else {
           result.protoFileDescriptorTree_ = protoFileDescriptorTreeBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000100) == 0x00000100)) {
+          to_bitField0_ |= 0x00000100;
+        }
+        result.compressionDictionary_ = compressionDictionary_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -7832,6 +8019,9 @@ public final class TableMetadataPersistence {
         if (other.hasProtoFileDescriptorTree()) {
           mergeProtoFileDescriptorTree(other.getProtoFileDescriptorTree());
         }
+        if (other.hasCompressionDictionary()) {
+          setCompressionDictionary(other.getCompressionDictionary());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -8393,6 +8583,57 @@ public final class TableMetadataPersistence {
         return protoFileDescriptorTreeBuilder_;
       }
 
+      private com.google.protobuf.ByteString compressionDictionary_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <code>optional bytes compressionDictionary = 9;</code>
+       *
+       * <pre>
+       * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+       * </pre>
+       */
+      public boolean hasCompressionDictionary() {
+        return ((bitField0_ & 0x00000100) == 0x00000100);
+      }
+      /**
+       * <code>optional bytes compressionDictionary = 9;</code>
+       *
+       * <pre>
+       * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+       * </pre>
+       */
+      public com.google.protobuf.ByteString getCompressionDictionary() {
+        return compressionDictionary_;
+      }
+      /**
+       * <code>optional bytes compressionDictionary = 9;</code>
+       *
+       * <pre>
+       * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+       * </pre>
+       */
+      public Builder setCompressionDictionary(com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000100;
+        compressionDictionary_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional bytes compressionDictionary = 9;</code>
+       *
+       * <pre>
+       * Zstandard dictionary shared by the compressed values of this column; only set for ZSTD compression.
+       * </pre>
+       */
+      public Builder clearCompressionDictionary() {
+        bitField0_ = (bitField0_ & ~0x00000100);
+        compressionDictionary_ = getDefaultInstance().getCompressionDictionary();
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:com.palantir.atlasdb.protos.generated.ColumnValueDescription)
     }
 
@@ -9235,7 +9476,7 @@ public final class TableMetadataPersistence {
     java.lang.String[] descriptorData = {
       "\nEmain/proto/com/palantir/atlasdb/protos" +
       "/TableMetadataPersistence.proto\022%com.pal" +
-      "antir.atlasdb.protos.generated\"\355\005\n\rTable" +
+      "antir.atlasdb.protos.generated\"\206\006\n\rTable" +
       "Metadata\022O\n\007rowName\030\001 \002(\0132>.com.palantir" +
       ".atlasdb.protos.generated.NameMetadataDe" +
       "scription\022Q\n\007columns\030\002 \002(\0132@.com.palanti" +
@@ -9254,70 +9495,72 @@ public final class TableMetadataPersistence {
       "sionBlockSizeKiloBytes\030\n \001(\005\022\037\n\027appendHe" +
       "avyAndReadLight\030\013 \001(\010\022O\n\rnameLogSafety\030\014",
       " \001(\01620.com.palantir.atlasdb.protos.gener" +
-      "ated.LogSafety:\006UNSAFE\"\274\001\n\027NameMetadataD" +
-      "escription\022R\n\tnameParts\030\001 \003(\0132?.com.pala" +
-      "ntir.atlasdb.protos.generated.NameCompon" +
-      "entDescription\022(\n\025hasFirstComponentHash\030" +
-      "\002 \001(\010:\005falseB\002\030\001\022#\n\030numberOfComponentsHa" +
-      "shed\030\003 \001(\005:\0010\"\277\002\n\030NameComponentDescripti" +
-      "on\022\025\n\rcomponentName\030\001 \002(\t\022>\n\004type\030\002 \002(\0162" +
-      "0.com.palantir.atlasdb.protos.generated." +
-      "ValueType\022D\n\005order\030\003 \002(\01625.com.palantir.",
-      "atlasdb.protos.generated.ValueByteOrder\022" +
-      "\035\n\025hasUniformPartitioner\030\004 \001(\010\022\032\n\022explic" +
-      "itPartitions\030\005 \003(\t\022K\n\tlogSafety\030\006 \001(\01620." +
-      "com.palantir.atlasdb.protos.generated.Lo" +
-      "gSafety:\006UNSAFE\"\310\001\n\031ColumnMetadataDescri" +
-      "ption\022S\n\014namedColumns\030\001 \003(\0132=.com.palant" +
-      "ir.atlasdb.protos.generated.NamedColumnD" +
-      "escription\022V\n\rdynamicColumn\030\002 \001(\0132?.com." +
-      "palantir.atlasdb.protos.generated.Dynami" +
-      "cColumnDescription\"\300\001\n\030DynamicColumnDesc",
-      "ription\022V\n\016columnNameDesc\030\001 \002(\0132>.com.pa" +
-      "lantir.atlasdb.protos.generated.NameMeta" +
-      "dataDescription\022L\n\005value\030\002 \002(\0132=.com.pal" +
-      "antir.atlasdb.protos.generated.ColumnVal" +
-      "ueDescription\"\330\001\n\026NamedColumnDescription" +
-      "\022\021\n\tshortName\030\001 \002(\t\022\020\n\010longName\030\002 \002(\t\022L\n" +
-      "\005value\030\003 \002(\0132=.com.palantir.atlasdb.prot" +
-      "os.generated.ColumnValueDescription\022K\n\tl" +
-      "ogSafety\030\004 \001(\01620.com.palantir.atlasdb.pr" +
-      "otos.generated.LogSafety:\006UNSAFE\"\274\003\n\026Col",
-      "umnValueDescription\022>\n\004type\030\001 \002(\01620.com." +
-      "palantir.atlasdb.protos.generated.ValueT" +
-      "ype\022\021\n\tclassName\030\002 \001(\t\022M\n\013compression\030\003 " +
-      "\001(\01622.com.palantir.atlasdb.protos.genera" +
-      "ted.Compression:\004NONE\022H\n\006format\030\004 \001(\01628." +
+      "ated.LogSafety:\006UNSAFE\022\027\n\017immutableValue" +
+      "s\030\r \001(\010\"\274\001\n\027NameMetadataDescription\022R\n\tn" +
+      "ameParts\030\001 \003(\0132?.com.palantir.atlasdb.pr" +
+      "otos.generated.NameComponentDescription\022" +
+      "(\n\025hasFirstComponentHash\030\002 \001(\010:\005falseB\002\030" +
+      "\001\022#\n\030numberOfComponentsHashed\030\003 \001(\005:\0010\"\277" +
+      "\002\n\030NameComponentDescription\022\025\n\rcomponent" +
+      "Name\030\001 \002(\t\022>\n\004type\030\002 \002(\01620.com.palantir." +
+      "atlasdb.protos.generated.ValueType\022D\n\005or",
+      "der\030\003 \002(\01625.com.palantir.atlasdb.protos." +
+      "generated.ValueByteOrder\022\035\n\025hasUniformPa" +
+      "rtitioner\030\004 \001(\010\022\032\n\022explicitPartitions\030\005 " +
+      "\003(\t\022K\n\tlogSafety\030\006 \001(\01620.com.palantir.at" +
+      "lasdb.protos.generated.LogSafety:\006UNSAFE" +
+      "\"\310\001\n\031ColumnMetadataDescription\022S\n\014namedC" +
+      "olumns\030\001 \003(\0132=.com.palantir.atlasdb.prot" +
+      "os.generated.NamedColumnDescription\022V\n\rd" +
+      "ynamicColumn\030\002 \001(\0132?.com.palantir.atlasd" +
+      "b.protos.generated.DynamicColumnDescript",
+      "ion\"\300\001\n\030DynamicColumnDescription\022V\n\016colu" +
+      "mnNameDesc\030\001 \002(\0132>.com.palantir.atlasdb." +
+      "protos.generated.NameMetadataDescription" +
+      "\022L\n\005value\030\002 \002(\0132=.com.palantir.atlasdb.p" +
+      "rotos.generated.ColumnValueDescription\"\330" +
+      "\001\n\026NamedColumnDescription\022\021\n\tshortName\030\001" +
+      " \002(\t\022\020\n\010longName\030\002 \002(\t\022L\n\005value\030\003 \002(\0132=." +
       "com.palantir.atlasdb.protos.generated.Co" +
-      "lumnValueFormat\022\032\n\022canonicalClassName\030\005 " +
-      "\001(\t\022\037\n\023protoFileDescriptor\030\006 \001(\014B\002\030\001\022\030\n\020" +
-      "protoMessageName\030\007 \001(\t\022_\n\027protoFileDescr" +
-      "iptorTree\030\010 \001(\0132>.com.palantir.atlasdb.p",
-      "rotos.generated.FileDescriptorTreeProto\"" +
-      "\214\001\n\027FileDescriptorTreeProto\022\033\n\023protoFile" +
-      "Descriptor\030\001 \002(\014\022T\n\014dependencies\030\002 \003(\0132>" +
-      ".com.palantir.atlasdb.protos.generated.F" +
-      "ileDescriptorTreeProto*\305\001\n\tValueType\022\014\n\010" +
-      "VAR_LONG\020\001\022\016\n\nFIXED_LONG\020\002\022\n\n\006STRING\020\003\022\010" +
-      "\n\004BLOB\020\004\022\023\n\017VAR_SIGNED_LONG\020\005\022\034\n\030FIXED_L" +
-      "ONG_LITTLE_ENDIAN\020\006\022\016\n\nSHA256HASH\020\007\022\016\n\nV" +
-      "AR_STRING\020\010\022\027\n\023NULLABLE_FIXED_LONG\020\t\022\016\n\n" +
-      "SIZED_BLOB\020\n\022\010\n\004UUID\020\013*#\n\013Compression\022\010\n",
-      "\004NONE\020\001\022\n\n\006SNAPPY\020\002*N\n\021ColumnValueFormat" +
-      "\022\t\n\005PROTO\020\001\022\017\n\013PERSISTABLE\020\002\022\016\n\nVALUE_TY" +
-      "PE\020\003\022\r\n\tPERSISTER\020\004*/\n\016ValueByteOrder\022\r\n" +
-      "\tASCENDING\020\001\022\016\n\nDESCENDING\020\002*\215\001\n\024TableCo" +
-      "nflictHandler\022\016\n\nIGNORE_ALL\020\001\022\030\n\024RETRY_O" +
-      "N_WRITE_WRITE\020\002\022\032\n\026RETRY_ON_VALUE_CHANGE" +
-      "D\020\003\022\020\n\014SERIALIZABLE\020\004\022\035\n\031RETRY_ON_WRITE_" +
-      "WRITE_CELL\020\005*F\n\rCachePriority\022\013\n\007COLDEST" +
-      "\020\000\022\010\n\004COLD\020 \022\010\n\004WARM\020@\022\007\n\003HOT\020`\022\013\n\007HOTTE" +
-      "ST\020\177**\n\021PartitionStrategy\022\013\n\007ORDERED\020\000\022\010",
-      "\n\004HASH\020\001*<\n\rSweepStrategy\022\013\n\007NOTHING\020\000\022\020" +
-      "\n\014CONSERVATIVE\020\001\022\014\n\010THOROUGH\020\002*;\n\022Expira" +
-      "tionStrategy\022\t\n\005NEVER\020\000\022\032\n\026INDIVIDUALLY_" +
-      "SPECIFIED\020\001*!\n\tLogSafety\022\010\n\004SAFE\020\000\022\n\n\006UN" +
-      "SAFE\020\001"
+      "lumnValueDescription\022K\n\tlogSafety\030\004 \001(\0162" +
+      "0.com.palantir.atlasdb.protos.generated.",
+      "LogSafety:\006UNSAFE\"\333\003\n\026ColumnValueDescrip" +
+      "tion\022>\n\004type\030\001 \002(\01620.com.palantir.atlasd" +
+      "b.protos.generated.ValueType\022\021\n\tclassNam" +
+      "e\030\002 \001(\t\022M\n\013compression\030\003 \001(\01622.com.palan" +
+      "tir.atlasdb.protos.generated.Compression" +
+      ":\004NONE\022H\n\006format\030\004 \001(\01628.com.palantir.at" +
+      "lasdb.protos.generated.ColumnValueFormat" +
+      "\022\032\n\022canonicalClassName\030\005 \001(\t\022\037\n\023protoFil" +
+      "eDescriptor\030\006 \001(\014B\002\030\001\022\030\n\020protoMessageNam" +
+      "e\030\007 \001(\t\022_\n\027protoFileDescriptorTree\030\010 \001(\013",
+      "2>.com.palantir.atlasdb.protos.generated" +
+      ".FileDescriptorTreeProto\022\035\n\025compressionD" +
+      "ictionary\030\t \001(\014\"\214\001\n\027FileDescriptorTreePr" +
+      "oto\022\033\n\023protoFileDescriptor\030\001 \002(\014\022T\n\014depe" +
+      "ndencies\030\002 \003(\0132>.com.palantir.atlasdb.pr" +
+      "otos.generated.FileDescriptorTreeProto*\305" +
+      "\001\n\tValueType\022\014\n\010VAR_LONG\020\001\022\016\n\nFIXED_LONG" +
+      "\020\002\022\n\n\006STRING\020\003\022\010\n\004BLOB\020\004\022\023\n\017VAR_SIGNED_L" +
+      "ONG\020\005\022\034\n\030FIXED_LONG_LITTLE_ENDIAN\020\006\022\016\n\nS" +
+      "HA256HASH\020\007\022\016\n\nVAR_STRING\020\010\022\027\n\023NULLABLE_",
+      "FIXED_LONG\020\t\022\016\n\nSIZED_BLOB\020\n\022\010\n\004UUID\020\013*6" +
+      "\n\013Compression\022\010\n\004NONE\020\001\022\n\n\006SNAPPY\020\002\022\007\n\003L" +
+      "Z4\020\003\022\010\n\004ZSTD\020\004*N\n\021ColumnValueFormat\022\t\n\005P" +
+      "ROTO\020\001\022\017\n\013PERSISTABLE\020\002\022\016\n\nVALUE_TYPE\020\003\022" +
+      "\r\n\tPERSISTER\020\004*/\n\016ValueByteOrder\022\r\n\tASCE" +
+      "NDING\020\001\022\016\n\nDESCENDING\020\002*\215\001\n\024TableConflic" +
+      "tHandler\022\016\n\nIGNORE_ALL\020\001\022\030\n\024RETRY_ON_WRI" +
+      "TE_WRITE\020\002\022\032\n\026RETRY_ON_VALUE_CHANGED\020\003\022\020" +
+      "\n\014SERIALIZABLE\020\004\022\035\n\031RETRY_ON_WRITE_WRITE" +
+      "_CELL\020\005*F\n\rCachePriority\022\013\n\007COLDEST\020\000\022\010\n",
+      "\004COLD\020 \022\010\n\004WARM\020@\022\007\n\003HOT\020`\022\013\n\007HOTTEST\020\177*" +
+      "*\n\021PartitionStrategy\022\013\n\007ORDERED\020\000\022\010\n\004HAS" +
+      "H\020\001*<\n\rSweepStrategy\022\013\n\007NOTHING\020\000\022\020\n\014CON" +
+      "SERVATIVE\020\001\022\014\n\010THOROUGH\020\002*;\n\022ExpirationS" +
+      "trategy\022\t\n\005NEVER\020\000\022\032\n\026INDIVIDUALLY_SPECI" +
+      "FIED\020\001*!\n\tLogSafety\022\010\n\004SAFE\020\000\022\n\n\006UNSAFE\020" +
+      "\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -9336,7 +9579,7 @@ public final class TableMetadataPersistence {
     internal_static_com_palantir_atlasdb_protos_generated_TableMetadata_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_com_palantir_atlasdb_protos_generated_TableMetadata_descriptor,
-        new java.lang.String[] { "RowName", "Columns", "ConflictHandler", "CachePriority", "PartitionStrategy", "RangeScanAllowed", "ExplicitCompression", "NegativeLookups", "SweepStrategy", "ExplicitCompressionBlockSizeKiloBytes", "AppendHeavyAndReadLight", "NameLogSafety", });
+        new java.lang.String[] { "RowName", "Columns", "ConflictHandler", "CachePriority", "PartitionStrategy", "RangeScanAllowed", "ExplicitCompression", "NegativeLookups", "SweepStrategy", "ExplicitCompressionBlockSizeKiloBytes", "AppendHeavyAndReadLight", "NameLogSafety", "ImmutableValues", });
     internal_static_com_palantir_atlasdb_protos_generated_NameMetadataDescription_descriptor =
       getDescriptor().getMessageTypes().get(1);
     internal_static_com_palantir_atlasdb_protos_generated_NameMetadataDescription_fieldAccessorTable = new
@@ -9372,7 +9615,7 @@ public final class TableMetadataPersistence {
     internal_static_com_palantir_atlasdb_protos_generated_ColumnValueDescription_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_com_palantir_atlasdb_protos_generated_ColumnValueDescription_descriptor,
-        new java.lang.String[] { "Type", "ClassName", "Compression", "Format", "CanonicalClassName", "ProtoFileDescriptor", "ProtoMessageName", "ProtoFileDescriptorTree", });
+        new java.lang.String[] { "Type", "ClassName", "Compression", "Format", "CanonicalClassName", "ProtoFileDescriptor", "ProtoMessageName", "ProtoFileDescriptorTree", "CompressionDictionary", });
     internal_static_com_palantir_atlasdb_protos_generated_FileDescriptorTreeProto_descriptor =
       getDescriptor().getMessageTypes().get(7);
     internal_static_com_palantir_atlasdb_protos_generated_FileDescriptorTreeProto_fieldAccessorTable = new
@@ -107,6 +107,7 @@ public final class AtlasDbConstants {
 
     public static final boolean DEFAULT_ENABLE_SWEEP = true;
     public static final long DEFAULT_SWEEP_PAUSE_MILLIS = 5 * 1000;
+    public static final int DEFAULT_SWEEP_THREADS = 1;
     public static final long DEFAULT_SWEEP_PERSISTENT_LOCK_WAIT_MILLIS = 30_000L;
     public static final int DEFAULT_SWEEP_DELETE_BATCH_HINT = 1_000;
     public static final int DEFAULT_SWEEP_CANDIDATE_BATCH_HINT_CASSANDRA = 1;
@@ -117,6 +118,7 @@ public final class AtlasDbConstants {
     public static final int DEFAULT_STREAM_IN_MEMORY_THRESHOLD = 4 * 1024 * 1024;
 
     public static final long DEFAULT_TIMESTAMP_CACHE_SIZE = 1_000_000;
+    public static final long DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES = 0;
 
     public static final int MAX_TABLE_PREFIX_LENGTH = 7;
     public static final int MAX_OVERFLOW_TABLE_PREFIX_LENGTH = 6;
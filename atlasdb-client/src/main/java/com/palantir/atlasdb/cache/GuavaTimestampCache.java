@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+
+/**
+ * {@link TimestampCache} backed by an on-heap Guava {@link Cache}.
+ */
+public class GuavaTimestampCache implements TimestampCache {
+    private final Cache<Long, Long> startToCommitTimestampCache;
+
+    @VisibleForTesting
+    static Cache<Long, Long> createCache(long size) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .recordStats()
+                .build();
+    }
+
+    public GuavaTimestampCache(Supplier<Long> size) {
+        startToCommitTimestampCache = createCache(size.get());
+        AtlasDbMetrics.registerCache(startToCommitTimestampCache,
+                MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
+    }
+
+    @VisibleForTesting
+    GuavaTimestampCache(Cache<Long, Long> cache) {
+        this.startToCommitTimestampCache = cache;
+    }
+
+    @Nullable
+    @Override
+    public Long getCommitTimestampIfPresent(Long startTimestamp) {
+        return startToCommitTimestampCache.getIfPresent(startTimestamp);
+    }
+
+    @Override
+    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
+        startToCommitTimestampCache.put(startTimestamp, commitTimestamp);
+    }
+
+    @Override
+    public void clear() {
+        startToCommitTimestampCache.invalidateAll();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.table.description.TableMetadata;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+
+/**
+ * Process-wide cache of committed cell values for tables whose values are never overwritten once written.
+ *
+ * A table opts in with {@link com.palantir.atlasdb.table.description.TableDefinition#immutableValues()}, which
+ * asserts that a cell, once committed, is never overwritten or deleted. A cached value is only served to transactions
+ * whose start timestamp is after the commit timestamp of the transaction that wrote it, which is exactly the set of
+ * transactions that would have read it from the key value service.
+ *
+ * The cache is bounded by the approximate number of bytes held, and records hit and miss meters per table. Tables
+ * that are truncated, dropped or have their metadata changed must be {@link #invalidate invalidated}; see
+ * {@link ImmutableTableCacheInvalidatingKeyValueService}.
+ */
+public final class ImmutableTableCache {
+    private static final Logger log = LoggerFactory.getLogger(ImmutableTableCache.class);
+
+    private static final ImmutableTableCache DISABLED = new ImmutableTableCache(
+            CacheLoader.from(tableRef -> false), 0L);
+
+    private final LoadingCache<TableReference, Boolean> cacheableTables;
+    private final Cache<CacheKey, CachedValue> values;
+    private final ConcurrentMap<TableReference, Meter> hitMeters = Maps.newConcurrentMap();
+    private final ConcurrentMap<TableReference, Meter> missMeters = Maps.newConcurrentMap();
+
+    public static ImmutableTableCache create(KeyValueService keyValueService, long maxSizeBytes) {
+        return new ImmutableTableCache(new CacheLoader<TableReference, Boolean>() {
+            @Override
+            public Boolean load(TableReference tableRef) {
+                byte[] metadata = keyValueService.getMetadataForTable(tableRef);
+                if (metadata == null || metadata.length == 0) {
+                    log.debug("Not caching reads from table {} as it has no metadata.", tableRef);
+                    return false;
+                }
+                return isCacheable(TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata));
+            }
+        }, maxSizeBytes);
+    }
+
+    public static ImmutableTableCache disabled() {
+        return DISABLED;
+    }
+
+    @VisibleForTesting
+    ImmutableTableCache(CacheLoader<TableReference, Boolean> cacheableTablesLoader, long maxSizeBytes) {
+        this.cacheableTables = CacheBuilder.newBuilder().build(cacheableTablesLoader);
+        this.values = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((CacheKey key, CachedValue value) -> key.weight() + value.contents.length)
+                .recordStats()
+                .build();
+        if (maxSizeBytes > 0) {
+            AtlasDbMetrics.registerCache(values, MetricRegistry.name(ImmutableTableCache.class, "values"));
+        }
+    }
+
+    @VisibleForTesting
+    static boolean isCacheable(TableMetadata metadata) {
+        return metadata.hasImmutableValues();
+    }
+
+    public boolean isCacheable(TableReference tableRef) {
+        return cacheableTables.getUnchecked(tableRef);
+    }
+
+    /**
+     * Returns the cached values for those of the given cells that are visible to a transaction with the given
+     * start timestamp. Cells that are absent from the result must be read from the key value service.
+     */
+    public Map<Cell, byte[]> getVisible(TableReference tableRef, Set<Cell> cells, long startTimestamp) {
+        Map<Cell, byte[]> result = Maps.newHashMapWithExpectedSize(cells.size());
+        for (Cell cell : cells) {
+            CachedValue cached = values.getIfPresent(new CacheKey(tableRef, cell));
+            if (cached != null && cached.commitTimestamp < startTimestamp) {
+                result.put(cell, cached.contents);
+            }
+        }
+        if (!result.isEmpty()) {
+            meter(hitMeters, tableRef, "hit").mark(result.size());
+        }
+        if (result.size() < cells.size()) {
+            meter(missMeters, tableRef, "miss").mark(cells.size() - result.size());
+        }
+        return result;
+    }
+
+    /**
+     * Records a committed, non-empty value. Callers must have checked {@link #isCacheable(TableReference)}.
+     */
+    public void put(TableReference tableRef, Cell cell, byte[] contents, long commitTimestamp) {
+        if (contents.length == 0) {
+            return;
+        }
+        CacheKey key = new CacheKey(tableRef, cell);
+        CachedValue existing = values.getIfPresent(key);
+        // Keep the entry visible to the widest set of readers.
+        if (existing == null || existing.commitTimestamp > commitTimestamp) {
+            values.put(key, new CachedValue(contents, commitTimestamp));
+        }
+    }
+
+    /**
+     * Forgets the cached values and cacheability of the given tables.
+     */
+    public void invalidate(Collection<TableReference> tableRefs) {
+        values.asMap().keySet().removeIf(key -> tableRefs.contains(key.tableRef));
+        cacheableTables.invalidateAll(tableRefs);
+    }
+
+    public void clear() {
+        values.invalidateAll();
+        cacheableTables.invalidateAll();
+    }
+
+    private static Meter meter(ConcurrentMap<TableReference, Meter> meters, TableReference tableRef, String name) {
+        return meters.computeIfAbsent(tableRef, ref -> AtlasDbMetrics.getMetricRegistry().meter(
+                MetricRegistry.name(ImmutableTableCache.class, ref.getQualifiedName(), name)));
+    }
+
+    private static final class CacheKey {
+        private final TableReference tableRef;
+        private final Cell cell;
+
+        CacheKey(TableReference tableRef, Cell cell) {
+            this.tableRef = tableRef;
+            this.cell = cell;
+        }
+
+        int weight() {
+            return (int) Cells.getApproxSizeOfCell(cell);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) other;
+            return tableRef.equals(that.tableRef) && cell.equals(that.cell);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tableRef, cell);
+        }
+    }
+
+    private static final class CachedValue {
+        private final byte[] contents;
+        private final long commitTimestamp;
+
+        CachedValue(byte[] contents, long commitTimestamp) {
+            this.contents = contents;
+            this.commitTimestamp = commitTimestamp;
+        }
+    }
+}
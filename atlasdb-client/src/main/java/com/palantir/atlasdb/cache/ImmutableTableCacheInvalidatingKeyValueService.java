@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.ForwardingKeyValueService;
+
+/**
+ * Invalidates tables in an {@link ImmutableTableCache} when they are truncated, dropped, range deleted or have their
+ * metadata changed through this key value service, as cells of such tables may then be written again.
+ */
+public final class ImmutableTableCacheInvalidatingKeyValueService extends ForwardingKeyValueService {
+    private final KeyValueService delegate;
+    private final ImmutableTableCache cache;
+
+    private ImmutableTableCacheInvalidatingKeyValueService(KeyValueService delegate, ImmutableTableCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    public static KeyValueService create(KeyValueService delegate, ImmutableTableCache cache) {
+        return new ImmutableTableCacheInvalidatingKeyValueService(delegate, cache);
+    }
+
+    @Override
+    protected KeyValueService delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void createTable(TableReference tableRef, byte[] tableMetadata) {
+        delegate().createTable(tableRef, tableMetadata);
+        cache.invalidate(ImmutableSet.of(tableRef));
+    }
+
+    @Override
+    public void createTables(Map<TableReference, byte[]> tableRefToTableMetadata) {
+        delegate().createTables(tableRefToTableMetadata);
+        cache.invalidate(tableRefToTableMetadata.keySet());
+    }
+
+    @Override
+    public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
+        delegate().putMetadataForTable(tableRef, metadata);
+        cache.invalidate(ImmutableSet.of(tableRef));
+    }
+
+    @Override
+    public void putMetadataForTables(Map<TableReference, byte[]> tableRefToMetadata) {
+        delegate().putMetadataForTables(tableRefToMetadata);
+        cache.invalidate(tableRefToMetadata.keySet());
+    }
+
+    @Override
+    public void deleteRange(TableReference tableRef, RangeRequest range) {
+        delegate().deleteRange(tableRef, range);
+        cache.invalidate(ImmutableSet.of(tableRef));
+    }
+
+    @Override
+    public void truncateTable(TableReference tableRef) {
+        delegate().truncateTable(tableRef);
+        cache.invalidate(ImmutableSet.of(tableRef));
+    }
+
+    @Override
+    public void truncateTables(Set<TableReference> tableRefs) {
+        delegate().truncateTables(tableRefs);
+        cache.invalidate(tableRefs);
+    }
+
+    @Override
+    public void dropTable(TableReference tableRef) {
+        delegate().dropTable(tableRef);
+        cache.invalidate(ImmutableSet.of(tableRef));
+    }
+
+    @Override
+    public void dropTables(Set<TableReference> tableRefs) {
+        delegate().dropTables(tableRefs);
+        cache.invalidate(tableRefs);
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+
+/**
+ * {@link TimestampCache} that stores start to commit timestamp pairs in open-addressed tables of primitive longs
+ * held in direct memory, so that caching many millions of transactions neither boxes timestamps nor adds to the
+ * amount of heap the garbage collector has to trace.
+ *
+ * The cache is split into independently locked segments. Each segment is a linear-probing hash table that grows
+ * on demand up to its share of the configured size, after which entries are evicted using the CLOCK (second chance)
+ * approximation of LRU. The configured size is re-read from the supplier periodically and the segments are resized
+ * in place when it changes.
+ */
+public final class OffHeapTimestampCache implements TimestampCache {
+    private static final int NUM_SEGMENTS = 16;
+    private static final long SIZE_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Supplier<Long> size;
+    private final Segment[] segments;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private volatile long currentSize;
+    private volatile long nextSizeCheckNanos;
+
+    public OffHeapTimestampCache(Supplier<Long> size) {
+        this(size, MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp", "cache"));
+    }
+
+    @VisibleForTesting
+    OffHeapTimestampCache(Supplier<Long> size, String metricsPrefix) {
+        this.size = size;
+        this.currentSize = checkSize(size.get());
+        this.nextSizeCheckNanos = System.nanoTime() + SIZE_CHECK_INTERVAL_NANOS;
+        this.segments = new Segment[NUM_SEGMENTS];
+        for (int i = 0; i < NUM_SEGMENTS; i++) {
+            segments[i] = new Segment(maxEntriesPerSegment(currentSize));
+        }
+        MetricRegistry metricRegistry = AtlasDbMetrics.getMetricRegistry();
+        this.hits = metricRegistry.counter(MetricRegistry.name(metricsPrefix, "hit.count"));
+        this.misses = metricRegistry.counter(MetricRegistry.name(metricsPrefix, "miss.count"));
+        this.evictions = metricRegistry.counter(MetricRegistry.name(metricsPrefix, "eviction.count"));
+        registerGauge(metricRegistry, MetricRegistry.name(metricsPrefix, "request.count"), this::requestCount);
+        registerGauge(metricRegistry, MetricRegistry.name(metricsPrefix, "hit.ratio"), this::hitRatio);
+        registerGauge(metricRegistry, MetricRegistry.name(metricsPrefix, "miss.ratio"), () -> 1.0 - hitRatio());
+        registerGauge(metricRegistry, MetricRegistry.name(metricsPrefix, "estimated.size"), this::size);
+        registerGauge(metricRegistry, MetricRegistry.name(metricsPrefix, "maximum.size"), () -> currentSize);
+    }
+
+    @Nullable
+    @Override
+    public Long getCommitTimestampIfPresent(Long startTimestamp) {
+        long hash = hash(startTimestamp);
+        long commitTimestamp = segmentFor(hash).get(startTimestamp, hash);
+        if (commitTimestamp == Segment.ABSENT) {
+            misses.inc();
+            return null;
+        }
+        hits.inc();
+        return commitTimestamp;
+    }
+
+    @Override
+    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
+        if (startTimestamp == Segment.EMPTY_KEY || commitTimestamp == Segment.ABSENT) {
+            // reserved as markers in the table; we never see these for real transactions
+            return;
+        }
+        maybeResize();
+        long hash = hash(startTimestamp);
+        recordEvictions(segmentFor(hash).put(startTimestamp, commitTimestamp, hash));
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries held by this cache, evicting entries if the cache is shrinking.
+     *
+     * @param newSize new maximum number of entries
+     */
+    public synchronized void resize(long newSize) {
+        checkSize(newSize);
+        if (newSize == currentSize) {
+            return;
+        }
+        currentSize = newSize;
+        long evicted = 0;
+        for (Segment segment : segments) {
+            evicted += segment.resize(maxEntriesPerSegment(newSize));
+        }
+        recordEvictions(evicted);
+    }
+
+    @VisibleForTesting
+    long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    private void maybeResize() {
+        long now = System.nanoTime();
+        if (now - nextSizeCheckNanos < 0) {
+            return;
+        }
+        nextSizeCheckNanos = now + SIZE_CHECK_INTERVAL_NANOS;
+        long newSize = size.get();
+        if (newSize != currentSize) {
+            resize(newSize);
+        }
+    }
+
+    private long requestCount() {
+        return hits.getCount() + misses.getCount();
+    }
+
+    // matches Guava's CacheStats, which reports a hit rate of 1 before the first request
+    private double hitRatio() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hits.getCount() / requests;
+    }
+
+    private static <T> void registerGauge(MetricRegistry metricRegistry, String name, Gauge<T> gauge) {
+        // as with AtlasDbMetrics.registerCache, the first cache registered under a name keeps it
+        if (!metricRegistry.getGauges().containsKey(name)) {
+            metricRegistry.register(name, gauge);
+        }
+    }
+
+    private void recordEvictions(long evicted) {
+        if (evicted > 0) {
+            evictions.inc(evicted);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 60) & (NUM_SEGMENTS - 1)];
+    }
+
+    private static long checkSize(long cacheSize) {
+        Preconditions.checkArgument(cacheSize > 0, "Timestamp cache size must be positive, but was %s", cacheSize);
+        return cacheSize;
+    }
+
+    private static int maxEntriesPerSegment(long cacheSize) {
+        long perSegment = (cacheSize + NUM_SEGMENTS - 1) / NUM_SEGMENTS;
+        return (int) Math.min(perSegment, Segment.MAX_ENTRIES);
+    }
+
+    /**
+     * Variant of the murmur3 64-bit finalizer. Start timestamps are dense and mostly sequential, so the high bits
+     * (used to pick the segment) and the low bits (used to pick the slot) both need to be well mixed.
+     */
+    private static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * A single linear-probing table. Slot i holds the start timestamp at byte offset 16 * i and the commit
+     * timestamp at 16 * i + 8 of {@link Table#entries}, and its CLOCK reference bit at byte i of
+     * {@link Table#referenced}.
+     *
+     * Reads are optimistic and only fall back to taking the read lock if they raced with a write; all mutations
+     * take the write lock.
+     */
+    private static final class Segment {
+        static final long EMPTY_KEY = Long.MIN_VALUE;
+        static final long ABSENT = Long.MIN_VALUE;
+        // keeps the entries buffer within the 2GB a ByteBuffer can address
+        static final int MAX_ENTRIES = 1 << 25;
+
+        private static final int ENTRY_BYTES = 2 * Long.BYTES;
+        private static final int MIN_CAPACITY = 64;
+        private static final double MAX_LOAD_FACTOR = 0.75;
+
+        private final StampedLock lock = new StampedLock();
+
+        private volatile Table table;
+        private int maxEntries;
+        private int count;
+        private int clockHand;
+
+        Segment(int maxEntries) {
+            this.maxEntries = maxEntries;
+            this.table = new Table(initialCapacity(maxEntries));
+        }
+
+        long get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table current = table;
+                int slot = current.find(key, hash);
+                long value = slot < 0 ? ABSENT : current.value(slot);
+                if (lock.validate(stamp)) {
+                    if (slot >= 0) {
+                        current.setReferenced(slot);
+                    }
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                Table current = table;
+                int slot = current.find(key, hash);
+                if (slot < 0) {
+                    return ABSENT;
+                }
+                current.setReferenced(slot);
+                return current.value(slot);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Returns the number of entries evicted to make room for this one.
+         */
+        int put(long key, long value, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    table.setValue(slot, value);
+                    return 0;
+                }
+                int evicted = 0;
+                if (count >= maxEntries) {
+                    evicted = evictOne();
+                } else if (count + 1 > table.capacity * MAX_LOAD_FACTOR) {
+                    rehash(table.capacity * 2);
+                }
+                table.setReferenced(table.insert(key, value, hash));
+                count++;
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int resize(int newMaxEntries) {
+            long stamp = lock.writeLock();
+            try {
+                maxEntries = newMaxEntries;
+                int evicted = 0;
+                while (count > maxEntries) {
+                    evicted += evictOne();
+                }
+                int capacity = Math.max(initialCapacity(maxEntries), capacityFor(count));
+                if (capacity != table.capacity) {
+                    rehash(capacity);
+                }
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(initialCapacity(maxEntries));
+                count = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return count;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Advances the clock hand to the first occupied slot whose reference bit is clear, clearing reference bits
+         * as it passes them, and removes that slot's entry.
+         */
+        private int evictOne() {
+            Table current = table;
+            while (true) {
+                int slot = clockHand;
+                clockHand = (clockHand + 1) & current.mask;
+                if (current.key(slot) == EMPTY_KEY) {
+                    continue;
+                }
+                if (current.isReferenced(slot)) {
+                    current.clearReferenced(slot);
+                    continue;
+                }
+                current.remove(slot);
+                count--;
+                // Removal may have shifted a later entry into this slot; give it a chance to be visited.
+                clockHand = slot;
+                return 1;
+            }
+        }
+
+        private void rehash(int newCapacity) {
+            Table oldTable = table;
+            Table newTable = new Table(newCapacity);
+            for (int slot = 0; slot < oldTable.capacity; slot++) {
+                long key = oldTable.key(slot);
+                if (key != EMPTY_KEY) {
+                    int newSlot = newTable.insert(key, oldTable.value(slot), hash(key));
+                    if (oldTable.isReferenced(slot)) {
+                        newTable.setReferenced(newSlot);
+                    }
+                }
+            }
+            clockHand = 0;
+            table = newTable;
+        }
+
+        private static int initialCapacity(int entries) {
+            return Math.min(MIN_CAPACITY * 16, capacityFor(entries));
+        }
+
+        private static int capacityFor(int entries) {
+            long needed = (long) Math.ceil(entries / MAX_LOAD_FACTOR) + 1;
+            return (int) Math.max(MIN_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+        }
+    }
+
+    private static final class Table {
+        private final ByteBuffer entries;
+        private final ByteBuffer referenced;
+        private final int capacity;
+        private final int mask;
+
+        Table(int capacity) {
+            Preconditions.checkArgument(Integer.bitCount(capacity) == 1, "capacity must be a power of two");
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.entries = ByteBuffer.allocateDirect(capacity * Segment.ENTRY_BYTES).order(ByteOrder.nativeOrder());
+            this.referenced = ByteBuffer.allocateDirect(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                setKey(slot, Segment.EMPTY_KEY);
+            }
+        }
+
+        /**
+         * Returns the slot holding the given key, or -1 if it is not present. The probe is bounded by the table
+         * capacity so that an optimistic read racing with a writer always terminates.
+         */
+        int find(long key, long hash) {
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < capacity; probes++) {
+                long slotKey = key(slot);
+                if (slotKey == key) {
+                    return slot;
+                }
+                if (slotKey == Segment.EMPTY_KEY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int insert(long key, long value, long hash) {
+            int slot = (int) hash & mask;
+            while (key(slot) != Segment.EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            setValue(slot, value);
+            setKey(slot, key);
+            return slot;
+        }
+
+        /**
+         * Deletes the entry at the given slot, shifting back any later entries in the same probe run so that
+         * lookups never need tombstones.
+         */
+        void remove(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (true) {
+                long nextKey = key(next);
+                if (nextKey == Segment.EMPTY_KEY) {
+                    break;
+                }
+                int ideal = (int) hash(nextKey) & mask;
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    setKey(hole, nextKey);
+                    setValue(hole, value(next));
+                    if (isReferenced(next)) {
+                        setReferenced(hole);
+                    } else {
+                        clearReferenced(hole);
+                    }
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            setKey(hole, Segment.EMPTY_KEY);
+            clearReferenced(hole);
+        }
+
+        long key(int slot) {
+            return entries.getLong(slot * Segment.ENTRY_BYTES);
+        }
+
+        long value(int slot) {
+            return entries.getLong(slot * Segment.ENTRY_BYTES + Long.BYTES);
+        }
+
+        void setValue(int slot, long value) {
+            entries.putLong(slot * Segment.ENTRY_BYTES + Long.BYTES, value);
+        }
+
+        boolean isReferenced(int slot) {
+            return referenced.get(slot) != 0;
+        }
+
+        void setReferenced(int slot) {
+            referenced.put(slot, (byte) 1);
+        }
+
+        void clearReferenced(int slot) {
+            referenced.put(slot, (byte) 0);
+        }
+
+        private void setKey(int slot, long key) {
+            entries.putLong(slot * Segment.ENTRY_BYTES, key);
+        }
+    }
+}
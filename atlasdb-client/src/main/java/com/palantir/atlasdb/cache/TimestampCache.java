@@ -15,46 +15,13 @@
  */
 package com.palantir.atlasdb.cache;
 
-import java.util.concurrent.ConcurrentMap;
-
 import javax.annotation.Nullable;
 
-import com.codahale.metrics.MetricRegistry;
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.palantir.atlasdb.util.AtlasDbMetrics;
-
 /**
- * This class just here for readability and not directly leaking / tying us down to a Guava class in our API.
+ * Cache of start timestamp to commit timestamp for transactions that are known to have already committed (or
+ * failed to commit) in the backing transaction store.
  */
-public class TimestampCache {
-    private final Supplier<Long> size;
-
-    private volatile Cache<Long, Long> startToCommitTimestampCache;
-
-    @VisibleForTesting
-    static Cache<Long, Long> createCache(long size) {
-        return CacheBuilder.newBuilder()
-                .maximumSize(size)
-                .recordStats()
-                .build();
-    }
-
-    public TimestampCache(Supplier<Long> size) {
-        this.size = size;
-        startToCommitTimestampCache = createCache(size.get());
-        AtlasDbMetrics.registerCache(startToCommitTimestampCache,
-                MetricRegistry.name(TimestampCache.class, "startToCommitTimestamp"));
-    }
-
-    @VisibleForTesting
-    TimestampCache(Cache<Long, Long> cache) {
-        this.size = null;
-        this.startToCommitTimestampCache = cache;
-    }
-
+public interface TimestampCache {
     /**
      * Returns null if not present.
      *
@@ -62,9 +29,7 @@ public class TimestampCache {
      * @return commit timestamp for the specified transaction start timestamp if present in cache, otherwise null
      */
     @Nullable
-    public Long getCommitTimestampIfPresent(Long startTimestamp) {
-        return startToCommitTimestampCache.getIfPresent(startTimestamp);
-    }
+    Long getCommitTimestampIfPresent(Long startTimestamp);
 
     /**
      * Be very careful to only insert timestamps here that are already present in the backing store,
@@ -73,22 +38,10 @@ public class TimestampCache {
      * @param startTimestamp transaction start timestamp
      * @param commitTimestamp transaction commit timestamp
      */
-    public void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp) {
-        startToCommitTimestampCache.put(startTimestamp, commitTimestamp);
-    }
+    void putAlreadyCommittedTransaction(Long startTimestamp, Long commitTimestamp);
 
     /**
      * Clear all values from the cache.
      */
-    public void clear() {
-        startToCommitTimestampCache.invalidateAll();
-    }
-
-    // TODO(2565): create a background thread periodically polls the supplier to look for a change and
-    // resizes accordingly.
-    private void resize(long newSize) {
-        ConcurrentMap<Long, Long> existing = startToCommitTimestampCache.asMap();
-        startToCommitTimestampCache = createCache(newSize);
-        startToCommitTimestampCache.putAll(existing);
-    }
+    void clear();
 }
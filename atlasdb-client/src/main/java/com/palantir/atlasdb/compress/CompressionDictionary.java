@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.compress;
+
+import java.util.Arrays;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * A Zstandard dictionary for compressing small values of a table. Small values compress poorly on their own because
+ * there is little repetition within a single value; a dictionary trained on sample values lets the compressor refer
+ * to content common to all values of the table instead.
+ *
+ * The dictionary is stored with the table metadata and compiled into the generated table code, so it must not
+ * change once values have been written with it.
+ */
+public final class CompressionDictionary {
+    /**
+     * Dictionaries are embedded as base64 string constants in generated code, which limits their size.
+     */
+    public static final int MAX_SIZE_BYTES = 16 * 1024;
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    private static final int MAX_SAMPLE_BYTES = 100 * MAX_SIZE_BYTES;
+
+    private final byte[] bytes;
+    private final Supplier<ZstdDictCompress> compressDictionary;
+    private final Supplier<ZstdDictDecompress> decompressDictionary;
+
+    private CompressionDictionary(byte[] bytes) {
+        Preconditions.checkArgument(bytes.length > 0, "Compression dictionary must not be empty");
+        Preconditions.checkArgument(bytes.length <= MAX_SIZE_BYTES,
+                "Compression dictionary is %s bytes, but must be at most %s bytes", bytes.length, MAX_SIZE_BYTES);
+        this.bytes = bytes;
+        this.compressDictionary = Suppliers.memoize(
+                () -> new ZstdDictCompress(bytes, DEFAULT_COMPRESSION_LEVEL));
+        this.decompressDictionary = Suppliers.memoize(() -> new ZstdDictDecompress(bytes));
+    }
+
+    public static CompressionDictionary of(byte[] bytes) {
+        return new CompressionDictionary(bytes.clone());
+    }
+
+    public static CompressionDictionary fromBase64(String base64) {
+        return new CompressionDictionary(BaseEncoding.base64().decode(base64));
+    }
+
+    /**
+     * Trains a dictionary of at most the given size on sample values of a table. The samples should be
+     * representative of the values that will be written; a few thousand values are usually enough.
+     */
+    public static CompressionDictionary train(Iterable<byte[]> samples, int maxSizeBytes) {
+        Preconditions.checkArgument(maxSizeBytes > 0 && maxSizeBytes <= MAX_SIZE_BYTES,
+                "Dictionary size must be between 1 and %s bytes, but was %s", MAX_SIZE_BYTES, maxSizeBytes);
+        ZstdDictTrainer trainer = new ZstdDictTrainer(MAX_SAMPLE_BYTES, maxSizeBytes);
+        for (byte[] sample : samples) {
+            if (!trainer.addSample(sample)) {
+                break;
+            }
+        }
+        return new CompressionDictionary(trainer.trainSamples());
+    }
+
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    public String toBase64() {
+        return BaseEncoding.base64().encode(bytes);
+    }
+
+    ZstdDictCompress compressDictionary() {
+        return compressDictionary.get();
+    }
+
+    ZstdDictDecompress decompressDictionary() {
+        return decompressDictionary.get();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(bytes, ((CompressionDictionary) obj).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionDictionary{" + bytes.length + " bytes}";
+    }
+}
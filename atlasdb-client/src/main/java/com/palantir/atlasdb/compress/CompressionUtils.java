@@ -16,20 +16,48 @@
 package com.palantir.atlasdb.compress;
 
 import java.io.IOException;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
 
 import org.xerial.snappy.Snappy;
 
+import com.github.luben.zstd.Zstd;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.common.base.Throwables;
 
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
 public final class CompressionUtils {
+    private static final LZ4Compressor LZ4_COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor LZ4_DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
     private CompressionUtils() {
         // empty
     }
 
     public static byte[] compress(byte[] bytes, Compression compressionType) {
+        return compress(bytes, compressionType, null);
+    }
+
+    /**
+     * Compresses the given bytes. A dictionary may only be given for {@link Compression#ZSTD}, and the same
+     * dictionary must then be used to decompress the result.
+     */
+    public static byte[] compress(byte[] bytes, Compression compressionType,
+            @Nullable CompressionDictionary dictionary) {
+        checkDictionary(compressionType, dictionary);
         if (compressionType == Compression.SNAPPY) {
             return compressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return compressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return compressWithZstd(bytes, dictionary);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -38,8 +66,18 @@ public final class CompressionUtils {
     }
 
     public static byte[] decompress(byte[] bytes, Compression compressionType) {
+        return decompress(bytes, compressionType, null);
+    }
+
+    public static byte[] decompress(byte[] bytes, Compression compressionType,
+            @Nullable CompressionDictionary dictionary) {
+        checkDictionary(compressionType, dictionary);
         if (compressionType == Compression.SNAPPY) {
             return decompressWithSnappy(bytes);
+        } else if (compressionType == Compression.LZ4) {
+            return decompressWithLz4(bytes);
+        } else if (compressionType == Compression.ZSTD) {
+            return decompressWithZstd(bytes, dictionary);
         } else if (compressionType == Compression.NONE) {
             return bytes;
         } else {
@@ -47,6 +85,11 @@ public final class CompressionUtils {
         }
     }
 
+    private static void checkDictionary(Compression compressionType, @Nullable CompressionDictionary dictionary) {
+        Preconditions.checkArgument(dictionary == null || compressionType == Compression.ZSTD,
+                "Compression dictionaries are only supported by ZSTD compression, not %s", compressionType);
+    }
+
     public static byte[] compressWithSnappy(byte[] bytes) {
         try {
             return Snappy.compress(bytes);
@@ -65,4 +108,56 @@ public final class CompressionUtils {
             throw Throwables.throwUncheckedException(e);
         }
     }
+
+    /**
+     * LZ4 blocks do not record the length of the uncompressed data, so it is written in front of the block.
+     */
+    public static byte[] compressWithLz4(byte[] bytes) {
+        byte[] compressed = new byte[Ints.BYTES + LZ4_COMPRESSOR.maxCompressedLength(bytes.length)];
+        System.arraycopy(Ints.toByteArray(bytes.length), 0, compressed, 0, Ints.BYTES);
+        int compressedLength = LZ4_COMPRESSOR.compress(bytes, 0, bytes.length, compressed, Ints.BYTES);
+        return Arrays.copyOf(compressed, Ints.BYTES + compressedLength);
+    }
+
+    public static byte[] decompressWithLz4(byte[] bytes) {
+        if (bytes.length < Ints.BYTES) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4");
+        }
+        int length = Ints.fromBytes(bytes[0], bytes[1], bytes[2], bytes[3]);
+        if (length < 0) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4");
+        }
+        byte[] decompressed = new byte[length];
+        try {
+            int compressedLength = LZ4_DECOMPRESSOR.decompress(bytes, Ints.BYTES, decompressed, 0, length);
+            if (Ints.BYTES + compressedLength != bytes.length) {
+                throw new IllegalArgumentException("Cannot decompress these bytes using LZ4");
+            }
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using LZ4", e);
+        }
+        return decompressed;
+    }
+
+    public static byte[] compressWithZstd(byte[] bytes, @Nullable CompressionDictionary dictionary) {
+        if (dictionary == null) {
+            return Zstd.compress(bytes, CompressionDictionary.DEFAULT_COMPRESSION_LEVEL);
+        }
+        return Zstd.compress(bytes, dictionary.compressDictionary());
+    }
+
+    public static byte[] decompressWithZstd(byte[] bytes, @Nullable CompressionDictionary dictionary) {
+        long length = Zstd.decompressedSize(bytes);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using Zstandard");
+        }
+        try {
+            if (dictionary == null) {
+                return Zstd.decompress(bytes, (int) length);
+            }
+            return Zstd.decompress(bytes, dictionary.decompressDictionary(), (int) length);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cannot decompress these bytes using Zstandard", e);
+        }
+    }
 }
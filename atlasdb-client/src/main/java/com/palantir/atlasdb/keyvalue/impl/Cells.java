@@ -127,7 +127,14 @@ public final class Cells {
      * The Collection provided to this function has to be sorted and strictly increasing.
      */
     public static <T> Iterator<RowResult<T>> createRowView(final Collection<Map.Entry<Cell, T>> sortedIterator) {
-        final PeekingIterator<Entry<Cell, T>> it = Iterators.peekingIterator(sortedIterator.iterator());
+        return createRowView(sortedIterator.iterator());
+    }
+
+    /**
+     * The Iterator provided to this function has to be sorted and strictly increasing.
+     */
+    public static <T> Iterator<RowResult<T>> createRowView(final Iterator<Map.Entry<Cell, T>> sortedIterator) {
+        final PeekingIterator<Entry<Cell, T>> it = Iterators.peekingIterator(sortedIterator);
         Iterator<Map.Entry<byte[], SortedMap<byte[], T>>> resultIt =
                 new AbstractIterator<Map.Entry<byte[], SortedMap<byte[], T>>>() {
             byte[] row = null;
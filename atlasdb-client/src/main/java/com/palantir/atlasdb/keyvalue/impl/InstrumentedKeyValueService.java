@@ -0,0 +1,1002 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+import com.google.common.primitives.Longs;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweeping;
+import com.palantir.atlasdb.keyvalue.api.CandidateCellForSweepingRequest;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetException;
+import com.palantir.atlasdb.keyvalue.api.CheckAndSetRequest;
+import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowColumnRangeIterator;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.logging.KvsProfilingLogger;
+import com.palantir.atlasdb.logging.KvsProfilingLogger.LoggingFunction;
+import com.palantir.atlasdb.logging.LoggingArgs;
+import com.palantir.atlasdb.tracing.CloseableTrace;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.remoting3.tracing.Tracer;
+import com.palantir.util.paging.TokenBackedBasicResultsPage;
+
+/**
+ * Instruments a {@link KeyValueService} in a single layer, doing the work of {@link ProfilingKeyValueService},
+ * {@link SweepStatsKeyValueService}, {@link TracingKeyValueService} and a {@link AtlasDbMetrics#instrument} proxy:
+ * <ul>
+ *     <li>each call updates a timer named after the method, and failures mark failure meters, using the same
+ *     metric names as the metrics proxy;</li>
+ *     <li>slow calls are logged to the {@link KvsProfilingLogger};</li>
+ *     <li>a tracing span is opened around each call when the current trace is observable;</li>
+ *     <li>writes and clears are reported to a {@link SweepStatsRecorder}.</li>
+ * </ul>
+ *
+ * Log messages and trace operation names are only built when they will be used, so a call that is neither traced
+ * nor slow allocates nothing beyond what the delegate does.
+ */
+public final class InstrumentedKeyValueService implements KeyValueService {
+    private static final String SERVICE_NAME = "atlasdb-kvs";
+    private static final String FAILURES = "failures";
+
+    private enum Operation {
+        ADD_GARBAGE_COLLECTION_SENTINEL_VALUES("addGarbageCollectionSentinelValues"),
+        CHECK_AND_SET("checkAndSet"),
+        CLOSE("close"),
+        COMPACT_INTERNALLY("compactInternally"),
+        CREATE_TABLE("createTable"),
+        CREATE_TABLES("createTables"),
+        DELETE("delete"),
+        DELETE_RANGE("deleteRange"),
+        DROP_TABLE("dropTable"),
+        DROP_TABLES("dropTables"),
+        GET("get"),
+        GET_ALL_TABLE_NAMES("getAllTableNames"),
+        GET_ALL_TIMESTAMPS("getAllTimestamps"),
+        GET_CANDIDATE_CELLS_FOR_SWEEPING("getCandidateCellsForSweeping"),
+        GET_CLUSTER_AVAILABILITY_STATUS("getClusterAvailabilityStatus"),
+        GET_FIRST_BATCH_FOR_RANGES("getFirstBatchForRanges"),
+        GET_LATEST_TIMESTAMPS("getLatestTimestamps"),
+        GET_METADATA_FOR_TABLE("getMetadataForTable"),
+        GET_METADATA_FOR_TABLES("getMetadataForTables"),
+        GET_RANGE("getRange"),
+        GET_RANGE_OF_TIMESTAMPS("getRangeOfTimestamps"),
+        GET_ROWS("getRows"),
+        GET_ROWS_COLUMN_RANGE("getRowsColumnRange"),
+        IS_INITIALIZED("isInitialized"),
+        MULTI_PUT("multiPut"),
+        PUT("put"),
+        PUT_METADATA_FOR_TABLE("putMetadataForTable"),
+        PUT_METADATA_FOR_TABLES("putMetadataForTables"),
+        PUT_UNLESS_EXISTS("putUnlessExists"),
+        PUT_WITH_TIMESTAMPS("putWithTimestamps"),
+        TRUNCATE_TABLE("truncateTable"),
+        TRUNCATE_TABLES("truncateTables");
+
+        private final String methodName;
+
+        Operation(String methodName) {
+            this.methodName = methodName;
+        }
+    }
+
+    private final KeyValueService delegate;
+    private final SweepStatsRecorder sweepStats;
+    private final MetricRegistry metricRegistry;
+    private final String metricPrefix;
+    private final Timer[] timers;
+    private final Meter failures;
+
+    private InstrumentedKeyValueService(KeyValueService delegate, SweepStatsRecorder sweepStats,
+            MetricRegistry metricRegistry, String metricPrefix) {
+        this.delegate = Preconditions.checkNotNull(delegate, "delegate");
+        this.sweepStats = Preconditions.checkNotNull(sweepStats, "sweepStats");
+        this.metricRegistry = metricRegistry;
+        this.metricPrefix = metricPrefix;
+        this.timers = new Timer[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            timers[operation.ordinal()] = metricRegistry.timer(MetricRegistry.name(metricPrefix, operation.methodName));
+        }
+        this.failures = metricRegistry.meter(MetricRegistry.name(metricPrefix, FAILURES));
+    }
+
+    /**
+     * Instruments the given key value service, reporting writes to the given recorder. Metrics are registered with
+     * the {@link AtlasDbMetrics} registry under the name of the {@link KeyValueService} interface.
+     */
+    public static InstrumentedKeyValueService create(KeyValueService delegate, SweepStatsRecorder sweepStats) {
+        return create(delegate, sweepStats, AtlasDbMetrics.getMetricRegistry(), KeyValueService.class.getName());
+    }
+
+    public static InstrumentedKeyValueService create(KeyValueService delegate, SweepStatsRecorder sweepStats,
+            MetricRegistry metricRegistry, String metricPrefix) {
+        return new InstrumentedKeyValueService(delegate, sweepStats, metricRegistry, metricPrefix);
+    }
+
+    @Override
+    public void addGarbageCollectionSentinelValues(TableReference tableRef, Iterable<Cell> cells) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("addGarbageCollectionSentinelValues({}, {} cells)", tableRef, Iterables.size(cells))
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.addGarbageCollectionSentinelValues(tableRef, cells);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.ADD_GARBAGE_COLLECTION_SENTINEL_VALUES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logger -> logger.log(
+                        "Call to KVS.addGarbageCollectionSentinelValues on table {} over {} cells took {} ms.",
+                        LoggingArgs.tableRef(tableRef),
+                        LoggingArgs.cellCount(Iterables.size(cells)),
+                        LoggingArgs.durationMillis(durationMillis)));
+            }
+        }
+    }
+
+    @Override
+    public void checkAndSet(CheckAndSetRequest request) throws CheckAndSetException {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("checkAndSet({}, {})", request.table(), request.cell())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.checkAndSet(request);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.CHECK_AND_SET, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logCellsAndSize(
+                        "checkAndSet", request.table(), 1, request.newValue().length, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        CloseableTrace trace = isTraceObservable() ? startLocalTrace("close()") : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            sweepStats.close();
+            delegate.close();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.CLOSE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logTime("close", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void compactInternally(TableReference tableRef) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("compactInternally({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.compactInternally(tableRef);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.COMPACT_INTERNALLY, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("compactInternally", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void createTable(TableReference tableRef, byte[] tableMetadata) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("createTable({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.createTable(tableRef, tableMetadata);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.CREATE_TABLE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("createTable", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void createTables(Map<TableReference, byte[]> tableRefToTableMetadata) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("createTables({})", tableRefToTableMetadata.keySet())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.createTables(tableRefToTableMetadata);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.CREATE_TABLES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableCount("createTables", tableRefToTableMetadata.size(), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void delete(TableReference tableRef, Multimap<Cell, Long> keys) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("delete({}, {} keys)", tableRef, keys.size())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.delete(tableRef, keys);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.DELETE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logCellsAndSize("delete", tableRef, keys.keySet().size(), byteSize(keys), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void deleteRange(TableReference tableRef, RangeRequest range) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("deleteRange({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.deleteRange(tableRef, range);
+            if (RangeRequest.all().equals(range)) {
+                // This is equivalent to truncate.
+                sweepStats.recordClear(tableRef);
+            }
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.DELETE_RANGE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableRange("deleteRange", tableRef, range, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void dropTable(TableReference tableRef) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("dropTable({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.dropTable(tableRef);
+            sweepStats.recordClear(tableRef);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.DROP_TABLE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logTimeAndTable("dropTable", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void dropTables(Set<TableReference> tableRefs) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("dropTables({})", tableRefs)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.dropTables(tableRefs);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.DROP_TABLES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableCount("dropTables", tableRefs.size(), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Map<Cell, Value> get(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("get({}, {} cells)", tableRef, timestampByCell.size())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        Map<Cell, Value> result = null;
+        try {
+            result = delegate.get(tableRef, timestampByCell);
+            return result;
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                Map<Cell, Value> loggedResult = result;
+                KvsProfilingLogger.log(durationMillis, failure, logger -> {
+                    logger.log("Call to KVS.get on table {}, requesting {} cells took {} ms ",
+                            LoggingArgs.tableRef(tableRef),
+                            LoggingArgs.cellCount(timestampByCell.size()),
+                            LoggingArgs.durationMillis(durationMillis));
+                    logResultSize(logger, loggedResult, 4L);
+                });
+            }
+        }
+    }
+
+    @Override
+    public Set<TableReference> getAllTableNames() {
+        CloseableTrace trace = isTraceObservable() ? startLocalTrace("getAllTableNames()") : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getAllTableNames();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_ALL_TABLE_NAMES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logTime("getAllTableNames", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Multimap<Cell, Long> getAllTimestamps(TableReference tableRef, Set<Cell> keys, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getAllTimestamps({}, {} keys, ts {})", tableRef, keys.size(), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getAllTimestamps(tableRef, keys, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_ALL_TIMESTAMPS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logCellsAndSize(
+                        "getAllTimestamps", tableRef, keys.size(), keys.size() * Longs.BYTES, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public ClosableIterator<List<CandidateCellForSweeping>> getCandidateCellsForSweeping(TableReference tableRef,
+            CandidateCellForSweepingRequest request) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getCandidateCellsForSweeping({}, ts {})", tableRef, request.sweepTimestamp())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getCandidateCellsForSweeping(tableRef, request);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_CANDIDATE_CELLS_FOR_SWEEPING, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTime("getCandidateCellsForSweeping", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public ClusterAvailabilityStatus getClusterAvailabilityStatus() {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getClusterAvailabilityStatus()")
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getClusterAvailabilityStatus();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_CLUSTER_AVAILABILITY_STATUS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTime("getClusterAvailabilityStatus", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Collection<? extends KeyValueService> getDelegates() {
+        return ImmutableList.of(delegate);
+    }
+
+    @Override
+    public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
+            TableReference tableRef, Iterable<RangeRequest> rangeRequests, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getFirstBatchForRanges({}, {} ranges, ts {})",
+                        tableRef, Iterables.size(rangeRequests), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_FIRST_BATCH_FOR_RANGES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("getFirstBatchForRanges", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Map<Cell, Long> getLatestTimestamps(TableReference tableRef, Map<Cell, Long> timestampByCell) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getLatestTimestamps({}, {} cells)", tableRef, timestampByCell.size())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getLatestTimestamps(tableRef, timestampByCell);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_LATEST_TIMESTAMPS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logCellsAndSize("getLatestTimestamps", tableRef,
+                        timestampByCell.size(), byteSize(timestampByCell), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public byte[] getMetadataForTable(TableReference tableRef) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getMetadataForTable({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getMetadataForTable(tableRef);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_METADATA_FOR_TABLE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("getMetadataForTable", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Map<TableReference, byte[]> getMetadataForTables() {
+        CloseableTrace trace = isTraceObservable() ? startLocalTrace("getMetadataForTables()") : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getMetadataForTables();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_METADATA_FOR_TABLES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logTime("getMetadataForTables", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest,
+            long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getRange({}, ts {})", tableRef, timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getRange(tableRef, rangeRequest, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_RANGE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableRange("getRange", tableRef, rangeRequest, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public ClosableIterator<RowResult<Set<Long>>> getRangeOfTimestamps(TableReference tableRef,
+            RangeRequest rangeRequest, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getRangeOfTimestamps({}, ts {})", tableRef, timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getRangeOfTimestamps(tableRef, rangeRequest, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_RANGE_OF_TIMESTAMPS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableRange("getRangeOfTimestamps", tableRef, rangeRequest, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public Map<Cell, Value> getRows(TableReference tableRef, Iterable<byte[]> rows, ColumnSelection columnSelection,
+            long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getRows({}, {} rows, ts {})", tableRef, Iterables.size(rows), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        Map<Cell, Value> result = null;
+        try {
+            result = delegate.getRows(tableRef, rows, columnSelection, timestamp);
+            return result;
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_ROWS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                Map<Cell, Value> loggedResult = result;
+                KvsProfilingLogger.log(durationMillis, failure, logger -> {
+                    logger.log("Call to KVS.getRows on table {} requesting {} columns from {} rows took {} ms ",
+                            LoggingArgs.tableRef(tableRef),
+                            LoggingArgs.columnCount(columnSelection),
+                            LoggingArgs.rowCount(Iterables.size(rows)),
+                            LoggingArgs.durationMillis(durationMillis));
+                    logResultSize(logger, loggedResult, 0L);
+                });
+            }
+        }
+    }
+
+    @Override
+    public Map<byte[], RowColumnRangeIterator> getRowsColumnRange(TableReference tableRef, Iterable<byte[]> rows,
+            BatchColumnRangeSelection batchColumnRangeSelection, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getRowsColumnRange({}, {} rows, ts {})", tableRef, Iterables.size(rows), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getRowsColumnRange(tableRef, rows, batchColumnRangeSelection, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_ROWS_COLUMN_RANGE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logger -> logger.log(
+                        "Call to KVS.getRowsColumnRange on table {} for {} rows with range {} took {} ms.",
+                        LoggingArgs.tableRef(tableRef),
+                        LoggingArgs.rowCount(Iterables.size(rows)),
+                        LoggingArgs.batchColumnRangeSelection(tableRef, batchColumnRangeSelection),
+                        LoggingArgs.durationMillis(durationMillis)));
+            }
+        }
+    }
+
+    @Override
+    public RowColumnRangeIterator getRowsColumnRange(TableReference tableRef, Iterable<byte[]> rows,
+            ColumnRangeSelection columnRangeSelection, int cellBatchHint, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("getRowsColumnRange({}, {} rows, {} hint, ts {})",
+                        tableRef, Iterables.size(rows), cellBatchHint, timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.getRowsColumnRange(tableRef, rows, columnRangeSelection, cellBatchHint, timestamp);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.GET_ROWS_COLUMN_RANGE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logger -> logger.log(
+                        "Call to KVS.getRowsColumnRange - CellBatch on table {} for {} rows with range {} "
+                                + "and batch hint {} took {} ms.",
+                        LoggingArgs.tableRef(tableRef),
+                        LoggingArgs.rowCount(Iterables.size(rows)),
+                        LoggingArgs.columnRangeSelection(tableRef, columnRangeSelection),
+                        LoggingArgs.batchHint(cellBatchHint),
+                        LoggingArgs.durationMillis(durationMillis)));
+            }
+        }
+    }
+
+    @Override
+    public boolean isInitialized() {
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return delegate.isInitialized();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.IS_INITIALIZED, startNanos, failure, CloseableTrace.noOp());
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logTime("isInitialized", durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void multiPut(Map<TableReference, ? extends Map<Cell, byte[]>> valuesByTable, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("multiPut({} values, ts {})", valuesByTable.size(), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.multiPut(valuesByTable, timestamp);
+            sweepStats.recordWrites(valuesByTable);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.MULTI_PUT, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logger -> {
+                    int totalCells = 0;
+                    long totalBytes = 0;
+                    for (Map<Cell, byte[]> values : valuesByTable.values()) {
+                        totalCells += values.size();
+                        totalBytes += byteSize(values);
+                    }
+                    logger.log(
+                            "Call to KVS.multiPut on {} tables putting {} total cells of {} total bytes took {} ms.",
+                            LoggingArgs.tableCount(valuesByTable.keySet().size()),
+                            LoggingArgs.cellCount(totalCells),
+                            LoggingArgs.sizeInBytes(totalBytes),
+                            LoggingArgs.durationMillis(durationMillis));
+                });
+            }
+        }
+    }
+
+    @Override
+    public void put(TableReference tableRef, Map<Cell, byte[]> values, long timestamp) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("put({}, {} values, ts {})", tableRef, values.size(), timestamp)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.put(tableRef, values, timestamp);
+            sweepStats.recordWrites(tableRef, values.size());
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.PUT, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logCellsAndSize("put", tableRef, values.size(), byteSize(values), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void putMetadataForTable(TableReference tableRef, byte[] metadata) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("putMetadataForTable({}, {} bytes)",
+                        tableRef, (metadata == null) ? 0 : metadata.length)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.putMetadataForTable(tableRef, metadata);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.PUT_METADATA_FOR_TABLE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("putMetadataForTable", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void putMetadataForTables(Map<TableReference, byte[]> tableRefToMetadata) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("putMetadataForTables({})", tableRefToMetadata.keySet())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.putMetadataForTables(tableRefToMetadata);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.PUT_METADATA_FOR_TABLES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableCount("putMetadataForTables", tableRefToMetadata.size(), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void putUnlessExists(TableReference tableRef, Map<Cell, byte[]> values) throws KeyAlreadyExistsException {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("putUnlessExists({}, {} values)", tableRef, values.size())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.putUnlessExists(tableRef, values);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.PUT_UNLESS_EXISTS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logCellsAndSize("putUnlessExists", tableRef, values.size(), byteSize(values), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void putWithTimestamps(TableReference tableRef, Multimap<Cell, Value> values) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("putWithTimestamps({}, {} values)", tableRef, values.size())
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.putWithTimestamps(tableRef, values);
+            sweepStats.recordWrites(tableRef, values.size());
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.PUT_WITH_TIMESTAMPS, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure, logCellsAndSize(
+                        "putWithTimestamps", tableRef, values.keySet().size(), byteSize(values), durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsCheckAndSet() {
+        return delegate.supportsCheckAndSet();
+    }
+
+    @Override
+    public void truncateTable(TableReference tableRef) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("truncateTable({})", tableRef)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.truncateTable(tableRef);
+            sweepStats.recordClear(tableRef);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.TRUNCATE_TABLE, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTable("truncateTable", tableRef, durationMillis));
+            }
+        }
+    }
+
+    @Override
+    public void truncateTables(Set<TableReference> tableRefs) {
+        CloseableTrace trace = isTraceObservable()
+                ? startLocalTrace("truncateTables({})", tableRefs)
+                : CloseableTrace.noOp();
+        long startNanos = System.nanoTime();
+        Throwable failure = null;
+        try {
+            delegate.truncateTables(tableRefs);
+            sweepStats.recordClears(tableRefs);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            long durationMillis = finish(Operation.TRUNCATE_TABLES, startNanos, failure, trace);
+            if (KvsProfilingLogger.shouldLog(durationMillis)) {
+                KvsProfilingLogger.log(durationMillis, failure,
+                        logTimeAndTableCount("truncateTables", tableRefs.size(), durationMillis));
+            }
+        }
+    }
+
+    private static boolean isTraceObservable() {
+        return Tracer.isTraceObservable();
+    }
+
+    private static CloseableTrace startLocalTrace(CharSequence operationFormat, Object... formatArguments) {
+        return CloseableTrace.startLocalTrace(SERVICE_NAME, operationFormat, formatArguments);
+    }
+
+    /**
+     * Closes the trace and records the outcome of a call that started at the given time, returning its duration in
+     * milliseconds.
+     */
+    private long finish(Operation operation, long startNanos, @Nullable Throwable failure, CloseableTrace trace) {
+        long durationNanos = System.nanoTime() - startNanos;
+        trace.close();
+        if (failure == null) {
+            timers[operation.ordinal()].update(durationNanos, TimeUnit.NANOSECONDS);
+        } else {
+            failures.mark();
+            metricRegistry.meter(MetricRegistry.name(metricPrefix, operation.methodName, FAILURES)).mark();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    private static Consumer<LoggingFunction> logTime(String method, long durationMillis) {
+        return logger -> logger.log("Call to KVS.{} took {} ms.",
+                LoggingArgs.method(method),
+                LoggingArgs.durationMillis(durationMillis));
+    }
+
+    private static Consumer<LoggingFunction> logTimeAndTable(String method, TableReference tableRef,
+            long durationMillis) {
+        return logger -> logger.log("Call to KVS.{} on table {} took {} ms.",
+                LoggingArgs.method(method),
+                LoggingArgs.tableRef(tableRef),
+                LoggingArgs.durationMillis(durationMillis));
+    }
+
+    private static Consumer<LoggingFunction> logTimeAndTableCount(String method, int tableCount,
+            long durationMillis) {
+        return logger -> logger.log("Call to KVS.{} for {} tables took {} ms.",
+                LoggingArgs.method(method),
+                LoggingArgs.tableCount(tableCount),
+                LoggingArgs.durationMillis(durationMillis));
+    }
+
+    private static Consumer<LoggingFunction> logTimeAndTableRange(String method, TableReference tableRef,
+            RangeRequest range, long durationMillis) {
+        return logger -> logger.log("Call to KVS.{} on table {} with range {} took {} ms.",
+                LoggingArgs.method(method),
+                LoggingArgs.tableRef(tableRef),
+                LoggingArgs.range(tableRef, range),
+                LoggingArgs.durationMillis(durationMillis));
+    }
+
+    private static Consumer<LoggingFunction> logCellsAndSize(String method, TableReference tableRef, int numCells,
+            long sizeInBytes, long durationMillis) {
+        return logger -> logger.log("Call to KVS.{} on table {} for {} cells of overall size {} bytes took {} ms.",
+                LoggingArgs.method(method),
+                LoggingArgs.tableRef(tableRef),
+                LoggingArgs.cellCount(numCells),
+                LoggingArgs.sizeInBytes(sizeInBytes),
+                LoggingArgs.durationMillis(durationMillis));
+    }
+
+    private static void logResultSize(LoggingFunction logger, @Nullable Map<Cell, Value> result, long overhead) {
+        if (result == null) {
+            return;
+        }
+        long sizeInBytes = 0;
+        for (Entry<Cell, Value> entry : result.entrySet()) {
+            sizeInBytes += Cells.getApproxSizeOfCell(entry.getKey()) + entry.getValue().getContents().length + overhead;
+        }
+        logger.log("and returned {} bytes.", LoggingArgs.sizeInBytes(sizeInBytes));
+    }
+
+    private static <T> long byteSize(Map<Cell, T> values) {
+        long sizeInBytes = 0;
+        for (Entry<Cell, T> valueEntry : values.entrySet()) {
+            sizeInBytes += Cells.getApproxSizeOfCell(valueEntry.getKey());
+            T value = valueEntry.getValue();
+            if (value instanceof byte[]) {
+                sizeInBytes += ((byte[]) value).length;
+            } else if (value instanceof Long) {
+                sizeInBytes += Longs.BYTES;
+            }
+        }
+        return sizeInBytes;
+    }
+
+    private static <T> long byteSize(Multimap<Cell, T> values) {
+        long sizeInBytes = 0;
+        for (Cell cell : values.keySet()) {
+            sizeInBytes += Cells.getApproxSizeOfCell(cell) + values.get(cell).size();
+        }
+        return sizeInBytes;
+    }
+}
@@ -24,6 +24,8 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,7 @@ public class KvsProfilingLogger {
     private static final Logger log = LoggerFactory.getLogger(KvsProfilingLogger.class);
 
     public static final int DEFAULT_THRESHOLD_MILLIS = 1000;
+    private static volatile long slowLogThresholdMillis = DEFAULT_THRESHOLD_MILLIS;
     private static volatile Predicate<Stopwatch> slowLogPredicate = createLogPredicateForThresholdMillis(
             DEFAULT_THRESHOLD_MILLIS);
 
@@ -88,6 +91,7 @@ public class KvsProfilingLogger {
      * Sets the minimum duration in millis that a query must take in order to be logged. Defaults to 1000ms.
      */
     public static void setSlowLogThresholdMillis(long thresholdMillis) {
+        slowLogThresholdMillis = thresholdMillis;
         slowLogPredicate = createLogPredicateForThresholdMillis(thresholdMillis);
     }
 
@@ -124,6 +128,37 @@ public class KvsProfilingLogger {
         }
     }
 
+    /**
+     * Whether {@link #log(long, Throwable, Consumer)} would log an operation that took the given time. Callers that
+     * time operations themselves check this before building any log arguments, so that operations which will not be
+     * logged do not allocate.
+     */
+    public static boolean shouldLog(long durationMillis) {
+        return log.isTraceEnabled() || (durationMillis > slowLogThresholdMillis && slowlogger.isWarnEnabled());
+    }
+
+    /**
+     * Logs an operation that has already completed (successfully, if failure is null) and took the given time, in
+     * the same way as {@link #maybeLog(Supplier, BiConsumer)}.
+     */
+    public static void log(long durationMillis, @Nullable Throwable failure, Consumer<LoggingFunction> primaryLogger) {
+        Consumer<LoggingFunction> logger = loggingMethod -> {
+            try (CloseableLoggingFunction wrappingLogger = new LogAccumulator(loggingMethod)) {
+                primaryLogger.accept(wrappingLogger);
+                if (failure != null) {
+                    wrappingLogger.log("This operation has thrown an exception {}", failure);
+                }
+            }
+        };
+
+        if (log.isTraceEnabled()) {
+            logger.accept(log::trace);
+        }
+        if (durationMillis > slowLogThresholdMillis && slowlogger.isWarnEnabled()) {
+            logger.accept(slowlogger::warn);
+        }
+    }
+
     private static class Monitor<R> {
         private final Stopwatch stopwatch;
         private final BiConsumer<LoggingFunction, Stopwatch> primaryLogger;
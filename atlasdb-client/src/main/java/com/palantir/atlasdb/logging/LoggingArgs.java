@@ -113,6 +113,10 @@ public final class LoggingArgs {
         return getArg("durationMillis", stopwatch.elapsed(TimeUnit.MILLISECONDS), true);
     }
 
+    public static Arg<Long> durationMillis(long durationMillis) {
+        return getArg("durationMillis", durationMillis, true);
+    }
+
     public static Arg<String> method(String method) {
         return getArg("method", method, true);
     }
@@ -29,6 +29,7 @@ import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
 import com.palantir.atlasdb.keyvalue.api.RowResult;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.ptobject.EncodingUtils;
@@ -41,6 +42,7 @@ import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
+import com.palantir.common.base.BatchingVisitables;
 
 /**
  * This checkpointer creates a temporary table for checkpointing.
@@ -73,6 +75,24 @@ public class GeneralTaskCheckpointer extends AbstractTaskCheckpointer {
         return fromDb(value);
     }
 
+    /**
+     * Get the checkpoints of every range of this task, by range id. Completed ranges map to null.
+     */
+    public Map<Long, byte[]> getCheckpoints(String extraId, Transaction tx) {
+        byte[] prefix = EncodingUtils.toBytes(
+                ImmutableList.of(new EncodingType(ValueType.VAR_STRING)),
+                ImmutableList.<Object>of(extraId));
+        RangeRequest range = RangeRequest.builder().prefixRange(prefix).build();
+        byte[] columnName = PtBytes.toBytes(SHORT_COLUMN_NAME);
+
+        Map<Long, byte[]> checkpoints = Maps.newHashMap();
+        for (RowResult<byte[]> row : BatchingVisitables.copyToList(tx.getRange(checkpointTable, range))) {
+            long rangeId = EncodingUtils.decodeVarLong(row.getRowName(), prefix.length);
+            checkpoints.put(rangeId, fromDb(row.getColumns().get(columnName)));
+        }
+        return checkpoints;
+    }
+
     @Override
     public void createCheckpoints(final String extraId,
                                   final Map<Long, byte[]> startById) {
@@ -37,6 +37,7 @@ public class StreamStoreDefinition {
     private final String longName;
     private final ValueType idType;
     private final boolean compressStream;
+    private final int readAheadBlocks;
 
     private int inMemoryThreshold;
 
@@ -46,13 +47,15 @@ public class StreamStoreDefinition {
             String longName,
             ValueType idType,
             int inMemoryThreshold,
-            boolean compressStream) {
+            boolean compressStream,
+            int readAheadBlocks) {
         this.streamStoreTables = streamStoreTables;
         this.shortName = shortName;
         this.longName = longName;
         this.idType = idType;
         this.inMemoryThreshold = inMemoryThreshold;
         this.compressStream = compressStream;
+        this.readAheadBlocks = readAheadBlocks;
     }
 
     public Map<String, TableDefinition> getTables() {
@@ -61,7 +64,8 @@ public class StreamStoreDefinition {
 
     public StreamStoreRenderer getRenderer(String packageName, String name) {
         String renderedLongName = Renderers.CamelCase(longName);
-        return new StreamStoreRenderer(renderedLongName, idType, packageName, name, inMemoryThreshold, compressStream);
+        return new StreamStoreRenderer(
+                renderedLongName, idType, packageName, name, inMemoryThreshold, compressStream, readAheadBlocks);
     }
 
     public Multimap<String, Supplier<OnCleanupTask>> getCleanupTasks(
@@ -32,6 +32,7 @@ public class StreamStoreDefinitionBuilder {
             Maps.newHashMapWithExpectedSize(StreamTableType.values().length);
     private int inMemoryThreshold = AtlasDbConstants.DEFAULT_STREAM_IN_MEMORY_THRESHOLD;
     private boolean compressStream;
+    private int readAheadBlocks = 0;
 
     public StreamStoreDefinitionBuilder(String shortName, String longName, ValueType valueType) {
         for (StreamTableType tableType : StreamTableType.values()) {
@@ -92,6 +93,16 @@ public class StreamStoreDefinitionBuilder {
         return this;
     }
 
+    /**
+     * Loading a stream larger than the in memory threshold will fetch up to this many blocks ahead of the reader
+     * in parallel, holding at most one more block than this in memory per stream. By default blocks are only
+     * fetched when the reader needs them.
+     */
+    public StreamStoreDefinitionBuilder readAheadBlocks(int numberOfBlocks) {
+        this.readAheadBlocks = numberOfBlocks;
+        return this;
+    }
+
     public StreamStoreDefinition build() {
         Map<String, TableDefinition> tablesToCreate = streamTables.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().build()));
@@ -99,6 +110,7 @@ public class StreamStoreDefinitionBuilder {
         Preconditions.checkArgument(valueType.getJavaClassName().equals("long"), "Stream ids must be a long");
         Preconditions.checkArgument(inMemoryThreshold <= StreamStoreDefinition.MAX_IN_MEMORY_THRESHOLD,
                 "inMemoryThreshold cannot be greater than %s", StreamStoreDefinition.MAX_IN_MEMORY_THRESHOLD);
+        Preconditions.checkArgument(readAheadBlocks >= 0, "readAheadBlocks cannot be negative");
 
         return new StreamStoreDefinition(
                 tablesToCreate,
@@ -106,7 +118,8 @@ public class StreamStoreDefinitionBuilder {
                 longName,
                 valueType,
                 inMemoryThreshold,
-                compressStream);
+                compressStream,
+                readAheadBlocks);
     }
 
 }
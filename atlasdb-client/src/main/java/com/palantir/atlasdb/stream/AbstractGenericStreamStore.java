@@ -25,6 +25,9 @@ import java.io.OutputStream;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.CheckForNull;
@@ -41,11 +44,15 @@ import com.palantir.atlasdb.protos.generated.StreamPersistence.StreamMetadata;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.NamedThreadFactory;
+import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.util.ByteArrayIOStream;
 
 public abstract class AbstractGenericStreamStore<T> implements GenericStreamStore<T> {
     protected static final Logger log = LoggerFactory.getLogger(AbstractGenericStreamStore.class);
 
+    private static final int READ_AHEAD_THREADS = 16;
+
     @CheckForNull protected final TransactionManager txnMgr;
 
     protected AbstractGenericStreamStore(TransactionManager txManager) {
@@ -116,10 +123,11 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     }
 
     private InputStream makeStream(Transaction parent, T id, StreamMetadata metadata) {
-        long totalBlocks = getNumberOfBlocksFromMetadata(metadata);
-        int blocksInMemory = getNumberOfBlocksThatFitInMemory();
+        return makeBlockStream(makeBlockGetter(parent, id), getNumberOfBlocksFromMetadata(metadata));
+    }
 
-        BlockGetter pageRefresher = new BlockGetter() {
+    private BlockGetter makeBlockGetter(Transaction parent, T id) {
+        return new BlockGetter() {
             @Override
             public void get(long firstBlock, long numBlocks, OutputStream destination) {
                 if (parent.isUncommitted()) {
@@ -137,14 +145,40 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
                 return BLOCK_SIZE_IN_BYTES;
             }
         };
+    }
 
+    /**
+     * Streams the given blocks, reading ahead on {@link #getReadAheadExecutor()} if this store reads ahead.
+     */
+    protected final InputStream makeBlockStream(BlockGetter blockGetter, long totalBlocks) {
+        int blocksToReadAhead = getNumberOfBlocksToReadAhead();
+        if (blocksToReadAhead > 0) {
+            return PrefetchingBlockInputStream.create(
+                    blockGetter, totalBlocks, blocksToReadAhead, getReadAheadExecutor());
+        }
         try {
-            return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);
+            return BlockConsumingInputStream.create(blockGetter, totalBlocks, getNumberOfBlocksThatFitInMemory());
         } catch (IOException e) {
             throw Throwables.throwUncheckedException(e);
         }
     }
 
+    /**
+     * The number of blocks to fetch ahead of the reader when loading large streams, or zero to fetch
+     * {@link #getNumberOfBlocksThatFitInMemory()} blocks at a time only when the reader needs them.
+     */
+    protected int getNumberOfBlocksToReadAhead() {
+        return 0;
+    }
+
+    /**
+     * The executor on which blocks are read ahead. By default this is a pool of {@value #READ_AHEAD_THREADS}
+     * threads shared by all stream stores.
+     */
+    protected Executor getReadAheadExecutor() {
+        return ReadAheadExecutorHolder.EXECUTOR;
+    }
+
     protected int getNumberOfBlocksThatFitInMemory() {
         int inMemoryThreshold = (int) getInMemoryThreshold(); // safe; actually defined as an int in generated code.
         int blocksInMemory = inMemoryThreshold / BLOCK_SIZE_IN_BYTES;
@@ -211,8 +245,17 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     protected void tryWriteStreamToFile(Transaction transaction, T id, StreamMetadata metadata, FileOutputStream fos)
             throws IOException {
         long numBlocks = getNumberOfBlocksFromMetadata(metadata);
-        for (long i = 0; i < numBlocks; i++) {
-            loadSingleBlockToOutputStream(transaction, id, i, fos);
+        int blocksToReadAhead = getNumberOfBlocksToReadAhead();
+        if (blocksToReadAhead > 0) {
+            // Blocks go straight from the fetched buffers to the file, rather than through an OutputStream per block.
+            try (PrefetchingBlockInputStream blocks = PrefetchingBlockInputStream.create(
+                    makeBlockGetter(transaction, id), numBlocks, blocksToReadAhead, getReadAheadExecutor())) {
+                blocks.copyTo(fos.getChannel());
+            }
+        } else {
+            for (long i = 0; i < numBlocks; i++) {
+                loadSingleBlockToOutputStream(transaction, id, i, fos);
+            }
         }
         fos.close();
     }
@@ -230,4 +273,16 @@ public abstract class AbstractGenericStreamStore<T> implements GenericStreamStor
     private StreamMetadata getOnlyStreamMetadata(Map<T, StreamMetadata> idToMetadata) {
         return Iterables.getOnlyElement(idToMetadata.values());
     }
+
+    private static final class ReadAheadExecutorHolder {
+        private static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            ThreadPoolExecutor executor = PTExecutors.newFixedThreadPool(READ_AHEAD_THREADS,
+                    new NamedThreadFactory("stream-store-read-ahead", true));
+            executor.setKeepAliveTime(1, TimeUnit.MINUTES);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
 }
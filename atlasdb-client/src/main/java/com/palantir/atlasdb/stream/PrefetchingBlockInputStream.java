@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+
+/**
+ * An InputStream over the blocks of a stream that keeps up to a fixed number of blocks beyond the one being read
+ * in flight on an executor, so that the consumer does not wait for a round trip to the database on every block.
+ *
+ * At most {@code blocksToReadAhead + 1} blocks are held in memory at once. The rate at which blocks are handed to
+ * the consumer is recorded in the {@code bytesRead} meter.
+ */
+public final class PrefetchingBlockInputStream extends InputStream {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private static final Meter bytesRead = AtlasDbMetrics.getMetricRegistry().meter(
+            MetricRegistry.name(PrefetchingBlockInputStream.class, "bytesRead"));
+
+    private final BlockGetter blockGetter;
+    private final long numBlocks;
+    private final int blocksToReadAhead;
+    private final Executor executor;
+
+    private final Deque<CompletableFuture<ByteBuffer>> fetches = new ArrayDeque<>();
+    private long nextBlockToFetch = 0L;
+    private ByteBuffer current = EMPTY;
+    private boolean closed = false;
+
+    public static PrefetchingBlockInputStream create(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksToReadAhead,
+            Executor executor) {
+        Preconditions.checkArgument(blocksToReadAhead > 0,
+                "blocksToReadAhead must be positive, but was %s", blocksToReadAhead);
+        return new PrefetchingBlockInputStream(blockGetter, numBlocks, blocksToReadAhead, executor);
+    }
+
+    private PrefetchingBlockInputStream(
+            BlockGetter blockGetter,
+            long numBlocks,
+            int blocksToReadAhead,
+            Executor executor) {
+        this.blockGetter = blockGetter;
+        this.numBlocks = numBlocks;
+        this.blocksToReadAhead = blocksToReadAhead;
+        this.executor = executor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!advanceToReadableBlock()) {
+            return -1;
+        }
+        return current.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        Preconditions.checkNotNull(bytes, "Cannot read into a null array!");
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        int bytesCopied = 0;
+        while (bytesCopied < len && advanceToReadableBlock()) {
+            int bytesToCopy = Math.min(current.remaining(), len - bytesCopied);
+            current.get(bytes, off + bytesCopied, bytesToCopy);
+            bytesCopied += bytesToCopy;
+        }
+
+        return bytesCopied == 0 ? -1 : bytesCopied;
+    }
+
+    @Override
+    public int available() {
+        return current.remaining();
+    }
+
+    /**
+     * Writes the rest of the stream to the given channel, straight from the fetched blocks.
+     *
+     * @return the number of bytes written
+     */
+    public long copyTo(WritableByteChannel channel) throws IOException {
+        long bytesCopied = 0L;
+        while (advanceToReadableBlock()) {
+            bytesCopied += current.remaining();
+            while (current.hasRemaining()) {
+                channel.write(current);
+            }
+        }
+        return bytesCopied;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = EMPTY;
+        for (CompletableFuture<ByteBuffer> fetch : fetches) {
+            fetch.cancel(false);
+        }
+        fetches.clear();
+    }
+
+    private boolean advanceToReadableBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        while (!current.hasRemaining()) {
+            scheduleFetches();
+            CompletableFuture<ByteBuffer> fetch = fetches.poll();
+            if (fetch == null) {
+                return false;
+            }
+            current = await(fetch);
+            bytesRead.mark(current.remaining());
+        }
+        scheduleFetches();
+        return true;
+    }
+
+    private void scheduleFetches() {
+        while (fetches.size() < blocksToReadAhead && nextBlockToFetch < numBlocks) {
+            long block = nextBlockToFetch++;
+            fetches.add(fetchAsync(block));
+        }
+    }
+
+    private CompletableFuture<ByteBuffer> fetchAsync(long block) {
+        try {
+            return CompletableFuture.supplyAsync(() -> fetch(block), executor);
+        } catch (RejectedExecutionException e) {
+            // The executor is saturated, so fetch on the reading thread instead; we would only wait for it anyway.
+            CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+            try {
+                result.complete(fetch(block));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+            return result;
+        }
+    }
+
+    private ByteBuffer fetch(long block) {
+        BlockOutputStream destination = new BlockOutputStream(blockGetter.expectedBlockLength());
+        blockGetter.get(block, 1, destination);
+        return destination.asByteBuffer();
+    }
+
+    private static ByteBuffer await(CompletableFuture<ByteBuffer> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a block");
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Exposes the written bytes without copying them again.
+     */
+    private static final class BlockOutputStream extends ByteArrayOutputStream {
+        BlockOutputStream(int expectedLength) {
+            super(expectedLength);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
 import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.Descriptors.DescriptorValidationException;
@@ -38,6 +39,7 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import com.googlecode.protobuf.format.JsonFormat;
 import com.googlecode.protobuf.format.JsonFormat.ParseException;
+import com.palantir.atlasdb.compress.CompressionDictionary;
 import com.palantir.atlasdb.compress.CompressionUtils;
 import com.palantir.atlasdb.persist.api.Persister;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
@@ -70,6 +72,8 @@ public final class ColumnValueDescription {
 
     public enum Compression {
         SNAPPY,
+        LZ4,
+        ZSTD,
         NONE;
 
         public TableMetadataPersistence.Compression persistToProto() {
@@ -81,8 +85,14 @@ public final class ColumnValueDescription {
         }
     }
 
+    /**
+     * The name of the constant holding the compression dictionary in generated table code.
+     */
+    public static final String COMPRESSION_DICTIONARY_CONSTANT = "COMPRESSION_DICTIONARY";
+
     final Format format;
     final Compression compression;
+    @Nullable final CompressionDictionary compressionDictionary; // only for ZSTD compression
     final ValueType type;
     @Nullable final String className; // null if format is VALUE_TYPE
     @Nullable final String canonicalClassName; // null if format is VALUE_TYPE
@@ -90,8 +100,15 @@ public final class ColumnValueDescription {
     @Nullable final Descriptor protoDescriptor;
 
     private ColumnValueDescription(ValueType type, Compression compression) {
+        this(type, compression, null);
+    }
+
+    private ColumnValueDescription(ValueType type,
+                                   Compression compression,
+                                   @Nullable CompressionDictionary compressionDictionary) {
         this.format = Format.VALUE_TYPE;
         this.compression = Preconditions.checkNotNull(compression);
+        this.compressionDictionary = checkCompressionDictionary(compression, compressionDictionary);
         this.type = Preconditions.checkNotNull(type);
         this.canonicalClassName = null;
         this.className = null;
@@ -155,7 +172,17 @@ public final class ColumnValueDescription {
                                    String canonicalClassName,
                                    Compression compression,
                                    Descriptor protoDescriptor) {
+        this(format, className, canonicalClassName, compression, null, protoDescriptor);
+    }
+
+    private ColumnValueDescription(Format format,
+                                   String className,
+                                   String canonicalClassName,
+                                   Compression compression,
+                                   @Nullable CompressionDictionary compressionDictionary,
+                                   Descriptor protoDescriptor) {
         this.compression = Preconditions.checkNotNull(compression);
+        this.compressionDictionary = checkCompressionDictionary(compression, compressionDictionary);
         this.type = ValueType.BLOB;
         this.format = Preconditions.checkNotNull(format);
         Validate.notEmpty(className);
@@ -166,6 +193,26 @@ public final class ColumnValueDescription {
         this.protoDescriptor = protoDescriptor;
     }
 
+    private static CompressionDictionary checkCompressionDictionary(Compression compression,
+                                                                    @Nullable CompressionDictionary dictionary) {
+        Preconditions.checkArgument(dictionary == null || compression == Compression.ZSTD,
+                "Compression dictionaries are only supported by ZSTD compression, not %s", compression);
+        return dictionary;
+    }
+
+    /**
+     * Returns a copy of this description whose values are compressed with the given dictionary. The column must
+     * use {@link Compression#ZSTD}.
+     */
+    public ColumnValueDescription withCompressionDictionary(CompressionDictionary dictionary) {
+        Preconditions.checkNotNull(dictionary, "dictionary");
+        if (format == Format.VALUE_TYPE) {
+            return new ColumnValueDescription(type, compression, dictionary);
+        }
+        return new ColumnValueDescription(format, className, canonicalClassName, compression, dictionary,
+                protoDescriptor);
+    }
+
     public int getMaxValueSize() {
         return type.getMaxValueSize();
     }
@@ -178,6 +225,19 @@ public final class ColumnValueDescription {
         return compression;
     }
 
+    @Nullable
+    public CompressionDictionary getCompressionDictionary() {
+        return compressionDictionary;
+    }
+
+    /**
+     * The extra argument passed to {@link CompressionUtils} by generated code to use the table's compression
+     * dictionary, or the empty string if values are compressed without one.
+     */
+    public String getCompressionDictionaryArgument() {
+        return compressionDictionary == null ? "" : ", " + COMPRESSION_DICTIONARY_CONSTANT;
+    }
+
     public Format getFormat() {
         return format;
     }
@@ -245,7 +305,8 @@ public final class ColumnValueDescription {
             result = type.getPersistCode(varName);
         }
         return "com.palantir.atlasdb.compress.CompressionUtils.compress(" + result + ", " +
-                "com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression + ")";
+                "com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression
+                + getCompressionDictionaryArgument() + ")";
     }
 
     public byte[] persistJsonToBytes(String str) throws ParseException {
@@ -277,7 +338,7 @@ public final class ColumnValueDescription {
         } else {
             bytes = type.convertFromString(str);
         }
-        return CompressionUtils.compress(bytes, compression);
+        return CompressionUtils.compress(bytes, compression, compressionDictionary);
     }
 
     private GeneratedMessage.Builder<?> createBuilder(ClassLoader classLoader) {
@@ -305,7 +366,7 @@ public final class ColumnValueDescription {
     }
 
     public String getHydrateCode(String varName) {
-        varName = "com.palantir.atlasdb.compress.CompressionUtils.decompress(" + varName + ", com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression + ")";
+        varName = "com.palantir.atlasdb.compress.CompressionUtils.decompress(" + varName + ", com.palantir.atlasdb.table.description.ColumnValueDescription.Compression." + compression + getCompressionDictionaryArgument() + ")";
         if (format == Format.PERSISTABLE) {
             return canonicalClassName + "." + Persistable.HYDRATOR_NAME + ".hydrateFromBytes(" + varName + ")";
         } else if (format == Format.PERSISTER) {
@@ -329,25 +390,28 @@ public final class ColumnValueDescription {
     @SuppressWarnings("unchecked")
     public Persistable hydratePersistable(ClassLoader classLoader, byte[] value) {
         Preconditions.checkState(format == Format.PERSISTABLE, "Column value is not a Persistable.");
-        return ColumnValues.parsePersistable((Class<? extends Persistable>)getImportClass(classLoader), CompressionUtils.decompress(value, compression));
+        return ColumnValues.parsePersistable((Class<? extends Persistable>)getImportClass(classLoader), CompressionUtils.decompress(value, compression, compressionDictionary));
     }
 
     public Object hydratePersister(ClassLoader classLoader, byte[] value) {
         Preconditions.checkState(format == Format.PERSISTER, "Column value is not a Persister.");
         Persister<?> persister = getPersister();
-        return persister.hydrateFromBytes(CompressionUtils.decompress(value, compression));
+        return persister.hydrateFromBytes(CompressionUtils.decompress(value, compression, compressionDictionary));
     }
 
     @SuppressWarnings("unchecked")
     public Message hydrateProto(ClassLoader classLoader, byte[] value) {
         Preconditions.checkState(format == Format.PROTO, "Column value is not a protocol buffer.");
-        return ColumnValues.parseProtoBuf((Class<? extends GeneratedMessage>) getImportClass(classLoader), CompressionUtils.decompress(value, compression));
+        return ColumnValues.parseProtoBuf((Class<? extends GeneratedMessage>) getImportClass(classLoader), CompressionUtils.decompress(value, compression, compressionDictionary));
     }
 
     public TableMetadataPersistence.ColumnValueDescription.Builder persistToProto() {
         Builder builder = TableMetadataPersistence.ColumnValueDescription.newBuilder();
         builder.setType(type.persistToProto());
         builder.setCompression(compression.persistToProto());
+        if (compressionDictionary != null) {
+            builder.setCompressionDictionary(ByteString.copyFrom(compressionDictionary.getBytes()));
+        }
         if (className != null) {
             builder.setClassName(className);
         }
@@ -377,8 +441,11 @@ public final class ColumnValueDescription {
     public static ColumnValueDescription hydrateFromProto(TableMetadataPersistence.ColumnValueDescription message) {
         ValueType type = ValueType.hydrateFromProto(message.getType());
         Compression compression = Compression.hydrateFromProto(message.getCompression());
+        CompressionDictionary compressionDictionary = message.hasCompressionDictionary()
+                ? CompressionDictionary.of(message.getCompressionDictionary().toByteArray())
+                : null;
         if (!message.hasClassName()) {
-            return new ColumnValueDescription(type, compression);
+            return new ColumnValueDescription(type, compression, compressionDictionary);
         }
 
         Validate.isTrue(type == ValueType.BLOB);
@@ -399,6 +466,7 @@ public final class ColumnValueDescription {
                         message.getClassName(),
                         message.getCanonicalClassName(),
                         compression,
+                        compressionDictionary,
                         protoDescriptor);
             } catch (Exception e) {
                 log.error("Failed to parse FileDescriptorProto.", e);
@@ -428,6 +496,7 @@ public final class ColumnValueDescription {
                 message.getClassName(),
                 message.getCanonicalClassName(),
                 compression,
+                compressionDictionary,
                 protoDescriptor);
     }
 
@@ -444,6 +513,7 @@ public final class ColumnValueDescription {
     @Override
     public String toString() {
         return "ColumnValueDescription [format=" + format + ", compression=" + compression
+                + (compressionDictionary == null ? "" : ", compressionDictionary=" + compressionDictionary)
                 + ", type=" + type + ", className=" + className + ", canonicalClassName="
                 + canonicalClassName + "]";
     }
@@ -455,6 +525,7 @@ public final class ColumnValueDescription {
         int result = 1;
         result = prime * result + (format == null ? 0 : format.hashCode());
         result = prime * result + (compression == null ? 0 : compression.hashCode());
+        result = prime * result + (compressionDictionary == null ? 0 : compressionDictionary.hashCode());
         result = prime * result + (type == null ? 0 : type.hashCode());
         result = prime * result + (className == null ? 0 : className.hashCode());
         result = prime * result + (canonicalClassName == null ? 0 : canonicalClassName.hashCode());
@@ -487,6 +558,13 @@ public final class ColumnValueDescription {
         } else if (!compression.equals(other.getCompression())) {
             return false;
         }
+        if (compressionDictionary == null) {
+            if (other.compressionDictionary != null) {
+                return false;
+            }
+        } else if (!compressionDictionary.equals(other.compressionDictionary)) {
+            return false;
+        }
         if (type == null) {
             if (other.type != null) {
                 return false;
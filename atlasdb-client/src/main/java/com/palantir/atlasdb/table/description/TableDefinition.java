@@ -25,6 +25,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.protobuf.GeneratedMessage;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.compress.CompressionDictionary;
 import com.palantir.atlasdb.persist.api.Persister;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueByteOrder;
@@ -108,6 +109,19 @@ public class TableDefinition extends AbstractDefinition {
         namedComponentsSafeByDefault();
     }
 
+    /**
+     * Compresses the values of all {@link Compression#ZSTD} columns of this table with the given dictionary, which
+     * is stored with the table metadata and compiled into the generated table code. A dictionary trained on sample
+     * values (see {@link CompressionDictionary#train}) greatly improves the compression of small values.
+     *
+     * The dictionary must not be changed once values have been written with it.
+     */
+    public void compressionDictionary(CompressionDictionary dictionary) {
+        Preconditions.checkState(state == State.NONE, "Specifying a compression dictionary should be done outside"
+                + " of the subscopes of TableDefinition.");
+        compressionDictionary = Preconditions.checkNotNull(dictionary, "dictionary");
+    }
+
     public void column(String columnName, String shortName, Class<?> protoOrPersistable) {
         column(columnName, shortName, protoOrPersistable, Compression.NONE);
     }
@@ -355,6 +369,34 @@ public class TableDefinition extends AbstractDefinition {
         this.v2TableEnabled = true;
     }
 
+    public boolean hasLazyRowHydrationEnabled() {
+        return this.lazyRowHydrationEnabled;
+    }
+
+    /**
+     * Generates a flyweight view of the row name alongside the row class, which decodes row components from the
+     * persisted bytes as they are read. Row results hydrate their row name at most once and dynamic column values
+     * only when they are asked for, so scans that read few components or columns allocate less per row.
+     *
+     * This is a beta feature. API stability is not guaranteed, and the risk of defects is higher.
+     */
+    @Beta
+    public void enableLazyRowHydration() {
+        this.lazyRowHydrationEnabled = true;
+    }
+
+    public boolean hasImmutableValues() {
+        return this.immutableValues;
+    }
+
+    /**
+     * Declares that a cell of this table, once committed, is never overwritten or deleted. Reads from such a table
+     * may be served from a cache shared across transactions, which returns stale values if the declaration is broken.
+     */
+    public void immutableValues() {
+        this.immutableValues = true;
+    }
+
     public void validate() {
         toTableMetadata();
         getConstraintMetadata();
@@ -390,6 +432,9 @@ public class TableDefinition extends AbstractDefinition {
     private LogSafety tableNameSafety = LogSafety.UNSAFE;
     private LogSafety defaultNamedComponentLogSafety = LogSafety.UNSAFE;
     private boolean v2TableEnabled = false;
+    private boolean lazyRowHydrationEnabled = false;
+    private boolean immutableValues = false;
+    private CompressionDictionary compressionDictionary = null;
 
     public TableMetadata toTableMetadata() {
         Preconditions.checkState(!rowNameComponents.isEmpty(), "No row name components defined.");
@@ -414,7 +459,8 @@ public class TableDefinition extends AbstractDefinition {
                 sweepStrategy,
                 expirationStrategy,
                 appendHeavyAndReadLight,
-                tableNameSafety);
+                tableNameSafety,
+                immutableValues);
     }
 
     private ColumnMetadataDescription getColumnMetadataDescription() {
@@ -422,15 +468,39 @@ public class TableDefinition extends AbstractDefinition {
             Preconditions.checkState(
                     dynamicColumnNameComponents.isEmpty(),
                     "Cannot define both dynamic and fixed columns.");
-            return new ColumnMetadataDescription(fixedColumns);
+            Preconditions.checkState(compressionDictionary == null
+                            || fixedColumns.stream().anyMatch(col -> usesZstd(col.getValue())),
+                    "A compression dictionary was given, but no column uses ZSTD compression.");
+            List<NamedColumnDescription> columns = Lists.newArrayListWithCapacity(fixedColumns.size());
+            for (NamedColumnDescription col : fixedColumns) {
+                columns.add(new NamedColumnDescription(
+                        col.getShortName(),
+                        col.getLongName(),
+                        withCompressionDictionary(col.getValue()),
+                        col.getLogSafety()));
+            }
+            return new ColumnMetadataDescription(columns);
         } else {
             Preconditions.checkState(
                     !dynamicColumnNameComponents.isEmpty() && dynamicColumnValue != null,
                     "Columns not properly defined.");
+            Preconditions.checkState(compressionDictionary == null || usesZstd(dynamicColumnValue),
+                    "A compression dictionary was given, but the dynamic column value does not use ZSTD compression.");
             return new ColumnMetadataDescription(
                     new DynamicColumnDescription(NameMetadataDescription.create(dynamicColumnNameComponents),
-                            dynamicColumnValue));
+                            withCompressionDictionary(dynamicColumnValue)));
+        }
+    }
+
+    private static boolean usesZstd(ColumnValueDescription value) {
+        return value.getCompression() == Compression.ZSTD;
+    }
+
+    private ColumnValueDescription withCompressionDictionary(ColumnValueDescription value) {
+        if (compressionDictionary == null || !usesZstd(value)) {
+            return value;
         }
+        return value.withCompressionDictionary(compressionDictionary);
     }
 
     public ConstraintMetadata getConstraintMetadata() {
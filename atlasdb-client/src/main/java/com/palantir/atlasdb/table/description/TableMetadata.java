@@ -44,6 +44,7 @@ public class TableMetadata implements Persistable {
     final ExpirationStrategy expirationStrategy;
     final boolean appendHeavyAndReadLight;
     final LogSafety nameLogSafety;
+    final boolean immutableValues;
 
     public TableMetadata() {
         this(
@@ -107,6 +108,35 @@ public class TableMetadata implements Persistable {
                          ExpirationStrategy expirationStrategy,
                          boolean appendHeavyAndReadLight,
                          LogSafety nameLogSafety) {
+        this(
+                rowMetadata,
+                columns,
+                conflictHandler,
+                cachePriority,
+                partitionStrategy,
+                rangeScanAllowed,
+                explicitCompressionBlockSizeKB,
+                negativeLookups,
+                sweepStrategy,
+                expirationStrategy,
+                appendHeavyAndReadLight,
+                nameLogSafety,
+                false);
+    }
+
+    public TableMetadata(NameMetadataDescription rowMetadata,
+                         ColumnMetadataDescription columns,
+                         ConflictHandler conflictHandler,
+                         CachePriority cachePriority,
+                         PartitionStrategy partitionStrategy,
+                         boolean rangeScanAllowed,
+                         int explicitCompressionBlockSizeKB,
+                         boolean negativeLookups,
+                         SweepStrategy sweepStrategy,
+                         ExpirationStrategy expirationStrategy,
+                         boolean appendHeavyAndReadLight,
+                         LogSafety nameLogSafety,
+                         boolean immutableValues) {
         if (rangeScanAllowed) {
             Preconditions.checkArgument(
                     partitionStrategy == PartitionStrategy.ORDERED,
@@ -124,6 +154,7 @@ public class TableMetadata implements Persistable {
         this.expirationStrategy = expirationStrategy;
         this.appendHeavyAndReadLight = appendHeavyAndReadLight;
         this.nameLogSafety = nameLogSafety;
+        this.immutableValues = immutableValues;
     }
 
     public NameMetadataDescription getRowMetadata() {
@@ -178,6 +209,13 @@ public class TableMetadata implements Persistable {
         return nameLogSafety;
     }
 
+    /**
+     * Whether the table declares that a cell, once committed, is never overwritten or deleted.
+     */
+    public boolean hasImmutableValues() {
+        return immutableValues;
+    }
+
     @Override
     public byte[] persistToBytes() {
         return persistToProto().build().toByteArray();
@@ -208,6 +246,9 @@ public class TableMetadata implements Persistable {
         // expiration strategy doesn't need to be persisted.
         builder.setAppendHeavyAndReadLight(appendHeavyAndReadLight);
         builder.setNameLogSafety(nameLogSafety);
+        if (immutableValues) {
+            builder.setImmutableValues(true);
+        }
         return builder;
     }
 
@@ -244,6 +285,10 @@ public class TableMetadata implements Persistable {
         if (message.hasNameLogSafety()) {
             nameLogSafety = message.getNameLogSafety();
         }
+        boolean immutableValues = false;
+        if (message.hasImmutableValues()) {
+            immutableValues = message.getImmutableValues();
+        }
 
         return new TableMetadata(
                 NameMetadataDescription.hydrateFromProto(message.getRowName()),
@@ -257,7 +302,8 @@ public class TableMetadata implements Persistable {
                 sweepStrategy,
                 ExpirationStrategy.NEVER,
                 appendHeavyAndReadLight,
-                nameLogSafety);
+                nameLogSafety,
+                immutableValues);
     }
 
     @Override
@@ -274,6 +320,7 @@ public class TableMetadata implements Persistable {
                 + ", sweepStrategy = " + sweepStrategy
                 + ", appendHeavyAndReadLight = " + appendHeavyAndReadLight
                 + ", nameLogSafety = " + nameLogSafety
+                + ", immutableValues = " + immutableValues
                 + "]";
     }
 
@@ -293,6 +340,7 @@ public class TableMetadata implements Persistable {
         result = prime * result + sweepStrategy.hashCode();
         result = prime * result + (appendHeavyAndReadLight ? 0 : 1);
         result = prime * result + nameLogSafety.hashCode(); // Nonnull, because it has a default value
+        result = prime * result + (immutableValues ? 0 : 1);
         return result;
     }
 
@@ -352,6 +400,9 @@ public class TableMetadata implements Persistable {
         if (nameLogSafety != other.nameLogSafety) {
             return false;
         }
+        if (immutableValues != other.immutableValues) {
+            return false;
+        }
         return true;
     }
 
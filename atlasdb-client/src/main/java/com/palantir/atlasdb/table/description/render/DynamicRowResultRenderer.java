@@ -24,14 +24,16 @@ class DynamicRowResultRenderer extends Renderer {
     private final String Value;
     private final String ColumnValue;
     private final String RowResult;
+    private final boolean lazyRowHydration;
 
-    public DynamicRowResultRenderer(Renderer parent, String tableName, ColumnValueDescription val) {
+    public DynamicRowResultRenderer(Renderer parent, String tableName, ColumnValueDescription val, boolean lazyRowHydration) {
         super(parent);
         this.Row = tableName + "Row";
         this.Column = tableName + "Column";
         this.Value = val.getJavaObjectTypeName();
         this.ColumnValue = tableName + "ColumnValue";
         this.RowResult = tableName + "RowResult";
+        this.lazyRowHydration = lazyRowHydration;
     }
 
     @Override
@@ -45,8 +47,16 @@ class DynamicRowResultRenderer extends Renderer {
             line();
             getRowName();
             line();
+            if (lazyRowHydration) {
+                getRowView();
+                line();
+            }
             getColumnValues();
             line();
+            if (lazyRowHydration) {
+                getColumnValue();
+                line();
+            }
             getRowNameFun();
             line();
             getColumnValuesFun();
@@ -56,11 +66,23 @@ class DynamicRowResultRenderer extends Renderer {
     }
 
     private void fields() {
+        if (lazyRowHydration) {
+            line("private final RowResult<byte[]> row;");
+            line("private ", Row, " rowName;");
+            line("private ImmutableSet<", ColumnValue, "> columnValues;");
+            return;
+        }
         line("private final ", Row, " rowName;");
         line("private final ImmutableSet<", ColumnValue, "> columnValues;");
     }
 
     private void staticFactories() {
+        if (lazyRowHydration) {
+            line("public static ", RowResult, " of(RowResult<byte[]> rowResult) {"); {
+                line("return new ", RowResult, "(rowResult);");
+            } line("}");
+            return;
+        }
         line("public static ", RowResult, " of(RowResult<byte[]> rowResult) {"); {
             line(Row, " rowName = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(rowResult.getRowName());");
             line("Set<", ColumnValue, "> columnValues = Sets.newHashSetWithExpectedSize(rowResult.getColumns().size());");
@@ -74,6 +96,12 @@ class DynamicRowResultRenderer extends Renderer {
     }
 
     private void constructors() {
+        if (lazyRowHydration) {
+            line("private ", RowResult, "(RowResult<byte[]> row) {"); {
+                line("this.row = row;");
+            } line("}");
+            return;
+        }
         line("private ", RowResult, "(", Row, " rowName, ImmutableSet<", ColumnValue, "> columnValues) {"); {
             line("this.rowName = rowName;");
             line("this.columnValues = columnValues;");
@@ -83,22 +111,54 @@ class DynamicRowResultRenderer extends Renderer {
     private void getRowName() {
         line("@Override");
         line("public ", Row, " getRowName() {"); {
+            if (lazyRowHydration) {
+                line("if (rowName == null) {"); {
+                    line("rowName = ", Row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+                } line("}");
+            }
             line("return rowName;");
         } line("}");
     }
 
+    private void getRowView() {
+        line("public ", Row, "View getRowView() {"); {
+            line("return ", Row, "View.of(row.getRowName());");
+        } line("}");
+    }
+
     private void getColumnValues() {
         line("public Set<", ColumnValue, "> getColumnValues() {"); {
+            if (lazyRowHydration) {
+                line("if (columnValues == null) {"); {
+                    line("ImmutableSet.Builder<", ColumnValue, "> builder = ImmutableSet.builder();");
+                    line("for (Entry<byte[], byte[]> e : row.getColumns().entrySet()) {"); {
+                        line(Column, " col = ", Column, ".BYTES_HYDRATOR.hydrateFromBytes(e.getKey());");
+                        line(Value, " value = ", ColumnValue, ".hydrateValue(e.getValue());");
+                        line("builder.add(", ColumnValue, ".of(col, value));");
+                    } line("}");
+                    line("columnValues = builder.build();");
+                } line("}");
+            }
             line("return columnValues;");
         } line("}");
     }
 
+    private void getColumnValue() {
+        line("public ", Value, " getColumnValue(", Column, " column) {"); {
+            line("byte[] bytes = row.getColumns().get(column.persistToBytes());");
+            line("if (bytes == null) {"); {
+                line("return null;");
+            } line("}");
+            line("return ", ColumnValue, ".hydrateValue(bytes);");
+        } line("}");
+    }
+
     private void getRowNameFun() {
         line("public static Function<", RowResult, ", ", Row, "> getRowNameFun() {"); {
             line("return new Function<", RowResult, ", ", Row, ">() {"); {
                 line("@Override");
                 line("public ", Row, " apply(", RowResult, " rowResult) {"); {
-                    line("return rowResult.rowName;");
+                    line("return rowResult.", lazyRowHydration ? "getRowName()" : "rowName", ";");
                 } line("}");
             } line("};");
         } line("}");
@@ -109,7 +169,11 @@ class DynamicRowResultRenderer extends Renderer {
             line("return new Function<", RowResult, ", ImmutableSet<", ColumnValue, ">>() {"); {
                 line("@Override");
                 line("public ImmutableSet<", ColumnValue, "> apply(", RowResult, " rowResult) {"); {
-                    line("return rowResult.columnValues;");
+                    if (lazyRowHydration) {
+                        line("return ImmutableSet.copyOf(rowResult.getColumnValues());");
+                    } else {
+                        line("return rowResult.columnValues;");
+                    }
                 } line("}");
             } line("};");
         } line("}");
@@ -132,7 +132,8 @@ public class NamedColumnValueRenderer extends Renderer {
             default:
                 throw new UnsupportedOperationException("Unsupported value type: " + col.getValue().getFormat());
             }
-            line("return CompressionUtils.compress(bytes, Compression.", col.getValue().getCompression().name(), ");");
+            line("return CompressionUtils.compress(bytes, Compression.", col.getValue().getCompression().name(),
+                    col.getValue().getCompressionDictionaryArgument(), ");");
         } line("}");
     }
 
@@ -147,7 +148,8 @@ public class NamedColumnValueRenderer extends Renderer {
         line("public static final Hydrator<", Name, "> BYTES_HYDRATOR = new Hydrator<", Name, ">() {"); {
             line("@Override");
             line("public ", Name, " hydrateFromBytes(byte[] bytes) {"); {
-                line("bytes = CompressionUtils.decompress(bytes, Compression.", col.getValue().getCompression().name(), ");");
+                line("bytes = CompressionUtils.decompress(bytes, Compression.", col.getValue().getCompression().name(),
+                        col.getValue().getCompressionDictionaryArgument(), ");");
                 switch (col.getValue().getFormat()) {
                 case PERSISTABLE:
                     line("return of(", TypeName(col), ".BYTES_HYDRATOR.hydrateFromBytes(bytes));");
@@ -28,12 +28,18 @@ class NamedRowResultRenderer extends Renderer {
     private final String row;
     private final String rowResult;
     private final SortedSet<NamedColumnDescription> cols;
+    private final boolean lazyRowHydration;
 
-    NamedRowResultRenderer(Renderer parent, String name, SortedSet<NamedColumnDescription> cols) {
+    NamedRowResultRenderer(
+            Renderer parent,
+            String name,
+            SortedSet<NamedColumnDescription> cols,
+            boolean lazyRowHydration) {
         super(parent);
         this.row = name + "Row";
         this.rowResult = name + "RowResult";
         this.cols = cols;
+        this.lazyRowHydration = lazyRowHydration;
     }
 
     @Override
@@ -47,6 +53,10 @@ class NamedRowResultRenderer extends Renderer {
             line();
             getRowName();
             line();
+            if (lazyRowHydration) {
+                getRowView();
+                line();
+            }
             getRowNameFun();
             line();
             fromRawRowResultFun();
@@ -69,6 +79,9 @@ class NamedRowResultRenderer extends Renderer {
 
     private void fields() {
         line("private final RowResult<byte[]> row;");
+        if (lazyRowHydration) {
+            line("private ", row, " rowName;");
+        }
     }
 
     private void staticFactory() {
@@ -86,7 +99,20 @@ class NamedRowResultRenderer extends Renderer {
     private void getRowName() {
         line("@Override");
         line("public ", row, " getRowName() {"); {
-            line("return ", row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+            if (lazyRowHydration) {
+                line("if (rowName == null) {"); {
+                    line("rowName = ", row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+                } line("}");
+                line("return rowName;");
+            } else {
+                line("return ", row, ".BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());");
+            }
+        } line("}");
+    }
+
+    private void getRowView() {
+        line("public ", row, "View getRowView() {"); {
+            line("return ", row, "View.of(row.getRowName());");
         } line("}");
     }
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.table.description.render;
+
+import static com.palantir.atlasdb.table.description.render.ComponentRenderers.VarName;
+import static com.palantir.atlasdb.table.description.render.ComponentRenderers.typeName;
+import static com.palantir.atlasdb.table.description.render.ComponentRenderers.varName;
+
+import java.util.List;
+
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueByteOrder;
+import com.palantir.atlasdb.table.description.NameComponentDescription;
+import com.palantir.atlasdb.table.description.NameMetadataDescription;
+import com.palantir.atlasdb.table.description.ValueType;
+
+/**
+ * Renders a flyweight view over the persisted bytes of a row, which decodes each component from its offset in
+ * the underlying array when it is read rather than hydrating the whole row up front.
+ */
+@SuppressWarnings("checkstyle:AvoidNestedBlocks")
+class RowViewRenderer extends Renderer {
+    private static final String INPUT = "bytes";
+    private static final String INDEX = "__index";
+
+    private final String name;
+    private final String view;
+    private final NameMetadataDescription desc;
+
+    RowViewRenderer(Renderer parent, String name, NameMetadataDescription desc) {
+        super(parent);
+        this.name = name;
+        this.view = name + "View";
+        this.desc = desc;
+    }
+
+    @Override
+    protected void run() {
+        javaDoc();
+        line("public static final class ", view, " {"); {
+            line("private final byte[] ", INPUT, ";");
+            line();
+            staticFactory();
+            line();
+            constructor();
+            line();
+            List<NameComponentDescription> parts = desc.getRowParts();
+            for (int i = desc.numberOfComponentsHashed() > 0 ? 1 : 0; i < parts.size(); i++) {
+                getComponent(parts, i);
+                line();
+            }
+            getBytes();
+            line();
+            hydrate();
+            line();
+            renderToString(parts);
+        } line("}");
+    }
+
+    private void javaDoc() {
+        line("/**");
+        line(" * A view of the persisted bytes of a {@link ", name, "}. Components are decoded from the");
+        line(" * underlying array each time they are read, and the array is not copied.");
+        line(" */");
+    }
+
+    private void staticFactory() {
+        line("public static ", view, " of(byte[] ", INPUT, ") {"); {
+            line("return new ", view, "(", INPUT, ");");
+        } line("}");
+    }
+
+    private void constructor() {
+        line("private ", view, "(byte[] ", INPUT, ") {"); {
+            line("this.", INPUT, " = ", INPUT, ";");
+        } line("}");
+    }
+
+    private void getComponent(List<NameComponentDescription> parts, int index) {
+        NameComponentDescription comp = parts.get(index);
+        line("public ", typeName(comp), " get", VarName(comp), "() {"); {
+            line("int ", INDEX, " = 0;");
+            for (NameComponentDescription previous : parts.subList(0, index)) {
+                line(INDEX, " += ", skipCode(previous), ";");
+            }
+            line("return ", hydrateCode(comp), ";");
+        } line("}");
+    }
+
+    private void getBytes() {
+        line("public byte[] getBytes() {"); {
+            line("return ", INPUT, ";");
+        } line("}");
+    }
+
+    private void hydrate() {
+        line("public ", name, " hydrate() {"); {
+            line("return ", name, ".BYTES_HYDRATOR.hydrateFromBytes(", INPUT, ");");
+        } line("}");
+    }
+
+    private void renderToString(List<NameComponentDescription> parts) {
+        line("@Override");
+        line("public String toString() {"); {
+            line("return MoreObjects.toStringHelper(getClass().getSimpleName())");
+            for (NameComponentDescription comp : parts.subList(desc.numberOfComponentsHashed() > 0 ? 1 : 0,
+                    parts.size())) {
+                line("    .add(\"", varName(comp), "\", get", VarName(comp), "())");
+            }
+            line("    .toString();");
+        } line("}");
+    }
+
+    /**
+     * The flipped hydrate code of strings and sized blobs flips the input in place, which a view must not do as it
+     * does not own its array, so those are decoded from a flipped copy of the rest of the row instead.
+     */
+    private static String hydrateCode(NameComponentDescription comp) {
+        ValueType type = comp.getType();
+        if (comp.getOrder() == ValueByteOrder.ASCENDING) {
+            return type.getHydrateCode(INPUT, INDEX);
+        }
+        String flippedCopy = "EncodingUtils.flipAllBits(" + INPUT + ", " + INDEX + ")";
+        switch (type) {
+            case STRING:
+                return "PtBytes.toString(" + flippedCopy + ")";
+            case VAR_STRING:
+            case SIZED_BLOB:
+                return type.getHydrateCode(flippedCopy, "0");
+            default:
+                return type.getFlippedHydrateCode(INPUT, INDEX);
+        }
+    }
+
+    /**
+     * Fixed width components are skipped without being decoded; variable width ones have to be decoded to find
+     * out how long they are.
+     */
+    private static String skipCode(NameComponentDescription comp) {
+        ValueType type = comp.getType();
+        String fixedSize = type.getHydrateSizeCode("");
+        if (fixedSize.equals(type.getHydrateSizeCode(INPUT))) {
+            return fixedSize;
+        }
+        return type.getHydrateSizeCode(hydrateCode(comp));
+    }
+}
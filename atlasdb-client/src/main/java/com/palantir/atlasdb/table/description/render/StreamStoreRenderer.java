@@ -92,14 +92,20 @@ public class StreamStoreRenderer {
     private final String schemaName;
     private final int inMemoryThreshold;
     private final boolean clientSideCompression;
+    private final int readAheadBlocks;
 
     public StreamStoreRenderer(String name, ValueType streamIdType, String packageName, String schemaName, int inMemoryThreshold, boolean clientSideCompression) {
+        this(name, streamIdType, packageName, schemaName, inMemoryThreshold, clientSideCompression, 0);
+    }
+
+    public StreamStoreRenderer(String name, ValueType streamIdType, String packageName, String schemaName, int inMemoryThreshold, boolean clientSideCompression, int readAheadBlocks) {
         this.name = name;
         this.streamIdType = streamIdType;
         this.packageName = packageName;
         this.schemaName = schemaName;
         this.inMemoryThreshold = inMemoryThreshold;
         this.clientSideCompression = clientSideCompression;
+        this.readAheadBlocks = readAheadBlocks;
     }
 
     public String getPackageName() {
@@ -157,6 +163,10 @@ public class StreamStoreRenderer {
                     line();
                     getInMemoryThreshold();
                     line();
+                    if (readAheadBlocks > 0) {
+                        getNumberOfBlocksToReadAhead();
+                        line();
+                    }
                     storeBlock();
                     line();
                     touchMetadataWhileStoringForConflicts();
@@ -211,6 +221,9 @@ public class StreamStoreRenderer {
             private void fields() {
                 line("public static final int BLOCK_SIZE_IN_BYTES = 1000000; // 1MB. DO NOT CHANGE THIS WITHOUT AN UPGRADE TASK");
                 line("public static final int IN_MEMORY_THRESHOLD = ", String.valueOf(inMemoryThreshold), "; // streams under this size are kept in memory when loaded");
+                if (readAheadBlocks > 0) {
+                    line("public static final int READ_AHEAD_BLOCKS = ", String.valueOf(readAheadBlocks), "; // blocks fetched ahead of the reader when loading large streams");
+                }
                 line("public static final String STREAM_FILE_PREFIX = \"", name, "_stream_\";");
                 line("public static final String STREAM_FILE_SUFFIX = \".tmp\";");
                 line();
@@ -314,6 +327,13 @@ public class StreamStoreRenderer {
                 } line("}");
             }
 
+            private void getNumberOfBlocksToReadAhead() {
+                line("@Override");
+                line("protected int getNumberOfBlocksToReadAhead() {"); {
+                    line("return READ_AHEAD_BLOCKS;");
+                } line("}");
+            }
+
             private void createTempFile() {
                 line("@Override");
                 line("protected File createTempFile(", StreamId, " id) throws IOException {"); {
@@ -605,13 +625,17 @@ public class StreamStoreRenderer {
                     line();
                     line("BlockGetter pageRefresher = new BlockLoader(singleBlockLoader, BLOCK_SIZE_IN_BYTES);");
                     line("long totalBlocks = getNumberOfBlocksFromMetadata(metadata);");
-                    line("int blocksInMemory = getNumberOfBlocksThatFitInMemory();");
-                    line();
-                    line("try {"); {
-                        line("return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);");
-                    } line("} catch(IOException e) {"); {
-                        line("throw Throwables.throwUncheckedException(e);");
-                    } line("}");
+                    if (readAheadBlocks > 0) {
+                        line("return makeBlockStream(pageRefresher, totalBlocks);");
+                    } else {
+                        line("int blocksInMemory = getNumberOfBlocksThatFitInMemory();");
+                        line();
+                        line("try {"); {
+                            line("return BlockConsumingInputStream.create(pageRefresher, totalBlocks, blocksInMemory);");
+                        } line("} catch(IOException e) {"); {
+                            line("throw Throwables.throwUncheckedException(e);");
+                        } line("}");
+                    }
                 } line("}");
             }
 
@@ -63,6 +63,7 @@ import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.palantir.atlasdb.compress.CompressionDictionary;
 import com.palantir.atlasdb.compress.CompressionUtils;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
@@ -87,6 +88,7 @@ import com.palantir.atlasdb.table.api.AtlasDbNamedMutableTable;
 import com.palantir.atlasdb.table.api.AtlasDbNamedPersistentSet;
 import com.palantir.atlasdb.table.api.ColumnValue;
 import com.palantir.atlasdb.table.api.TypedRowResult;
+import com.palantir.atlasdb.table.description.ColumnValueDescription;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 import com.palantir.atlasdb.table.description.IndexComponent;
 import com.palantir.atlasdb.table.description.IndexDefinition.IndexType;
@@ -145,6 +147,7 @@ public class TableRenderer {
         private final String raw_table_name;
         private final boolean isGeneric;
         private final boolean isNestedIndex;
+        private final boolean lazyRowHydration;
         private final String outerTable;
         private final String Table;
         private final String Row;
@@ -166,6 +169,7 @@ public class TableRenderer {
             this.raw_table_name = rawTableName;
             this.isGeneric = table.getGenericTableName() != null;
             this.isNestedIndex = false;
+            this.lazyRowHydration = table.hasLazyRowHydrationEnabled();
             this.outerTable = null;
             this.Table = tableName + "Table";
             this.Row = tableName + "Row";
@@ -184,6 +188,7 @@ public class TableRenderer {
             this.raw_table_name = index.getIndexName();
             this.isGeneric = false;
             this.isNestedIndex = true;
+            this.lazyRowHydration = false;
             this.outerTable = outerTable;
             this.Table = tableName + "Table";
             this.Row = tableName + "Row";
@@ -255,6 +260,10 @@ public class TableRenderer {
                 line();
                 new RowOrDynamicColumnRenderer(this, Row, table.getRowMetadata(), table.isRangeScanAllowed(), false).run();
                 line();
+                if (lazyRowHydration) {
+                    new RowViewRenderer(this, Row, table.getRowMetadata()).run();
+                    line();
+                }
                 if (isDynamic(table)) {
                     renderDynamic();
                 } else {
@@ -304,7 +313,7 @@ public class TableRenderer {
             }
             renderTrigger();
             line();
-            new NamedRowResultRenderer(this, tableName, ColumnRenderers.namedColumns(table)).run();
+            new NamedRowResultRenderer(this, tableName, ColumnRenderers.namedColumns(table), lazyRowHydration).run();
             line();
             new NamedColumnRenderer(this, tableName, ColumnRenderers.namedColumns(table)).run();
             line();
@@ -357,7 +366,7 @@ public class TableRenderer {
             line();
             new DynamicColumnValueRenderer(this, tableName, table.getColumns().getDynamicColumn()).run();
             line();
-            new DynamicRowResultRenderer(this, tableName, table.getColumns().getDynamicColumn().getValue()).run();
+            new DynamicRowResultRenderer(this, tableName, table.getColumns().getDynamicColumn().getValue(), lazyRowHydration).run();
             line();
             renderDynamicDelete();
             line();
@@ -388,6 +397,13 @@ public class TableRenderer {
             }
             line("private final TableReference tableRef;");
             line("private final static ColumnSelection allColumns = ", isDynamic ? "ColumnSelection.all();" : "getColumnSelection(" + Column + ".values());");
+            CompressionDictionary compressionDictionary = getCompressionDictionary(table);
+            if (compressionDictionary != null) {
+                line("private static final ", CompressionDictionary.class.getName(), " ",
+                        ColumnValueDescription.COMPRESSION_DICTIONARY_CONSTANT, " =");
+                line("        ", CompressionDictionary.class.getName(),
+                        ".fromBase64(\"", compressionDictionary.toBase64(), "\");");
+            }
         }
 
         private void staticFactories() {
@@ -500,11 +516,17 @@ public class TableRenderer {
             line("public void put(Multimap<", Row, ", ? extends ", ColumnValue, "> values", lastParams, ") {"); {
                 line("t.useTable(tableRef, this);");
                 if (!indices.isEmpty()) {
+                    for (IndexMetadata index : indices) {
+                        renderIndexPutAccumulator(index);
+                    }
                     line("for (Entry<", Row, ", ? extends ", ColumnValue, "> e : values.entries()) {"); {
                         for (IndexMetadata index : indices) {
                             renderIndexPut(index);
                         }
                     } line("}");
+                    for (IndexMetadata index : indices) {
+                        renderIndexPutFlush(index);
+                    }
                 }
                 line("t.put(tableRef, ColumnValues.toCellValues(values", args, "));");
                 line("for (", Trigger, " trigger : triggers) {"); {
@@ -527,6 +549,33 @@ public class TableRenderer {
             } line("}");
         }
 
+        private boolean isExistsIndex(IndexMetadata index) {
+            return !index.isDynamicIndex() && !index.getIndexType().equals(IndexType.CELL_REFERENCING);
+        }
+
+        private String indexPutsVariable(IndexMetadata index) {
+            return Renderers.camelCase(index.getIndexName()) + "Puts";
+        }
+
+        private void renderIndexPutAccumulator(IndexMetadata index) {
+            String indexName = Renderers.getIndexTableName(index);
+            if (isExistsIndex(index)) {
+                line("Map<", indexName, "Table.", indexName, "Row, Long> ", indexPutsVariable(index), " = Maps.newHashMap();");
+            } else {
+                line("Multimap<", indexName, "Table.", indexName, "Row, ", indexName, "Table.", indexName, "ColumnValue> ",
+                        indexPutsVariable(index), " = ArrayListMultimap.create();");
+            }
+        }
+
+        private void renderIndexPutFlush(IndexMetadata index) {
+            String indexName = Renderers.getIndexTableName(index);
+            String args = isExpiring(table) ? ", duration, unit" : "";
+            String method = isExistsIndex(index) ? "putExists" : "put";
+            line("if (!", indexPutsVariable(index), ".isEmpty()) {"); {
+                line(indexName, "Table.of(this).", method, "(", indexPutsVariable(index), args, ");");
+            } line("}");
+        }
+
         private void renderIndexPut(IndexMetadata index) {
             List<String> rowArgumentNames = Lists.newArrayList();
             List<String> colArgumentNames = Lists.newArrayList();
@@ -549,7 +598,6 @@ public class TableRenderer {
                 }
                 line("{"); {
                     line(Row, " row = e.getKey();");
-                    line(indexName, "Table table = ", indexName, "Table.of(this);");
                     for (IndexComponent component : index.getRowComponents()) {
                         String varName = renderIndexComponent(component);
                         rowArgumentNames.add(varName);
@@ -575,21 +623,12 @@ public class TableRenderer {
                     }
 
                     line(indexName, "Table.", indexName, "Row indexRow = ", indexName, "Table.", indexName, "Row.of(", Joiner.on(", ").join(rowArgumentNames), ");");
-                    if (!index.isDynamicIndex() && !index.getIndexType().equals(IndexType.CELL_REFERENCING)) {
-                        if (isExpiring(table)) {
-                            line("table.putExists(indexRow, 0L, duration, unit);");
-                        } else {
-                            line("table.putExists(indexRow, 0L);");
-                        }
+                    if (isExistsIndex(index)) {
+                        line(indexPutsVariable(index), ".put(indexRow, 0L);");
                     } else {
                         line(indexName, "Table.", indexName, "Column indexCol = ", indexName, "Table.", indexName, "Column.of(", Joiner.on(", ").join(colArgumentNames), ");");
                         line(indexName, "Table.", indexName, "ColumnValue indexColVal = ", indexName, "Table.", indexName, "ColumnValue.of(indexCol, 0L);");
-                        if (isExpiring(table)) {
-                            line("table.put(duration, unit, indexRow, indexColVal);");
-                        } else {
-                            line("table.put(indexRow, indexColVal);");
-
-                        }
+                        line(indexPutsVariable(index), ".put(indexRow, indexColVal);");
                     }
 
                     for (int i = 0; i < iterableArgNames.size(); i++) {
@@ -719,15 +758,21 @@ public class TableRenderer {
 
         private void renderNamedGetAffectedCells() {
             line("private Multimap<", Row, ", ", ColumnValue, "> getAffectedCells(Multimap<", Row, ", ? extends ", ColumnValue, "> rows) {"); {
-                line("Multimap<", Row, ", ", ColumnValue, "> oldData = getRowsMultimap(rows.keySet());");
+                line("Set<String> shortColumnNames = new HashSet<String>();");
+                line("for (", ColumnValue, " v : rows.values()) {"); {
+                    line("shortColumnNames.add(v.getShortColumnName());");
+                } line("}");
+                line("ColumnSelection columns = ColumnSelection.create(Collections2.transform(shortColumnNames, PtBytes::toCachedBytes));");
+                line("Multimap<", Row, ", ", ColumnValue, "> oldData = getRowsMultimap(rows.keySet(), columns);");
                 line("Multimap<", Row, ", ", ColumnValue, "> cellsAffected = ArrayListMultimap.create();");
                 line("for (", Row, " row : oldData.keySet()) {"); {
-                    line("Set<String> columns = new HashSet<String>();");
+                    line("Map<String, byte[]> newValues = Maps.newHashMap();");
                     line("for (", ColumnValue, " v : rows.get(row)) {"); {
-                        line("columns.add(v.getColumnName());");
+                        line("newValues.put(v.getColumnName(), v.persistValue());");
                     } line("}");
                     line("for (", ColumnValue, " v : oldData.get(row)) {"); {
-                        line("if (columns.contains(v.getColumnName())) {"); {
+                        line("byte[] newValue = newValues.get(v.getColumnName());");
+                        line("if (newValue != null && !Arrays.equals(newValue, v.persistValue())) {"); {
                             line("cellsAffected.put(row, v);");
                         } line("}");
                     } line("}");
@@ -752,11 +797,17 @@ public class TableRenderer {
                 }
 
                 if (!indices.isEmpty()) {
+                    for (IndexMetadata index : indices) {
+                        renderIndexPutAccumulator(index);
+                    }
                     line("for (Entry<", Row, ", ? extends ", ColumnValue, "> e : rows.entries()) {"); {
                         for (IndexMetadata index : indices) {
                             renderIndexPut(index);
                         }
                     } line("}");
+                    for (IndexMetadata index : indices) {
+                        renderIndexPutFlush(index);
+                    }
                 }
                 line("t.put(tableRef, ColumnValues.toCellValues(rows", args, "));");
                 line("for (", Trigger, " trigger : triggers) {"); {
@@ -971,12 +1022,16 @@ public class TableRenderer {
                 line("if (range.getColumnNames().isEmpty()) {"); {
                     line("range = range.getBuilder().retainColumns(allColumns).build();");
                 } line("}");
-                line("return BatchingVisitables.transform(t.getRange(tableRef, range), new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
-                    line("@Override");
-                    line("public ", RowResult, " apply(RowResult<byte[]> input) {"); {
-                        line("return ", RowResult, ".of(input);");
-                    } line("}");
-                } line("});");
+                if (lazyRowHydration) {
+                    line("return BatchingVisitables.transform(t.getRange(tableRef, range), ", RowResult, "::of);");
+                } else {
+                    line("return BatchingVisitables.transform(t.getRange(tableRef, range), new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
+                        line("@Override");
+                        line("public ", RowResult, " apply(RowResult<byte[]> input) {"); {
+                            line("return ", RowResult, ".of(input);");
+                        } line("}");
+                    } line("});");
+                }
             } line("}");
         }
 
@@ -984,18 +1039,23 @@ public class TableRenderer {
             line("@Deprecated");
             line("public IterableView<BatchingVisitable<", RowResult, ">> getRanges(Iterable<RangeRequest> ranges) {"); {
                 line("Iterable<BatchingVisitable<RowResult<byte[]>>> rangeResults = t.getRanges(tableRef, ranges);");
-                line("return IterableView.of(rangeResults).transform(");
-                line("        new Function<BatchingVisitable<RowResult<byte[]>>, BatchingVisitable<", RowResult, ">>() {"); {
-                    line("@Override");
-                    line("public BatchingVisitable<", RowResult, "> apply(BatchingVisitable<RowResult<byte[]>> visitable) {"); {
-                        line("return BatchingVisitables.transform(visitable, new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
-                            line("@Override");
-                            line("public ", RowResult, " apply(RowResult<byte[]> row) {"); {
-                                line("return ", RowResult, ".of(row);");
-                            } line("}");
-                        } line("});");
-                    } line("}");
-                } line("});");
+                if (lazyRowHydration) {
+                    line("return IterableView.of(rangeResults).transform(");
+                    line("        visitable -> BatchingVisitables.transform(visitable, ", RowResult, "::of));");
+                } else {
+                    line("return IterableView.of(rangeResults).transform(");
+                    line("        new Function<BatchingVisitable<RowResult<byte[]>>, BatchingVisitable<", RowResult, ">>() {"); {
+                        line("@Override");
+                        line("public BatchingVisitable<", RowResult, "> apply(BatchingVisitable<RowResult<byte[]>> visitable) {"); {
+                            line("return BatchingVisitables.transform(visitable, new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
+                                line("@Override");
+                                line("public ", RowResult, " apply(RowResult<byte[]> row) {"); {
+                                    line("return ", RowResult, ".of(row);");
+                                } line("}");
+                            } line("});");
+                        } line("}");
+                    } line("});");
+                }
             } line("}");
             line();
             line("public <T> Stream<T> getRanges(Iterable<RangeRequest> ranges,");
@@ -1043,15 +1103,29 @@ public class TableRenderer {
 
         private void renderNamedDeleteRanges() {
             line("public void deleteRanges(Iterable<RangeRequest> ranges) {"); {
-                line("BatchingVisitables.concat(getRanges(ranges))");
-                line("                  .transform(", RowResult, ".getRowNameFun())");
-                line("                  .batchAccept(1000, new AbortingVisitor<List<", Row, ">, RuntimeException>() {"); {
-                    line("@Override");
-                    line("public boolean visit(List<", Row, "> rows) {"); {
-                        line("delete(rows);");
-                        line("return true;");
-                    } line("}");
-                } line("});");
+                if (lazyRowHydration) {
+                    line("BatchingVisitables.concat(getRanges(ranges)).batchAccept(1000, new AbortingVisitor<List<", RowResult, ">, RuntimeException>() {"); {
+                        line("@Override");
+                        line("public boolean visit(List<", RowResult, "> rowResults) {"); {
+                            line("List<", Row, "> rows = Lists.newArrayListWithCapacity(rowResults.size());");
+                            line("for (", RowResult, " rowResult : rowResults) {"); {
+                                line("rows.add(rowResult.getRowName());");
+                            } line("}");
+                            line("delete(rows);");
+                            line("return true;");
+                        } line("}");
+                    } line("});");
+                } else {
+                    line("BatchingVisitables.concat(getRanges(ranges))");
+                    line("                  .transform(", RowResult, ".getRowNameFun())");
+                    line("                  .batchAccept(1000, new AbortingVisitor<List<", Row, ">, RuntimeException>() {"); {
+                        line("@Override");
+                        line("public boolean visit(List<", Row, "> rows) {"); {
+                            line("delete(rows);");
+                            line("return true;");
+                        } line("}");
+                    } line("});");
+                }
             } line("}");
         }
 
@@ -1062,12 +1136,16 @@ public class TableRenderer {
             line();
             line("public BatchingVisitableView<", RowResult, "> getAllRowsUnordered(ColumnSelection columns) {"); {
                 line("return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),");
-                line("        new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
-                    line("@Override");
-                    line("public ", RowResult, " apply(RowResult<byte[]> input) {"); {
-                        line("return ", RowResult, ".of(input);");
-                    } line("}");
-                } line("});");
+                if (lazyRowHydration) {
+                    line("        ", RowResult, "::of);");
+                } else {
+                    line("        new Function<RowResult<byte[]>, ", RowResult, ">() {"); {
+                        line("@Override");
+                        line("public ", RowResult, " apply(RowResult<byte[]> input) {"); {
+                            line("return ", RowResult, ".of(input);");
+                        } line("}");
+                    } line("});");
+                }
             } line("}");
         }
 
@@ -1273,6 +1351,22 @@ public class TableRenderer {
         return table.getColumns().hasDynamicColumns();
     }
 
+    @Nullable
+    private static CompressionDictionary getCompressionDictionary(TableMetadata table) {
+        Set<CompressionDictionary> dictionaries = Sets.newHashSet();
+        if (isDynamic(table)) {
+            dictionaries.add(table.getColumns().getDynamicColumn().getValue().getCompressionDictionary());
+        } else {
+            for (NamedColumnDescription col : table.getColumns().getNamedColumns()) {
+                dictionaries.add(col.getValue().getCompressionDictionary());
+            }
+        }
+        dictionaries.remove(null);
+        Preconditions.checkState(dictionaries.size() <= 1,
+                "All columns of a table must share one compression dictionary");
+        return Iterables.getOnlyElement(dictionaries, null);
+    }
+
     private static boolean isExpiring(TableMetadata table) {
         return table.getExpirationStrategy() == ExpirationStrategy.INDIVIDUALLY_SPECIFIED;
     }
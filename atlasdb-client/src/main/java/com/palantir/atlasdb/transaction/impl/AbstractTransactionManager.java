@@ -30,6 +30,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.RateLimiter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.atlasdb.cache.OffHeapTimestampCache;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionFailedException;
@@ -47,7 +48,7 @@ public abstract class AbstractTransactionManager implements TransactionManager {
     private volatile boolean closed = false;
 
     AbstractTransactionManager(Supplier<Long> timestampCacheSize) {
-        this.timestampValidationReadCache = new TimestampCache(timestampCacheSize);
+        this.timestampValidationReadCache = new OffHeapTimestampCache(timestampCacheSize);
     }
 
     @Override
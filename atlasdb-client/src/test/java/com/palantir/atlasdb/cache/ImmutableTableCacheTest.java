@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.CachePriority;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ExpirationStrategy;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.PartitionStrategy;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.SweepStrategy;
+import com.palantir.atlasdb.table.description.ColumnMetadataDescription;
+import com.palantir.atlasdb.table.description.NameMetadataDescription;
+import com.palantir.atlasdb.table.description.TableMetadata;
+import com.palantir.atlasdb.transaction.api.ConflictHandler;
+import com.palantir.atlasdb.util.MetricsRule;
+
+public class ImmutableTableCacheTest {
+    private static final TableReference CACHED_TABLE = TableReference.createFromFullyQualifiedName("test.cached");
+    private static final TableReference OTHER_TABLE = TableReference.createFromFullyQualifiedName("test.other");
+    private static final Cell CELL = Cell.create(new byte[] {1}, new byte[] {2});
+    private static final Cell OTHER_CELL = Cell.create(new byte[] {3}, new byte[] {4});
+    private static final byte[] VALUE = new byte[] {5, 6};
+
+    @Rule
+    public MetricsRule metricsRule = new MetricsRule();
+
+    private final ImmutableTableCache cache = new ImmutableTableCache(
+            CacheLoader.from(CACHED_TABLE::equals), 1024 * 1024);
+
+    @Test
+    public void onlyTablesDeclaringImmutableValuesAreCacheable() {
+        assertThat(ImmutableTableCache.isCacheable(metadata(true))).isTrue();
+        assertThat(ImmutableTableCache.isCacheable(metadata(false))).isFalse();
+        assertThat(ImmutableTableCache.isCacheable(new TableMetadata(
+                new NameMetadataDescription(),
+                new ColumnMetadataDescription(),
+                ConflictHandler.IGNORE_ALL,
+                CachePriority.HOTTEST,
+                PartitionStrategy.ORDERED,
+                false,
+                0,
+                false,
+                SweepStrategy.CONSERVATIVE,
+                ExpirationStrategy.NEVER,
+                false)))
+                .isFalse();
+        assertThat(cache.isCacheable(CACHED_TABLE)).isTrue();
+        assertThat(cache.isCacheable(OTHER_TABLE)).isFalse();
+        assertThat(ImmutableTableCache.disabled().isCacheable(CACHED_TABLE)).isFalse();
+    }
+
+    @Test
+    public void valuesAreOnlyVisibleToTransactionsStartingAfterTheirCommit() {
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 5L)).isEmpty();
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 10L)).isEmpty();
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void keepsTheEarliestCommitTimestamp() {
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        cache.put(CACHED_TABLE, CELL, VALUE, 20L);
+
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void doesNotCacheEmptyValues() {
+        cache.put(CACHED_TABLE, CELL, new byte[0], 10L);
+
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).isEmpty();
+    }
+
+    @Test
+    public void clearRemovesAllValues() {
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        cache.clear();
+
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).isEmpty();
+    }
+
+    @Test
+    public void invalidateRemovesOnlyValuesOfTheGivenTables() {
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        cache.put(OTHER_TABLE, CELL, VALUE, 10L);
+        cache.invalidate(ImmutableSet.of(CACHED_TABLE));
+
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).isEmpty();
+        assertThat(cache.getVisible(OTHER_TABLE, ImmutableSet.of(CELL), 11L)).containsEntry(CELL, VALUE);
+    }
+
+    @Test
+    public void truncatingOrDroppingThroughTheKeyValueServiceInvalidatesTheTable() {
+        KeyValueService delegate = mock(KeyValueService.class);
+        KeyValueService keyValueService = ImmutableTableCacheInvalidatingKeyValueService.create(delegate, cache);
+
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        keyValueService.truncateTable(CACHED_TABLE);
+        verify(delegate).truncateTable(CACHED_TABLE);
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).isEmpty();
+
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        keyValueService.dropTables(ImmutableSet.of(CACHED_TABLE));
+        verify(delegate).dropTables(ImmutableSet.of(CACHED_TABLE));
+        assertThat(cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L)).isEmpty();
+    }
+
+    @Test
+    public void recordsHitsAndMissesPerTable() {
+        cache.put(CACHED_TABLE, CELL, VALUE, 10L);
+        cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL, OTHER_CELL), 11L);
+        cache.getVisible(CACHED_TABLE, ImmutableSet.of(CELL), 11L);
+
+        assertThat(meterCount("hit")).isEqualTo(2L);
+        assertThat(meterCount("miss")).isEqualTo(1L);
+    }
+
+    private long meterCount(String name) {
+        return metricsRule.metrics()
+                .meter(MetricRegistry.name(ImmutableTableCache.class, CACHED_TABLE.getQualifiedName(), name))
+                .getCount();
+    }
+
+    private static TableMetadata metadata(boolean immutableValues) {
+        return new TableMetadata(
+                new NameMetadataDescription(),
+                new ColumnMetadataDescription(),
+                ConflictHandler.RETRY_ON_WRITE_WRITE,
+                CachePriority.WARM,
+                PartitionStrategy.ORDERED,
+                false,
+                0,
+                false,
+                SweepStrategy.CONSERVATIVE,
+                ExpirationStrategy.NEVER,
+                false,
+                LogSafety.UNSAFE,
+                immutableValues);
+    }
+}
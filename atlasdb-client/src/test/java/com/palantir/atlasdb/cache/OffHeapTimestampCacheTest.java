@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.util.MetricsRule;
+
+public class OffHeapTimestampCacheTest {
+    private static final String TEST_CACHE_NAME = MetricRegistry.name(OffHeapTimestampCacheTest.class, "test");
+
+    @Rule
+    public MetricsRule metricsRule = new MetricsRule();
+
+    private final AtomicLong size = new AtomicLong(1_000);
+    private OffHeapTimestampCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new OffHeapTimestampCache(size::get, TEST_CACHE_NAME);
+    }
+
+    @Test
+    public void returnsNullForMissingEntries() {
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void returnsCachedCommitTimestamps() {
+        cache.putAlreadyCommittedTransaction(1L, 2L);
+        cache.putAlreadyCommittedTransaction(3L, TransactionConstants.FAILED_COMMIT_TS);
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isEqualTo(2L);
+        assertThat(cache.getCommitTimestampIfPresent(3L)).isEqualTo(TransactionConstants.FAILED_COMMIT_TS);
+        assertThat(cache.getCommitTimestampIfPresent(2L)).isNull();
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        cache.putAlreadyCommittedTransaction(1L, 2L);
+        cache.clear();
+
+        assertThat(cache.getCommitTimestampIfPresent(1L)).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void holdsEntriesBeyondInitialTableCapacity() {
+        size.set(100_000);
+        cache.resize(size.get());
+        for (long ts = 0; ts < 100_000; ts++) {
+            cache.putAlreadyCommittedTransaction(ts, ts + 1);
+        }
+        for (long ts = 0; ts < 100_000; ts++) {
+            assertThat(cache.getCommitTimestampIfPresent(ts)).isEqualTo(ts + 1);
+        }
+    }
+
+    @Test
+    public void evictsOnceFull() {
+        for (long ts = 0; ts < 100_000; ts++) {
+            cache.putAlreadyCommittedTransaction(ts, ts + 1);
+        }
+
+        assertThat(cache.size()).isBetween(1_000L, 1_016L);
+        assertThat(metricsRule.metrics().counter(MetricRegistry.name(TEST_CACHE_NAME, "eviction.count")).getCount())
+                .isEqualTo(100_000 - cache.size());
+    }
+
+    @Test
+    public void keepsRecentlyReadEntriesWhenEvicting() {
+        cache.putAlreadyCommittedTransaction(0L, 1L);
+        for (long ts = 1; ts < 100_000; ts++) {
+            cache.getCommitTimestampIfPresent(0L);
+            cache.putAlreadyCommittedTransaction(ts, ts + 1);
+        }
+
+        assertThat(cache.getCommitTimestampIfPresent(0L)).isEqualTo(1L);
+    }
+
+    @Test
+    public void shrinksWhenResized() {
+        for (long ts = 0; ts < 1_000; ts++) {
+            cache.putAlreadyCommittedTransaction(ts, ts + 1);
+        }
+        cache.resize(100);
+
+        assertThat(cache.size()).isBetween(100L, 112L);
+        long remaining = 0;
+        for (long ts = 0; ts < 1_000; ts++) {
+            Long commitTs = cache.getCommitTimestampIfPresent(ts);
+            if (commitTs != null) {
+                assertThat(commitTs).isEqualTo(ts + 1);
+                remaining++;
+            }
+        }
+        assertThat(remaining).isEqualTo(cache.size());
+    }
+
+    @Test
+    public void recordsHitsAndMisses() {
+        cache.putAlreadyCommittedTransaction(1L, 2L);
+        cache.getCommitTimestampIfPresent(1L);
+        cache.getCommitTimestampIfPresent(1L);
+        cache.getCommitTimestampIfPresent(2L);
+
+        assertThat(metricsRule.metrics().counter(MetricRegistry.name(TEST_CACHE_NAME, "hit.count")).getCount())
+                .isEqualTo(2L);
+        assertThat(metricsRule.metrics().counter(MetricRegistry.name(TEST_CACHE_NAME, "miss.count")).getCount())
+                .isEqualTo(1L);
+        assertThat(metricsRule.metrics().getGauges().get(MetricRegistry.name(TEST_CACHE_NAME, "request.count"))
+                .getValue()).isEqualTo(3L);
+    }
+}
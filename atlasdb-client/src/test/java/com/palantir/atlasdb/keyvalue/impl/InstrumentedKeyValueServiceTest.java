@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.util.MetricsRule;
+import com.palantir.timestamp.TimestampService;
+
+public class InstrumentedKeyValueServiceTest {
+    private static final byte[] ROW = "row".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+    private static final Cell CELL = Cell.create(ROW, "col".getBytes(StandardCharsets.UTF_8));
+    private static final TableReference TABLE = TableReference.createWithEmptyNamespace("table");
+    private static final TableReference OTHER_TABLE = TableReference.createWithEmptyNamespace("other");
+    private static final String PREFIX = KeyValueService.class.getName();
+
+    @Rule
+    public final MetricsRule metricsRule = new MetricsRule();
+
+    private final KeyValueService delegate = mock(KeyValueService.class);
+
+    private SweepStatsRecorder sweepStats;
+    private InstrumentedKeyValueService kvs;
+
+    @Before
+    public void before() {
+        sweepStats = SweepStatsRecorder.create(delegate, mock(TimestampService.class));
+        kvs = InstrumentedKeyValueService.create(delegate, sweepStats);
+    }
+
+    @After
+    public void after() {
+        sweepStats.close();
+    }
+
+    @Test
+    public void delegatesReadsAndTimesThem() {
+        Map<Cell, Long> request = ImmutableMap.of(CELL, 1L);
+        Map<Cell, Value> result = ImmutableMap.of(CELL, Value.create(VALUE, 0L));
+        when(delegate.get(TABLE, request)).thenReturn(result);
+
+        assertThat(kvs.get(TABLE, request)).isEqualTo(result);
+        assertThat(kvs.get(TABLE, request)).isEqualTo(result);
+
+        assertThat(metrics().timer(MetricRegistry.name(PREFIX, "get")).getCount()).isEqualTo(2);
+        assertThat(metrics().timer(MetricRegistry.name(PREFIX, "put")).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void recordsWritesForSweepStats() {
+        kvs.put(TABLE, ImmutableMap.of(CELL, VALUE), 1L);
+        kvs.multiPut(ImmutableMap.of(TABLE, ImmutableMap.of(CELL, VALUE), OTHER_TABLE, ImmutableMap.of(CELL, VALUE)),
+                2L);
+
+        verify(delegate).put(eq(TABLE), anyMapOf(Cell.class, byte[].class), eq(1L));
+        assertThat(sweepStats.getWrites(TABLE)).isEqualTo(2);
+        assertThat(sweepStats.getWrites(OTHER_TABLE)).isEqualTo(1);
+        assertThat(metrics().timer(MetricRegistry.name(PREFIX, "put")).getCount()).isEqualTo(1);
+        assertThat(metrics().timer(MetricRegistry.name(PREFIX, "multiPut")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void deleteRangeAllCountsAsClearingTheTable() {
+        kvs.deleteRange(TABLE, RangeRequest.all());
+        assertThat(sweepStats.hasBeenCleared(TABLE)).isTrue();
+    }
+
+    @Test
+    public void otherDeleteRangeDoesNotCountAsClearingTheTable() {
+        kvs.deleteRange(TABLE, RangeRequest.builder().startRowInclusive(ROW).build());
+        assertThat(sweepStats.hasBeenCleared(TABLE)).isFalse();
+    }
+
+    @Test
+    public void truncatesCountAsClearingTheTables() {
+        kvs.truncateTables(ImmutableSet.of(TABLE, OTHER_TABLE));
+        assertThat(sweepStats.hasBeenCleared(TABLE)).isTrue();
+        assertThat(sweepStats.hasBeenCleared(OTHER_TABLE)).isTrue();
+    }
+
+    @Test
+    public void failuresArePropagatedAndMeteredButNotRecorded() {
+        RuntimeException failure = new RuntimeException("put failed");
+        doThrow(failure).when(delegate).put(any(TableReference.class), anyMapOf(Cell.class, byte[].class), eq(1L));
+
+        assertThatThrownBy(() -> kvs.put(TABLE, ImmutableMap.of(CELL, VALUE), 1L)).isSameAs(failure);
+
+        assertThat(sweepStats.getWrites(TABLE)).isEqualTo(0);
+        assertThat(metrics().timer(MetricRegistry.name(PREFIX, "put")).getCount()).isEqualTo(0);
+        assertThat(metrics().meter(MetricRegistry.name(PREFIX, "failures")).getCount()).isEqualTo(1);
+        assertThat(metrics().meter(MetricRegistry.name(PREFIX, "put", "failures")).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void closesRecorderAndDelegate() throws Exception {
+        kvs.close();
+        verify(delegate).close();
+    }
+
+    private MetricRegistry metrics() {
+        return metricsRule.metrics();
+    }
+}
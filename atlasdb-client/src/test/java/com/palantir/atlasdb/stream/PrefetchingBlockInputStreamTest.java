@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class PrefetchingBlockInputStreamTest {
+    private static final int BLOCK_SIZE = 3;
+    private static final byte[] DATA = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    private static final long NUM_BLOCKS = (DATA.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void readsAllBlocksInOrder() throws IOException {
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(
+                new DataGetter(), NUM_BLOCKS, 2, executor);
+
+        assertArrayEquals(DATA, ByteStreams.toByteArray(stream));
+    }
+
+    @Test
+    public void readsSingleBytes() throws IOException {
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(
+                new DataGetter(), NUM_BLOCKS, 1, executor);
+
+        for (byte expected : DATA) {
+            assertEquals(expected, stream.read());
+        }
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void copiesToChannel() throws IOException {
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(
+                new DataGetter(), NUM_BLOCKS, 2, executor);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(DATA.length, stream.copyTo(Channels.newChannel(output)));
+        assertArrayEquals(DATA, output.toByteArray());
+    }
+
+    @Test
+    public void fetchesAheadOfTheReader() throws Exception {
+        CountDownLatch fetchesStarted = new CountDownLatch(3);
+        DataGetter getter = new DataGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                fetchesStarted.countDown();
+                super.get(firstBlock, numBlocks, destination);
+            }
+        };
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(getter, NUM_BLOCKS, 2, executor);
+
+        assertEquals(DATA[0], stream.read());
+        assertTrue(fetchesStarted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void doesNotFetchMoreThanReadAheadLimit() throws IOException {
+        DataGetter getter = new DataGetter();
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(getter, NUM_BLOCKS, 1, executor);
+
+        stream.read();
+
+        assertTrue(getter.fetches.get() <= 2);
+    }
+
+    @Test
+    public void propagatesFailuresToTheReader() throws IOException {
+        BlockGetter failingGetter = new DataGetter() {
+            @Override
+            public void get(long firstBlock, long numBlocks, OutputStream destination) {
+                throw new IllegalStateException("failed to load block");
+            }
+        };
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(
+                failingGetter, NUM_BLOCKS, 2, executor);
+
+        try {
+            stream.read();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("failed to load block", e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void cannotReadAfterClose() throws IOException {
+        PrefetchingBlockInputStream stream = PrefetchingBlockInputStream.create(
+                new DataGetter(), NUM_BLOCKS, 2, executor);
+        stream.close();
+
+        stream.read();
+    }
+
+    private static class DataGetter implements BlockGetter {
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        @Override
+        public void get(long firstBlock, long numBlocks, OutputStream destination) {
+            fetches.incrementAndGet();
+            int start = (int) firstBlock * BLOCK_SIZE;
+            int end = (int) Math.min(DATA.length, (firstBlock + numBlocks) * BLOCK_SIZE);
+            try {
+                destination.write(DATA, start, end - start);
+            } catch (IOException e) {
+                fail();
+            }
+        }
+
+        @Override
+        public int expectedBlockLength() {
+            return BLOCK_SIZE;
+        }
+    }
+}
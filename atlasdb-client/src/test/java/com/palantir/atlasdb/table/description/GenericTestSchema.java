@@ -18,6 +18,7 @@ package com.palantir.atlasdb.table.description;
 import java.io.File;
 
 import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.ValueByteOrder;
 import com.palantir.atlasdb.schema.AtlasSchema;
 
 public class GenericTestSchema implements AtlasSchema {
@@ -59,6 +60,23 @@ public class GenericTestSchema implements AtlasSchema {
             rangeScanAllowed();
         }});
 
+        // use for testing that row views decode every kind of row component like the row hydrator
+        schema.addTableDefinition("rowViewTest", new TableDefinition() {{
+            javaTableName("RowViewTest");
+
+            rowName();
+            hashFirstRowComponent();
+            rowComponent("component1", ValueType.VAR_LONG);
+            rowComponent("component2", ValueType.FIXED_LONG, ValueByteOrder.DESCENDING);
+            rowComponent("component3", ValueType.VAR_STRING, ValueByteOrder.DESCENDING);
+            rowComponent("component4", ValueType.STRING, ValueByteOrder.DESCENDING);
+
+            columns();
+            column("column1", "c", ValueType.VAR_LONG);
+
+            enableLazyRowHydration();
+        }});
+
         return schema;
     }
 
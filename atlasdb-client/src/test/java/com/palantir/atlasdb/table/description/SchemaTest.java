@@ -41,6 +41,8 @@ import com.google.common.io.Files;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.table.description.generated.RowViewTestTable.RowViewTestRow;
+import com.palantir.atlasdb.table.description.generated.RowViewTestTable.RowViewTestRowView;
 
 public class SchemaTest {
     @Rule
@@ -86,6 +88,49 @@ public class SchemaTest {
                         containsString("import java.util.Optional")));
     }
 
+    @Test
+    public void testDoesNotRenderRowViewsByDefault() throws IOException {
+        Schema schema = new Schema("Table", TEST_PACKAGE, Namespace.DEFAULT_NAMESPACE);
+        schema.addTableDefinition("TableName", getSimpleTableDefinition(TABLE_REF));
+        schema.renderTables(testFolder.getRoot());
+        assertThat(readFileIntoString(testFolder.getRoot(), TEST_PATH),
+                allOf(
+                        not(containsString("TestTableRowView")),
+                        not(containsString("private TestTableRow rowName;"))));
+    }
+
+    @Test
+    public void testRendersRowViewsWhenLazyRowHydrationEnabled() throws IOException {
+        Schema schema = new Schema("Table", TEST_PACKAGE, Namespace.DEFAULT_NAMESPACE);
+        TableDefinition definition = getSimpleTableDefinition(TABLE_REF);
+        definition.enableLazyRowHydration();
+        schema.addTableDefinition("TableName", definition);
+        schema.renderTables(testFolder.getRoot());
+        assertThat(readFileIntoString(testFolder.getRoot(), TEST_PATH),
+                allOf(
+                        containsString("public static final class TestTableRowView {"),
+                        containsString("public String getRowName() {"),
+                        containsString("public TestTableRowView getRowView() {"),
+                        containsString("private TestTableRow rowName;")));
+    }
+
+    @Test
+    public void testRowViewDecodesEveryComponentLikeTheRow() {
+        RowViewTestRow row = RowViewTestRow.of(300L, 42L, "variable width", "trailing");
+        byte[] bytes = row.persistToBytes();
+        RowViewTestRowView view = RowViewTestRowView.of(bytes);
+
+        // read everything twice to check that decoding does not modify the underlying array
+        for (int i = 0; i < 2; i++) {
+            assertThat(view.getComponent1()).isEqualTo(row.getComponent1());
+            assertThat(view.getComponent2()).isEqualTo(row.getComponent2());
+            assertThat(view.getComponent3()).isEqualTo(row.getComponent3());
+            assertThat(view.getComponent4()).isEqualTo(row.getComponent4());
+        }
+        assertThat(view.getBytes()).isEqualTo(row.persistToBytes());
+        assertThat(view.hydrate()).isEqualTo(row);
+    }
+
     @Test
     public void testIgnoreTableNameLengthFlag() throws IOException {
         Schema schema = new Schema("Table", TEST_PACKAGE, Namespace.EMPTY_NAMESPACE);
@@ -22,9 +22,12 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.Test;
 
 import com.google.common.collect.Iterables;
+import com.palantir.atlasdb.compress.CompressionDictionary;
 import com.palantir.atlasdb.keyvalue.api.Namespace;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.FileDescriptorTreeProto;
 import com.palantir.atlasdb.protos.generated.TableMetadataPersistence.LogSafety;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 
 @SuppressWarnings("checkstyle:all") // too many warnings to fix
 public class TableDefinitionTest {
@@ -261,6 +264,69 @@ public class TableDefinitionTest {
      * expectedSafety. Throws if the actual safety doesn't match the expected safety, or if it is not the case that
      * there is exactly one row component.
      */
+    @Test
+    public void compressionDictionaryIsAppliedToZstdColumnsAndPersisted() {
+        CompressionDictionary dictionary = CompressionDictionary.of(new byte[] { 1, 2, 3, 4 });
+        TableDefinition definition = new TableDefinition() {{
+            compressionDictionary(dictionary);
+            javaTableName(TABLE_REF.getTablename());
+            rowName();
+            rowComponent(ROW_NAME, ValueType.STRING);
+            columns();
+            column(COLUMN_NAME, COLUMN_SHORTNAME, FileDescriptorTreeProto.class, Compression.ZSTD);
+            column("baz", "z", FileDescriptorTreeProto.class, Compression.LZ4);
+        }};
+
+        TableMetadata metadata = definition.toTableMetadata();
+        assertThat(getColumnValue(metadata, COLUMN_NAME).getCompressionDictionary()).isEqualTo(dictionary);
+        assertThat(getColumnValue(metadata, "baz").getCompressionDictionary()).isNull();
+
+        TableMetadata hydrated = TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata.persistToBytes());
+        assertThat(getColumnValue(hydrated, COLUMN_NAME).getCompressionDictionary()).isEqualTo(dictionary);
+    }
+
+    @Test
+    public void cannotSpecifyCompressionDictionaryWithoutZstdColumns() {
+        TableDefinition definition = new TableDefinition() {{
+            compressionDictionary(CompressionDictionary.of(new byte[] { 1, 2, 3, 4 }));
+            javaTableName(TABLE_REF.getTablename());
+            rowName();
+            rowComponent(ROW_NAME, ValueType.STRING);
+            columns();
+            column(COLUMN_NAME, COLUMN_SHORTNAME, FileDescriptorTreeProto.class, Compression.SNAPPY);
+        }};
+        assertThatThrownBy(definition::toTableMetadata).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void valuesAreNotImmutableByDefault() {
+        assertThat(BASE_DEFINITION.toTableMetadata().hasImmutableValues()).isFalse();
+    }
+
+    @Test
+    public void immutableValuesArePersisted() {
+        TableDefinition definition = new TableDefinition() {{
+            javaTableName(TABLE_REF.getTablename());
+            immutableValues();
+            rowName();
+            rowComponent(ROW_NAME, ValueType.STRING);
+            noColumns();
+        }};
+
+        TableMetadata metadata = definition.toTableMetadata();
+        assertThat(metadata.hasImmutableValues()).isTrue();
+        assertThat(TableMetadata.BYTES_HYDRATOR.hydrateFromBytes(metadata.persistToBytes()).hasImmutableValues())
+                .isTrue();
+    }
+
+    private static ColumnValueDescription getColumnValue(TableMetadata metadata, String longName) {
+        return metadata.getColumns().getNamedColumns().stream()
+                .filter(col -> col.getLongName().equals(longName))
+                .findFirst()
+                .get()
+                .getValue();
+    }
+
     private static void assertRowComponentSafety(TableDefinition tableDefinition, LogSafety expectedSafety) {
         TableMetadata metadata = tableDefinition.toTableMetadata();
         NameComponentDescription nameComponent = Iterables.getOnlyElement(metadata.getRowMetadata().getRowParts());
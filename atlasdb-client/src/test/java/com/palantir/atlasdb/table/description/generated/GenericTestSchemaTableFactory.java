@@ -51,7 +51,12 @@ public final class GenericTestSchemaTableFactory {
         return RangeScanTestTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
     }
 
-    public interface SharedTriggers extends GenericRangeScanTestTable.GenericRangeScanTestTrigger, RangeScanTestTable.RangeScanTestTrigger {
+    public RowViewTestTable getRowViewTestTable(Transaction t,
+            RowViewTestTable.RowViewTestTrigger... triggers) {
+        return RowViewTestTable.of(t, namespace, Triggers.getAllTriggers(t, sharedTriggers, triggers));
+    }
+
+    public interface SharedTriggers extends GenericRangeScanTestTable.GenericRangeScanTestTrigger, RangeScanTestTable.RangeScanTestTrigger, RowViewTestTable.RowViewTestTrigger {
     }
 
     public abstract static class NullSharedTriggers implements SharedTriggers {
@@ -64,5 +69,10 @@ public final class GenericTestSchemaTableFactory {
         public void putRangeScanTest(Multimap<RangeScanTestTable.RangeScanTestRow, ? extends RangeScanTestTable.RangeScanTestNamedColumnValue<?>> newRows) {
             // do nothing
         }
+
+        @Override
+        public void putRowViewTest(Multimap<RowViewTestTable.RowViewTestRow, ? extends RowViewTestTable.RowViewTestNamedColumnValue<?>> newRows) {
+            // do nothing
+        }
     }
 }
@@ -0,0 +1,831 @@
+package com.palantir.atlasdb.table.description.generated;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import javax.annotation.Generated;
+
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.palantir.atlasdb.compress.CompressionUtils;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelection;
+import com.palantir.atlasdb.keyvalue.api.ColumnRangeSelections;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.Prefix;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.Cells;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbDynamicMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutableExpiringTable;
+import com.palantir.atlasdb.table.api.AtlasDbMutablePersistentTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedExpiringSet;
+import com.palantir.atlasdb.table.api.AtlasDbNamedMutableTable;
+import com.palantir.atlasdb.table.api.AtlasDbNamedPersistentSet;
+import com.palantir.atlasdb.table.api.ColumnValue;
+import com.palantir.atlasdb.table.api.TypedRowResult;
+import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
+import com.palantir.atlasdb.table.description.ValueType;
+import com.palantir.atlasdb.table.generation.ColumnValues;
+import com.palantir.atlasdb.table.generation.Descending;
+import com.palantir.atlasdb.table.generation.NamedColumnValue;
+import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
+import com.palantir.atlasdb.transaction.api.ConstraintCheckingTransaction;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.common.base.AbortingVisitor;
+import com.palantir.common.base.AbortingVisitors;
+import com.palantir.common.base.BatchingVisitable;
+import com.palantir.common.base.BatchingVisitableView;
+import com.palantir.common.base.BatchingVisitables;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.collect.IterableView;
+import com.palantir.common.persist.Persistable;
+import com.palantir.common.persist.Persistable.Hydrator;
+import com.palantir.common.persist.Persistables;
+import com.palantir.util.AssertUtils;
+import com.palantir.util.crypto.Sha256Hash;
+
+@Generated("com.palantir.atlasdb.table.description.render.TableRenderer")
+@SuppressWarnings("all")
+public final class RowViewTestTable implements
+        AtlasDbMutablePersistentTable<RowViewTestTable.RowViewTestRow,
+                                         RowViewTestTable.RowViewTestNamedColumnValue<?>,
+                                         RowViewTestTable.RowViewTestRowResult>,
+        AtlasDbNamedMutableTable<RowViewTestTable.RowViewTestRow,
+                                    RowViewTestTable.RowViewTestNamedColumnValue<?>,
+                                    RowViewTestTable.RowViewTestRowResult> {
+    private final Transaction t;
+    private final List<RowViewTestTrigger> triggers;
+    private final static String rawTableName = "rowViewTest";
+    private final TableReference tableRef;
+    private final static ColumnSelection allColumns = getColumnSelection(RowViewTestNamedColumn.values());
+
+    static RowViewTestTable of(Transaction t, Namespace namespace) {
+        return new RowViewTestTable(t, namespace, ImmutableList.<RowViewTestTrigger>of());
+    }
+
+    static RowViewTestTable of(Transaction t, Namespace namespace, RowViewTestTrigger trigger, RowViewTestTrigger... triggers) {
+        return new RowViewTestTable(t, namespace, ImmutableList.<RowViewTestTrigger>builder().add(trigger).add(triggers).build());
+    }
+
+    static RowViewTestTable of(Transaction t, Namespace namespace, List<RowViewTestTrigger> triggers) {
+        return new RowViewTestTable(t, namespace, triggers);
+    }
+
+    private RowViewTestTable(Transaction t, Namespace namespace, List<RowViewTestTrigger> triggers) {
+        this.t = t;
+        this.tableRef = TableReference.create(namespace, rawTableName);
+        this.triggers = triggers;
+    }
+
+    public static String getRawTableName() {
+        return rawTableName;
+    }
+
+    public TableReference getTableRef() {
+        return tableRef;
+    }
+
+    public String getTableName() {
+        return tableRef.getQualifiedName();
+    }
+
+    public Namespace getNamespace() {
+        return tableRef.getNamespace();
+    }
+
+    /**
+     * <pre>
+     * RowViewTestRow {
+     *   {@literal Long hashOfRowComponents};
+     *   {@literal Long component1};
+     *   {@literal @Descending Long component2};
+     *   {@literal @Descending String component3};
+     *   {@literal @Descending String component4};
+     * }
+     * </pre>
+     */
+    public static final class RowViewTestRow implements Persistable, Comparable<RowViewTestRow> {
+        private final long hashOfRowComponents;
+        private final long component1;
+        private final long component2;
+        private final String component3;
+        private final String component4;
+
+        public static RowViewTestRow of(long component1, long component2, String component3, String component4) {
+            long hashOfRowComponents = computeHashFirstComponents(component1);
+            return new RowViewTestRow(hashOfRowComponents, component1, component2, component3, component4);
+        }
+
+        private RowViewTestRow(long hashOfRowComponents, long component1, long component2, String component3, String component4) {
+            this.hashOfRowComponents = hashOfRowComponents;
+            this.component1 = component1;
+            this.component2 = component2;
+            this.component3 = component3;
+            this.component4 = component4;
+        }
+
+        public long getComponent1() {
+            return component1;
+        }
+
+        public long getComponent2() {
+            return component2;
+        }
+
+        public String getComponent3() {
+            return component3;
+        }
+
+        public String getComponent4() {
+            return component4;
+        }
+
+        public static Function<RowViewTestRow, Long> getComponent1Fun() {
+            return new Function<RowViewTestRow, Long>() {
+                @Override
+                public Long apply(RowViewTestRow row) {
+                    return row.component1;
+                }
+            };
+        }
+
+        public static Function<RowViewTestRow, Long> getComponent2Fun() {
+            return new Function<RowViewTestRow, Long>() {
+                @Override
+                public Long apply(RowViewTestRow row) {
+                    return row.component2;
+                }
+            };
+        }
+
+        public static Function<RowViewTestRow, String> getComponent3Fun() {
+            return new Function<RowViewTestRow, String>() {
+                @Override
+                public String apply(RowViewTestRow row) {
+                    return row.component3;
+                }
+            };
+        }
+
+        public static Function<RowViewTestRow, String> getComponent4Fun() {
+            return new Function<RowViewTestRow, String>() {
+                @Override
+                public String apply(RowViewTestRow row) {
+                    return row.component4;
+                }
+            };
+        }
+
+        @Override
+        public byte[] persistToBytes() {
+            byte[] hashOfRowComponentsBytes = PtBytes.toBytes(Long.MIN_VALUE ^ hashOfRowComponents);
+            byte[] component1Bytes = EncodingUtils.encodeUnsignedVarLong(component1);
+            byte[] component2Bytes = PtBytes.toBytes(Long.MIN_VALUE ^ component2);
+            EncodingUtils.flipAllBitsInPlace(component2Bytes);
+            byte[] component3Bytes = EncodingUtils.encodeVarString(component3);
+            EncodingUtils.flipAllBitsInPlace(component3Bytes);
+            byte[] component4Bytes = PtBytes.toBytes(component4);
+            EncodingUtils.flipAllBitsInPlace(component4Bytes);
+            return EncodingUtils.add(hashOfRowComponentsBytes, component1Bytes, component2Bytes, component3Bytes, component4Bytes);
+        }
+
+        public static final Hydrator<RowViewTestRow> BYTES_HYDRATOR = new Hydrator<RowViewTestRow>() {
+            @Override
+            public RowViewTestRow hydrateFromBytes(byte[] __input) {
+                int __index = 0;
+                Long hashOfRowComponents = Long.MIN_VALUE ^ PtBytes.toLong(__input, __index);
+                __index += 8;
+                Long component1 = EncodingUtils.decodeUnsignedVarLong(__input, __index);
+                __index += EncodingUtils.sizeOfUnsignedVarLong(component1);
+                Long component2 = Long.MAX_VALUE ^ PtBytes.toLong(__input, __index);
+                __index += 8;
+                String component3 = EncodingUtils.decodeFlippedVarString(__input, __index);
+                __index += EncodingUtils.sizeOfVarString(component3);
+                String component4 = PtBytes.toString(EncodingUtils.flipAllBitsInPlace(__input, __index), __index, __input.length-__index);
+                __index += 0;
+                return new RowViewTestRow(hashOfRowComponents, component1, component2, component3, component4);
+            }
+        };
+
+        public static long computeHashFirstComponents(long component1) {
+            byte[] component1Bytes = EncodingUtils.encodeUnsignedVarLong(component1);
+            return Hashing.murmur3_128().hashBytes(EncodingUtils.add(component1Bytes)).asLong();
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("hashOfRowComponents", hashOfRowComponents)
+                .add("component1", component1)
+                .add("component2", component2)
+                .add("component3", component3)
+                .add("component4", component4)
+                .toString();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            RowViewTestRow other = (RowViewTestRow) obj;
+            return Objects.equal(hashOfRowComponents, other.hashOfRowComponents) && Objects.equal(component1, other.component1) && Objects.equal(component2, other.component2) && Objects.equal(component3, other.component3) && Objects.equal(component4, other.component4);
+        }
+
+        @SuppressWarnings("ArrayHashCode")
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(new Object[]{ hashOfRowComponents, component1, component2, component3, component4 });
+        }
+
+        @Override
+        public int compareTo(RowViewTestRow o) {
+            return ComparisonChain.start()
+                .compare(this.hashOfRowComponents, o.hashOfRowComponents)
+                .compare(this.component1, o.component1)
+                .compare(this.component2, o.component2)
+                .compare(this.component3, o.component3)
+                .compare(this.component4, o.component4)
+                .result();
+        }
+    }
+
+    /**
+     * A view of the persisted bytes of a {@link RowViewTestRow}. Components are decoded from the
+     * underlying array each time they are read, and the array is not copied.
+     */
+    public static final class RowViewTestRowView {
+        private final byte[] bytes;
+
+        public static RowViewTestRowView of(byte[] bytes) {
+            return new RowViewTestRowView(bytes);
+        }
+
+        private RowViewTestRowView(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public long getComponent1() {
+            int __index = 0;
+            __index += 8;
+            return EncodingUtils.decodeUnsignedVarLong(bytes, __index);
+        }
+
+        public long getComponent2() {
+            int __index = 0;
+            __index += 8;
+            __index += EncodingUtils.sizeOfUnsignedVarLong(EncodingUtils.decodeUnsignedVarLong(bytes, __index));
+            return Long.MAX_VALUE ^ PtBytes.toLong(bytes, __index);
+        }
+
+        public String getComponent3() {
+            int __index = 0;
+            __index += 8;
+            __index += EncodingUtils.sizeOfUnsignedVarLong(EncodingUtils.decodeUnsignedVarLong(bytes, __index));
+            __index += 8;
+            return EncodingUtils.decodeVarString(EncodingUtils.flipAllBits(bytes, __index), 0);
+        }
+
+        public String getComponent4() {
+            int __index = 0;
+            __index += 8;
+            __index += EncodingUtils.sizeOfUnsignedVarLong(EncodingUtils.decodeUnsignedVarLong(bytes, __index));
+            __index += 8;
+            __index += EncodingUtils.sizeOfVarString(EncodingUtils.decodeVarString(EncodingUtils.flipAllBits(bytes, __index), 0));
+            return PtBytes.toString(EncodingUtils.flipAllBits(bytes, __index));
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public RowViewTestRow hydrate() {
+            return RowViewTestRow.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("component1", getComponent1())
+                .add("component2", getComponent2())
+                .add("component3", getComponent3())
+                .add("component4", getComponent4())
+                .toString();
+        }
+    }
+
+    public interface RowViewTestNamedColumnValue<T> extends NamedColumnValue<T> { /* */ }
+
+    /**
+     * <pre>
+     * Column value description {
+     *   type: Long;
+     * }
+     * </pre>
+     */
+    public static final class Column1 implements RowViewTestNamedColumnValue<Long> {
+        private final Long value;
+
+        public static Column1 of(Long value) {
+            return new Column1(value);
+        }
+
+        private Column1(Long value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getColumnName() {
+            return "column1";
+        }
+
+        @Override
+        public String getShortColumnName() {
+            return "c";
+        }
+
+        @Override
+        public Long getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] persistValue() {
+            byte[] bytes = EncodingUtils.encodeUnsignedVarLong(value);
+            return CompressionUtils.compress(bytes, Compression.NONE);
+        }
+
+        @Override
+        public byte[] persistColumnName() {
+            return PtBytes.toCachedBytes("c");
+        }
+
+        public static final Hydrator<Column1> BYTES_HYDRATOR = new Hydrator<Column1>() {
+            @Override
+            public Column1 hydrateFromBytes(byte[] bytes) {
+                bytes = CompressionUtils.decompress(bytes, Compression.NONE);
+                return of(EncodingUtils.decodeUnsignedVarLong(bytes, 0));
+            }
+        };
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("Value", this.value)
+                .toString();
+        }
+    }
+
+    public interface RowViewTestTrigger {
+        public void putRowViewTest(Multimap<RowViewTestRow, ? extends RowViewTestNamedColumnValue<?>> newRows);
+    }
+
+    public static final class RowViewTestRowResult implements TypedRowResult {
+        private final RowResult<byte[]> row;
+        private RowViewTestRow rowName;
+
+        public static RowViewTestRowResult of(RowResult<byte[]> row) {
+            return new RowViewTestRowResult(row);
+        }
+
+        private RowViewTestRowResult(RowResult<byte[]> row) {
+            this.row = row;
+        }
+
+        @Override
+        public RowViewTestRow getRowName() {
+            if (rowName == null) {
+                rowName = RowViewTestRow.BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());
+            }
+            return rowName;
+        }
+
+        public RowViewTestRowView getRowView() {
+            return RowViewTestRowView.of(row.getRowName());
+        }
+
+        public static Function<RowViewTestRowResult, RowViewTestRow> getRowNameFun() {
+            return new Function<RowViewTestRowResult, RowViewTestRow>() {
+                @Override
+                public RowViewTestRow apply(RowViewTestRowResult rowResult) {
+                    return rowResult.getRowName();
+                }
+            };
+        }
+
+        public static Function<RowResult<byte[]>, RowViewTestRowResult> fromRawRowResultFun() {
+            return new Function<RowResult<byte[]>, RowViewTestRowResult>() {
+                @Override
+                public RowViewTestRowResult apply(RowResult<byte[]> rowResult) {
+                    return new RowViewTestRowResult(rowResult);
+                }
+            };
+        }
+
+        public boolean hasColumn1() {
+            return row.getColumns().containsKey(PtBytes.toCachedBytes("c"));
+        }
+
+        public Long getColumn1() {
+            byte[] bytes = row.getColumns().get(PtBytes.toCachedBytes("c"));
+            if (bytes == null) {
+                return null;
+            }
+            Column1 value = Column1.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+            return value.getValue();
+        }
+
+        public static Function<RowViewTestRowResult, Long> getColumn1Fun() {
+            return new Function<RowViewTestRowResult, Long>() {
+                @Override
+                public Long apply(RowViewTestRowResult rowResult) {
+                    return rowResult.getColumn1();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("RowName", getRowName())
+                .add("Column1", getColumn1())
+                .toString();
+        }
+    }
+
+    public enum RowViewTestNamedColumn {
+        COLUMN1 {
+            @Override
+            public byte[] getShortName() {
+                return PtBytes.toCachedBytes("c");
+            }
+        };
+
+        public abstract byte[] getShortName();
+
+        public static Function<RowViewTestNamedColumn, byte[]> toShortName() {
+            return new Function<RowViewTestNamedColumn, byte[]>() {
+                @Override
+                public byte[] apply(RowViewTestNamedColumn namedColumn) {
+                    return namedColumn.getShortName();
+                }
+            };
+        }
+    }
+
+    public static ColumnSelection getColumnSelection(Collection<RowViewTestNamedColumn> cols) {
+        return ColumnSelection.create(Collections2.transform(cols, RowViewTestNamedColumn.toShortName()));
+    }
+
+    public static ColumnSelection getColumnSelection(RowViewTestNamedColumn... cols) {
+        return getColumnSelection(Arrays.asList(cols));
+    }
+
+    private static final Map<String, Hydrator<? extends RowViewTestNamedColumnValue<?>>> shortNameToHydrator =
+            ImmutableMap.<String, Hydrator<? extends RowViewTestNamedColumnValue<?>>>builder()
+                .put("c", Column1.BYTES_HYDRATOR)
+                .build();
+
+    public Map<RowViewTestRow, Long> getColumn1s(Collection<RowViewTestRow> rows) {
+        Map<Cell, RowViewTestRow> cells = Maps.newHashMapWithExpectedSize(rows.size());
+        for (RowViewTestRow row : rows) {
+            cells.put(Cell.create(row.persistToBytes(), PtBytes.toCachedBytes("c")), row);
+        }
+        Map<Cell, byte[]> results = t.get(tableRef, cells.keySet());
+        Map<RowViewTestRow, Long> ret = Maps.newHashMapWithExpectedSize(results.size());
+        for (Entry<Cell, byte[]> e : results.entrySet()) {
+            Long val = Column1.BYTES_HYDRATOR.hydrateFromBytes(e.getValue()).getValue();
+            ret.put(cells.get(e.getKey()), val);
+        }
+        return ret;
+    }
+
+    public void putColumn1(RowViewTestRow row, Long value) {
+        put(ImmutableMultimap.of(row, Column1.of(value)));
+    }
+
+    public void putColumn1(Map<RowViewTestRow, Long> map) {
+        Map<RowViewTestRow, RowViewTestNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<RowViewTestRow, Long> e : map.entrySet()) {
+            toPut.put(e.getKey(), Column1.of(e.getValue()));
+        }
+        put(Multimaps.forMap(toPut));
+    }
+
+    public void putColumn1UnlessExists(RowViewTestRow row, Long value) {
+        putUnlessExists(ImmutableMultimap.of(row, Column1.of(value)));
+    }
+
+    public void putColumn1UnlessExists(Map<RowViewTestRow, Long> map) {
+        Map<RowViewTestRow, RowViewTestNamedColumnValue<?>> toPut = Maps.newHashMapWithExpectedSize(map.size());
+        for (Entry<RowViewTestRow, Long> e : map.entrySet()) {
+            toPut.put(e.getKey(), Column1.of(e.getValue()));
+        }
+        putUnlessExists(Multimaps.forMap(toPut));
+    }
+
+    @Override
+    public void put(Multimap<RowViewTestRow, ? extends RowViewTestNamedColumnValue<?>> rows) {
+        t.useTable(tableRef, this);
+        t.put(tableRef, ColumnValues.toCellValues(rows));
+        for (RowViewTestTrigger trigger : triggers) {
+            trigger.putRowViewTest(rows);
+        }
+    }
+
+    /** @deprecated Use separate read and write in a single transaction instead. */
+    @Deprecated
+    @Override
+    public void putUnlessExists(Multimap<RowViewTestRow, ? extends RowViewTestNamedColumnValue<?>> rows) {
+        Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> existing = getRowsMultimap(rows.keySet());
+        Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> toPut = HashMultimap.create();
+        for (Entry<RowViewTestRow, ? extends RowViewTestNamedColumnValue<?>> entry : rows.entries()) {
+            if (!existing.containsEntry(entry.getKey(), entry.getValue())) {
+                toPut.put(entry.getKey(), entry.getValue());
+            }
+        }
+        put(toPut);
+    }
+
+    public void deleteColumn1(RowViewTestRow row) {
+        deleteColumn1(ImmutableSet.of(row));
+    }
+
+    public void deleteColumn1(Iterable<RowViewTestRow> rows) {
+        byte[] col = PtBytes.toCachedBytes("c");
+        Set<Cell> cells = Cells.cellsWithConstantColumn(Persistables.persistAll(rows), col);
+        t.delete(tableRef, cells);
+    }
+
+    @Override
+    public void delete(RowViewTestRow row) {
+        delete(ImmutableSet.of(row));
+    }
+
+    @Override
+    public void delete(Iterable<RowViewTestRow> rows) {
+        List<byte[]> rowBytes = Persistables.persistAll(rows);
+        Set<Cell> cells = Sets.newHashSetWithExpectedSize(rowBytes.size());
+        cells.addAll(Cells.cellsWithConstantColumn(rowBytes, PtBytes.toCachedBytes("c")));
+        t.delete(tableRef, cells);
+    }
+
+    public Optional<RowViewTestRowResult> getRow(RowViewTestRow row) {
+        return getRow(row, allColumns);
+    }
+
+    public Optional<RowViewTestRowResult> getRow(RowViewTestRow row, ColumnSelection columns) {
+        byte[] bytes = row.persistToBytes();
+        RowResult<byte[]> rowResult = t.getRows(tableRef, ImmutableSet.of(bytes), columns).get(bytes);
+        if (rowResult == null) {
+            return Optional.empty();
+        } else {
+            return Optional.of(RowViewTestRowResult.of(rowResult));
+        }
+    }
+
+    @Override
+    public List<RowViewTestRowResult> getRows(Iterable<RowViewTestRow> rows) {
+        return getRows(rows, allColumns);
+    }
+
+    @Override
+    public List<RowViewTestRowResult> getRows(Iterable<RowViewTestRow> rows, ColumnSelection columns) {
+        SortedMap<byte[], RowResult<byte[]>> results = t.getRows(tableRef, Persistables.persistAll(rows), columns);
+        List<RowViewTestRowResult> rowResults = Lists.newArrayListWithCapacity(results.size());
+        for (RowResult<byte[]> row : results.values()) {
+            rowResults.add(RowViewTestRowResult.of(row));
+        }
+        return rowResults;
+    }
+
+    @Override
+    public List<RowViewTestNamedColumnValue<?>> getRowColumns(RowViewTestRow row) {
+        return getRowColumns(row, allColumns);
+    }
+
+    @Override
+    public List<RowViewTestNamedColumnValue<?>> getRowColumns(RowViewTestRow row, ColumnSelection columns) {
+        byte[] bytes = row.persistToBytes();
+        RowResult<byte[]> rowResult = t.getRows(tableRef, ImmutableSet.of(bytes), columns).get(bytes);
+        if (rowResult == null) {
+            return ImmutableList.of();
+        } else {
+            List<RowViewTestNamedColumnValue<?>> ret = Lists.newArrayListWithCapacity(rowResult.getColumns().size());
+            for (Entry<byte[], byte[]> e : rowResult.getColumns().entrySet()) {
+                ret.add(shortNameToHydrator.get(PtBytes.toString(e.getKey())).hydrateFromBytes(e.getValue()));
+            }
+            return ret;
+        }
+    }
+
+    @Override
+    public Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> getRowsMultimap(Iterable<RowViewTestRow> rows) {
+        return getRowsMultimapInternal(rows, allColumns);
+    }
+
+    @Override
+    public Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> getRowsMultimap(Iterable<RowViewTestRow> rows, ColumnSelection columns) {
+        return getRowsMultimapInternal(rows, columns);
+    }
+
+    private Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> getRowsMultimapInternal(Iterable<RowViewTestRow> rows, ColumnSelection columns) {
+        SortedMap<byte[], RowResult<byte[]>> results = t.getRows(tableRef, Persistables.persistAll(rows), columns);
+        return getRowMapFromRowResults(results.values());
+    }
+
+    private static Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> getRowMapFromRowResults(Collection<RowResult<byte[]>> rowResults) {
+        Multimap<RowViewTestRow, RowViewTestNamedColumnValue<?>> rowMap = HashMultimap.create();
+        for (RowResult<byte[]> result : rowResults) {
+            RowViewTestRow row = RowViewTestRow.BYTES_HYDRATOR.hydrateFromBytes(result.getRowName());
+            for (Entry<byte[], byte[]> e : result.getColumns().entrySet()) {
+                rowMap.put(row, shortNameToHydrator.get(PtBytes.toString(e.getKey())).hydrateFromBytes(e.getValue()));
+            }
+        }
+        return rowMap;
+    }
+
+    @Override
+    public Map<RowViewTestRow, BatchingVisitable<RowViewTestNamedColumnValue<?>>> getRowsColumnRange(Iterable<RowViewTestRow> rows, BatchColumnRangeSelection columnRangeSelection) {
+        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> results = t.getRowsColumnRange(tableRef, Persistables.persistAll(rows), columnRangeSelection);
+        Map<RowViewTestRow, BatchingVisitable<RowViewTestNamedColumnValue<?>>> transformed = Maps.newHashMapWithExpectedSize(results.size());
+        for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> e : results.entrySet()) {
+            RowViewTestRow row = RowViewTestRow.BYTES_HYDRATOR.hydrateFromBytes(e.getKey());
+            BatchingVisitable<RowViewTestNamedColumnValue<?>> bv = BatchingVisitables.transform(e.getValue(), result -> {
+                return shortNameToHydrator.get(PtBytes.toString(result.getKey().getColumnName())).hydrateFromBytes(result.getValue());
+            });
+            transformed.put(row, bv);
+        }
+        return transformed;
+    }
+
+    @Override
+    public Iterator<Map.Entry<RowViewTestRow, RowViewTestNamedColumnValue<?>>> getRowsColumnRange(Iterable<RowViewTestRow> rows, ColumnRangeSelection columnRangeSelection, int batchHint) {
+        Iterator<Map.Entry<Cell, byte[]>> results = t.getRowsColumnRange(getTableRef(), Persistables.persistAll(rows), columnRangeSelection, batchHint);
+        return Iterators.transform(results, e -> {
+            RowViewTestRow row = RowViewTestRow.BYTES_HYDRATOR.hydrateFromBytes(e.getKey().getRowName());
+            RowViewTestNamedColumnValue<?> colValue = shortNameToHydrator.get(PtBytes.toString(e.getKey().getColumnName())).hydrateFromBytes(e.getValue());
+            return Maps.immutableEntry(row, colValue);
+        });
+    }
+
+    public BatchingVisitableView<RowViewTestRowResult> getAllRowsUnordered() {
+        return getAllRowsUnordered(allColumns);
+    }
+
+    public BatchingVisitableView<RowViewTestRowResult> getAllRowsUnordered(ColumnSelection columns) {
+        return BatchingVisitables.transform(t.getRange(tableRef, RangeRequest.builder().retainColumns(columns).build()),
+                RowViewTestRowResult::of);
+    }
+
+    @Override
+    public List<String> findConstraintFailures(Map<Cell, byte[]> writes,
+                                               ConstraintCheckingTransaction transaction,
+                                               AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public List<String> findConstraintFailuresNoRead(Map<Cell, byte[]> writes,
+                                                     AtlasDbConstraintCheckingMode constraintCheckingMode) {
+        return ImmutableList.of();
+    }
+
+    /**
+     * This exists to avoid unused import warnings
+     * {@link AbortingVisitor}
+     * {@link AbortingVisitors}
+     * {@link ArrayListMultimap}
+     * {@link Arrays}
+     * {@link AssertUtils}
+     * {@link AtlasDbConstraintCheckingMode}
+     * {@link AtlasDbDynamicMutableExpiringTable}
+     * {@link AtlasDbDynamicMutablePersistentTable}
+     * {@link AtlasDbMutableExpiringTable}
+     * {@link AtlasDbMutablePersistentTable}
+     * {@link AtlasDbNamedExpiringSet}
+     * {@link AtlasDbNamedMutableTable}
+     * {@link AtlasDbNamedPersistentSet}
+     * {@link BatchColumnRangeSelection}
+     * {@link BatchingVisitable}
+     * {@link BatchingVisitableView}
+     * {@link BatchingVisitables}
+     * {@link BiFunction}
+     * {@link Bytes}
+     * {@link Callable}
+     * {@link Cell}
+     * {@link Cells}
+     * {@link Collection}
+     * {@link Collections2}
+     * {@link ColumnRangeSelection}
+     * {@link ColumnRangeSelections}
+     * {@link ColumnSelection}
+     * {@link ColumnValue}
+     * {@link ColumnValues}
+     * {@link ComparisonChain}
+     * {@link Compression}
+     * {@link CompressionUtils}
+     * {@link ConstraintCheckingTransaction}
+     * {@link Descending}
+     * {@link EncodingUtils}
+     * {@link Entry}
+     * {@link EnumSet}
+     * {@link Function}
+     * {@link Generated}
+     * {@link HashMultimap}
+     * {@link HashSet}
+     * {@link Hashing}
+     * {@link Hydrator}
+     * {@link ImmutableList}
+     * {@link ImmutableMap}
+     * {@link ImmutableMultimap}
+     * {@link ImmutableSet}
+     * {@link InvalidProtocolBufferException}
+     * {@link IterableView}
+     * {@link Iterables}
+     * {@link Iterator}
+     * {@link Iterators}
+     * {@link Joiner}
+     * {@link List}
+     * {@link Lists}
+     * {@link Map}
+     * {@link Maps}
+     * {@link MoreObjects}
+     * {@link Multimap}
+     * {@link Multimaps}
+     * {@link NamedColumnValue}
+     * {@link Namespace}
+     * {@link Objects}
+     * {@link Optional}
+     * {@link Persistable}
+     * {@link Persistables}
+     * {@link Prefix}
+     * {@link PtBytes}
+     * {@link RangeRequest}
+     * {@link RowResult}
+     * {@link Set}
+     * {@link Sets}
+     * {@link Sha256Hash}
+     * {@link SortedMap}
+     * {@link Stream}
+     * {@link Supplier}
+     * {@link TableReference}
+     * {@link Throwables}
+     * {@link TimeUnit}
+     * {@link Transaction}
+     * {@link TypedRowResult}
+     * {@link UUID}
+     * {@link UnsignedBytes}
+     * {@link ValueType}
+     */
+    static String __CLASS_HASH = "tjws9UYHAhwQilAPlq2lQQ==";
+}
@@ -255,8 +255,19 @@ public abstract class AtlasDbConfig {
         return AtlasDbConstants.DEFAULT_LOCK_TIMEOUT_SECONDS;
     }
 
+    /**
+     * The approximate number of bytes of committed values of immutable tables to cache across transactions.
+     * A value of 0, the default, disables the cache.
+     */
+    @Value.Default
+    public long getImmutableTableCacheSizeBytes() {
+        return AtlasDbConstants.DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES;
+    }
+
     @Value.Check
     protected final void check() {
+        Preconditions.checkState(getImmutableTableCacheSizeBytes() >= 0,
+                "immutableTableCacheSizeBytes must be non-negative, but was %s", getImmutableTableCacheSizeBytes());
         checkLeaderAndTimelockBlocks();
         checkLockAndTimestampBlocks();
         checkNamespaceConfig();
@@ -47,11 +47,11 @@ public abstract class AtlasDbRuntimeConfig {
 
     /**
      * The number of timestamps to cache that we have seen in previous reads.
-     * This will use somewhere around 90MB of heap memory per million timestamps because of various overheads
-     * from Java Objects and the cache's LRU tracking.
+     * The cache is held off-heap and uses at most around 35MB of direct memory per million timestamps,
+     * including the slack needed by its hash tables. Changes to this value are picked up without a restart.
      *
-     * Probably the only reason to configure away from the default would be a service that can afford the heap usage,
-     * and has read patterns that deal with a very large working set of existing transactions.
+     * Probably the only reason to configure away from the default would be a service that has read patterns
+     * that deal with a very large working set of existing transactions.
      */
     @Value.Default
     public long getTimestampCacheSize() {
@@ -22,6 +22,7 @@ import org.immutables.value.Value;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Preconditions;
 import com.palantir.atlasdb.AtlasDbConstants;
 
 @JsonDeserialize(as = ImmutableSweepConfig.class)
@@ -48,6 +49,20 @@ public abstract class SweepConfig {
         return AtlasDbConstants.DEFAULT_SWEEP_PAUSE_MILLIS;
     }
 
+    /**
+     * The number of background sweep threads, each sweeping a different table. This is read once when the
+     * background sweeper starts, so changing it requires a restart.
+     */
+    @Value.Default
+    public int threads() {
+        return AtlasDbConstants.DEFAULT_SWEEP_THREADS;
+    }
+
+    @Value.Check
+    protected final void check() {
+        Preconditions.checkState(threads() > 0, "Number of sweep threads must be positive, but was %s", threads());
+    }
+
     /**
      * The target number of (cell, timestamp) pairs to examine in a single run of the background sweeper.
      */
@@ -73,6 +88,7 @@ public abstract class SweepConfig {
         return ImmutableSweepConfig.builder()
                 .enabled(AtlasDbConstants.DEFAULT_ENABLE_SWEEP)
                 .pauseMillis(AtlasDbConstants.DEFAULT_SWEEP_PAUSE_MILLIS)
+                .threads(AtlasDbConstants.DEFAULT_SWEEP_THREADS)
                 .readLimit(AtlasDbConstants.DEFAULT_SWEEP_READ_LIMIT)
                 .deleteBatchHint(AtlasDbConstants.DEFAULT_SWEEP_DELETE_BATCH_HINT)
                 .build();
@@ -32,4 +32,53 @@ public abstract class TransactionConfig {
         return AtlasDbConstants.DEFAULT_TRANSACTION_LOCK_ACQUIRE_TIMEOUT_MS;
     }
 
+    /**
+     * If true, concurrent lookups of a single transaction's commit timestamp (which transactions make when a read
+     * touches values written by exactly one transaction whose commit timestamp is not cached) are coalesced into
+     * batched reads of the transactions table.
+     */
+    @Value.Default
+    public boolean enableCommitTimestampLookupBatching() {
+        return false;
+    }
+
+    /**
+     * If true, commit timestamp writes from concurrently committing transactions are collected and written to the
+     * transactions table with a single multi-cell putUnlessExists. Each transaction still learns whether its own
+     * commit succeeded.
+     */
+    @Value.Default
+    public boolean enableCommitTimestampGroupCommit() {
+        return false;
+    }
+
+    /**
+     * If true, write transactions lock their immutable timestamp and get their start timestamp in one call to the
+     * timelock startTransactions endpoint, and concurrent starts on this client share that call. The timelock server
+     * must have the endpoint, so leave this off until every timelock server has been upgraded.
+     */
+    @Value.Default
+    public boolean enableTransactionStartBatching() {
+        return false;
+    }
+
+    /**
+     * If true, serializable transactions keep a 64-bit hash of each value they read rather than the value itself,
+     * and compare hashes when checking their reads at commit time. This bounds the memory held by transactions that
+     * read large values, at the cost of missing a conflict in the unlikely event of a hash collision.
+     */
+    @Value.Default
+    public boolean enableReadSetHashing() {
+        return false;
+    }
+
+    /**
+     * If true, serializable transactions check their reads at commit time in parallel across tables, ranges and
+     * batches of cells, using the thread pool that serves concurrent getRanges calls.
+     */
+    @Value.Default
+    public boolean enableParallelReadSetVerification() {
+        return false;
+    }
+
 }
@@ -104,10 +104,13 @@ public final class Leaders {
 
         PaxosAcceptor ourAcceptor = AtlasDbMetrics.instrument(
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath()));
+                PaxosAcceptorImpl.newAcceptor(config.acceptorLogDir().getPath(), config.useSegmentedStateLog()));
         PaxosLearner ourLearner = AtlasDbMetrics.instrument(
                 PaxosLearner.class,
-                PaxosLearnerImpl.newLearner(config.learnerLogDir().getPath(), leadershipEventRecorder));
+                PaxosLearnerImpl.newLearner(
+                        config.learnerLogDir().getPath(),
+                        config.useSegmentedStateLog(),
+                        leadershipEventRecorder));
 
         Optional<SSLSocketFactory> sslSocketFactory =
                 ServiceCreator.createSslSocketFactory(config.sslConfiguration());
@@ -153,6 +156,7 @@ public final class Leaders {
                 .pingRateMs(config.pingRateMs())
                 .randomWaitBeforeProposingLeadershipMs(config.randomWaitBeforeProposingLeadershipMs())
                 .leaderPingResponseWaitMs(config.leaderPingResponseWaitMs())
+                .leaderLeaseDurationMs(config.leaderLeaseDurationMs())
                 .eventRecorder(leadershipEventRecorder)
                 .build();
 
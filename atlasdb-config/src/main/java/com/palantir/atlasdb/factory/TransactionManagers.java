@@ -28,7 +28,6 @@ import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -52,15 +51,16 @@ import com.palantir.atlasdb.config.SweepConfig;
 import com.palantir.atlasdb.config.TimeLockClientConfig;
 import com.palantir.atlasdb.config.TimeLockClientConfigs;
 import com.palantir.atlasdb.config.TimestampClientConfig;
+import com.palantir.atlasdb.config.TransactionConfig;
 import com.palantir.atlasdb.factory.Leaders.LocalPaxosServices;
 import com.palantir.atlasdb.factory.startup.TimeLockMigrator;
 import com.palantir.atlasdb.factory.timestamp.DecoratedTimelockServices;
+import com.palantir.atlasdb.factory.transaction.DecoratedTransactionServices;
 import com.palantir.atlasdb.http.AtlasDbFeignTargetFactory;
 import com.palantir.atlasdb.http.UserAgents;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.ProfilingKeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.SweepStatsKeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.TracingKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InstrumentedKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.SweepStatsRecorder;
 import com.palantir.atlasdb.keyvalue.impl.ValidatingQueryRewritingKeyValueService;
 import com.palantir.atlasdb.logging.KvsProfilingLogger;
 import com.palantir.atlasdb.memory.InMemoryAtlasDbConfig;
@@ -87,6 +87,8 @@ import com.palantir.atlasdb.table.description.Schema;
 import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.atlasdb.transaction.impl.ConflictDetectionManager;
 import com.palantir.atlasdb.transaction.impl.ConflictDetectionManagers;
+import com.palantir.atlasdb.transaction.impl.ImmutableReadSetVerificationOptions;
+import com.palantir.atlasdb.transaction.impl.ReadSetVerificationOptions;
 import com.palantir.atlasdb.transaction.impl.SerializableTransactionManager;
 import com.palantir.atlasdb.transaction.impl.SweepStrategyManager;
 import com.palantir.atlasdb.transaction.impl.SweepStrategyManagers;
@@ -321,11 +323,8 @@ public abstract class TransactionManagers {
                 userAgent());
 
         KvsProfilingLogger.setSlowLogThresholdMillis(config.getKvsSlowLogThresholdMillis());
-        KeyValueService kvs = ProfilingKeyValueService.create(rawKvs);
-        kvs = SweepStatsKeyValueService.create(kvs,
-                new TimelockTimestampServiceAdapter(lockAndTimestampServices.timelock()));
-        kvs = TracingKeyValueService.create(kvs);
-        kvs = AtlasDbMetrics.instrument(KeyValueService.class, kvs, MetricRegistry.name(KeyValueService.class));
+        KeyValueService kvs = InstrumentedKeyValueService.create(rawKvs, SweepStatsRecorder.create(rawKvs,
+                new TimelockTimestampServiceAdapter(lockAndTimestampServices.timelock())));
         kvs = ValidatingQueryRewritingKeyValueService.create(kvs);
 
         TransactionManagersInitializer initializer = TransactionManagersInitializer.createInitialTables(
@@ -337,8 +336,7 @@ public abstract class TransactionManagers {
                 registrar(),
                 config.initializeAsync());
 
-        TransactionService transactionService = AtlasDbMetrics.instrument(TransactionService.class,
-                TransactionServices.createTransactionService(kvs));
+        TransactionService transactionService = createTransactionService(kvs, runtimeConfigSupplier);
         ConflictDetectionManager conflictManager = ConflictDetectionManagers.create(kvs);
         SweepStrategyManager sweepStrategyManager = SweepStrategyManagers.createDefault(kvs);
 
@@ -373,7 +371,10 @@ public abstract class TransactionManagers {
                 config.keyValueService().concurrentGetRangesThreadPoolSize(),
                 config.keyValueService().defaultGetRangesConcurrency(),
                 config.initializeAsync(),
-                () -> runtimeConfigSupplier.get().getTimestampCacheSize());
+                () -> runtimeConfigSupplier.get().getTimestampCacheSize(),
+                () -> getReadSetVerificationOptions(runtimeConfigSupplier.get().transaction()),
+                () -> runtimeConfigSupplier.get().transaction().enableTransactionStartBatching(),
+                config.getImmutableTableCacheSizeBytes());
 
         PersistentLockManager persistentLockManager = new PersistentLockManager(
                 persistentLockService,
@@ -392,6 +393,26 @@ public abstract class TransactionManagers {
         return transactionManager;
     }
 
+    private static TransactionService createTransactionService(
+            KeyValueService kvs,
+            Supplier<AtlasDbRuntimeConfig> runtimeConfigSupplier) {
+        Supplier<TransactionConfig> transactionConfigSupplier = () -> runtimeConfigSupplier.get().transaction();
+        TransactionService transactionService = AtlasDbMetrics.instrument(TransactionService.class,
+                TransactionServices.createTransactionService(kvs));
+        TransactionService groupCommittingService = DecoratedTransactionServices
+                .createTransactionServiceWithGroupCommit(transactionService, kvs, transactionConfigSupplier);
+        return DecoratedTransactionServices.createTransactionServiceWithRequestBatching(
+                groupCommittingService,
+                transactionConfigSupplier);
+    }
+
+    private static ReadSetVerificationOptions getReadSetVerificationOptions(TransactionConfig transactionConfig) {
+        return ImmutableReadSetVerificationOptions.builder()
+                .hashReadValues(transactionConfig.enableReadSetHashing())
+                .verifyInParallel(transactionConfig.enableParallelReadSetVerification())
+                .build();
+    }
+
     private static boolean areTransactionManagerInitializationPrerequisitesSatisfied(
             AsyncInitializer initializer,
             LockAndTimestampServices lockAndTimestampServices) {
@@ -456,7 +477,8 @@ public abstract class TransactionManagers {
                 () -> runtimeConfigSupplier.get().sweep().enabled(),
                 () -> runtimeConfigSupplier.get().sweep().pauseMillis(),
                 persistentLockManager,
-                specificTableSweeper);
+                specificTableSweeper,
+                runtimeConfigSupplier.get().sweep().threads());
 
         transactionManager.registerClosingCallback(backgroundSweeper::shutdown);
         backgroundSweeper.runInBackground();
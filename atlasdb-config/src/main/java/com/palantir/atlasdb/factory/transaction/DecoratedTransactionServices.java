@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.factory.transaction;
+
+import java.util.function.Supplier;
+
+import com.palantir.atlasdb.config.TransactionConfig;
+import com.palantir.atlasdb.factory.DynamicDecoratingProxy;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.transaction.service.GroupCommittingTransactionService;
+import com.palantir.atlasdb.transaction.service.RequestBatchingTransactionService;
+import com.palantir.atlasdb.transaction.service.TransactionService;
+import com.palantir.atlasdb.util.JavaSuppliers;
+
+public final class DecoratedTransactionServices {
+    private DecoratedTransactionServices() {
+        // factory
+    }
+
+    public static TransactionService createTransactionServiceWithRequestBatching(
+            TransactionService transactionService,
+            Supplier<TransactionConfig> configSupplier) {
+        return DynamicDecoratingProxy.newProxyInstance(
+                new RequestBatchingTransactionService(transactionService),
+                transactionService,
+                JavaSuppliers.compose(TransactionConfig::enableCommitTimestampLookupBatching, configSupplier),
+                TransactionService.class);
+    }
+
+    public static TransactionService createTransactionServiceWithGroupCommit(
+            TransactionService transactionService,
+            KeyValueService keyValueService,
+            Supplier<TransactionConfig> configSupplier) {
+        return DynamicDecoratingProxy.newProxyInstance(
+                new GroupCommittingTransactionService(transactionService, keyValueService),
+                transactionService,
+                JavaSuppliers.compose(TransactionConfig::enableCommitTimestampGroupCommit, configSupplier),
+                TransactionService.class);
+    }
+}
@@ -20,9 +20,8 @@ import javax.inject.Singleton;
 
 import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.ProfilingKeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.SweepStatsKeyValueService;
-import com.palantir.atlasdb.keyvalue.impl.TracingKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InstrumentedKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.SweepStatsRecorder;
 import com.palantir.atlasdb.keyvalue.impl.ValidatingQueryRewritingKeyValueService;
 import com.palantir.atlasdb.logging.KvsProfilingLogger;
 import com.palantir.atlasdb.schema.SweepSchema;
@@ -35,7 +34,6 @@ import com.palantir.atlasdb.transaction.impl.SweepStrategyManagers;
 import com.palantir.atlasdb.transaction.impl.TransactionTables;
 import com.palantir.atlasdb.transaction.service.TransactionService;
 import com.palantir.atlasdb.transaction.service.TransactionServices;
-import com.palantir.atlasdb.util.AtlasDbMetrics;
 import com.palantir.timestamp.TimestampService;
 
 import dagger.Module;
@@ -51,12 +49,8 @@ public class KeyValueServiceModule {
                                                          TimestampService tss,
                                                          ServicesConfig config) {
         KvsProfilingLogger.setSlowLogThresholdMillis(config.atlasDbConfig().getKvsSlowLogThresholdMillis());
-        KeyValueService kvs = ProfilingKeyValueService.create(rawKvs);
-
-        kvs = TracingKeyValueService.create(kvs);
-        kvs = AtlasDbMetrics.instrument(KeyValueService.class, kvs);
+        KeyValueService kvs = InstrumentedKeyValueService.create(rawKvs, SweepStatsRecorder.create(rawKvs, tss));
         kvs = ValidatingQueryRewritingKeyValueService.create(kvs);
-        kvs = SweepStatsKeyValueService.create(kvs, tss);
         TransactionTables.createTables(kvs);
         ImmutableSet<Schema> schemas =
                 ImmutableSet.<Schema>builder()
@@ -28,6 +28,7 @@ import com.jayway.awaitility.Awaitility;
 import com.jayway.awaitility.Duration;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionManagerAwareDbKvs;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.DbKvsPostgresGetCandidateCellsForSweepingTest;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresWriteTableIntegrationTest;
 import com.palantir.docker.compose.DockerComposeRule;
 import com.palantir.docker.compose.configuration.ShutdownStrategy;
 import com.palantir.docker.compose.connection.Container;
@@ -44,7 +45,8 @@ import com.palantir.nexus.db.pool.config.ImmutablePostgresConnectionConfig;
         DbkvsPostgresSweepTaskRunnerTest.class,
         DbkvsBackgroundSweeperIntegrationTest.class,
         PostgresDbTimestampBoundStoreTest.class,
-        DbKvsPostgresGetCandidateCellsForSweepingTest.class
+        DbKvsPostgresGetCandidateCellsForSweepingTest.class,
+        PostgresWriteTableIntegrationTest.class
         })
 public final class DbkvsPostgresTestSuite {
     private static final int POSTGRES_PORT_NUMBER = 5432;
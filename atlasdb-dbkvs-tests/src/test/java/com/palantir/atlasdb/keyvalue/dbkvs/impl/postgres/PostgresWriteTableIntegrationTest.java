@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.dbkvs.DbkvsPostgresTestSuite;
+import com.palantir.atlasdb.keyvalue.dbkvs.ImmutablePostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionManagerAwareDbKvs;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
+
+public class PostgresWriteTableIntegrationTest {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("test.write_table");
+    private static final long TIMESTAMP = 10L;
+
+    // every put takes the COPY path
+    private final PostgresDdlConfig ddlConfig = ImmutablePostgresDdlConfig.builder()
+            .copyBulkLoadThreshold(1)
+            .build();
+
+    private ConnectionManagerAwareDbKvs kvs;
+    private ConnectionSupplier conns;
+    private PostgresWriteTable writeTable;
+
+    @Before
+    public void setUp() {
+        kvs = ConnectionManagerAwareDbKvs.create(DbkvsPostgresTestSuite.getKvsConfig());
+        kvs.createTable(TABLE, AtlasDbConstants.GENERIC_TABLE_METADATA);
+        conns = new ConnectionSupplier(kvs.getSqlConnectionSupplier());
+        writeTable = new PostgresWriteTable(ddlConfig, conns, TABLE, new PostgresPrefixedTableNames(ddlConfig));
+    }
+
+    @After
+    public void tearDown() {
+        conns.close();
+        kvs.dropTable(TABLE);
+        kvs.close();
+    }
+
+    @Test
+    public void bulkPutsSucceedAfterTheFirstOneIsRolledBack() throws SQLException {
+        Connection connection = conns.get().getUnderlyingConnection();
+        connection.setAutoCommit(false);
+        writeTable.put(ImmutableMap.of(cell("rolledBack"), value("rolledBack")).entrySet(), TIMESTAMP);
+        connection.rollback();
+
+        writeTable.put(ImmutableMap.of(cell("inTransaction"), value("inTransaction")).entrySet(), TIMESTAMP);
+        connection.commit();
+        connection.setAutoCommit(true);
+        writeTable.put(ImmutableMap.of(cell("autoCommit"), value("autoCommit")).entrySet(), TIMESTAMP);
+
+        Map<Cell, Value> values = kvs.get(TABLE, ImmutableMap.of(
+                cell("rolledBack"), Long.MAX_VALUE,
+                cell("inTransaction"), Long.MAX_VALUE,
+                cell("autoCommit"), Long.MAX_VALUE));
+        assertThat(values).containsOnlyKeys(cell("inTransaction"), cell("autoCommit"));
+        assertThat(values.get(cell("autoCommit")).getContents()).isEqualTo(value("autoCommit"));
+    }
+
+    private static Cell cell(String row) {
+        return Cell.create(PtBytes.toBytes(row), PtBytes.toBytes("col"));
+    }
+
+    private static byte[] value(String contents) {
+        return PtBytes.toBytes(contents);
+    }
+}
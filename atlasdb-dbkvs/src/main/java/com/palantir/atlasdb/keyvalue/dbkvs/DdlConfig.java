@@ -57,6 +57,16 @@ public abstract class DdlConfig {
         return 2 * 1024 * 1024;
     }
 
+    /**
+     * The maximum number of bytes of range pages that may be being read ahead of their callers, across all ranges.
+     * Each range also holds at most one page that has been read ahead. Setting this to zero disables range
+     * prefetching.
+     */
+    @Value.Default
+    public int rangePrefetchBufferBytes() {
+        return 32 * 1024 * 1024;
+    }
+
     @Value.Check
     protected final void check() {
         Preconditions.checkState(
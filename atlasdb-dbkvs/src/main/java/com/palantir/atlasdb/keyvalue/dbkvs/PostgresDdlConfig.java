@@ -36,6 +36,16 @@ public abstract class PostgresDdlConfig extends DdlConfig {
         return AtlasDbConstants.DEFAULT_METADATA_TABLE;
     }
 
+    /**
+     * Batches of puts with at least this many cells are loaded with a binary COPY into a temporary table and
+     * inserted from there, rather than sent as a batch of single-row INSERTs. Puts are split into batches of at
+     * most {@link #mutationBatchCount()} cells, so a threshold above that disables COPY.
+     */
+    @Value.Default
+    public int copyBulkLoadThreshold() {
+        return 250;
+    }
+
     @Override
     public final String type() {
         return TYPE;
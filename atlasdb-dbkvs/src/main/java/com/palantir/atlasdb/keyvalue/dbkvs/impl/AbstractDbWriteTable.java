@@ -75,11 +75,7 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
 
     private void put(List<Object[]> args) {
         try {
-            String prefixedTableName = prefixedTableNames.get(tableRef, conns);
-            conns.get().insertManyUnregisteredQuery("/* INSERT_ONE (" + prefixedTableName + ") */"
-                    + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val) "
-                    + " VALUES (?, ?, ?, ?) ",
-                    args);
+            insert(prefixedTableNames.get(tableRef, conns), args);
         } catch (PalantirSqlException e) {
             if (ExceptionCheck.isUniqueConstraintViolation(e)) {
                 throw new KeyAlreadyExistsException("primary key violation", e);
@@ -88,6 +84,17 @@ public abstract class AbstractDbWriteTable implements DbWriteTable {
         }
     }
 
+    /**
+     * Inserts rows of (row_name, col_name, ts, val) into the given table, failing with a unique constraint
+     * violation if any of them already exists.
+     */
+    protected void insert(String prefixedTableName, List<Object[]> args) {
+        conns.get().insertManyUnregisteredQuery("/* INSERT_ONE (" + prefixedTableName + ") */"
+                + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val) "
+                + " VALUES (?, ?, ?, ?) ",
+                args);
+    }
+
     @Override
     public void putSentinels(Iterable<Cell> cells) {
         byte[] value = new byte[0];
@@ -104,6 +104,7 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresGetRange;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres.PostgresPrefixedTableNames;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.DbKvsGetRange;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.DbKvsGetRanges;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePrefetcher;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.sweep.CellTsPairLoader;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.sweep.DbKvsGetCandidateCellsForSweeping;
 import com.palantir.atlasdb.keyvalue.dbkvs.util.DbKvsPartitioners;
@@ -143,6 +144,7 @@ public final class DbKvs extends AbstractKeyValueService {
     private final BatchingTaskRunner batchingQueryRunner;
     private final OverflowValueLoader overflowValueLoader;
     private final DbKvsGetRange getRangeStrategy;
+    private final RangePrefetcher rangePrefetcher;
     private final DbKvsGetCandidateCellsForSweeping getCandidateCellsForSweepingStrategy;
 
     public static DbKvs create(DbKeyValueServiceConfig config, SqlConnectionSupplier sqlConnSupplier) {
@@ -184,14 +186,17 @@ public final class DbKvs extends AbstractKeyValueService {
         TableMetadataCache tableMetadataCache = new TableMetadataCache(tableFactory);
         CellTsPairLoader cellTsPairLoader = new PostgresCellTsPageLoader(
                 prefixedTableNames, connections);
+        RangePrefetcher prefetcher = newRangePrefetcher(config);
         return new DbKvs(
                 executor,
                 config,
                 tableFactory,
                 connections,
-                new ParallelTaskRunner(newFixedThreadPool(config.poolSize()), config.fetchBatchSize()),
+                new ParallelTaskRunner(newFixedThreadPool(config.poolSize(), "Atlas DbKvs reader"),
+                        config.fetchBatchSize()),
                 (conns, tbl, ids) -> Collections.emptyMap(), // no overflow on postgres
-                new PostgresGetRange(prefixedTableNames, connections, tableMetadataCache),
+                new PostgresGetRange(prefixedTableNames, connections, tableMetadataCache, prefetcher),
+                prefetcher,
                 new DbKvsGetCandidateCellsForSweeping(cellTsPairLoader));
     }
 
@@ -202,8 +207,9 @@ public final class DbKvs extends AbstractKeyValueService {
         OraclePrefixedTableNames prefixedTableNames = new OraclePrefixedTableNames(tableNameGetter);
         TableValueStyleCache valueStyleCache = new TableValueStyleCache();
         OverflowValueLoader overflowValueLoader = new OracleOverflowValueLoader(oracleDdlConfig, tableNameGetter);
+        RangePrefetcher prefetcher = newRangePrefetcher(oracleDdlConfig);
         DbKvsGetRange getRange = new OracleGetRange(
-                connections, overflowValueLoader, tableNameGetter, valueStyleCache, oracleDdlConfig);
+                connections, overflowValueLoader, tableNameGetter, valueStyleCache, oracleDdlConfig, prefetcher);
         CellTsPairLoader cellTsPageLoader = new OracleCellTsPageLoader(
                 connections, tableNameGetter, valueStyleCache, oracleDdlConfig);
         return new DbKvs(
@@ -214,6 +220,7 @@ public final class DbKvs extends AbstractKeyValueService {
                 new ImmediateSingleBatchTaskRunner(),
                 overflowValueLoader,
                 getRange,
+                prefetcher,
                 new DbKvsGetCandidateCellsForSweeping(cellTsPageLoader));
     }
 
@@ -224,6 +231,7 @@ public final class DbKvs extends AbstractKeyValueService {
                   BatchingTaskRunner batchingQueryRunner,
                   OverflowValueLoader overflowValueLoader,
                   DbKvsGetRange getRangeStrategy,
+                  RangePrefetcher rangePrefetcher,
                   DbKvsGetCandidateCellsForSweeping getCandidateCellsForSweepingStrategy) {
         super(executor);
         this.config = config;
@@ -232,14 +240,21 @@ public final class DbKvs extends AbstractKeyValueService {
         this.batchingQueryRunner = batchingQueryRunner;
         this.overflowValueLoader = overflowValueLoader;
         this.getRangeStrategy = getRangeStrategy;
+        this.rangePrefetcher = rangePrefetcher;
         this.getCandidateCellsForSweepingStrategy = getCandidateCellsForSweepingStrategy;
     }
 
-    private static ThreadPoolExecutor newFixedThreadPool(int maxPoolSize) {
+    private static RangePrefetcher newRangePrefetcher(DdlConfig config) {
+        return new RangePrefetcher(
+                newFixedThreadPool(config.poolSize(), "Atlas DbKvs range prefetcher"),
+                config.rangePrefetchBufferBytes());
+    }
+
+    private static ThreadPoolExecutor newFixedThreadPool(int maxPoolSize, String threadName) {
         ThreadPoolExecutor pool = PTExecutors.newThreadPoolExecutor(maxPoolSize, maxPoolSize,
                 15L, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<Runnable>(),
-                new NamedThreadFactory("Atlas DbKvs reader", true /* daemon */));
+                new NamedThreadFactory(threadName, true /* daemon */));
 
         pool.allowCoreThreadTimeOut(false);
         return pool;
@@ -274,6 +289,7 @@ public final class DbKvs extends AbstractKeyValueService {
         dbTables.close();
         connections.close();
         batchingQueryRunner.close();
+        rangePrefetcher.close();
     }
 
     @Override
@@ -546,7 +562,12 @@ public final class DbKvs extends AbstractKeyValueService {
             TableReference tableRef,
             Iterable<RangeRequest> rangeRequests,
             long timestamp) {
-        return new DbKvsGetRanges(this, dbTables.getDbType(), connections, dbTables.getPrefixedTableNames())
+        return new DbKvsGetRanges(
+                this,
+                dbTables.getDbType(),
+                connections,
+                dbTables.getPrefixedTableNames(),
+                batchingQueryRunner)
                 .getFirstBatchForRanges(tableRef, rangeRequests, timestamp);
     }
 
@@ -555,7 +576,7 @@ public final class DbKvs extends AbstractKeyValueService {
             TableReference tableRef,
             RangeRequest rangeRequest,
             long timestamp) {
-        return ClosableIterators.wrap(getRangeStrategy.getRange(tableRef, rangeRequest, timestamp));
+        return getRangeStrategy.getRange(tableRef, rangeRequest, timestamp);
     }
 
     public void setMaxRangeOfTimestampsBatchSize(long newValue) {
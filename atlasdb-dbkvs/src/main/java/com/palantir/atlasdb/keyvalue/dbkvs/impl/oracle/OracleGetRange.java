@@ -28,7 +28,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.Iterators;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
@@ -47,6 +46,7 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.TableValueStyleCache;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.DbKvsGetRange;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangeHelpers;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePredicateHelper;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePrefetcher;
 import com.palantir.atlasdb.keyvalue.impl.TableMappingNotFoundException;
 import com.palantir.common.base.ClosableIterator;
 import com.palantir.common.base.ClosableIterators;
@@ -133,23 +133,29 @@ public class OracleGetRange implements DbKvsGetRange {
     private final OracleTableNameGetter tableNameGetter;
     private final TableValueStyleCache valueStyleCache;
     private final OracleDdlConfig config;
+    private final RangePrefetcher prefetcher;
 
     public OracleGetRange(SqlConnectionSupplier connectionPool,
                           OverflowValueLoader overflowValueLoader,
                           OracleTableNameGetter tableNameGetter,
                           TableValueStyleCache valueStyleCache,
-                          OracleDdlConfig config) {
+                          OracleDdlConfig config,
+                          RangePrefetcher prefetcher) {
         this.connectionPool = connectionPool;
         this.overflowValueLoader = overflowValueLoader;
         this.tableNameGetter = tableNameGetter;
         this.valueStyleCache = valueStyleCache;
         this.config = config;
+        this.prefetcher = prefetcher;
     }
 
     @Override
-    public Iterator<RowResult<Value>> getRange(TableReference tableRef, RangeRequest rangeRequest, long timestamp) {
+    public ClosableIterator<RowResult<Value>> getRange(
+            TableReference tableRef,
+            RangeRequest rangeRequest,
+            long timestamp) {
         boolean haveOverflow = checkIfTableHasOverflowUsingNewConnection(tableRef);
-        return Iterators.concat(new PageIterator(
+        return prefetcher.prefetch(new PageIterator(
                 rangeRequest.getStartInclusive(),
                 rangeRequest.getEndExclusive(),
                 rangeRequest.getColumnNames(),
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+/**
+ * Builds Postgres array literals for binding a variable number of keys to a single parameter, so that a query
+ * has the same text (and so the same server-side prepared statement) however many keys it is given. The literal
+ * is bound as a string and cast in the query, e.g. {@code unnest(?::bytea[])}.
+ *
+ * The JDBC driver cannot bind {@code bytea[]} parameters directly, which is why these are text literals.
+ */
+final class PostgresArrays {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private PostgresArrays() {
+        // utility
+    }
+
+    static String byteaArray(Iterable<byte[]> values) {
+        StringBuilder builder = new StringBuilder().append('{');
+        for (byte[] value : values) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            // The hex format for bytea (\x...) with the backslash escaped inside a quoted array element.
+            builder.append("\"\\\\x");
+            for (byte b : value) {
+                builder.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+            builder.append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    static String int8Array(Iterable<Long> values) {
+        StringBuilder builder = new StringBuilder().append('{');
+        for (Long value : values) {
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append(value.longValue());
+        }
+        return builder.append('}').toString();
+    }
+}
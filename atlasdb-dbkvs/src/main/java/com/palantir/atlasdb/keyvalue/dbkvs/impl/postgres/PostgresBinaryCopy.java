@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Encodes rows of (row_name, col_name, ts, val) in the format read by {@code COPY ... FROM STDIN (FORMAT binary)},
+ * which Postgres loads without parsing or planning a statement per row.
+ */
+final class PostgresBinaryCopy {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final short FIELDS_PER_ROW = 4;
+    private static final short TRAILER = -1;
+
+    private PostgresBinaryCopy() {
+        // utility
+    }
+
+    /**
+     * @param rows the rows to encode, each an array of {@code byte[]} row name, {@code byte[]} column name,
+     * {@code Long} timestamp and {@code byte[]} value
+     */
+    static byte[] encode(List<Object[]> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+            for (Object[] row : rows) {
+                out.writeShort(FIELDS_PER_ROW);
+                writeBytes(out, (byte[]) row[0]);
+                writeBytes(out, (byte[]) row[1]);
+                out.writeInt(Long.BYTES);
+                out.writeLong((Long) row[2]);
+                writeBytes(out, (byte[]) row[3]);
+            }
+            out.writeShort(TRAILER);
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw Throwables.propagate(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+}
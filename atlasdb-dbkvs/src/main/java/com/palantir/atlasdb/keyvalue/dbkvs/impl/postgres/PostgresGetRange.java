@@ -25,7 +25,6 @@ import java.util.Set;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.Iterators;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
@@ -41,6 +40,7 @@ import com.palantir.atlasdb.keyvalue.dbkvs.impl.TableMetadataCache;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.DbKvsGetRange;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangeHelpers;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePredicateHelper;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges.RangePrefetcher;
 import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.common.annotation.Output;
 import com.palantir.common.base.ClosableIterator;
@@ -125,19 +125,22 @@ public class PostgresGetRange implements DbKvsGetRange {
     private final PostgresPrefixedTableNames prefixedTableNames;
     private final SqlConnectionSupplier connectionPool;
     private final TableMetadataCache tableMetadataCache;
+    private final RangePrefetcher prefetcher;
 
     public PostgresGetRange(PostgresPrefixedTableNames prefixedTableNames,
                             SqlConnectionSupplier connectionPool,
-                            TableMetadataCache tableMetadataCache) {
+                            TableMetadataCache tableMetadataCache,
+                            RangePrefetcher prefetcher) {
         this.prefixedTableNames = prefixedTableNames;
         this.connectionPool = connectionPool;
         this.tableMetadataCache = tableMetadataCache;
+        this.prefetcher = prefetcher;
     }
 
     @Override
-    public Iterator<RowResult<Value>> getRange(TableReference tableRef,
-                                               RangeRequest rangeRequest,
-                                               long timestamp) {
+    public ClosableIterator<RowResult<Value>> getRange(TableReference tableRef,
+                                                       RangeRequest rangeRequest,
+                                                       long timestamp) {
         int maxRowsPerPage = RangeHelpers.getMaxRowsPerPage(rangeRequest);
         int cellsPerRowEstimate = getCellsPerRowEstimate(tableRef, rangeRequest);
         int maxCellsPerPage = Math.min(
@@ -153,7 +156,7 @@ public class PostgresGetRange implements DbKvsGetRange {
                 maxCellsPerPage,
                 tableName,
                 prefixedTableNames.get(tableRef));
-        return Iterators.concat(pageIterator);
+        return prefetcher.prefetch(pageIterator);
     }
 
     private int getCellsPerRowEstimate(TableReference tableRef, RangeRequest rangeRequest) {
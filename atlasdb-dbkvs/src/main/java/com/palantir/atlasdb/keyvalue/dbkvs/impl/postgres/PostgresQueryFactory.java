@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map.Entry;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
@@ -50,12 +51,11 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "   FROM " + prefixedTableName() + " m "
                 + "  WHERE m.row_name = ? "
                 + "    AND m.ts < ? "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                + columnsClause(columns)
                 + " GROUP BY m.row_name, m.col_name";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
         FullQuery fullQuery = new FullQuery(query).withArgs(row, ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -66,14 +66,13 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_ROWS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name = ANY(?::bytea[]) "
                 + "    AND m.ts < ? "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                + columnsClause(columns)
                 + " GROUP BY m.row_name, m.col_name ";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        FullQuery fullQuery = new FullQuery(query).withArg(PostgresArrays.byteaArray(rows)).withArg(ts);
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -83,15 +82,14 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_ROWS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, rows.size()) + ") t(row_name, ts) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::int8[]) AS ts) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.ts < t.ts "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())))
+                + columnsClause(columns)
                 + " GROUP BY m.row_name, m.col_name ";
         query = wrapQueryWithIncludeValue("GET_LATEST_ROW", query, includeValue);
         FullQuery fullQuery = addRowTsArgs(new FullQuery(query), rows);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -104,10 +102,9 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "   FROM " + prefixedTableName() + " m "
                 + "  WHERE m.row_name = ? "
                 + "    AND m.ts < ? "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
+                + columnsClause(columns);
         FullQuery fullQuery = new FullQuery(query).withArgs(row, ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -118,12 +115,11 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_ROWS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name = ANY(?::bytea[]) "
                 + "    AND m.ts < ? "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+                + columnsClause(columns);
+        FullQuery fullQuery = new FullQuery(query).withArg(PostgresArrays.byteaArray(rows)).withArg(ts);
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -133,13 +129,12 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_ROWS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, rows.size()) + ") t(row_name, ts) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::int8[]) AS ts) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.ts < t.ts "
-                + (columns.allColumnsSelected() ? "" :
-                    "    AND m.col_name IN " + numParams(Iterables.size(columns.getSelectedColumns())));
+                + columnsClause(columns);
         FullQuery fullQuery = addRowTsArgs(new FullQuery(query), rows);
-        return columns.allColumnsSelected() ? fullQuery : fullQuery.withArgs(columns.getSelectedColumns());
+        return withColumnsArg(fullQuery, columns);
     }
 
     @Override
@@ -161,7 +156,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_CELLS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "    (VALUES " + groupOfNumParams(2, Iterables.size(cells)) + ") t(row_name, col_name) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::bytea[]) AS col_name) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < ? "
@@ -175,7 +170,8 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_LATEST_CELLS_INNER (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts "
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(3, Iterables.size(cells)) + ") t(row_name, col_name, ts) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::bytea[]) AS col_name,"
+                + "             unnest(?::int8[]) AS ts) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < t.ts "
@@ -200,7 +196,7 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_CELLS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(2, Iterables.size(cells)) + ") t(row_name, col_name) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::bytea[]) AS col_name) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < ? ";
@@ -212,7 +208,8 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ALL_CELLS (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, m.ts" + (includeValue ? ", m.val " : " ")
                 + "   FROM " + prefixedTableName() + " m,"
-                + "     (VALUES " + groupOfNumParams(3, Iterables.size(cells)) + ") t(row_name, col_name, ts) "
+                + "     (SELECT unnest(?::bytea[]) AS row_name, unnest(?::bytea[]) AS col_name,"
+                + "             unnest(?::int8[]) AS ts) t "
                 + "  WHERE m.row_name = t.row_name "
                 + "    AND m.col_name = t.col_name "
                 + "    AND m.ts < t.ts ";
@@ -247,15 +244,15 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         return false;
     }
 
-    private String numParams(int numParams) {
-        StringBuilder builder = new StringBuilder(2 * numParams + 1).append('(');
-        Joiner.on(',').appendTo(builder, Iterables.limit(Iterables.cycle('?'), numParams));
-        return builder.append(')').toString();
+    private String columnsClause(ColumnSelection columns) {
+        return columns.allColumnsSelected() ? "" : "    AND m.col_name = ANY(?::bytea[]) ";
     }
 
-    private String groupOfNumParams(int numParams, int numEntries) {
-        String params = numParams(numParams);
-        return Joiner.on(',').join(Iterables.limit(Iterables.cycle(params), numEntries));
+    private FullQuery withColumnsArg(FullQuery fullQuery, ColumnSelection columns) {
+        if (columns.allColumnsSelected()) {
+            return fullQuery;
+        }
+        return fullQuery.withArg(PostgresArrays.byteaArray(columns.getSelectedColumns()));
     }
 
     private String wrapQueryWithIncludeValue(String wrappedName, String query, boolean includeValue) {
@@ -270,26 +267,24 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
                 + "   AND wrap.ts = i.ts ";
     }
 
-    private FullQuery addRowTsArgs(FullQuery fullQuery, Iterable<Entry<byte[], Long>> rows) {
-        for (Entry<byte[], Long> entry : rows) {
-            fullQuery.withArgs(entry.getKey(), entry.getValue());
-        }
-        return fullQuery;
+    private FullQuery addRowTsArgs(FullQuery fullQuery, Collection<Entry<byte[], Long>> rows) {
+        return fullQuery
+                .withArg(PostgresArrays.byteaArray(Collections2.transform(rows, Entry::getKey)))
+                .withArg(PostgresArrays.int8Array(Collections2.transform(rows, Entry::getValue)));
     }
 
     private FullQuery addCellArgs(FullQuery fullQuery, Iterable<Cell> cells) {
-        for (Cell cell : cells) {
-            fullQuery.withArgs(cell.getRowName(), cell.getColumnName());
-        }
-        return fullQuery;
+        return fullQuery
+                .withArg(PostgresArrays.byteaArray(Iterables.transform(cells, Cell::getRowName)))
+                .withArg(PostgresArrays.byteaArray(Iterables.transform(cells, Cell::getColumnName)));
     }
 
     private FullQuery addCellTsArgs(FullQuery fullQuery, Collection<Entry<Cell, Long>> cells) {
-        for (Entry<Cell, Long> entry : cells) {
-            Cell cell = entry.getKey();
-            fullQuery.withArgs(cell.getRowName(), cell.getColumnName(), entry.getValue());
-        }
-        return fullQuery;
+        return fullQuery
+                .withArg(PostgresArrays.byteaArray(Collections2.transform(cells, entry -> entry.getKey().getRowName())))
+                .withArg(PostgresArrays.byteaArray(
+                        Collections2.transform(cells, entry -> entry.getKey().getColumnName())))
+                .withArg(PostgresArrays.int8Array(Collections2.transform(cells, Entry::getValue)));
     }
 
     private String prefixedTableName() {
@@ -304,12 +299,12 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ROWS_COLUMN_RANGE_COUNT(" + tableName + ") */"
                 + " SELECT m.row_name, COUNT(m.col_name) AS column_count "
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name = ANY(?::bytea[]) "
                 + "    AND m.ts < ? "
                 + (columnRangeSelection.getStartCol().length > 0 ? " AND m.col_name >= ?" : "")
                 + (columnRangeSelection.getEndCol().length > 0 ? " AND m.col_name < ?" : "")
                 + " GROUP BY m.row_name";
-        FullQuery fullQuery = new FullQuery(query).withArgs(rows).withArg(ts);
+        FullQuery fullQuery = new FullQuery(query).withArg(PostgresArrays.byteaArray(rows)).withArg(ts);
         if (columnRangeSelection.getStartCol().length > 0) {
             fullQuery = fullQuery.withArg(columnRangeSelection.getStartCol());
         }
@@ -353,14 +348,14 @@ public class PostgresQueryFactory extends AbstractDbQueryFactory {
         String query = " /* GET_ROWS_COLUMN_RANGE_FULLY_LOADED_ROW (" + tableName + ") */ "
                 + " SELECT m.row_name, m.col_name, max(m.ts) as ts"
                 + "   FROM " + prefixedTableName() + " m "
-                + "  WHERE m.row_name IN " + numParams(Iterables.size(rows))
+                + "  WHERE m.row_name = ANY(?::bytea[]) "
                 + "    AND m.ts < ? "
                 + (columnRangeSelection.getStartCol().length > 0 ? " AND m.col_name >= ?" : "")
                 + (columnRangeSelection.getEndCol().length > 0 ? " AND m.col_name < ?" : "")
                 + " GROUP BY m.row_name, m.col_name"
                 + " ORDER BY m.row_name ASC, m.col_name ASC";
         String wrappedQuery = wrapQueryWithIncludeValue("GET_ROWS_COLUMN_RANGE_FULLY_LOADED_ROW", query, true);
-        FullQuery fullQuery = new FullQuery(wrappedQuery).withArgs(rows).withArg(ts);
+        FullQuery fullQuery = new FullQuery(wrappedQuery).withArg(PostgresArrays.byteaArray(rows)).withArg(ts);
         if (columnRangeSelection.getStartCol().length > 0) {
             fullQuery = fullQuery.withArg(columnRangeSelection.getStartCol());
         }
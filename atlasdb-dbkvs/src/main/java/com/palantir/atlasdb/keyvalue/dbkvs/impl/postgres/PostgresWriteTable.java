@@ -15,18 +15,143 @@
  */
 package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.postgresql.PGConnection;
+
 import com.palantir.atlasdb.keyvalue.api.TableReference;
-import com.palantir.atlasdb.keyvalue.dbkvs.DdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.PostgresDdlConfig;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.AbstractDbWriteTable;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.common.base.Throwables;
+import com.palantir.exception.PalantirSqlException;
+import com.palantir.nexus.db.sql.SqlConnection;
+import com.palantir.sql.Connections;
 
 public class PostgresWriteTable extends AbstractDbWriteTable {
+    /**
+     * Session-local table that large puts are copied into before being inserted into their table. Temporary tables
+     * shadow tables of the same name, so this name must not clash with any AtlasDB table.
+     */
+    private static final String STAGING_TABLE = "atlasdb_put_staging";
+
+    /**
+     * Physical connections whose session has committed the staging table. Pooled connections keep their session, so
+     * the table only has to be created the first time a connection is used for a bulk put in autocommit mode.
+     */
+    private static final Set<PGConnection> connectionsWithStagingTable =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final PostgresDdlConfig postgresConfig;
+
     public PostgresWriteTable(
-            DdlConfig config,
+            PostgresDdlConfig config,
             ConnectionSupplier conns,
             TableReference tableRef,
             PrefixedTableNames prefixedTableNames) {
         super(config, conns, tableRef, prefixedTableNames);
+        this.postgresConfig = config;
+    }
+
+    @Override
+    protected void insert(String prefixedTableName, List<Object[]> args) {
+        if (args.size() < postgresConfig.copyBulkLoadThreshold()) {
+            super.insert(prefixedTableName, args);
+        } else {
+            copyInsert(prefixedTableName, args);
+        }
+    }
+
+    /**
+     * Loads the rows into the staging table with a binary COPY and then inserts them into the target table with a
+     * single statement, which fails with a unique constraint violation like the batched insert does.
+     *
+     * The staging table is emptied whenever a transaction that used it ends. If the connection is in autocommit
+     * mode, the copy and insert run in a transaction of their own; otherwise they run in the caller's transaction,
+     * which may stage further puts before it ends, so the staged rows are deleted once inserted.
+     */
+    private void copyInsert(String prefixedTableName, List<Object[]> args) {
+        SqlConnection conn = conns.get();
+        Connection connection = conn.getUnderlyingConnection();
+        PGConnection pgConnection = unwrap(connection);
+        boolean autoCommit = Connections.getAutoCommit(connection);
+        createStagingTableIfNeeded(conn, pgConnection, autoCommit);
+
+        if (!autoCommit) {
+            copyAndInsert(conn, pgConnection, prefixedTableName, args);
+            conn.executeUnregisteredQuery("/* CLEAR_PUT_STAGING */ DELETE FROM " + STAGING_TABLE);
+            return;
+        }
+
+        Connections.setAutoCommit(connection, false);
+        try {
+            copyAndInsert(conn, pgConnection, prefixedTableName, args);
+            Connections.commit(connection);
+        } catch (RuntimeException e) {
+            Connections.rollback(connection);
+            throw e;
+        } finally {
+            Connections.setAutoCommit(connection, true);
+        }
+    }
+
+    /**
+     * Creates the staging table unless the session is known to have it. Outside autocommit mode the table is created
+     * in the caller's transaction and disappears again if that transaction rolls back, so the connection is only
+     * recorded as having the table when it was created in a statement of its own.
+     */
+    private static void createStagingTableIfNeeded(SqlConnection conn, PGConnection pgConnection, boolean autoCommit) {
+        if (connectionsWithStagingTable.contains(pgConnection)) {
+            return;
+        }
+        conn.executeUnregisteredQuery("/* CREATE_PUT_STAGING */"
+                + " CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE + " ("
+                + "  row_name BYTEA NOT NULL,"
+                + "  col_name BYTEA NOT NULL,"
+                + "  ts INT8 NOT NULL,"
+                + "  val BYTEA)"
+                + " ON COMMIT DELETE ROWS");
+        if (autoCommit) {
+            connectionsWithStagingTable.add(pgConnection);
+        }
+    }
+
+    private static void copyAndInsert(
+            SqlConnection conn,
+            PGConnection pgConnection,
+            String prefixedTableName,
+            List<Object[]> args) {
+        copyIn(pgConnection, args);
+        conn.updateUnregisteredQuery("/* INSERT_FROM_STAGING (" + prefixedTableName + ") */"
+                + " INSERT INTO " + prefixedTableName + " (row_name, col_name, ts, val) "
+                + " SELECT row_name, col_name, ts, val FROM " + STAGING_TABLE);
+    }
+
+    private static void copyIn(PGConnection pgConnection, List<Object[]> args) {
+        try {
+            pgConnection.getCopyAPI().copyIn(
+                    "COPY " + STAGING_TABLE + " (row_name, col_name, ts, val) FROM STDIN (FORMAT binary)",
+                    new ByteArrayInputStream(PostgresBinaryCopy.encode(args)));
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        } catch (IOException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
+    private static PGConnection unwrap(Connection connection) {
+        try {
+            return connection.unwrap(PGConnection.class);
+        } catch (SQLException e) {
+            throw PalantirSqlException.create(e);
+        }
     }
 }
@@ -28,9 +28,11 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
@@ -45,6 +47,8 @@ import com.palantir.atlasdb.keyvalue.api.Value;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.ConnectionSupplier;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.DbKvs;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.PrefixedTableNames;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.AccumulatorStrategies;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.batch.BatchingTaskRunner;
 import com.palantir.atlasdb.keyvalue.dbkvs.impl.oracle.PrimaryKeyConstraintNames;
 import com.palantir.atlasdb.keyvalue.impl.Cells;
 import com.palantir.atlasdb.keyvalue.impl.RowResults;
@@ -68,20 +72,32 @@ public class DbKvsGetRanges {
     private static final byte[] SMALLEST_NAME = Cells.createSmallestCellForRow(new byte[] {0}).getColumnName();
     private static final byte[] LARGEST_NAME = Cells.createLargestCellForRow(new byte[] {0}).getColumnName();
 
+    /**
+     * The number of ranges whose row names are looked up by a single UNION ALL query. Each group of ranges is
+     * queried on its own connection, so that with a parallel task runner the ranges are read concurrently rather
+     * than one after another in a single statement.
+     */
+    private static final int MAX_RANGES_PER_QUERY = 16;
+    private static final BatchingTaskRunner.BatchingStrategy<List<Integer>> RANGE_GROUPS =
+            (indices, batchSizeHint) -> Lists.partition(indices, MAX_RANGES_PER_QUERY);
+
     private final DbKvs kvs;
     private final DBType dbType;
     private final Supplier<SqlConnection> connectionSupplier;
+    private final BatchingTaskRunner batchingQueryRunner;
     private PrefixedTableNames prefixedTableNames;
 
     public DbKvsGetRanges(
             DbKvs kvs,
             DBType dbType,
             Supplier<SqlConnection> connectionSupplier,
-            PrefixedTableNames prefixedTableNames) {
+            PrefixedTableNames prefixedTableNames,
+            BatchingTaskRunner batchingQueryRunner) {
         this.kvs = kvs;
         this.dbType = dbType;
         this.connectionSupplier = connectionSupplier;
         this.prefixedTableNames = prefixedTableNames;
+        this.batchingQueryRunner = batchingQueryRunner;
     }
 
     public Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> getFirstBatchForRanges(
@@ -99,8 +115,7 @@ public class DbKvsGetRanges {
             TableReference tableRef,
             List<RangeRequest> requests,
             long timestamp) {
-        List<String> subQueries = Lists.newArrayList();
-        List<Object> argsList = Lists.newArrayList();
+        List<Pair<String, List<Object>>> queries = Lists.newArrayListWithCapacity(requests.size());
         for (int i = 0; i < requests.size(); i++) {
             RangeRequest request = requests.get(i);
             Pair<String, List<Object>> queryAndArgs = getRangeQueryAndArgs(
@@ -110,15 +125,12 @@ public class DbKvsGetRanges {
                     request.isReverse(),
                     request.getBatchHint() == null ? 1 : request.getBatchHint(),
                     i);
-            subQueries.add(queryAndArgs.lhSide);
-            argsList.addAll(queryAndArgs.rhSide);
+            queries.add(queryAndArgs);
         }
-        String query = Joiner.on(") UNION ALL (").appendTo(new StringBuilder("("), subQueries).append(")").toString();
-        Object[] args = argsList.toArray();
 
         TimingState timer = logTimer.begin("Table: " + tableRef.getQualifiedName() + " get_page");
         try {
-            return getFirstPagesFromDb(tableRef, requests, timestamp, query, args);
+            return getFirstPagesFromDb(tableRef, requests, timestamp, queries);
         } finally {
             timer.end();
         }
@@ -128,9 +140,8 @@ public class DbKvsGetRanges {
             TableReference tableRef,
             List<RangeRequest> requests,
             long timestamp,
-            String query,
-            Object[] args) {
-        SortedSetMultimap<Integer, byte[]> rowsForBatches = getRowsForBatches(connectionSupplier, query, args);
+            List<Pair<String, List<Object>>> queries) {
+        SortedSetMultimap<Integer, byte[]> rowsForBatches = getRowsForBatches(queries);
         Map<Cell, Value> cells = kvs.getRows(tableRef, rowsForBatches.values(),
                 ColumnSelection.all(), timestamp);
         NavigableMap<byte[], SortedMap<byte[], Value>> cellsByRow = Cells.breakCellsUpByRow(cells);
@@ -138,16 +149,43 @@ public class DbKvsGetRanges {
         return breakUpByBatch(requests, rowsForBatches, cellsByRow);
     }
 
-    private static SortedSetMultimap<Integer, byte[]> getRowsForBatches(
+    private SortedSetMultimap<Integer, byte[]> getRowsForBatches(List<Pair<String, List<Object>>> queries) {
+        List<Integer> indices = Lists.newArrayListWithCapacity(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            indices.add(i);
+        }
+        Multimap<Integer, byte[]> rows = batchingQueryRunner.runTask(
+                indices,
+                RANGE_GROUPS,
+                AccumulatorStrategies.forListMultimap(),
+                group -> getRowsForBatches(connectionSupplier, queries, group));
+        SortedSetMultimap<Integer, byte[]> ret = TreeMultimap.create(
+                Ordering.natural(),
+                UnsignedBytes.lexicographicalComparator());
+        ret.putAll(rows);
+        return ret;
+    }
+
+    private static Multimap<Integer, byte[]> getRowsForBatches(
             Supplier<SqlConnection> connectionSupplier,
-            String query,
-            Object[] args) {
+            List<Pair<String, List<Object>>> queries,
+            List<Integer> group) {
+        if (group.isEmpty()) {
+            return ArrayListMultimap.create();
+        }
+        List<String> subQueries = Lists.newArrayListWithCapacity(group.size());
+        List<Object> argsList = Lists.newArrayList();
+        for (int index : group) {
+            subQueries.add(queries.get(index).lhSide);
+            argsList.addAll(queries.get(index).rhSide);
+        }
+        String query = Joiner.on(") UNION ALL (").appendTo(new StringBuilder("("), subQueries).append(")").toString();
+        Object[] args = argsList.toArray();
+
         SqlConnection connection = connectionSupplier.get();
         try {
             AgnosticResultSet results = connection.selectResultSetUnregisteredQuery(query, args);
-            SortedSetMultimap<Integer, byte[]> ret = TreeMultimap.create(
-                    Ordering.natural(),
-                    UnsignedBytes.lexicographicalComparator());
+            Multimap<Integer, byte[]> ret = ArrayListMultimap.create();
             for (AgnosticResultRow row : results.rows()) {
                 @SuppressWarnings("deprecation")
                 byte[] rowName = row.getBytes("row_name");
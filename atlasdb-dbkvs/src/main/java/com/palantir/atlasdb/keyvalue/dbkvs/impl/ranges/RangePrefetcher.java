@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
+
+/**
+ * Fetches the next page of a range in the background while the caller is consuming the current page, so that the
+ * caller does not wait for the database at every page boundary.
+ *
+ * Pages being fetched ahead of the caller are bounded in total across all ranges by a byte budget, and each range
+ * holds at most one page fetched ahead. A page is only fetched ahead if the budget has room for a page the size of
+ * the one before it; otherwise it is fetched when the caller reaches it, as it would be without prefetching. A page
+ * that is still queued when the caller reaches it is fetched by the caller instead, so prefetching never waits for a
+ * free thread.
+ */
+public final class RangePrefetcher implements Closeable {
+    private final ExecutorService executor;
+    private final int bufferBytes;
+    private final Semaphore availableBytes;
+
+    public RangePrefetcher(ExecutorService executor, int bufferBytes) {
+        Preconditions.checkArgument(bufferBytes >= 0, "bufferBytes must be non-negative, but was %s", bufferBytes);
+        this.executor = executor;
+        this.bufferBytes = bufferBytes;
+        this.availableBytes = new Semaphore(bufferBytes);
+    }
+
+    /**
+     * Returns the rows of the given pages, prefetching each page while the previous one is being consumed. The
+     * pages iterator is only ever advanced by one thread at a time.
+     */
+    public ClosableIterator<RowResult<Value>> prefetch(Iterator<? extends Iterator<RowResult<Value>>> pages) {
+        return new PrefetchingIterator(pages);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    static int estimateSize(List<RowResult<Value>> page) {
+        long bytes = 0;
+        for (RowResult<Value> row : page) {
+            bytes += row.getRowName().length;
+            for (Map.Entry<byte[], Value> cell : row.getColumns().entrySet()) {
+                bytes += cell.getKey().length + cell.getValue().getContents().length + Long.BYTES;
+            }
+        }
+        return Ints.saturatedCast(bytes);
+    }
+
+    private final class PrefetchingIterator extends AbstractIterator<RowResult<Value>>
+            implements ClosableIterator<RowResult<Value>> {
+        private final Iterator<? extends Iterator<RowResult<Value>>> pages;
+
+        private Iterator<RowResult<Value>> currentPage = Collections.emptyIterator();
+        private int currentPageBytes = 0;
+        @Nullable
+        private Prefetch nextPage = null;
+
+        PrefetchingIterator(Iterator<? extends Iterator<RowResult<Value>>> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        protected RowResult<Value> computeNext() {
+            while (!currentPage.hasNext()) {
+                Optional<List<RowResult<Value>>> page = takeNextPage();
+                if (!page.isPresent()) {
+                    return endOfData();
+                }
+                currentPage = page.get().iterator();
+                currentPageBytes = estimateSize(page.get());
+                startPrefetch();
+            }
+            return currentPage.next();
+        }
+
+        private Optional<List<RowResult<Value>>> takeNextPage() {
+            Prefetch prefetched = nextPage;
+            if (prefetched == null) {
+                return fetchPage();
+            }
+            nextPage = null;
+            if (prefetched.cancel()) {
+                // The prefetch never started, so don't wait for a thread to become free.
+                return fetchPage();
+            }
+            try {
+                return prefetched.result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+
+        private Optional<List<RowResult<Value>>> fetchPage() {
+            if (!pages.hasNext()) {
+                return Optional.empty();
+            }
+            return Optional.of(Lists.newArrayList(pages.next()));
+        }
+
+        private void startPrefetch() {
+            if (bufferBytes == 0) {
+                return;
+            }
+            int bytes = Math.min(Math.max(currentPageBytes, 1), bufferBytes);
+            if (!availableBytes.tryAcquire(bytes)) {
+                return;
+            }
+            nextPage = new Prefetch(this::fetchPage, bytes);
+            try {
+                executor.execute(nextPage);
+            } catch (RejectedExecutionException e) {
+                nextPage.cancel();
+                nextPage = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (nextPage != null) {
+                // A prefetch that has already started releases its bytes when it finishes.
+                nextPage.cancel();
+                nextPage = null;
+            }
+        }
+    }
+
+    /**
+     * A page fetched ahead of the caller. The bytes reserved for it are released exactly once: when the fetch
+     * finishes, or when it is cancelled before it starts. Iterators that are dropped without being closed therefore
+     * never keep their reservation for longer than the fetch takes.
+     */
+    private final class Prefetch implements Runnable {
+        private final Supplier<Optional<List<RowResult<Value>>>> fetch;
+        private final int reservedBytes;
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private final CompletableFuture<Optional<List<RowResult<Value>>>> result = new CompletableFuture<>();
+
+        Prefetch(Supplier<Optional<List<RowResult<Value>>>> fetch, int reservedBytes) {
+            this.fetch = fetch;
+            this.reservedBytes = reservedBytes;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(fetch.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                availableBytes.release(reservedBytes);
+            }
+        }
+
+        /**
+         * Prevents the prefetch from starting, returning false if it has already started.
+         */
+        boolean cancel() {
+            if (!started.compareAndSet(false, true)) {
+                return false;
+            }
+            availableBytes.release(reservedBytes);
+            return true;
+        }
+    }
+}
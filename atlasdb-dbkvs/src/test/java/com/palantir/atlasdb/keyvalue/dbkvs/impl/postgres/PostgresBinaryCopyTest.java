@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class PostgresBinaryCopyTest {
+    @Test
+    public void encodesRowsInBinaryCopyFormat() {
+        byte[] encoded = PostgresBinaryCopy.encode(ImmutableList.of(
+                new Object[] {new byte[] {1}, new byte[] {2, 3}, 5L, new byte[] {}}));
+
+        ByteBuffer expected = ByteBuffer.allocate(11 + 8 + 2 + (4 + 1) + (4 + 2) + (4 + 8) + 4 + 2);
+        expected.put(new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+        expected.putInt(0).putInt(0);
+        expected.putShort((short) 4);
+        expected.putInt(1).put((byte) 1);
+        expected.putInt(2).put((byte) 2).put((byte) 3);
+        expected.putInt(8).putLong(5L);
+        expected.putInt(0);
+        expected.putShort((short) -1);
+
+        assertArrayEquals(expected.array(), encoded);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.postgres;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.dbkvs.ImmutablePostgresDdlConfig;
+import com.palantir.atlasdb.keyvalue.dbkvs.impl.FullQuery;
+
+public class PostgresQueryFactoryTest {
+    private static final Cell CELL_1 = Cell.create(PtBytes.toBytes("r1"), PtBytes.toBytes("c1"));
+    private static final Cell CELL_2 = Cell.create(PtBytes.toBytes("r2"), PtBytes.toBytes("c2"));
+
+    private final PostgresQueryFactory factory = new PostgresQueryFactory(
+            "table", ImmutablePostgresDdlConfig.builder().build());
+
+    @Test
+    public void cellsQueryTextDoesNotDependOnNumberOfCells() {
+        FullQuery one = factory.getLatestCellsQuery(ImmutableMap.of(CELL_1, 10L).entrySet(), true);
+        FullQuery two = factory.getLatestCellsQuery(ImmutableMap.of(CELL_1, 10L, CELL_2, 20L).entrySet(), true);
+
+        assertEquals(one.getQuery(), two.getQuery());
+        assertArrayEquals(
+                new Object[] {"{\"\\\\x7231\",\"\\\\x7232\"}", "{\"\\\\x6331\",\"\\\\x6332\"}", "{10,20}"},
+                two.getArgs());
+    }
+
+    @Test
+    public void rowsQueryTextDoesNotDependOnNumberOfRowsOrColumns() {
+        ColumnSelection oneColumn = ColumnSelection.create(ImmutableList.of(CELL_1.getColumnName()));
+        ColumnSelection twoColumns = ColumnSelection.create(
+                ImmutableList.of(CELL_1.getColumnName(), CELL_2.getColumnName()));
+        List<byte[]> oneRow = ImmutableList.of(CELL_1.getRowName());
+        List<byte[]> twoRows = ImmutableList.of(CELL_1.getRowName(), CELL_2.getRowName());
+
+        FullQuery one = factory.getAllRowsQuery(oneRow, 10L, oneColumn, false);
+        FullQuery two = factory.getAllRowsQuery(twoRows, 10L, twoColumns, false);
+
+        assertEquals(one.getQuery(), two.getQuery());
+        assertArrayEquals(
+                new Object[] {"{\"\\\\x7231\",\"\\\\x7232\"}", 10L, "{\"\\\\x6331\",\"\\\\x6332\"}"},
+                two.getArgs());
+    }
+
+    @Test
+    public void rowTimestampQueryTextDoesNotDependOnNumberOfRows() {
+        Map<byte[], Long> oneRow = ImmutableMap.of(CELL_1.getRowName(), 10L);
+        Map<byte[], Long> twoRows = ImmutableMap.of(CELL_1.getRowName(), 10L, CELL_2.getRowName(), 20L);
+
+        FullQuery one = factory.getLatestRowsQuery(oneRow.entrySet(), ColumnSelection.all(), true);
+        FullQuery two = factory.getLatestRowsQuery(twoRows.entrySet(), ColumnSelection.all(), true);
+
+        assertEquals(one.getQuery(), two.getQuery());
+        assertArrayEquals(new Object[] {"{\"\\\\x7231\",\"\\\\x7232\"}", "{10,20}"}, two.getArgs());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.keyvalue.dbkvs.impl.ranges;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.common.base.ClosableIterator;
+
+public class RangePrefetcherTest {
+    private static final byte[] COL_NAME = { 0 };
+    private static final int PAGE_BYTES = RangePrefetcher.estimateSize(ImmutableList.of(row(0)));
+
+    private final AtomicInteger pagesRead = new AtomicInteger();
+    private final List<Runnable> queuedPrefetches = Lists.newArrayList();
+    private RangePrefetcher prefetcher;
+
+    @After
+    public void tearDown() {
+        prefetcher.close();
+    }
+
+    @Test
+    public void returnsAllRowsInOrder() {
+        prefetcher = new RangePrefetcher(MoreExecutors.newDirectExecutorService(), 10 * PAGE_BYTES);
+        ClosableIterator<RowResult<Value>> rows = prefetcher.prefetch(pages(5));
+
+        List<Integer> rowNames = Lists.newArrayList();
+        rows.forEachRemaining(row -> rowNames.add((int) row.getRowName()[0]));
+
+        assertThat(rowNames, contains(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void readsOnePageAheadOfTheCaller() {
+        prefetcher = new RangePrefetcher(MoreExecutors.newDirectExecutorService(), 10 * PAGE_BYTES);
+        ClosableIterator<RowResult<Value>> rows = prefetcher.prefetch(pages(5));
+
+        rows.next();
+        assertThat(pagesRead.get(), equalTo(2));
+        rows.next();
+        assertThat(pagesRead.get(), equalTo(3));
+    }
+
+    @Test
+    public void doesNotReadAheadWithEmptyBuffer() {
+        prefetcher = new RangePrefetcher(MoreExecutors.newDirectExecutorService(), 0);
+        ClosableIterator<RowResult<Value>> rows = prefetcher.prefetch(pages(5));
+
+        rows.next();
+        assertThat(pagesRead.get(), equalTo(1));
+    }
+
+    @Test
+    public void bufferIsSharedAcrossRangesAndReleasedOnClose() {
+        prefetcher = new RangePrefetcher(queueingExecutor(), PAGE_BYTES);
+        ClosableIterator<RowResult<Value>> first = prefetcher.prefetch(pages(5));
+        first.next();
+        assertThat(queuedPrefetches.size(), equalTo(1));
+
+        ClosableIterator<RowResult<Value>> second = prefetcher.prefetch(pages(5));
+        second.next();
+        assertThat(queuedPrefetches.size(), equalTo(1));
+
+        first.close();
+        ClosableIterator<RowResult<Value>> third = prefetcher.prefetch(pages(5));
+        third.next();
+        assertThat(queuedPrefetches.size(), equalTo(2));
+
+        runQueuedPrefetches();
+        assertThat(pagesRead.get(), equalTo(4));
+    }
+
+    @Test
+    public void bufferIsReleasedWhenThePrefetchOfADroppedIteratorFinishes() {
+        prefetcher = new RangePrefetcher(queueingExecutor(), PAGE_BYTES);
+        prefetcher.prefetch(pages(5)).next();
+        assertThat(queuedPrefetches.size(), equalTo(1));
+
+        runQueuedPrefetches();
+        assertThat(pagesRead.get(), equalTo(2));
+
+        ClosableIterator<RowResult<Value>> rows = prefetcher.prefetch(pages(5));
+        rows.next();
+        assertThat(queuedPrefetches.size(), equalTo(1));
+    }
+
+    private ExecutorService queueingExecutor() {
+        ExecutorService executor = mock(ExecutorService.class);
+        doAnswer(invocation -> queuedPrefetches.add((Runnable) invocation.getArguments()[0]))
+                .when(executor).execute(any(Runnable.class));
+        return executor;
+    }
+
+    private void runQueuedPrefetches() {
+        List<Runnable> prefetches = ImmutableList.copyOf(queuedPrefetches);
+        queuedPrefetches.clear();
+        prefetches.forEach(Runnable::run);
+    }
+
+    private Iterator<Iterator<RowResult<Value>>> pages(int numPages) {
+        return new AbstractIterator<Iterator<RowResult<Value>>>() {
+            private int nextRow = 0;
+
+            @Override
+            protected Iterator<RowResult<Value>> computeNext() {
+                if (nextRow == numPages) {
+                    return endOfData();
+                }
+                pagesRead.incrementAndGet();
+                return ImmutableList.of(row(nextRow++)).iterator();
+            }
+        };
+    }
+
+    private static RowResult<Value> row(int rowName) {
+        return RowResult.of(Cell.create(new byte[] { (byte) rowName }, COL_NAME), Value.create(COL_NAME, 1L));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.schema.RowKeySpace;
+
+/**
+ * A range of rows of the scrub queue that is being read by one thread of the background scrub task. The range only
+ * ever shrinks: its position moves forward as entries are claimed, and its end moves backward when an idle thread
+ * splits off the second half. Entries are claimed under the same lock as splits, so no entry is scrubbed by both
+ * halves of a split.
+ */
+@ThreadSafe
+final class ScrubQueueRange {
+    private final byte[] start;
+
+    @GuardedBy("this")
+    private byte[] position;
+    @GuardedBy("this")
+    private byte[] end;
+    @GuardedBy("this")
+    private long cellsRead = 0;
+    @GuardedBy("this")
+    private boolean done = false;
+
+    /**
+     * @param end exclusive; the empty array means the end of the scrub queue.
+     */
+    ScrubQueueRange(byte[] start, byte[] end) {
+        this.start = start;
+        this.position = start;
+        this.end = end;
+    }
+
+    byte[] start() {
+        return start;
+    }
+
+    synchronized byte[] end() {
+        return end;
+    }
+
+    synchronized long cellsRead() {
+        return cellsRead;
+    }
+
+    synchronized boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Claims a batch of scrub queue entries read in row order from this range. Entries at or after the end of the
+     * range belong to a range that has since been split off, so they are dropped and this range is done.
+     */
+    synchronized SortedMap<Long, Multimap<TableReference, Cell>> claim(
+            List<SortedMap<Long, Multimap<TableReference, Cell>>> batch) {
+        SortedMap<Long, Multimap<TableReference, Cell>> claimed = Maps.newTreeMap();
+        for (SortedMap<Long, Multimap<TableReference, Cell>> entries : batch) {
+            for (Map.Entry<Long, Multimap<TableReference, Cell>> entry : entries.entrySet()) {
+                for (Map.Entry<TableReference, Cell> cell : entry.getValue().entries()) {
+                    byte[] row = cell.getValue().getRowName();
+                    if (!isBeforeEnd(row)) {
+                        done = true;
+                        continue;
+                    }
+                    if (UnsignedBytes.lexicographicalComparator().compare(row, position) > 0) {
+                        position = row;
+                    }
+                    claimed.computeIfAbsent(entry.getKey(), ts -> ArrayListMultimap.create())
+                            .put(cell.getKey(), cell.getValue());
+                    cellsRead++;
+                }
+            }
+        }
+        return claimed;
+    }
+
+    synchronized void finish() {
+        done = true;
+    }
+
+    /**
+     * Shrinks this range to end halfway between its position and its end, and returns the second half as a new
+     * range, or returns null if the range is done or too narrow to split.
+     */
+    @Nullable
+    synchronized ScrubQueueRange split() {
+        if (done) {
+            return null;
+        }
+        byte[] splitRow = RowKeySpace.midpoint(position, end);
+        if (splitRow == null) {
+            return null;
+        }
+        ScrubQueueRange secondHalf = new ScrubQueueRange(splitRow, end);
+        end = splitRow;
+        return secondHalf;
+    }
+
+    @GuardedBy("this")
+    private boolean isBeforeEnd(byte[] row) {
+        return end.length == 0 || UnsignedBytes.lexicographicalComparator().compare(row, end) < 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ScrubQueueRange{start=" + PtBytes.encodeHexString(start)
+                + ", position=" + PtBytes.encodeHexString(position)
+                + ", end=" + PtBytes.encodeHexString(end)
+                + ", cellsRead=" + cellsRead
+                + ", done=" + done
+                + "}";
+    }
+}
@@ -17,31 +17,39 @@ package com.palantir.atlasdb.cleaner;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -66,9 +74,9 @@ import com.palantir.atlasdb.transaction.api.TransactionFailedRetriableException;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
 import com.palantir.atlasdb.transaction.impl.TransactionConstants;
 import com.palantir.atlasdb.transaction.service.TransactionService;
+import com.palantir.atlasdb.util.MetricsManager;
 import com.palantir.common.base.BatchingVisitable;
 import com.palantir.common.base.Throwables;
-import com.palantir.common.collect.Maps2;
 import com.palantir.common.concurrent.ExecutorInheritableThreadLocal;
 import com.palantir.common.concurrent.NamedThreadFactory;
 import com.palantir.common.concurrent.PTExecutors;
@@ -88,6 +96,7 @@ public class Scrubber {
     private static final int MAX_RETRY_ATTEMPTS = 100;
     private static final int RETRY_SLEEP_INTERVAL_IN_MILLIS = 1000;
     private static final int MAX_DELETES_IN_BATCH = 10_000;
+    private static final int MAX_SCRUB_BATCHES_IN_FLIGHT_PER_THREAD = 2;
 
     private final ScheduledExecutorService service = Tracers.wrap(PTExecutors.newSingleThreadScheduledExecutor(
             new NamedThreadFactory("scrubber", true /* daemon */)));
@@ -109,6 +118,11 @@ public class Scrubber {
     private final ExecutorService readerExec;
     private final ExecutorService exec;
 
+    private final MetricsManager metricsManager = new MetricsManager();
+    private final Meter cellsRead;
+    private final Meter cellsScrubbed;
+    private final AtomicLong queueLag = new AtomicLong();
+
     private static final String SCRUBBER_THREAD_PREFIX = "AtlasScrubber";
 
     // Keep track of threads spawned by scrub, so we don't starve when
@@ -175,6 +189,10 @@ public class Scrubber {
         NamedThreadFactory threadFactory = new NamedThreadFactory(SCRUBBER_THREAD_PREFIX, true);
         this.readerExec = Tracers.wrap(PTExecutors.newFixedThreadPool(readThreadCount, threadFactory));
         this.exec = Tracers.wrap(PTExecutors.newFixedThreadPool(threadCount, threadFactory));
+        this.cellsRead = metricsManager.registerMeter(Scrubber.class, "background", "cellsRead");
+        this.cellsScrubbed = metricsManager.registerMeter(Scrubber.class, "background", "cellsScrubbed");
+        // How far behind the scrub horizon the oldest entry read by the current or last background scrub is.
+        metricsManager.registerMetric(Scrubber.class, "background", "queueLag", (Gauge<Long>) queueLag::get);
     }
 
     public boolean isInitialized() {
@@ -249,41 +267,16 @@ public class Scrubber {
         }
         rangeBoundaries.add(PtBytes.EMPTY_BYTE_ARRAY);
 
-        List<Future<Void>> readerFutures = Lists.newArrayList();
-        final AtomicInteger totalCellsRead = new AtomicInteger(0);
+        List<ScrubQueueRange> ranges = Lists.newArrayList();
         for (int i = 0; i < rangeBoundaries.size() - 1; i++) {
-            final byte[] startRow = rangeBoundaries.get(i);
-            final byte[] endRow = rangeBoundaries.get(i + 1);
-            readerFutures.add(readerExec.submit(() -> {
-                BatchingVisitable<SortedMap<Long, Multimap<TableReference, Cell>>> scrubQueue = scrubberStore
-                        .getBatchingVisitableScrubQueue(maxScrubTimestamp, startRow, endRow);
-                scrubQueue.batchAccept(batchSize, batch -> {
-                    for (SortedMap<Long, Multimap<TableReference, Cell>> cells : batch) {
-                        // We may actually get more cells than the batch size. The batch size is used
-                        // for pulling off the scrub queue, and a single entry in the scrub queue may
-                        // match multiple tables. These will get broken down into smaller batches later
-                        // on when we actually do deletes.
-                        int numCellsRead = scrubSomeCells(cells, txManager, maxScrubTimestamp);
-                        int totalRead = totalCellsRead.addAndGet(numCellsRead);
-                        log.debug("Scrub task processed {} cells in a batch, total {} processed so far.",
-                                  numCellsRead, totalRead);
-                        if (!isScrubEnabled.get()) {
-                            log.debug("Stopping scrub for banned hours.");
-                            break;
-                        }
-                    }
-                    return isScrubEnabled.get();
-                });
-                return null;
-            }));
+            ranges.add(new ScrubQueueRange(rangeBoundaries.get(i), rangeBoundaries.get(i + 1)));
         }
 
-        for (Future<Void> readerFuture : readerFutures) {
-            Futures.getUnchecked(readerFuture);
-        }
+        queueLag.set(0L);
+        long totalCellsRead = new BackgroundScrubPass(txManager, maxScrubTimestamp, batchSize, ranges).run();
 
         log.debug("Scrub background task running at timestamp {} processed a total of {} cells",
-                  maxScrubTimestamp, totalCellsRead.get());
+                  maxScrubTimestamp, totalCellsRead);
 
         log.debug("Finished scrub task");
     }
@@ -363,159 +356,82 @@ public class Scrubber {
         scrubberStore.queueCellsForScrubbing(cellToTableRefs, scrubTimestamp, batchSizeSupplier.get());
     }
 
-    private long getCommitTimestampRollBackIfNecessary(long startTimestamp,
-                                                       Multimap<TableReference, Cell> tableNameToCell) {
-        Long commitTimestamp = transactionService.get(startTimestamp);
-        if (commitTimestamp == null) {
-            // Roll back this transaction (note that rolling back arbitrary transactions
-            // can never cause correctness issues, only liveness issues)
-            try {
-                transactionService.putUnlessExists(startTimestamp, TransactionConstants.FAILED_COMMIT_TS);
-            } catch (KeyAlreadyExistsException e) {
-                String msg = "Could not roll back transaction with start timestamp " + startTimestamp + "; either"
-                        + " it was already rolled back (by a different transaction), or it committed successfully"
-                        + " before we could roll it back.";
-                log.error("This isn't a bug but it should be very infrequent. {}", msg,
-                        new TransactionFailedRetriableException(msg, e));
-            }
-            commitTimestamp = transactionService.get(startTimestamp);
-        }
-        if (commitTimestamp == null) {
-            throw new RuntimeException("expected commit timestamp to be non-null for startTs: " + startTimestamp);
-        }
-        if (commitTimestamp == TransactionConstants.FAILED_COMMIT_TS) {
-            for (TableReference table : tableNameToCell.keySet()) {
-                Map<Cell, Long> toDelete = Maps2.createConstantValueMap(tableNameToCell.get(table), startTimestamp);
-                keyValueService.delete(table, Multimaps.forMap(toDelete));
+    private Map<Long, Long> getCommitTimestampsRollBackIfNecessary(Set<Long> startTimestamps) {
+        Map<Long, Long> commitTimestamps = Maps.newHashMap(transactionService.get(startTimestamps));
+        for (long startTimestamp : startTimestamps) {
+            if (!commitTimestamps.containsKey(startTimestamp)) {
+                commitTimestamps.put(startTimestamp, rollBack(startTimestamp));
             }
         }
-        return commitTimestamp;
+        return commitTimestamps;
     }
 
-    /**
-     * Scrubs some cells.
-     *
-     * @return number of cells read from _scrub table
-     */
-    private int scrubSomeCells(
-            SortedMap<Long, Multimap<TableReference, Cell>> scrubTimestampToTableNameToCell,
-            TransactionManager txManager,
-            long maxScrubTimestamp) {
-        log.trace("Attempting to scrub cells: {}", scrubTimestampToTableNameToCell);
-
-        if (log.isDebugEnabled()) {
-            int numCells = 0;
-            Set<TableReference> tables = Sets.newHashSet();
-            for (Multimap<TableReference, Cell> v : scrubTimestampToTableNameToCell.values()) {
-                tables.addAll(v.keySet());
-                numCells += v.size();
-            }
-            log.debug("Attempting to scrub {} cells from tables {}", numCells, tables);
-        }
-
-        if (scrubTimestampToTableNameToCell.size() == 0) {
-            return 0; // No cells left to scrub
-        }
-
-        int numCellsReadFromScrubTable = 0;
-        List<Future<Void>> scrubFutures = Lists.newArrayList();
-        Map<TableReference, Multimap<Cell, Long>> failedWrites = Maps.newHashMap();
-
-        for (Map.Entry<Long, Multimap<TableReference, Cell>> entry : scrubTimestampToTableNameToCell.entrySet()) {
-            final long scrubTimestamp = entry.getKey();
-            final Multimap<TableReference, Cell> tableNameToCell = entry.getValue();
-
-            numCellsReadFromScrubTable += tableNameToCell.size();
-
-            // This is CRITICAL; don't scrub if the hard delete transaction didn't actually finish
-            // (we still remove it from the _scrub table with the call to markCellsAsScrubbed though),
-            // or else we could cause permanent data loss if the hard delete transaction failed after
-            // queuing cells to scrub but before successfully committing
-            long commitTimestamp = getCommitTimestampRollBackIfNecessary(scrubTimestamp, tableNameToCell);
-            if (commitTimestamp == TransactionConstants.FAILED_COMMIT_TS) {
-                for (Entry<TableReference, Collection<Cell>> cells : tableNameToCell.asMap().entrySet()) {
-                    Multimap<Cell, Long> failedCells = failedWrites.get(cells.getKey());
-                    if (failedCells == null) {
-                        failedCells = ArrayListMultimap.create(cells.getValue().size(), 2);
-                        failedWrites.put(cells.getKey(), failedCells);
-                    }
-                    for (Cell cell : cells.getValue()) {
-                        failedCells.put(cell, scrubTimestamp);
-                    }
-                }
-            } else if (commitTimestamp < maxScrubTimestamp) {
-                for (final List<Entry<TableReference, Cell>> batch :
-                        Iterables.partition(tableNameToCell.entries(), batchSizeSupplier.get())) {
-                    final Multimap<TableReference, Cell> batchMultimap = HashMultimap.create();
-                    for (Entry<TableReference, Cell> e : batch) {
-                        batchMultimap.put(e.getKey(), e.getValue());
-                    }
-                    scrubFutures.add(exec.submit(() -> {
-                        scrubCells(txManager, batchMultimap,
-                                scrubTimestamp,
-                                aggressiveScrub ? TransactionType.AGGRESSIVE_HARD_DELETE : TransactionType.HARD_DELETE);
-                        return null;
-                    }));
-                }
-            }
-            // else {
-            //     We cannot scrub this yet because not all transactions can read this value.
-            // }
-        }
-
-        for (Future<Void> future : scrubFutures) {
-            Futures.getUnchecked(future);
-        }
-
-        if (!failedWrites.isEmpty()) {
-            scrubberStore.markCellsAsScrubbed(failedWrites, batchSizeSupplier.get());
+    private long rollBack(long startTimestamp) {
+        // Roll back this transaction (note that rolling back arbitrary transactions
+        // can never cause correctness issues, only liveness issues)
+        try {
+            transactionService.putUnlessExists(startTimestamp, TransactionConstants.FAILED_COMMIT_TS);
+        } catch (KeyAlreadyExistsException e) {
+            String msg = "Could not roll back transaction with start timestamp " + startTimestamp + "; either"
+                    + " it was already rolled back (by a different transaction), or it committed successfully"
+                    + " before we could roll it back.";
+            log.error("This isn't a bug but it should be very infrequent. {}", msg,
+                    new TransactionFailedRetriableException(msg, e));
         }
-
-        log.trace("Finished scrubbing cells: {}", scrubTimestampToTableNameToCell);
-
-        if (log.isDebugEnabled()) {
-            Set<TableReference> tables = Sets.newHashSet();
-            for (Multimap<TableReference, Cell> v : scrubTimestampToTableNameToCell.values()) {
-                tables.addAll(v.keySet());
-            }
-            long minTimestamp = Collections.min(scrubTimestampToTableNameToCell.keySet());
-            long maxTimestamp = Collections.max(scrubTimestampToTableNameToCell.keySet());
-            log.debug("Finished scrubbing {} cells at {} timestamps ({}...{}) from tables {}",
-                      numCellsReadFromScrubTable, scrubTimestampToTableNameToCell.size(),
-                      minTimestamp, maxTimestamp, tables);
+        Long commitTimestamp = transactionService.get(startTimestamp);
+        if (commitTimestamp == null) {
+            throw new RuntimeException("expected commit timestamp to be non-null for startTs: " + startTimestamp);
         }
-
-        return numCellsReadFromScrubTable;
+        return commitTimestamp;
     }
 
     private void scrubCells(TransactionManager txManager,
                             Multimap<TableReference, Cell> tableNameToCells,
                             long scrubTimestamp,
                             Transaction.TransactionType transactionType) {
-        Map<TableReference, Multimap<Cell, Long>> allCellsToMarkScrubbed =
-                Maps.newHashMapWithExpectedSize(tableNameToCells.keySet().size());
         for (Entry<TableReference, Collection<Cell>> entry : tableNameToCells.asMap().entrySet()) {
             TableReference tableRef = entry.getKey();
             log.debug("Attempting to immediately scrub {} cells from table {}", entry.getValue().size(), tableRef);
             for (List<Cell> cells : Iterables.partition(entry.getValue(), batchSizeSupplier.get())) {
-                Multimap<Cell, Long> allTimestamps = keyValueService.getAllTimestamps(
-                        tableRef, ImmutableSet.copyOf(cells), scrubTimestamp);
-                Multimap<Cell, Long> timestampsToDelete = Multimaps.filterValues(
-                        allTimestamps, v -> !v.equals(Value.INVALID_VALUE_TIMESTAMP));
-
-                // If transactionType == TransactionType.AGGRESSIVE_HARD_DELETE this might
-                // force other transactions to abort or retry
-                deleteCellsAtTimestamps(txManager, tableRef, timestampsToDelete, transactionType);
-
-                Multimap<Cell, Long> cellsToMarkScrubbed = HashMultimap.create(allTimestamps);
+                Multimap<Cell, Long> cellToScrubTimestamp = HashMultimap.create();
                 for (Cell cell : cells) {
-                    cellsToMarkScrubbed.put(cell, scrubTimestamp);
+                    cellToScrubTimestamp.put(cell, scrubTimestamp);
                 }
-                allCellsToMarkScrubbed.put(tableRef, cellsToMarkScrubbed);
+                scrubCellsInTable(txManager, tableRef, cellToScrubTimestamp, transactionType);
             }
             log.debug("Immediately scrubbed {} cells from table {}", entry.getValue().size(), tableRef);
         }
-        scrubberStore.markCellsAsScrubbed(allCellsToMarkScrubbed, batchSizeSupplier.get());
+    }
+
+    /**
+     * Scrubs cells of one table that were queued for scrubbing at possibly different scrub timestamps, with a single
+     * read of their timestamps and as few deletes as possible.
+     */
+    private void scrubCellsInTable(TransactionManager txManager,
+                                   TableReference tableRef,
+                                   Multimap<Cell, Long> cellToScrubTimestamps,
+                                   Transaction.TransactionType transactionType) {
+        Map<Cell, Long> latestScrubTimestamps = Maps.newHashMapWithExpectedSize(cellToScrubTimestamps.keySet().size());
+        for (Entry<Cell, Long> entry : cellToScrubTimestamps.entries()) {
+            latestScrubTimestamps.merge(entry.getKey(), entry.getValue(), Math::max);
+        }
+        long maxScrubTimestamp = Collections.max(latestScrubTimestamps.values());
+        Multimap<Cell, Long> allTimestamps = keyValueService.getAllTimestamps(
+                tableRef, latestScrubTimestamps.keySet(), maxScrubTimestamp);
+
+        // The timestamps were read at the latest scrub timestamp in the batch, so leave alone the versions of each
+        // cell that are not older than that cell's own latest scrub timestamp.
+        Multimap<Cell, Long> cellsToMarkScrubbed = HashMultimap.create(Multimaps.filterEntries(
+                allTimestamps, e -> e.getValue() < latestScrubTimestamps.get(e.getKey())));
+        Multimap<Cell, Long> timestampsToDelete = ImmutableMultimap.copyOf(Multimaps.filterValues(
+                cellsToMarkScrubbed, v -> !v.equals(Value.INVALID_VALUE_TIMESTAMP)));
+
+        // If transactionType == TransactionType.AGGRESSIVE_HARD_DELETE this might
+        // force other transactions to abort or retry
+        deleteCellsAtTimestamps(txManager, tableRef, timestampsToDelete, transactionType);
+
+        cellsToMarkScrubbed.putAll(cellToScrubTimestamps);
+        scrubberStore.markCellsAsScrubbed(ImmutableMap.of(tableRef, cellsToMarkScrubbed), batchSizeSupplier.get());
     }
 
     private void deleteCellsAtTimestamps(TransactionManager txManager,
@@ -544,6 +460,7 @@ public class Scrubber {
     }
 
     public void shutdown() {
+        metricsManager.deregisterMetrics();
         exec.shutdown();
         readerExec.shutdown();
         service.shutdownNow();
@@ -560,4 +477,214 @@ public class Scrubber {
                     + " cause any problems, but may result in some scary looking error messages.");
         }
     }
+
+    /**
+     * One run of the background scrub task. Reader threads take ranges of the scrub queue, and once none are left
+     * they split the busiest range that is still being read, so a skewed queue keeps every reader busy. Each batch
+     * read is grouped by table and handed to the scrub threads, so reading the next batch overlaps with scrubbing
+     * the previous ones; the number of batches in flight is bounded to keep memory in check.
+     */
+    private final class BackgroundScrubPass {
+        private final TransactionManager txManager;
+        private final long maxScrubTimestamp;
+        private final int readBatchSize;
+        private final Queue<ScrubQueueRange> unclaimedRanges;
+        private final Set<ScrubQueueRange> activeRanges = Sets.newConcurrentHashSet();
+        private final int maxBatchesInFlight = threadCount * MAX_SCRUB_BATCHES_IN_FLIGHT_PER_THREAD;
+        private final Semaphore batchesInFlight = new Semaphore(maxBatchesInFlight);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicLong totalCellsRead = new AtomicLong();
+
+        BackgroundScrubPass(TransactionManager txManager,
+                            long maxScrubTimestamp,
+                            int readBatchSize,
+                            List<ScrubQueueRange> ranges) {
+            this.txManager = txManager;
+            this.maxScrubTimestamp = maxScrubTimestamp;
+            this.readBatchSize = readBatchSize;
+            this.unclaimedRanges = new ConcurrentLinkedQueue<>(ranges);
+        }
+
+        long run() {
+            try {
+                List<Future<Void>> readerFutures = Lists.newArrayList();
+                for (int i = 0; i < readThreadCount; i++) {
+                    readerFutures.add(readerExec.submit(this::readRanges));
+                }
+                for (Future<Void> readerFuture : readerFutures) {
+                    Futures.getUnchecked(readerFuture);
+                }
+            } finally {
+                // Wait for the scrubs that are still in flight.
+                batchesInFlight.acquireUninterruptibly(maxBatchesInFlight);
+                batchesInFlight.release(maxBatchesInFlight);
+            }
+            if (failure.get() != null) {
+                throw Throwables.rewrapAndThrowUncheckedException("Failed to scrub cells", failure.get());
+            }
+            return totalCellsRead.get();
+        }
+
+        private Void readRanges() {
+            ScrubQueueRange range;
+            while (shouldContinue() && (range = claimRange()) != null) {
+                try {
+                    readRange(range);
+                } finally {
+                    activeRanges.remove(range);
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        private ScrubQueueRange claimRange() {
+            ScrubQueueRange range = unclaimedRanges.poll();
+            if (range == null) {
+                range = stealRange();
+            }
+            if (range != null) {
+                activeRanges.add(range);
+            }
+            return range;
+        }
+
+        @Nullable
+        private ScrubQueueRange stealRange() {
+            List<ScrubQueueRange> candidates = Lists.newArrayList(activeRanges);
+            candidates.sort(Comparator.comparingLong(ScrubQueueRange::cellsRead).reversed());
+            for (ScrubQueueRange candidate : candidates) {
+                ScrubQueueRange stolen = candidate.split();
+                if (stolen != null) {
+                    log.debug("Split {} off {} to scrub in parallel", stolen, candidate);
+                    return stolen;
+                }
+            }
+            return null;
+        }
+
+        private void readRange(ScrubQueueRange range) {
+            BatchingVisitable<SortedMap<Long, Multimap<TableReference, Cell>>> scrubQueue = scrubberStore
+                    .getBatchingVisitableScrubQueue(maxScrubTimestamp, range.start(), range.end());
+            scrubQueue.batchAccept(readBatchSize, batch -> {
+                // We may actually get more cells than the batch size. The batch size is used
+                // for pulling off the scrub queue, and a single entry in the scrub queue may
+                // match multiple tables. These will get broken down into smaller batches later
+                // on when we actually do deletes.
+                SortedMap<Long, Multimap<TableReference, Cell>> cells = range.claim(batch);
+                int numCellsRead = scrubSomeCells(cells);
+                long totalRead = totalCellsRead.addAndGet(numCellsRead);
+                log.debug("Scrub task read {} cells in a batch, total {} read so far.", numCellsRead, totalRead);
+                return !range.isDone() && shouldContinue();
+            });
+            range.finish();
+        }
+
+        private boolean shouldContinue() {
+            if (failure.get() != null) {
+                return false;
+            }
+            if (!isScrubEnabled.get()) {
+                log.debug("Stopping scrub for banned hours.");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Works out which of the given cells can be scrubbed and hands them to the scrub threads.
+         *
+         * @return number of cells read from _scrub table
+         */
+        private int scrubSomeCells(SortedMap<Long, Multimap<TableReference, Cell>> scrubTimestampToTableNameToCell) {
+            log.trace("Attempting to scrub cells: {}", scrubTimestampToTableNameToCell);
+
+            if (scrubTimestampToTableNameToCell.isEmpty()) {
+                return 0; // No cells left to scrub
+            }
+
+            int numCellsReadFromScrubTable = 0;
+            Map<TableReference, Multimap<Cell, Long>> failedWrites = Maps.newHashMap();
+            Map<TableReference, Multimap<Cell, Long>> cellsToScrub = Maps.newHashMap();
+            Map<Long, Long> commitTimestamps =
+                    getCommitTimestampsRollBackIfNecessary(scrubTimestampToTableNameToCell.keySet());
+
+            for (Map.Entry<Long, Multimap<TableReference, Cell>> entry : scrubTimestampToTableNameToCell.entrySet()) {
+                long scrubTimestamp = entry.getKey();
+                Multimap<TableReference, Cell> tableNameToCell = entry.getValue();
+
+                numCellsReadFromScrubTable += tableNameToCell.size();
+
+                // This is CRITICAL; don't scrub if the hard delete transaction didn't actually finish
+                // (we still remove it from the _scrub table with the call to markCellsAsScrubbed though),
+                // or else we could cause permanent data loss if the hard delete transaction failed after
+                // queuing cells to scrub but before successfully committing
+                long commitTimestamp = commitTimestamps.get(scrubTimestamp);
+                if (commitTimestamp == TransactionConstants.FAILED_COMMIT_TS) {
+                    addCells(failedWrites, tableNameToCell, scrubTimestamp);
+                } else if (commitTimestamp < maxScrubTimestamp) {
+                    addCells(cellsToScrub, tableNameToCell, scrubTimestamp);
+                }
+                // else {
+                //     We cannot scrub this yet because not all transactions can read this value.
+                // }
+            }
+
+            if (!failedWrites.isEmpty()) {
+                for (Entry<TableReference, Multimap<Cell, Long>> entry : failedWrites.entrySet()) {
+                    keyValueService.delete(entry.getKey(), entry.getValue());
+                }
+                scrubberStore.markCellsAsScrubbed(failedWrites, batchSizeSupplier.get());
+            }
+
+            TransactionType transactionType =
+                    aggressiveScrub ? TransactionType.AGGRESSIVE_HARD_DELETE : TransactionType.HARD_DELETE;
+            for (Entry<TableReference, Multimap<Cell, Long>> entry : cellsToScrub.entrySet()) {
+                TableReference tableRef = entry.getKey();
+                for (List<Entry<Cell, Long>> batch :
+                        Iterables.partition(entry.getValue().entries(), batchSizeSupplier.get())) {
+                    Multimap<Cell, Long> batchMultimap = ArrayListMultimap.create();
+                    for (Entry<Cell, Long> e : batch) {
+                        batchMultimap.put(e.getKey(), e.getValue());
+                    }
+                    submitScrub(() -> scrubCellsInTable(txManager, tableRef, batchMultimap, transactionType),
+                            batchMultimap.size());
+                }
+            }
+
+            cellsRead.mark(numCellsReadFromScrubTable);
+            queueLag.accumulateAndGet(maxScrubTimestamp - scrubTimestampToTableNameToCell.firstKey(), Math::max);
+            return numCellsReadFromScrubTable;
+        }
+
+        private void submitScrub(Runnable scrub, int numCells) {
+            batchesInFlight.acquireUninterruptibly();
+            try {
+                exec.execute(() -> {
+                    try {
+                        if (failure.get() == null) {
+                            scrub.run();
+                            cellsScrubbed.mark(numCells);
+                        }
+                    } catch (Throwable t) { // (authorized)
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        batchesInFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                batchesInFlight.release();
+                throw e;
+            }
+        }
+
+        private void addCells(Map<TableReference, Multimap<Cell, Long>> cellsByTable,
+                              Multimap<TableReference, Cell> tableNameToCell,
+                              long scrubTimestamp) {
+            for (Entry<TableReference, Cell> entry : tableNameToCell.entries()) {
+                cellsByTable.computeIfAbsent(entry.getKey(), tableRef -> ArrayListMultimap.create())
+                        .put(entry.getValue(), scrubTimestamp);
+            }
+        }
+    }
 }
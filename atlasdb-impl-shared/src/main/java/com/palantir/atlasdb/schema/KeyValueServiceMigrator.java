@@ -18,6 +18,7 @@ package com.palantir.atlasdb.schema;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +35,7 @@ import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.table.description.RowNamePartitioner;
 import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.atlasdb.transaction.api.TransactionManager;
+import com.palantir.atlasdb.transaction.service.TransactionServices;
 import com.palantir.common.base.Throwables;
 import com.palantir.common.concurrent.PTExecutors;
 import com.palantir.remoting3.tracing.Tracers;
@@ -58,6 +60,9 @@ public class KeyValueServiceMigrator {
 
     private final Map<TableReference, Integer> readBatchSizeOverrides;
 
+    // If present, tables are copied by the StreamingKvsMigrator instead of transactionally.
+    private final Optional<StreamingMigrationConfig> streamingConfig;
+
     public enum KvsMigrationMessageLevel {
         INFO,
         WARN,
@@ -83,6 +88,24 @@ public class KeyValueServiceMigrator {
                                    KvsMigrationMessageProcessor messageProcessor,
                                    TaskProgress taskProgress,
                                    Set<TableReference> unmigratableTables) {
+        this(checkpointNamespace, fromTransactionManager, toTransactionManager, fromKvs, toKvs,
+                migrationTimestampSupplier, threads, defaultBatchSize, readBatchSizeOverrides, messageProcessor,
+                taskProgress, unmigratableTables, Optional.empty());
+    }
+
+    public KeyValueServiceMigrator(Namespace checkpointNamespace,
+                                   TransactionManager fromTransactionManager,
+                                   TransactionManager toTransactionManager,
+                                   KeyValueService fromKvs,
+                                   KeyValueService toKvs,
+                                   Supplier<Long> migrationTimestampSupplier,
+                                   int threads,
+                                   int defaultBatchSize,
+                                   Map<TableReference, Integer> readBatchSizeOverrides,
+                                   KvsMigrationMessageProcessor messageProcessor,
+                                   TaskProgress taskProgress,
+                                   Set<TableReference> unmigratableTables,
+                                   Optional<StreamingMigrationConfig> streamingConfig) {
         this.checkpointTable = TableReference.create(checkpointNamespace, CHECKPOINT_TABLE_NAME);
         this.fromTransactionManager = fromTransactionManager;
         this.toTransactionManager = toTransactionManager;
@@ -95,6 +118,7 @@ public class KeyValueServiceMigrator {
         this.messageProcessor = messageProcessor;
         this.taskProgress = taskProgress;
         this.unmigratableTables = unmigratableTables;
+        this.streamingConfig = streamingConfig;
     }
 
     private void processMessage(String string, KvsMigrationMessageLevel level) {
@@ -179,6 +203,11 @@ public class KeyValueServiceMigrator {
         GeneralTaskCheckpointer checkpointer =
                 new GeneralTaskCheckpointer(checkpointTable, toKvs, txManager);
 
+        if (streamingConfig.isPresent()) {
+            streamTables(tables, checkpointer, streamingConfig.get());
+            return;
+        }
+
         ExecutorService executor = Tracers.wrap(PTExecutors.newFixedThreadPool(threads));
         try {
             migrateTables(
@@ -223,6 +252,34 @@ public class KeyValueServiceMigrator {
         }
     }
 
+    private void streamTables(Set<TableReference> tables,
+                              GeneralTaskCheckpointer checkpointer,
+                              StreamingMigrationConfig config) throws InterruptedException {
+        Map<TableReference, Integer> batchSizes = Maps.newHashMap();
+        for (TableReference table : tables) {
+            batchSizes.put(table, getBatchSize(table));
+        }
+        StreamingKvsMigrator migrator = new StreamingKvsMigrator(
+                fromKvs,
+                toKvs,
+                fromTransactionManager,
+                toTransactionManager,
+                TransactionServices.createTransactionService(fromKvs),
+                checkpointer,
+                migrationTimestampSupplier.get(),
+                threads,
+                batchSizes,
+                config,
+                messageProcessor);
+        try {
+            migrator.migrate(tables);
+            processMessage("Data migration complete.", KvsMigrationMessageLevel.INFO);
+        } catch (Throwable t) {
+            processMessage("Migration failed.", t, KvsMigrationMessageLevel.ERROR);
+            Throwables.throwUncheckedException(t);
+        }
+    }
+
     private List<RowNamePartitioner> getPartitioners(KeyValueService kvs, TableReference table) {
         try {
             byte[] metadata = kvs.getMetadataForTable(table);
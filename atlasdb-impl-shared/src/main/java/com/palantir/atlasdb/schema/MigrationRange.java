@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import java.math.BigInteger;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+
+/**
+ * A range of rows of one table that is being copied by the streaming migrator. The range only ever shrinks: its
+ * position moves forward as rows are copied, and its end moves backward when an idle thread steals the second half.
+ *
+ * Split points are picked with {@link RowKeySpace}, which is also used to extrapolate the number of bytes left to
+ * copy from the density observed so far.
+ */
+@ThreadSafe
+final class MigrationRange {
+    private final TableReference table;
+    private final long rangeId;
+    private final byte[] start;
+
+    @GuardedBy("this")
+    private byte[] position;
+    @GuardedBy("this")
+    private byte[] end;
+    @GuardedBy("this")
+    private long bytesCopied = 0;
+    @GuardedBy("this")
+    private boolean done = false;
+
+    /**
+     * @param end exclusive; the empty array means the end of the table.
+     */
+    MigrationRange(TableReference table, long rangeId, byte[] start, byte[] end) {
+        this.table = table;
+        this.rangeId = rangeId;
+        this.start = start;
+        this.position = start;
+        this.end = end;
+    }
+
+    static MigrationRange fromCheckpoint(TableReference table, long rangeId, byte[] checkpoint) {
+        byte[] position = EncodingUtils.decodeSizedBytes(checkpoint, 0);
+        byte[] end = EncodingUtils.decodeSizedBytes(checkpoint, EncodingUtils.sizeOfSizedBytes(position));
+        return new MigrationRange(table, rangeId, position, end);
+    }
+
+    static byte[] toCheckpoint(byte[] position, byte[] end) {
+        return EncodingUtils.add(EncodingUtils.encodeSizedBytes(position), EncodingUtils.encodeSizedBytes(end));
+    }
+
+    TableReference table() {
+        return table;
+    }
+
+    long rangeId() {
+        return rangeId;
+    }
+
+    synchronized byte[] position() {
+        return position;
+    }
+
+    synchronized byte[] end() {
+        return end;
+    }
+
+    synchronized boolean isDone() {
+        return done;
+    }
+
+    synchronized boolean isBeforeEnd(byte[] row) {
+        return end.length == 0 || UnsignedBytes.lexicographicalComparator().compare(row, end) < 0;
+    }
+
+    /**
+     * The value to checkpoint for this range: the empty array once it is done, and otherwise its current bounds.
+     */
+    synchronized byte[] checkpoint() {
+        return done ? PtBytes.EMPTY_BYTE_ARRAY : toCheckpoint(position, end);
+    }
+
+    /**
+     * Records that everything before nextRow has been copied, where a null nextRow means everything up to the end of
+     * the range. Returns false if the range is done.
+     */
+    synchronized boolean advance(@Nullable byte[] nextRow, long bytes) {
+        bytesCopied += bytes;
+        if (nextRow == null || !isBeforeEnd(nextRow)) {
+            done = true;
+            position = end;
+            return false;
+        }
+        position = nextRow;
+        return true;
+    }
+
+    /**
+     * Estimates the bytes left to copy from the bytes copied so far, assuming the rest of the range is as dense as
+     * the part already copied. Returns -1 if nothing has been copied yet.
+     */
+    synchronized long estimateRemainingBytes() {
+        if (done) {
+            return 0;
+        }
+        if (bytesCopied == 0) {
+            return -1;
+        }
+        int width = RowKeySpace.commonPrefixLength(start, end) + RowKeySpace.SIGNIFICANT_BYTES;
+        BigInteger copiedSpan = RowKeySpace.toNumber(position, width).subtract(RowKeySpace.toNumber(start, width));
+        BigInteger remainingSpan = RowKeySpace.upperBound(end, width)
+                .subtract(RowKeySpace.toNumber(position, width));
+        if (copiedSpan.signum() <= 0) {
+            // Everything copied so far shares its significant bytes, so there is no density to go by.
+            return bytesCopied;
+        }
+        BigInteger estimate = BigInteger.valueOf(bytesCopied).multiply(remainingSpan).divide(copiedSpan);
+        return estimate.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+    }
+
+    /**
+     * Picks the row halfway between the current position and the end of this range, or returns null if the range
+     * cannot be split. The split only takes effect once it is applied with {@link #applySplit}.
+     */
+    @Nullable
+    synchronized byte[] proposeSplit() {
+        if (done) {
+            return null;
+        }
+        return RowKeySpace.midpoint(position, end);
+    }
+
+    /**
+     * Shrinks this range to end at the given row, returning false if the range has already copied past it.
+     */
+    synchronized boolean applySplit(byte[] splitRow) {
+        if (done || !isBeforeEnd(splitRow)
+                || UnsignedBytes.lexicographicalComparator().compare(position, splitRow) >= 0) {
+            return false;
+        }
+        end = splitRow;
+        return true;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MigrationRange{table=" + table
+                + ", rangeId=" + rangeId
+                + ", position=" + PtBytes.encodeHexString(position)
+                + ", end=" + PtBytes.encodeHexString(end)
+                + ", done=" + done
+                + "}";
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Arithmetic on row keys treated as fractions of the key space: the first bytes after the prefix shared by both
+ * bounds of a range, read as a big-endian number. Used to pick split points for ranges that are scanned in parallel.
+ */
+public final class RowKeySpace {
+    static final int SIGNIFICANT_BYTES = 8;
+
+    private RowKeySpace() {
+        // utility
+    }
+
+    /**
+     * Returns a row strictly between lower and upperExclusive, where the empty array as upperExclusive means the end
+     * of the table, or null if there is none of a reasonable length.
+     */
+    @Nullable
+    public static byte[] midpoint(byte[] lower, byte[] upperExclusive) {
+        int width = commonPrefixLength(lower, upperExclusive) + SIGNIFICANT_BYTES;
+        BigInteger low = toNumber(lower, width);
+        BigInteger high = upperBound(upperExclusive, width);
+        BigInteger mid = low.add(high).shiftRight(1);
+        if (mid.compareTo(low) <= 0 || mid.compareTo(high) >= 0) {
+            return null;
+        }
+        return toBytes(mid, width);
+    }
+
+    static int commonPrefixLength(byte[] first, byte[] second) {
+        int length = Math.min(first.length, second.length);
+        for (int i = 0; i < length; i++) {
+            if (first[i] != second[i]) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    static BigInteger toNumber(byte[] row, int width) {
+        return new BigInteger(1, Arrays.copyOf(row, width));
+    }
+
+    static BigInteger upperBound(byte[] end, int width) {
+        return end.length == 0 ? BigInteger.ONE.shiftLeft(8 * width) : toNumber(end, width);
+    }
+
+    private static byte[] toBytes(BigInteger value, int width) {
+        byte[] bytes = value.toByteArray();
+        byte[] row = new byte[width];
+        int length = Math.min(bytes.length, width);
+        System.arraycopy(bytes, bytes.length - length, row, width - length, length);
+        return row;
+    }
+}
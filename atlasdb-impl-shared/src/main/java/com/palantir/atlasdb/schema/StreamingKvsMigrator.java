@@ -0,0 +1,580 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.RateLimiter;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.schema.KeyValueServiceMigrator.KvsMigrationMessageLevel;
+import com.palantir.atlasdb.transaction.api.TransactionManager;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.transaction.service.TransactionService;
+import com.palantir.common.base.ClosableIterator;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.concurrent.PTExecutors;
+import com.palantir.remoting3.tracing.Tracers;
+
+/**
+ * Copies tables by streaming pages from {@link KeyValueService#getRange} on the source straight into
+ * {@link KeyValueService#putWithTimestamps} on the target, at the migration timestamp.
+ *
+ * Rather than copying in transactions, the commit status of each page's values is resolved against the source
+ * transaction table in a single batch: values committed before the migration timestamp are copied as they are,
+ * and only rows whose latest value is uncommitted, aborted or committed later are read again through a read-only
+ * transaction, as the transactional migrator would.
+ *
+ * Each table starts as a fixed set of ranges. Threads that run out of ranges steal the second half of the range
+ * with the most bytes left to copy, as extrapolated from the density of what it has copied so far, so hot or
+ * skewed parts of the key space end up spread over all threads. Every range checkpoints its position every
+ * few MB through the {@link GeneralTaskCheckpointer}, and a split records both halves in one transaction, so
+ * a failed migration resumes from the last checkpoint of each range.
+ */
+final class StreamingKvsMigrator {
+    private static final String CHECKPOINT_PREFIX = "streaming.";
+    private static final int INITIAL_RANGES_PER_TABLE = 16;
+    private static final long STEAL_RETRY_MILLIS = 1000L;
+
+    private final KeyValueService fromKvs;
+    private final KeyValueService toKvs;
+    private final TransactionManager fromTransactionManager;
+    private final TransactionManager checkpointTransactionManager;
+    private final TransactionService fromTransactionService;
+    private final GeneralTaskCheckpointer checkpointer;
+    private final long migrationTimestamp;
+    private final int threads;
+    private final Map<TableReference, Integer> batchSizes;
+    private final StreamingMigrationConfig config;
+    private final KeyValueServiceMigrator.KvsMigrationMessageProcessor messageProcessor;
+    private final Optional<RateLimiter> rateLimiter;
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final Deque<MigrationRange> pendingRanges = new ArrayDeque<>();
+    @GuardedBy("lock")
+    private final Set<MigrationRange> activeRanges = Sets.newIdentityHashSet();
+    @GuardedBy("lock")
+    private final Set<MigrationRange> splittingRanges = Sets.newIdentityHashSet();
+    @GuardedBy("lock")
+    private Throwable failure = null;
+
+    private final Map<TableReference, AtomicLong> nextRangeIds = new ConcurrentHashMap<>();
+    private final AtomicLong rowsCopied = new AtomicLong();
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private final AtomicLong splits = new AtomicLong();
+
+    StreamingKvsMigrator(KeyValueService fromKvs,
+                         KeyValueService toKvs,
+                         TransactionManager fromTransactionManager,
+                         TransactionManager checkpointTransactionManager,
+                         TransactionService fromTransactionService,
+                         GeneralTaskCheckpointer checkpointer,
+                         long migrationTimestamp,
+                         int threads,
+                         Map<TableReference, Integer> batchSizes,
+                         StreamingMigrationConfig config,
+                         KeyValueServiceMigrator.KvsMigrationMessageProcessor messageProcessor) {
+        this.fromKvs = fromKvs;
+        this.toKvs = toKvs;
+        this.fromTransactionManager = fromTransactionManager;
+        this.checkpointTransactionManager = checkpointTransactionManager;
+        this.fromTransactionService = fromTransactionService;
+        this.checkpointer = checkpointer;
+        this.migrationTimestamp = migrationTimestamp;
+        this.threads = threads;
+        this.batchSizes = batchSizes;
+        this.config = config;
+        this.messageProcessor = messageProcessor;
+        this.rateLimiter = config.maxBytesPerSecond().map(RateLimiter::create);
+    }
+
+    void migrate(Collection<TableReference> tables) throws InterruptedException {
+        for (TableReference table : tables) {
+            List<MigrationRange> ranges = loadRanges(table);
+            synchronized (lock) {
+                pendingRanges.addAll(ranges);
+            }
+        }
+        processMessage("Streaming " + pendingRanges() + " ranges of " + tables.size() + " tables at migration"
+                + " timestamp " + migrationTimestamp + " with " + threads + " threads");
+
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService reporter = PTExecutors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(
+                new ProgressReporter(startNanos),
+                config.progressReportIntervalMillis(),
+                config.progressReportIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+        ExecutorService executor = Tracers.wrap(PTExecutors.newFixedThreadPool(threads));
+        try {
+            List<Future<?>> workers = Lists.newArrayListWithCapacity(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(this::runWorker));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw Throwables.rewrapAndThrowUncheckedException(e.getCause());
+        } finally {
+            reporter.shutdownNow();
+            executor.shutdownNow();
+        }
+        processMessage(String.format("Streamed %s rows (%s) in %s ranges, of which %s came from splits, at %s",
+                rowsCopied.get(),
+                formatBytes(bytesCopied.get()),
+                nextRangeIds.values().stream().mapToLong(AtomicLong::get).sum(),
+                splits.get(),
+                formatThroughput(bytesCopied.get(), System.nanoTime() - startNanos)));
+    }
+
+    /**
+     * Creates the initial ranges of the table unless the table's checkpoints already exist, and returns the
+     * ranges that have not been completed yet.
+     */
+    private List<MigrationRange> loadRanges(TableReference table) {
+        String taskId = getTaskId(table);
+        checkpointer.createCheckpoints(taskId, getInitialCheckpoints());
+        Map<Long, byte[]> checkpoints = checkpointTransactionManager.runTaskReadOnly(
+                tx -> checkpointer.getCheckpoints(taskId, tx));
+
+        List<MigrationRange> ranges = Lists.newArrayList();
+        long maxRangeId = -1;
+        for (Map.Entry<Long, byte[]> checkpoint : checkpoints.entrySet()) {
+            maxRangeId = Math.max(maxRangeId, checkpoint.getKey());
+            if (checkpoint.getValue() != null) {
+                ranges.add(MigrationRange.fromCheckpoint(table, checkpoint.getKey(), checkpoint.getValue()));
+            }
+        }
+        nextRangeIds.put(table, new AtomicLong(maxRangeId + 1));
+        return ranges;
+    }
+
+    /**
+     * Splits the key space evenly on the first byte of the row name.
+     */
+    private static Map<Long, byte[]> getInitialCheckpoints() {
+        ImmutableMap.Builder<Long, byte[]> checkpoints = ImmutableMap.builder();
+        int step = 256 / INITIAL_RANGES_PER_TABLE;
+        for (int i = 0; i < INITIAL_RANGES_PER_TABLE; i++) {
+            byte[] start = i == 0 ? PtBytes.EMPTY_BYTE_ARRAY : new byte[] {(byte) (i * step)};
+            byte[] end = i == INITIAL_RANGES_PER_TABLE - 1
+                    ? PtBytes.EMPTY_BYTE_ARRAY
+                    : new byte[] {(byte) ((i + 1) * step)};
+            checkpoints.put((long) i, MigrationRange.toCheckpoint(start, end));
+        }
+        return checkpoints.build();
+    }
+
+    private void runWorker() {
+        try {
+            for (MigrationRange range = nextRange(); range != null; range = nextRange()) {
+                try {
+                    copyRange(range);
+                } finally {
+                    finishRange(range);
+                }
+            }
+        } catch (Throwable t) {
+            synchronized (lock) {
+                if (failure == null) {
+                    failure = t;
+                }
+                lock.notifyAll();
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Returns a pending range, or else the second half of a range that is being copied, waiting for one to become
+     * splittable while other ranges are still being copied. Returns null once there is nothing left to copy.
+     */
+    @Nullable
+    private MigrationRange nextRange() {
+        while (true) {
+            Split split = null;
+            synchronized (lock) {
+                while (split == null) {
+                    if (failure != null) {
+                        return null;
+                    }
+                    MigrationRange range = pendingRanges.poll();
+                    if (range != null) {
+                        activeRanges.add(range);
+                        return range;
+                    }
+                    split = proposeSplit();
+                    if (split == null) {
+                        if (activeRanges.isEmpty() && splittingRanges.isEmpty()) {
+                            return null;
+                        }
+                        try {
+                            lock.wait(STEAL_RETRY_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw Throwables.rewrapAndThrowUncheckedException(e);
+                        }
+                    }
+                }
+                splittingRanges.add(split.victim);
+            }
+            try {
+                MigrationRange stolen = steal(split);
+                if (stolen != null) {
+                    return stolen;
+                }
+            } finally {
+                synchronized (lock) {
+                    splittingRanges.remove(split.victim);
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the active range with the most bytes left to copy that is not already being split, and the row to split
+     * it at.
+     */
+    @GuardedBy("lock")
+    @Nullable
+    private Split proposeSplit() {
+        MigrationRange victim = null;
+        long victimRemainingBytes = Math.max(config.minSplitBytes(), 1);
+        for (MigrationRange range : activeRanges) {
+            if (splittingRanges.contains(range)) {
+                continue;
+            }
+            long remainingBytes = range.estimateRemainingBytes();
+            if (remainingBytes >= victimRemainingBytes) {
+                victim = range;
+                victimRemainingBytes = remainingBytes;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        byte[] victimPosition = victim.position();
+        byte[] splitRow = victim.proposeSplit();
+        if (splitRow == null) {
+            return null;
+        }
+        MigrationRange stolen = new MigrationRange(
+                victim.table(), nextRangeIds.get(victim.table()).getAndIncrement(), splitRow, victim.end());
+        return new Split(victim, MigrationRange.toCheckpoint(victimPosition, splitRow), splitRow, stolen);
+    }
+
+    /**
+     * Records both halves of the split, then shrinks the victim and returns the stolen half, or returns null if the
+     * victim copied past the split row in the meantime. Only the last step holds the lock, so that other threads
+     * can pick up and finish ranges while the checkpoints are written.
+     */
+    @Nullable
+    private MigrationRange steal(Split split) {
+        MigrationRange victim = split.victim;
+        MigrationRange stolen = split.stolen;
+
+        // Record both halves before the victim learns of its new end, so that the victim can never checkpoint
+        // itself as done while the stolen half is not yet checkpointed.
+        checkpoint(victim.table(), ImmutableMap.of(
+                victim.rangeId(), split.victimCheckpoint,
+                stolen.rangeId(), stolen.checkpoint()));
+        synchronized (lock) {
+            if (failure != null) {
+                return null;
+            }
+            if (victim.applySplit(split.splitRow)) {
+                activeRanges.add(stolen);
+                splits.incrementAndGet();
+                return stolen;
+            }
+        }
+
+        // The victim still covers the stolen half, but the checkpoint above may have recorded it as ending at the
+        // split row, so record its actual bounds again before retiring the stolen range.
+        checkpoint(victim.table(), ImmutableMap.of(
+                victim.rangeId(), victim.checkpoint(),
+                stolen.rangeId(), PtBytes.EMPTY_BYTE_ARRAY));
+        return null;
+    }
+
+    private void finishRange(MigrationRange range) {
+        synchronized (lock) {
+            activeRanges.remove(range);
+            lock.notifyAll();
+        }
+    }
+
+    private void copyRange(MigrationRange range) {
+        TableReference table = range.table();
+        int batchSize = batchSizes.get(table);
+        if (!range.isBeforeEnd(range.position())) {
+            range.advance(null, 0);
+            checkpoint(range);
+            return;
+        }
+        RangeRequest request = RangeRequest.builder()
+                .startRowInclusive(range.position())
+                .endRowExclusive(range.end())
+                .batchHint(batchSize)
+                .build();
+        long bytesSinceCheckpoint = 0;
+        try (ClosableIterator<RowResult<Value>> rows = fromKvs.getRange(table, request, migrationTimestamp)) {
+            boolean hasMore = true;
+            while (hasMore) {
+                checkNotFailed();
+                List<RowResult<Value>> page = Lists.newArrayListWithCapacity(batchSize);
+                boolean reachedEnd = !rows.hasNext();
+                while (rows.hasNext() && page.size() < batchSize) {
+                    RowResult<Value> row = rows.next();
+                    if (!range.isBeforeEnd(row.getRowName())) {
+                        // The rest of the range was stolen by another thread.
+                        reachedEnd = true;
+                        break;
+                    }
+                    page.add(row);
+                }
+                reachedEnd |= !rows.hasNext();
+
+                long bytes = page.isEmpty() ? 0 : copyPage(table, page);
+                byte[] nextRow = reachedEnd
+                        ? null
+                        : RangeRequests.getNextStartRowUnlessTerminal(false, page.get(page.size() - 1).getRowName());
+                hasMore = range.advance(nextRow, bytes);
+
+                rowsCopied.addAndGet(page.size());
+                bytesCopied.addAndGet(bytes);
+                bytesSinceCheckpoint += bytes;
+                if (!hasMore || bytesSinceCheckpoint >= config.checkpointIntervalBytes()) {
+                    checkpoint(range);
+                    bytesSinceCheckpoint = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the page to the target and returns the number of bytes written.
+     */
+    private long copyPage(TableReference table, List<RowResult<Value>> page) {
+        Set<Long> startTimestamps = Sets.newHashSet();
+        for (RowResult<Value> row : page) {
+            for (Value value : row.getColumns().values()) {
+                if (value.getTimestamp() != Value.INVALID_VALUE_TIMESTAMP) {
+                    startTimestamps.add(value.getTimestamp());
+                }
+            }
+        }
+        Map<Long, Long> commitTimestamps = fromTransactionService.get(startTimestamps);
+
+        Multimap<Cell, Value> toWrite = ArrayListMultimap.create();
+        Set<byte[]> unresolvedRows = Sets.newTreeSet(UnsignedBytes.lexicographicalComparator());
+        for (RowResult<Value> row : page) {
+            if (isCommittedBeforeMigration(row, commitTimestamps)) {
+                for (Map.Entry<Cell, Value> cell : row.getCells()) {
+                    put(toWrite, cell.getKey(), cell.getValue().getContents());
+                }
+            } else {
+                unresolvedRows.add(row.getRowName());
+            }
+        }
+        if (!unresolvedRows.isEmpty()) {
+            Map<byte[], RowResult<byte[]>> rows = fromTransactionManager.runTaskReadOnly(
+                    tx -> tx.getRows(table, unresolvedRows, ColumnSelection.all()));
+            for (RowResult<byte[]> row : rows.values()) {
+                for (Map.Entry<Cell, byte[]> cell : row.getCells()) {
+                    put(toWrite, cell.getKey(), cell.getValue());
+                }
+            }
+        }
+        if (toWrite.isEmpty()) {
+            return 0;
+        }
+
+        long bytes = 0;
+        for (Map.Entry<Cell, Value> entry : toWrite.entries()) {
+            Cell cell = entry.getKey();
+            bytes += cell.getRowName().length + cell.getColumnName().length + entry.getValue().getContents().length;
+        }
+        if (rateLimiter.isPresent()) {
+            rateLimiter.get().acquire((int) Math.min(bytes, Integer.MAX_VALUE));
+        }
+        write(table, toWrite);
+        return bytes;
+    }
+
+    /**
+     * Whether the latest value of every cell of the row was committed before the migration timestamp, so that the
+     * values read are exactly what a transaction at the migration timestamp would see. Sweep sentinels hide all
+     * older values and count as committed deletes.
+     */
+    private boolean isCommittedBeforeMigration(RowResult<Value> row, Map<Long, Long> commitTimestamps) {
+        for (Value value : row.getColumns().values()) {
+            if (value.getTimestamp() == Value.INVALID_VALUE_TIMESTAMP) {
+                continue;
+            }
+            Long commitTimestamp = commitTimestamps.get(value.getTimestamp());
+            if (commitTimestamp == null
+                    || commitTimestamp == TransactionConstants.FAILED_COMMIT_TS
+                    || commitTimestamp >= migrationTimestamp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(Multimap<Cell, Value> toWrite, Cell cell, byte[] contents) {
+        // Empty values are deletes, which there is no need to copy to the freshly created target table.
+        if (contents.length > 0) {
+            toWrite.put(cell, Value.create(contents, migrationTimestamp));
+        }
+    }
+
+    private void write(TableReference table, Multimap<Cell, Value> toWrite) {
+        try {
+            toKvs.putWithTimestamps(table, toWrite);
+        } catch (KeyAlreadyExistsException e) {
+            // A retried page can meet its own earlier write with different contents if a row was re-read.
+            toKvs.delete(table, Multimaps.transformValues(toWrite, Value::getTimestamp));
+            toKvs.putWithTimestamps(table, toWrite);
+        }
+    }
+
+    private void checkpoint(MigrationRange range) {
+        checkpoint(range.table(), ImmutableMap.of(range.rangeId(), range.checkpoint()));
+    }
+
+    private void checkpoint(TableReference table, Map<Long, byte[]> checkpoints) {
+        String taskId = getTaskId(table);
+        checkpointTransactionManager.runTaskWithRetry(tx -> {
+            checkpoints.forEach((rangeId, checkpoint) -> checkpointer.checkpoint(taskId, rangeId, checkpoint, tx));
+            return null;
+        });
+    }
+
+    private void checkNotFailed() {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new IllegalStateException("Stopping because another range failed to migrate", failure);
+            }
+        }
+    }
+
+    private int pendingRanges() {
+        synchronized (lock) {
+            return pendingRanges.size();
+        }
+    }
+
+    private int activeRanges() {
+        synchronized (lock) {
+            return activeRanges.size();
+        }
+    }
+
+    private static String getTaskId(TableReference table) {
+        return CHECKPOINT_PREFIX + table.getQualifiedName();
+    }
+
+    private void processMessage(String message) {
+        KeyValueServiceMigrators.processMessage(messageProcessor, message, KvsMigrationMessageLevel.INFO);
+    }
+
+    private static String formatBytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String formatThroughput(long bytes, long nanos) {
+        double seconds = Math.max(nanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        return String.format("%.2f MB/s", bytes / (1024.0 * 1024.0) / seconds);
+    }
+
+    private static final class Split {
+        private final MigrationRange victim;
+        private final byte[] victimCheckpoint;
+        private final byte[] splitRow;
+        private final MigrationRange stolen;
+
+        private Split(MigrationRange victim, byte[] victimCheckpoint, byte[] splitRow, MigrationRange stolen) {
+            this.victim = victim;
+            this.victimCheckpoint = victimCheckpoint;
+            this.splitRow = splitRow;
+            this.stolen = stolen;
+        }
+    }
+
+    private final class ProgressReporter implements Runnable {
+        private final long startNanos;
+        private long lastNanos;
+        private long lastBytes = 0;
+
+        private ProgressReporter(long startNanos) {
+            this.startNanos = startNanos;
+            this.lastNanos = startNanos;
+        }
+
+        @Override
+        public void run() {
+            long nowNanos = System.nanoTime();
+            long bytes = bytesCopied.get();
+            processMessage(String.format("Streamed %s rows (%s) in %d s: %s now, %s overall; %s ranges in progress,"
+                            + " %s pending, %s splits",
+                    rowsCopied.get(),
+                    formatBytes(bytes),
+                    TimeUnit.NANOSECONDS.toSeconds(nowNanos - startNanos),
+                    formatThroughput(bytes - lastBytes, nowNanos - lastNanos),
+                    formatThroughput(bytes, nowNanos - startNanos),
+                    activeRanges(),
+                    pendingRanges(),
+                    splits.get()));
+            lastNanos = nowNanos;
+            lastBytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Settings for the streaming mode of the {@link KeyValueServiceMigrator}.
+ */
+@Value.Immutable
+public abstract class StreamingMigrationConfig {
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_MIN_SPLIT_BYTES = 16L * 1024 * 1024;
+    public static final long DEFAULT_PROGRESS_REPORT_INTERVAL_MILLIS = 10_000L;
+
+    /**
+     * Number of bytes copied from a range between two of its checkpoints.
+     */
+    @Value.Default
+    public long checkpointIntervalBytes() {
+        return DEFAULT_CHECKPOINT_INTERVAL_BYTES;
+    }
+
+    /**
+     * Upper bound on the number of bytes written to the target per second, across all threads.
+     */
+    public abstract Optional<Long> maxBytesPerSecond();
+
+    /**
+     * A range is only split for an idle thread if it is estimated to have at least this many bytes left to copy.
+     */
+    @Value.Default
+    public long minSplitBytes() {
+        return DEFAULT_MIN_SPLIT_BYTES;
+    }
+
+    @Value.Default
+    public long progressReportIntervalMillis() {
+        return DEFAULT_PROGRESS_REPORT_INTERVAL_MILLIS;
+    }
+
+    @Value.Check
+    protected void check() {
+        Preconditions.checkArgument(checkpointIntervalBytes() > 0,
+                "checkpointIntervalBytes must be positive, but was %s", checkpointIntervalBytes());
+        Preconditions.checkArgument(!maxBytesPerSecond().isPresent() || maxBytesPerSecond().get() > 0,
+                "maxBytesPerSecond must be positive, but was %s", maxBytesPerSecond().orElse(null));
+        Preconditions.checkArgument(minSplitBytes() >= 0,
+                "minSplitBytes must not be negative, but was %s", minSplitBytes());
+        Preconditions.checkArgument(progressReportIntervalMillis() > 0,
+                "progressReportIntervalMillis must be positive, but was %s", progressReportIntervalMillis());
+    }
+}
@@ -16,9 +16,12 @@
 package com.palantir.atlasdb.sweep;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +30,8 @@ import com.codahale.metrics.SlidingTimeWindowReservoir;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.palantir.atlasdb.keyvalue.api.InsufficientConsistencyException;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.sweep.priority.NextTableToSweepProvider;
@@ -39,6 +44,12 @@ import com.palantir.common.base.Throwables;
 import com.palantir.lock.LockService;
 import com.palantir.logsafe.SafeArg;
 
+/**
+ * Runs background sweep on one or more threads. Each thread owns a slot: it holds that slot's sweep lock and
+ * keeps its progress in that slot's row of the sweep progress table, so several nodes can share the work without
+ * two threads ever running in the same slot. Threads in different slots sweep different tables; each table is
+ * additionally guarded by its own lock while a batch of it is being swept.
+ */
 public final class BackgroundSweeperImpl implements BackgroundSweeper {
     private static final Logger log = LoggerFactory.getLogger(BackgroundSweeperImpl.class);
 
@@ -49,10 +60,11 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
     private final Supplier<Long> sweepPauseMillis;
     private final PersistentLockManager persistentLockManager;
     private final SpecificTableSweeper specificTableSweeper;
+    private final int numThreads;
 
     private final SweepOutcomeMetrics sweepOutcomeMetrics = new SweepOutcomeMetrics();
 
-    private Thread daemon;
+    private List<Thread> daemons;
 
     @VisibleForTesting
     BackgroundSweeperImpl(
@@ -63,6 +75,22 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
             Supplier<Long> sweepPauseMillis,
             PersistentLockManager persistentLockManager,
             SpecificTableSweeper specificTableSweeper) {
+        this(lockService, nextTableToSweepProvider, sweepBatchConfigSource, isSweepEnabled, sweepPauseMillis,
+                persistentLockManager, specificTableSweeper, 1);
+    }
+
+    @VisibleForTesting
+    BackgroundSweeperImpl(
+            LockService lockService,
+            NextTableToSweepProvider nextTableToSweepProvider,
+            AdjustableSweepBatchConfigSource sweepBatchConfigSource,
+            Supplier<Boolean> isSweepEnabled,
+            Supplier<Long> sweepPauseMillis,
+            PersistentLockManager persistentLockManager,
+            SpecificTableSweeper specificTableSweeper,
+            int numThreads) {
+        Preconditions.checkArgument(numThreads > 0, "Number of sweep threads must be positive, but was %s",
+                numThreads);
         this.lockService = lockService;
         this.nextTableToSweepProvider = nextTableToSweepProvider;
         this.sweepBatchConfigSource = sweepBatchConfigSource;
@@ -70,6 +98,7 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
         this.sweepPauseMillis = sweepPauseMillis;
         this.persistentLockManager = persistentLockManager;
         this.specificTableSweeper = specificTableSweeper;
+        this.numThreads = numThreads;
     }
 
     public static BackgroundSweeperImpl create(
@@ -78,6 +107,17 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
             Supplier<Long> sweepPauseMillis,
             PersistentLockManager persistentLockManager,
             SpecificTableSweeper specificTableSweeper) {
+        return create(sweepBatchConfigSource, isSweepEnabled, sweepPauseMillis, persistentLockManager,
+                specificTableSweeper, 1);
+    }
+
+    public static BackgroundSweeperImpl create(
+            AdjustableSweepBatchConfigSource sweepBatchConfigSource,
+            Supplier<Boolean> isSweepEnabled,
+            Supplier<Long> sweepPauseMillis,
+            PersistentLockManager persistentLockManager,
+            SpecificTableSweeper specificTableSweeper,
+            int numThreads) {
         NextTableToSweepProvider nextTableToSweepProvider = new NextTableToSweepProviderImpl(
                 specificTableSweeper.getKvs(), specificTableSweeper.getSweepPriorityStore());
         return new BackgroundSweeperImpl(
@@ -87,16 +127,22 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
                 isSweepEnabled,
                 sweepPauseMillis,
                 persistentLockManager,
-                specificTableSweeper);
+                specificTableSweeper,
+                numThreads);
     }
 
     @Override
     public synchronized void runInBackground() {
-        Preconditions.checkState(daemon == null);
-        daemon = new Thread(this);
-        daemon.setDaemon(true);
-        daemon.setName("BackgroundSweeper");
-        daemon.start();
+        Preconditions.checkState(daemons == null);
+        daemons = Lists.newArrayListWithCapacity(numThreads);
+        for (int slot = 0; slot < numThreads; slot++) {
+            int threadSlot = slot;
+            Thread daemon = new Thread(() -> run(threadSlot));
+            daemon.setDaemon(true);
+            daemon.setName(slot == 0 ? "BackgroundSweeper" : "BackgroundSweeper-" + slot);
+            daemon.start();
+            daemons.add(daemon);
+        }
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.info("Shutting down persistent lock manager");
             try {
@@ -115,14 +161,20 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
 
     @Override
     public void run() {
-        try (SweepLocks locks = createSweepLocks()) {
+        run(0);
+    }
+
+    private void run(int slot) {
+        try (SweepLocks locks = createSweepLocks(slot)) {
             // Wait a while before starting so short lived clis don't try to sweep.
             Thread.sleep(getBackoffTimeWhenSweepHasNotRun());
-            log.info("Starting background sweeper.");
+            log.info("Starting background sweeper in slot {}.", SafeArg.of("slot", slot));
             while (true) {
-                SweepOutcome outcome = checkConfigAndRunSweep(locks);
+                SweepOutcome outcome = checkConfigAndRunSweep(slot, locks);
 
-                log.info("Sweep iteration finished with outcome: {}", SafeArg.of("sweepOutcome", outcome));
+                log.info("Sweep iteration in slot {} finished with outcome: {}",
+                        SafeArg.of("slot", slot),
+                        SafeArg.of("sweepOutcome", outcome));
 
                 updateBatchSize(outcome);
                 updateMetrics(outcome);
@@ -157,19 +209,23 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
 
     @VisibleForTesting
     SweepOutcome checkConfigAndRunSweep(SweepLocks locks) throws InterruptedException {
+        return checkConfigAndRunSweep(0, locks);
+    }
+
+    private SweepOutcome checkConfigAndRunSweep(int slot, SweepLocks locks) throws InterruptedException {
         if (isSweepEnabled.get()) {
-            return grabLocksAndRun(locks);
+            return grabLocksAndRun(slot, locks);
         }
 
         log.debug("Skipping sweep because it is currently disabled.");
         return SweepOutcome.DISABLED;
     }
 
-    private SweepOutcome grabLocksAndRun(SweepLocks locks) throws InterruptedException {
+    private SweepOutcome grabLocksAndRun(int slot, SweepLocks locks) throws InterruptedException {
         try {
             locks.lockOrRefresh();
             if (locks.haveLocks()) {
-                return runOnce();
+                return runOnce(slot);
             } else {
                 log.debug("Skipping sweep because sweep is running elsewhere.");
                 return SweepOutcome.UNABLE_TO_ACQUIRE_LOCKS;
@@ -188,16 +244,36 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
 
     @VisibleForTesting
     SweepOutcome runOnce() {
-        Optional<TableToSweep> tableToSweep = getTableToSweep();
+        return runOnce(0);
+    }
+
+    @VisibleForTesting
+    SweepOutcome runOnce(int slot) {
+        Optional<TableToSweep> tableToSweep = getTableToSweep(slot);
         if (!tableToSweep.isPresent()) {
             // Don't change this log statement. It's parsed by test automation code.
             log.debug("Skipping sweep because no table has enough new writes to be worth sweeping at the moment.");
             return SweepOutcome.NOTHING_TO_SWEEP;
         }
 
+        try (SweepLocks tableLocks = SweepLocks.forTable(lockService, tableToSweep.get().getTableRef())) {
+            tableLocks.lockOrRefresh();
+            if (!tableLocks.haveLocks() || isStartedInAnotherSlot(tableToSweep.get())) {
+                log.debug("Skipping sweep because the chosen table is being swept by another thread.");
+                return SweepOutcome.UNABLE_TO_ACQUIRE_LOCKS;
+            }
+            return sweepTable(tableToSweep.get());
+        } catch (InterruptedException e) {
+            // Leave the interrupt for the sweep loop, which will shut down when it next sleeps.
+            Thread.currentThread().interrupt();
+            return SweepOutcome.UNABLE_TO_ACQUIRE_LOCKS;
+        }
+    }
+
+    private SweepOutcome sweepTable(TableToSweep tableToSweep) {
         SweepBatchConfig batchConfig = sweepBatchConfigSource.getAdjustedSweepConfig();
         try {
-            specificTableSweeper.runOnceAndSaveResults(tableToSweep.get(), batchConfig);
+            specificTableSweeper.runOnceAndSaveResults(tableToSweep, batchConfig);
             return SweepOutcome.SUCCESS;
         } catch (InsufficientConsistencyException e) {
             log.warn("Could not sweep because not all nodes of the database are online.", e);
@@ -205,26 +281,28 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
         } catch (RuntimeException e) {
             specificTableSweeper.getSweepMetrics().sweepError();
 
-            return determineCauseOfFailure(e, tableToSweep.get());
+            return determineCauseOfFailure(e, tableToSweep);
         }
     }
 
     // there's a bug in older jdk8s around type inference here, don't make the same mistake two of us made
     // and try to lambda refactor this unless you live far enough in the future that this isn't an issue
-    private Optional<TableToSweep> getTableToSweep() {
+    private Optional<TableToSweep> getTableToSweep(int slot) {
         return specificTableSweeper.getTxManager().runTaskWithRetry(
                 new TransactionTask<Optional<TableToSweep>, RuntimeException>() {
                     @Override
                     public Optional<TableToSweep> execute(Transaction tx) {
                         Optional<SweepProgress> progress = specificTableSweeper.getSweepProgressStore().loadProgress(
-                                tx);
+                                tx, slot);
                         if (progress.isPresent()) {
-                            return Optional.of(new TableToSweep(progress.get().tableRef(), progress));
+                            return Optional.of(new TableToSweep(slot, progress.get().tableRef(), progress));
                         } else {
                             Optional<TableReference> nextTable = nextTableToSweepProvider.chooseNextTableToSweep(
-                                    tx, specificTableSweeper.getSweepRunner().getConservativeSweepTimestamp());
+                                    tx,
+                                    specificTableSweeper.getSweepRunner().getConservativeSweepTimestamp(),
+                                    getTablesInProgressInOtherSlots(tx, slot));
                             if (nextTable.isPresent()) {
-                                return Optional.of(new TableToSweep(nextTable.get(), Optional.empty()));
+                                return Optional.of(new TableToSweep(slot, nextTable.get(), Optional.empty()));
                             } else {
                                 return Optional.empty();
                             }
@@ -233,12 +311,43 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
                 });
     }
 
+    /**
+     * A thread that chose a table before another thread saved its first progress for that table may only find out
+     * once it holds the table lock, so a fresh start is re-checked against the other slots before sweeping.
+     */
+    private boolean isStartedInAnotherSlot(TableToSweep tableToSweep) {
+        if (numThreads == 1 || tableToSweep.hasPreviousProgress()) {
+            return false;
+        }
+        return specificTableSweeper.getTxManager().runTaskReadOnly(
+                new TransactionTask<Boolean, RuntimeException>() {
+                    @Override
+                    public Boolean execute(Transaction tx) {
+                        return getTablesInProgressInOtherSlots(tx, tableToSweep.getSlot())
+                                .contains(tableToSweep.getTableRef());
+                    }
+                });
+    }
+
+    private Set<TableReference> getTablesInProgressInOtherSlots(Transaction tx, int slot) {
+        if (numThreads == 1) {
+            return ImmutableSet.of();
+        }
+        // Progress left behind by slots beyond the configured number of threads is ignored; those tables will be
+        // picked up afresh, and the table locks still keep two threads from sweeping one table at once.
+        Map<Integer, SweepProgress> progressBySlot = specificTableSweeper.getSweepProgressStore().loadAllProgress(tx);
+        return progressBySlot.entrySet().stream()
+                .filter(entry -> entry.getKey() != slot && entry.getKey() < numThreads)
+                .map(entry -> entry.getValue().tableRef())
+                .collect(Collectors.toSet());
+    }
+
     private SweepOutcome determineCauseOfFailure(Exception originalException, TableToSweep tableToSweep) {
         try {
             Set<TableReference> tables = specificTableSweeper.getKvs().getAllTableNames();
 
             if (!tables.contains(tableToSweep.getTableRef())) {
-                clearSweepProgress();
+                clearSweepProgress(tableToSweep.getSlot());
                 log.info("The table being swept by the background sweeper was dropped, moving on...");
                 return SweepOutcome.TABLE_DROPPED_WHILE_SWEEPING;
             }
@@ -254,25 +363,31 @@ public final class BackgroundSweeperImpl implements BackgroundSweeper {
         }
     }
 
-    private void clearSweepProgress() {
-        specificTableSweeper.getSweepProgressStore().clearProgress();
+    private void clearSweepProgress(int slot) {
+        specificTableSweeper.getSweepProgressStore().clearProgress(slot);
     }
 
     @VisibleForTesting
     SweepLocks createSweepLocks() {
-        return new SweepLocks(lockService);
+        return createSweepLocks(0);
+    }
+
+    private SweepLocks createSweepLocks(int slot) {
+        return SweepLocks.forSlot(lockService, slot);
     }
 
     @Override
     public synchronized void shutdown() {
-        if (daemon == null) {
+        if (daemons == null) {
             return;
         }
         log.info("Signalling background sweeper to shut down.");
-        daemon.interrupt();
+        daemons.forEach(Thread::interrupt);
         try {
-            daemon.join();
-            daemon = null;
+            for (Thread daemon : daemons) {
+                daemon.join();
+            }
+            daemons = null;
         } catch (InterruptedException e) {
             throw Throwables.rewrapAndThrowUncheckedException(e);
         }
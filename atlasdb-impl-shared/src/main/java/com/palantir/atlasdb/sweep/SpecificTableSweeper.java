@@ -118,6 +118,8 @@ public class SpecificTableSweeper {
         byte[] startRow = tableToSweep.getStartRow();
 
         SweepResults results = runOneIteration(tableRef, startRow, batchConfig);
+        sweepMetrics.sweptBatchInSlot(
+                tableToSweep.getSlot(), results.getCellTsPairsExamined(), results.getStaleValuesDeleted());
         processSweepResults(tableToSweep, results);
     }
 
@@ -222,7 +224,7 @@ public class SpecificTableSweeper {
                     .startRow(results.getNextStartRow().get())
                     .minimumSweptTimestamp(results.getSweptTimestamp())
                     .build();
-            sweepProgressStore.saveProgress(tx, newProgress);
+            sweepProgressStore.saveProgress(tx, tableToSweep.getSlot(), newProgress);
             return null;
         });
     }
@@ -234,7 +236,7 @@ public class SpecificTableSweeper {
                 LoggingArgs.tableRef("tableRef", tableToSweep.getTableRef()),
                 SafeArg.of("cellTs pairs examined", cumulativeResults.getCellTsPairsExamined()),
                 SafeArg.of("cellTs pairs deleted", cumulativeResults.getStaleValuesDeleted()));
-        sweepProgressStore.clearProgress();
+        sweepProgressStore.clearProgress(tableToSweep.getSlot());
     }
 
     private void performInternalCompactionIfNecessary(TableReference tableRef, SweepResults results) {
@@ -19,6 +19,7 @@ import java.util.Set;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.LockMode;
@@ -28,12 +29,36 @@ import com.palantir.lock.LockService;
 import com.palantir.lock.StringLockDescriptor;
 
 class SweepLocks implements AutoCloseable {
+    private static final String SWEEP_LOCK_NAME = "atlas sweep";
+
     private final LockService lockService;
+    private final String lockName;
 
     private LockRefreshToken token = null;
 
     SweepLocks(LockService lockService) {
+        this(lockService, SWEEP_LOCK_NAME);
+    }
+
+    private SweepLocks(LockService lockService, String lockName) {
         this.lockService = lockService;
+        this.lockName = lockName;
+    }
+
+    /**
+     * The lock held by the background sweeper thread running in the given slot. Slot 0 uses the same lock as
+     * single-threaded sweepers, so older nodes and slot 0 of newer nodes never sweep at the same time.
+     */
+    static SweepLocks forSlot(LockService lockService, int slot) {
+        return slot == 0 ? new SweepLocks(lockService) : new SweepLocks(lockService, SWEEP_LOCK_NAME + " " + slot);
+    }
+
+    /**
+     * The lock held while sweeping the given table, so that no two sweep threads anywhere in the cluster sweep
+     * the same table at once.
+     */
+    static SweepLocks forTable(LockService lockService, TableReference tableRef) {
+        return new SweepLocks(lockService, SWEEP_LOCK_NAME + " table " + tableRef.getQualifiedName());
     }
 
     void lockOrRefresh() throws InterruptedException {
@@ -43,7 +68,7 @@ class SweepLocks implements AutoCloseable {
                 token = null;
             }
         } else {
-            LockDescriptor lock = StringLockDescriptor.of("atlas sweep");
+            LockDescriptor lock = StringLockDescriptor.of(lockName);
             LockRequest request = LockRequest.builder(
                     ImmutableSortedMap.of(lock, LockMode.WRITE)).doNotBlock().build();
             token = lockService.lock(LockClient.ANONYMOUS.getClientId(), request);
@@ -58,6 +83,7 @@ class SweepLocks implements AutoCloseable {
     public void close() {
         if (token != null) {
             lockService.unlock(token);
+            token = null;
         }
     }
 }
@@ -15,8 +15,11 @@
  */
 package com.palantir.atlasdb.sweep;
 
+import java.util.concurrent.ConcurrentMap;
+
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.util.MetricsManager;
 
 @SuppressWarnings("checkstyle:FinalClass")
@@ -32,6 +35,8 @@ public class SweepMetrics {
     private final MeterMetric cellsDeletedMeter = new MeterMetric("cellsDeleted");
     private final MeterMetric sweepErrorMeter = new MeterMetric("sweepError");
 
+    private final ConcurrentMap<Integer, SlotMetrics> slotMetrics = Maps.newConcurrentMap();
+
     private class TableSpecificHistogramMetric {
         private final String name;
 
@@ -52,7 +57,11 @@ public class SweepMetrics {
         private final Meter meter;
 
         MeterMetric(String name) {
-            this.meter = metricsManager.registerMeter(SweepMetrics.class, null, name);
+            this(null, name);
+        }
+
+        MeterMetric(String prefix, String name) {
+            this.meter = metricsManager.registerMeter(SweepMetrics.class, prefix, name);
         }
 
         void update(long value) {
@@ -60,6 +69,27 @@ public class SweepMetrics {
         }
     }
 
+    /**
+     * Throughput of the background sweep thread running in a given slot, so that an uneven split of work
+     * between concurrent sweep threads is visible.
+     */
+    private class SlotMetrics {
+        private final MeterMetric cellsSwept;
+        private final MeterMetric cellsDeleted;
+
+        SlotMetrics(int slot) {
+            String prefix = "slot" + slot;
+            this.cellsSwept = new MeterMetric(prefix, "cellsSwept");
+            this.cellsDeleted = new MeterMetric(prefix, "cellsDeleted");
+        }
+    }
+
+    void sweptBatchInSlot(int slot, long numExamined, long numDeleted) {
+        SlotMetrics metrics = slotMetrics.computeIfAbsent(slot, SlotMetrics::new);
+        metrics.cellsSwept.update(numExamined);
+        metrics.cellsDeleted.update(numDeleted);
+    }
+
     void examinedCells(long numExamined) {
         cellsSweptHistogram.update(numExamined);
         cellsSweptMeter.update(numExamined);
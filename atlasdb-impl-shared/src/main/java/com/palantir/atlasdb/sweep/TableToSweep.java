@@ -23,14 +23,24 @@ import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.sweep.progress.SweepProgress;
 
 public final class TableToSweep {
+    private final int slot;
     private final TableReference tableRef;
     private final Optional<SweepProgress> progress;
 
     TableToSweep(TableReference tableRef, Optional<SweepProgress> progress) {
+        this(0, tableRef, progress);
+    }
+
+    TableToSweep(int slot, TableReference tableRef, Optional<SweepProgress> progress) {
+        this.slot = slot;
         this.tableRef = tableRef;
         this.progress = progress;
     }
 
+    int getSlot() {
+        return slot;
+    }
+
     TableReference getTableRef() {
         return tableRef;
     }
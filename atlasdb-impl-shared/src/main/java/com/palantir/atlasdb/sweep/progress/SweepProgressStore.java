@@ -15,10 +15,13 @@
  */
 package com.palantir.atlasdb.sweep.progress;
 
+import java.util.Map;
 import java.util.Optional;
 
+import com.google.common.collect.Maps;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RangeRequests;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.schema.generated.SweepProgressTable;
 import com.palantir.atlasdb.schema.generated.SweepProgressTable.SweepProgressRow;
@@ -37,15 +40,39 @@ public class SweepProgressStore {
     }
 
     public Optional<SweepProgress> loadProgress(Transaction tx)  {
+        return loadProgress(tx, 0);
+    }
+
+    /**
+     * Loads the progress of the background sweeper thread running in the given slot. Each concurrent sweep
+     * thread owns one slot, and hence one row of the sweep progress table.
+     */
+    public Optional<SweepProgress> loadProgress(Transaction tx, int slot) {
         SweepProgressTable progressTable = tableFactory.getSweepProgressTable(tx);
         Optional<SweepProgressRowResult> result = Optional.ofNullable(
-                progressTable.getRow(SweepProgressRow.of(0)).orElse(null));
+                progressTable.getRow(SweepProgressRow.of(slot)).orElse(null));
         return result.map(SweepProgressStore::hydrateProgress);
     }
 
+    /**
+     * Loads the progress of every slot that currently has a table partially swept.
+     */
+    public Map<Integer, SweepProgress> loadAllProgress(Transaction tx) {
+        SweepProgressTable progressTable = tableFactory.getSweepProgressTable(tx);
+        Map<Integer, SweepProgress> progressBySlot = Maps.newHashMap();
+        for (SweepProgressRowResult result : progressTable.getAllRowsUnordered().immutableCopy()) {
+            progressBySlot.put((int) result.getRowName().getDummy(), hydrateProgress(result));
+        }
+        return progressBySlot;
+    }
+
     public void saveProgress(Transaction tx, SweepProgress progress) {
+        saveProgress(tx, 0, progress);
+    }
+
+    public void saveProgress(Transaction tx, int slot, SweepProgress progress) {
         SweepProgressTable progressTable = tableFactory.getSweepProgressTable(tx);
-        SweepProgressRow row = SweepProgressRow.of(0);
+        SweepProgressRow row = SweepProgressRow.of(slot);
         progressTable.putFullTableName(row, progress.tableRef().getQualifiedName());
         progressTable.putStartRow(row, progress.startRow());
         progressTable.putCellsDeleted(row, progress.staleValuesDeleted());
@@ -64,6 +91,17 @@ public class SweepProgressStore {
         kvs.deleteRange(tableFactory.getSweepProgressTable(null).getTableRef(), RangeRequest.all());
     }
 
+    /**
+     * Remove the progress of a single slot, leaving other sweep threads' progress untouched.
+     */
+    public void clearProgress(int slot) {
+        byte[] row = SweepProgressRow.of(slot).persistToBytes();
+        kvs.deleteRange(tableFactory.getSweepProgressTable(null).getTableRef(), RangeRequest.builder()
+                .startRowInclusive(row)
+                .endRowExclusive(RangeRequests.nextLexicographicName(row))
+                .build());
+    }
+
     private static SweepProgress hydrateProgress(SweepProgressTable.SweepProgressRowResult rr) {
         return ImmutableSweepProgress.builder()
                 .tableRef(TableReference.createUnsafe(rr.getFullTableName()))
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.palantir.atlasdb.transaction.service.RequestBatcher;
+import com.palantir.atlasdb.transaction.service.RequestBatcher.PendingRequest;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.TimelockService;
+
+/**
+ * Coalesces concurrent {@link #startTransaction()} calls from many threads into one
+ * {@link TimelockService#startTransactions} call, so that transactions starting at the same time share a single
+ * timelock round trip for their immutable timestamp locks and start timestamps.
+ *
+ * Each transaction keeps its own request id, and so its own immutable timestamp lock; only the round trip is shared.
+ */
+@ThreadSafe
+final class BatchingTransactionStarter {
+    static final long DEFAULT_MIN_TIME_BETWEEN_REQUESTS = 0L;
+    static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+    private final TimelockService timelockService;
+    private final RequestBatcher<UUID, StartTransactionResponse> batcher;
+
+    BatchingTransactionStarter(TimelockService timelockService) {
+        this(timelockService, DEFAULT_MIN_TIME_BETWEEN_REQUESTS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    BatchingTransactionStarter(
+            TimelockService timelockService,
+            long minTimeBetweenRequestsMillis,
+            int maxBatchSize) {
+        this.timelockService = timelockService;
+        this.batcher = new RequestBatcher<>(
+                this::processBatch,
+                minTimeBetweenRequestsMillis,
+                maxBatchSize,
+                BatchingTransactionStarter.class);
+    }
+
+    StartTransactionResponse startTransaction() {
+        return batcher.submit(UUID.randomUUID());
+    }
+
+    private void processBatch(List<PendingRequest<UUID, StartTransactionResponse>> batch) {
+        List<UUID> requestIds = batch.stream()
+                .map(PendingRequest::argument)
+                .collect(Collectors.toList());
+        List<StartTransactionResponse> transactions = timelockService
+                .startTransactions(StartTransactionsRequest.of(requestIds))
+                .getTransactions();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(transactions.get(i));
+        }
+    }
+}
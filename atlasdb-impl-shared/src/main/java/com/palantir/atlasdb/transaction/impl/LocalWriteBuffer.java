@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.common.collect.IteratorUtils;
+import com.palantir.util.Pair;
+
+/**
+ * The writes a transaction has made to a single table.
+ *
+ * Puts are appended, unsorted, to a chunk owned by the calling thread, so concurrent writers never contend on a
+ * lock or a shared sorted structure. Only reads look at the chunks: they drain whatever has been appended since the
+ * last read and fold it into a sorted, deduplicated {@link ImmutableSortedMap}. Small drains go into a concurrent
+ * skip list of recent writes first, which is folded into the sorted map once it grows as large as the sorted map
+ * itself, so a transaction that alternates puts and reads does not re-sort everything it has written each time.
+ *
+ * A transaction that only puts therefore pays for one sort of its writes, at commit.
+ *
+ * Writes of the same cell are ordered by when their put was called, so the latest put of a cell wins even if it
+ * came from another thread.
+ */
+@ThreadSafe
+public final class LocalWriteBuffer {
+    private static final int FIRST_SEGMENT_SIZE = 16;
+    private static final int MAX_SEGMENT_SIZE = 1024;
+    private static final int MIN_WRITES_TO_COMPACT = 1024;
+    private static final Comparator<Map.Entry<Cell, byte[]>> BY_CELL = Map.Entry.comparingByKey();
+
+    private final ConcurrentMap<Long, WriterChunk> writerChunks = Maps.newConcurrentMap();
+    private final AtomicLong nextSequenceNumber = new AtomicLong();
+    private volatile boolean hasWrites = false;
+
+    @GuardedBy("this")
+    private ImmutableSortedMap<Cell, byte[]> sortedWrites = ImmutableSortedMap.of();
+    @GuardedBy("this")
+    private ConcurrentSkipListMap<Cell, byte[]> recentWrites = new ConcurrentSkipListMap<>();
+    @GuardedBy("this")
+    private int numRecentWrites = 0;
+
+    /**
+     * Buffers the given writes. Safe to call from any number of threads at once; writes from one call are never
+     * interleaved with those of another call that started after it returned.
+     */
+    public void putAll(Map<Cell, byte[]> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        WriterChunk chunk = writerChunks.computeIfAbsent(Thread.currentThread().getId(), id -> new WriterChunk());
+        chunk.append(values, nextSequenceNumber.getAndIncrement());
+        hasWrites = true;
+    }
+
+    public boolean isEmpty() {
+        return !hasWrites;
+    }
+
+    @Nullable
+    public byte[] get(Cell cell) {
+        synchronized (this) {
+            drainPendingWrites();
+            byte[] value = recentWrites.get(cell);
+            return value != null ? value : sortedWrites.get(cell);
+        }
+    }
+
+    /**
+     * Returns the buffered writes whose cells lie in the given range, in cell order. Either bound may be null for an
+     * unbounded range. The iterator reflects at least the writes made before this call; it never fails because of
+     * writes made while it is in use.
+     */
+    public Iterator<Map.Entry<Cell, byte[]>> entriesInRange(
+            @Nullable Cell startInclusive,
+            @Nullable Cell endExclusive) {
+        NavigableMap<Cell, byte[]> sorted;
+        NavigableMap<Cell, byte[]> recent;
+        synchronized (this) {
+            drainPendingWrites();
+            sorted = sortedWrites;
+            recent = recentWrites;
+        }
+        return IteratorUtils.mergeIterators(
+                subMap(sorted, startInclusive, endExclusive).entrySet().iterator(),
+                subMap(recent, startInclusive, endExclusive).entrySet().iterator(),
+                BY_CELL,
+                Pair::getRhSide);
+    }
+
+    /**
+     * Returns every buffered write in cell order, with only the latest value for each cell. The result is a snapshot:
+     * writes made after this call are not reflected in it.
+     */
+    public synchronized ImmutableSortedMap<Cell, byte[]> asSortedMap() {
+        List<SequencedWrite> pending = drainWriterChunks();
+        if (!pending.isEmpty() || numRecentWrites > 0) {
+            compact(pending);
+        }
+        return sortedWrites;
+    }
+
+    @GuardedBy("this")
+    private void drainPendingWrites() {
+        List<SequencedWrite> pending = drainWriterChunks();
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (numRecentWrites + pending.size() < Math.max(MIN_WRITES_TO_COMPACT, sortedWrites.size())) {
+            for (SequencedWrite write : pending) {
+                if (recentWrites.put(write.cell, write.value) == null) {
+                    numRecentWrites++;
+                }
+            }
+        } else {
+            compact(pending);
+        }
+    }
+
+    /**
+     * Returns the writes appended since the last drain, in the order their puts were called.
+     */
+    @GuardedBy("this")
+    private List<SequencedWrite> drainWriterChunks() {
+        List<SequencedWrite> pending = Lists.newArrayList();
+        int chunksWithWrites = 0;
+        for (WriterChunk chunk : writerChunks.values()) {
+            int sizeBefore = pending.size();
+            chunk.drainTo(pending);
+            if (pending.size() > sizeBefore) {
+                chunksWithWrites++;
+            }
+        }
+        if (chunksWithWrites > 1) {
+            // Each chunk is already in order, and the sort is stable, so this is a merge of the chunks.
+            pending.sort(Comparator.comparingLong(write -> write.sequenceNumber));
+        }
+        return pending;
+    }
+
+    /**
+     * Folds the recent writes and the given pending writes into the sorted map, the pending ones taking precedence.
+     */
+    @GuardedBy("this")
+    private void compact(List<SequencedWrite> pending) {
+        SequencedWrite[] pendingByCell = pending.toArray(new SequencedWrite[pending.size()]);
+        Arrays.sort(pendingByCell, BY_CELL);
+
+        Iterator<Map.Entry<Cell, byte[]>> older = IteratorUtils.mergeIterators(
+                sortedWrites.entrySet().iterator(),
+                recentWrites.entrySet().iterator(),
+                BY_CELL,
+                Pair::getRhSide);
+        Iterator<Map.Entry<Cell, byte[]>> merged = IteratorUtils.mergeIterators(
+                older,
+                latestPerCell(pendingByCell),
+                BY_CELL,
+                Pair::getRhSide);
+
+        ImmutableSortedMap.Builder<Cell, byte[]> builder = ImmutableSortedMap.naturalOrder();
+        while (merged.hasNext()) {
+            builder.put(merged.next());
+        }
+        sortedWrites = builder.build();
+        recentWrites = new ConcurrentSkipListMap<>();
+        numRecentWrites = 0;
+    }
+
+    /**
+     * Given writes sorted by cell, with writes to the same cell in the order they were made, returns only the last
+     * write to each cell.
+     */
+    private static Iterator<Map.Entry<Cell, byte[]>> latestPerCell(SequencedWrite[] writesByCell) {
+        List<Map.Entry<Cell, byte[]>> latest = Lists.newArrayListWithCapacity(writesByCell.length);
+        for (int i = 0; i < writesByCell.length; i++) {
+            if (i + 1 == writesByCell.length || !writesByCell[i].cell.equals(writesByCell[i + 1].cell)) {
+                latest.add(writesByCell[i]);
+            }
+        }
+        return latest.iterator();
+    }
+
+    private static NavigableMap<Cell, byte[]> subMap(
+            NavigableMap<Cell, byte[]> map,
+            @Nullable Cell startInclusive,
+            @Nullable Cell endExclusive) {
+        NavigableMap<Cell, byte[]> result = map;
+        if (startInclusive != null) {
+            result = result.tailMap(startInclusive, true);
+        }
+        if (endExclusive != null) {
+            result = result.headMap(endExclusive, false);
+        }
+        return result;
+    }
+
+    /**
+     * The writes of a single thread. Only that thread appends; readers, holding the buffer's lock, consume what has
+     * been published. Segments grow geometrically so that transactions that write a handful of cells stay small,
+     * and are dropped once they have been consumed.
+     */
+    private static final class WriterChunk {
+        private Segment tail = new Segment(FIRST_SEGMENT_SIZE);
+
+        // Guarded by the lock of the enclosing buffer.
+        private Segment head = tail;
+        private int headPosition = 0;
+
+        void append(Map<Cell, byte[]> values, long sequenceNumber) {
+            if (tail.size == tail.cells.length) {
+                tail = linkNewSegment(tail);
+            }
+            // Readers stop at the first segment that is not full, so the segment this put starts in hides every
+            // segment after it until its own size is published, which happens last.
+            Segment first = tail;
+            Segment segment = first;
+            int size = segment.size;
+            for (Map.Entry<Cell, byte[]> entry : values.entrySet()) {
+                if (size == segment.cells.length) {
+                    if (segment != first) {
+                        segment.size = size;
+                    }
+                    segment = linkNewSegment(segment);
+                    size = 0;
+                }
+                segment.cells[size] = entry.getKey();
+                segment.values[size] = entry.getValue();
+                segment.sequenceNumbers[size] = sequenceNumber;
+                size++;
+            }
+            tail = segment;
+            if (segment != first) {
+                segment.size = size;
+                size = first.cells.length;
+            }
+            first.size = size;
+        }
+
+        private static Segment linkNewSegment(Segment segment) {
+            Segment next = new Segment(Math.min(2 * segment.cells.length, MAX_SEGMENT_SIZE));
+            segment.next = next;
+            return next;
+        }
+
+        void drainTo(List<SequencedWrite> writes) {
+            while (true) {
+                int size = head.size;
+                for (int i = headPosition; i < size; i++) {
+                    writes.add(new SequencedWrite(head.sequenceNumbers[i], head.cells[i], head.values[i]));
+                }
+                headPosition = size;
+                Segment next = head.next;
+                if (size < head.cells.length || next == null) {
+                    return;
+                }
+                head = next;
+                headPosition = 0;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final Cell[] cells;
+        private final byte[][] values;
+        private final long[] sequenceNumbers;
+        private volatile int size = 0;
+        private volatile Segment next = null;
+
+        Segment(int capacity) {
+            this.cells = new Cell[capacity];
+            this.values = new byte[capacity][];
+            this.sequenceNumbers = new long[capacity];
+        }
+    }
+
+    private static final class SequencedWrite implements Map.Entry<Cell, byte[]> {
+        private final long sequenceNumber;
+        private final Cell cell;
+        private final byte[] value;
+
+        SequencedWrite(long sequenceNumber, Cell cell, byte[] value) {
+            this.sequenceNumber = sequenceNumber;
+            this.cell = cell;
+            this.value = value;
+        }
+
+        @Override
+        public Cell getKey() {
+            return cell;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public byte[] setValue(byte[] newValue) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import org.immutables.value.Value;
+
+/**
+ * Controls how a {@link SerializableTransaction} records its reads and checks them for read-write conflicts at
+ * commit time.
+ */
+@Value.Immutable
+public interface ReadSetVerificationOptions {
+    ReadSetVerificationOptions DEFAULT = ImmutableReadSetVerificationOptions.builder().build();
+
+    /**
+     * If true, only a 64-bit hash of each value read is kept for the commit-time check instead of a copy of the
+     * value. This bounds the memory used by large read sets; a changed value goes undetected only if its hash
+     * collides with the hash of the value originally read.
+     */
+    @Value.Default
+    default boolean hashReadValues() {
+        return false;
+    }
+
+    /**
+     * If true, the commit-time check re-reads tables, ranges and batches of cells concurrently on the transaction
+     * manager's getRanges executor, with the committing thread taking part.
+     */
+    @Value.Default
+    default boolean verifyInParallel() {
+        return false;
+    }
+}
@@ -27,6 +27,10 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nullable;
 
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -39,6 +43,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -48,7 +53,14 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Longs;
 import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.palantir.atlasdb.cache.ImmutableTableCache;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -93,6 +105,7 @@ public class SerializableTransaction extends SnapshotTransaction {
     private static final Logger log = LoggerFactory.getLogger(SerializableTransaction.class);
 
     private static final int BATCH_SIZE = 1000;
+    private static final HashFunction READ_VALUE_HASH_FUNCTION = Hashing.murmur3_128();
 
     final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> readsByTable = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, ConcurrentMap<RangeRequest, byte[]>> rangeEndByTable = Maps.newConcurrentMap();
@@ -101,6 +114,7 @@ public class SerializableTransaction extends SnapshotTransaction {
     final ConcurrentMap<TableReference, Set<Cell>> cellsRead = Maps.newConcurrentMap();
     final ConcurrentMap<TableReference, Set<RowRead>> rowsRead = Maps.newConcurrentMap();
     private final MetricRegistry metricRegistry = AtlasDbMetrics.getMetricRegistry();
+    private final ReadSetVerificationOptions readSetVerificationOptions;
 
     public SerializableTransaction(KeyValueService keyValueService,
                                    TimelockService timelockService,
@@ -120,6 +134,48 @@ public class SerializableTransaction extends SnapshotTransaction {
                                    long lockAcquireTimeoutMs,
                                    ExecutorService getRangesExecutor,
                                    int defaultGetRangesConcurrency) {
+        this(keyValueService,
+             timelockService,
+             transactionService,
+             cleaner,
+             startTimeStamp,
+             conflictDetectionManager,
+             sweepStrategyManager,
+             immutableTimestamp,
+             immutableTsLock,
+             advisoryLockCheck,
+             constraintCheckingMode,
+             transactionTimeoutMillis,
+             readSentinelBehavior,
+             allowHiddenTableAccess,
+             timestampCache,
+             lockAcquireTimeoutMs,
+             getRangesExecutor,
+             defaultGetRangesConcurrency,
+             ImmutableTableCache.disabled(),
+             ReadSetVerificationOptions.DEFAULT);
+    }
+
+    public SerializableTransaction(KeyValueService keyValueService,
+                                   TimelockService timelockService,
+                                   TransactionService transactionService,
+                                   Cleaner cleaner,
+                                   Supplier<Long> startTimeStamp,
+                                   ConflictDetectionManager conflictDetectionManager,
+                                   SweepStrategyManager sweepStrategyManager,
+                                   long immutableTimestamp,
+                                   Optional<LockToken> immutableTsLock,
+                                   AdvisoryLockPreCommitCheck advisoryLockCheck,
+                                   AtlasDbConstraintCheckingMode constraintCheckingMode,
+                                   Long transactionTimeoutMillis,
+                                   TransactionReadSentinelBehavior readSentinelBehavior,
+                                   boolean allowHiddenTableAccess,
+                                   TimestampCache timestampCache,
+                                   long lockAcquireTimeoutMs,
+                                   ExecutorService getRangesExecutor,
+                                   int defaultGetRangesConcurrency,
+                                   ImmutableTableCache immutableTableCache,
+                                   ReadSetVerificationOptions readSetVerificationOptions) {
         super(keyValueService,
               timelockService,
               transactionService,
@@ -137,7 +193,9 @@ public class SerializableTransaction extends SnapshotTransaction {
               timestampCache,
               lockAcquireTimeoutMs,
               getRangesExecutor,
-              defaultGetRangesConcurrency);
+              defaultGetRangesConcurrency,
+              immutableTableCache);
+        this.readSetVerificationOptions = readSetVerificationOptions;
     }
 
     @Override
@@ -328,11 +386,33 @@ public class SerializableTransaction extends SnapshotTransaction {
         return map;
     }
 
+    /**
+     * The form in which a value read is kept until commit: either the value itself or, if read values are hashed,
+     * a 64-bit hash of it. Values re-read at commit time are put in the same form before being compared.
+     */
+    private byte[] recordedForm(byte[] value) {
+        if (!readSetVerificationOptions.hashReadValues()) {
+            return value;
+        }
+        return Longs.toByteArray(READ_VALUE_HASH_FUNCTION.hashBytes(value).asLong());
+    }
+
+    private Map<Cell, byte[]> recordedForm(Map<Cell, byte[]> values) {
+        if (!readSetVerificationOptions.hashReadValues()) {
+            return values;
+        }
+        return Maps.transformValues(values, this::recordedForm);
+    }
+
+    private Map<Cell, byte[]> valuesToRecord(Map<Cell, byte[]> values) {
+        return recordedForm(transformGetsForTesting(values));
+    }
+
     private void markCellsRead(TableReference table, Set<Cell> searched, Map<Cell, byte[]> result) {
         if (!isSerializableTable(table)) {
             return;
         }
-        getReadsForTable(table).putAll(transformGetsForTesting(result));
+        getReadsForTable(table).putAll(valuesToRecord(result));
         Set<Cell> cellsForTable = cellsRead.get(table);
         if (cellsForTable == null) {
             cellsRead.putIfAbsent(table, Sets.newConcurrentHashSet());
@@ -347,9 +427,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
-            Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            map = transformGetsForTesting(map);
-            reads.putAll(map);
+            reads.putAll(valuesToRecord(Maps2.fromEntries(row.getCells())));
         }
         setRangeEnd(table, range, Iterables.getLast(result).getRowName());
     }
@@ -363,9 +441,7 @@ public class SerializableTransaction extends SnapshotTransaction {
             return;
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
-        Map<Cell, byte[]> map = Maps2.fromEntries(result);
-        map = transformGetsForTesting(map);
-        reads.putAll(map);
+        reads.putAll(valuesToRecord(Maps2.fromEntries(result)));
         setColumnRangeEnd(table, row, range, Iterables.getLast(result).getKey().getColumnName());
     }
 
@@ -389,9 +465,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         }
         ConcurrentNavigableMap<Cell, byte[]> reads = getReadsForTable(table);
         for (RowResult<byte[]> row : result) {
-            Map<Cell, byte[]> map = Maps2.fromEntries(row.getCells());
-            map = transformGetsForTesting(map);
-            reads.putAll(map);
+            reads.putAll(valuesToRecord(Maps2.fromEntries(row.getCells())));
         }
         Set<RowRead> rowReads = rowsRead.get(table);
         if (rowReads == null) {
@@ -427,13 +501,57 @@ public class SerializableTransaction extends SnapshotTransaction {
     @Override
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         Transaction ro = getReadOnlyTransaction(commitTimestamp);
-        verifyRanges(ro);
-        verifyColumnRanges(ro);
-        verifyCells(ro);
-        verifyRows(ro);
+        List<Runnable> verificationTasks = Lists.newArrayList();
+        addRangeVerificationTasks(ro, verificationTasks);
+        addColumnRangeVerificationTasks(ro, verificationTasks);
+        addCellVerificationTasks(ro, verificationTasks);
+        addRowVerificationTasks(ro, verificationTasks);
+        if (readSetVerificationOptions.verifyInParallel()) {
+            runInParallel(verificationTasks);
+        } else {
+            verificationTasks.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Runs the tasks on the getRanges executor. The committing thread also works through the tasks that no
+     * executor thread has started yet, so verification does not stall behind other work queued on the executor.
+     * The first failure (usually a {@link TransactionSerializableConflictException}) is rethrown, and tasks that
+     * have not started by then are skipped.
+     */
+    private void runInParallel(List<Runnable> tasks) {
+        if (tasks.size() <= 1) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<FutureTask<Void>> futures = Lists.newArrayListWithCapacity(tasks.size());
+        for (Runnable task : tasks) {
+            futures.add(new FutureTask<>(task, null));
+        }
+        for (FutureTask<Void> future : futures.subList(1, futures.size())) {
+            try {
+                getRangesExecutor.execute(future);
+            } catch (RejectedExecutionException e) {
+                // The committing thread will run it below.
+            }
+        }
+        try {
+            for (FutureTask<Void> future : futures) {
+                future.run();
+                if (future.isDone()) {
+                    Futures.getUnchecked(future);
+                }
+            }
+            for (FutureTask<Void> future : futures) {
+                Futures.getUnchecked(future);
+            }
+        } catch (UncheckedExecutionException | ExecutionError e) {
+            futures.forEach(future -> future.cancel(false));
+            throw Throwables.propagate(e.getCause());
+        }
     }
 
-    private void verifyRows(Transaction ro) {
+    private void addRowVerificationTasks(Transaction ro, List<Runnable> tasks) {
         for (Map.Entry<TableReference, Set<RowRead>> tableAndRowsEntry : rowsRead.entrySet()) {
             TableReference table = tableAndRowsEntry.getKey();
             Set<RowRead> rows = tableAndRowsEntry.getValue();
@@ -446,7 +564,7 @@ public class SerializableTransaction extends SnapshotTransaction {
                 rowsReadByColumns.putAll(r.cols, r.rows);
             }
             for (ColumnSelection cols : rowsReadByColumns.keySet()) {
-                verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols);
+                tasks.add(() -> verifyColumns(ro, table, readsForTable, rowsReadByColumns, cols));
             }
 
         }
@@ -469,14 +587,14 @@ public class SerializableTransaction extends SnapshotTransaction {
                 // We want to filter out all our reads to just the set that matches our column selection.
                 orignalReads = Maps.filterKeys(orignalReads, input -> columns.contains(input.getColumnName()));
 
-                if (writesByTable.get(table) != null) {
+                if (getWritesForTable(table) != null) {
                     // We don't want to verify any reads that we wrote to cause
                     // we will just read our own values.
                     // NB: We filter our write set out here because our normal SI
                     // checking handles this case to ensure the value hasn't changed.
                     orignalReads = Maps.filterKeys(
                             orignalReads,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+                            Predicates.not(Predicates.in(getWritesForTable(table).keySet())));
                 }
 
                 if (currentRow == null && orignalReads.isEmpty()) {
@@ -487,15 +605,15 @@ public class SerializableTransaction extends SnapshotTransaction {
                     handleTransactionConflict(table);
                 }
 
-                Map<Cell, byte[]> currentCells = Maps2.fromEntries(currentRow.getCells());
-                if (writesByTable.get(table) != null) {
+                Map<Cell, byte[]> currentCells = recordedForm(Maps2.fromEntries(currentRow.getCells()));
+                if (getWritesForTable(table) != null) {
                     // We don't want to verify any reads that we wrote to cause
                     // we will just read our own values.
                     // NB: We filter our write set out here because our normal SI
                     // checking handles this case to ensure the value hasn't changed.
                     currentCells = Maps.filterKeys(
                             currentCells,
-                            Predicates.not(Predicates.in(writesByTable.get(table).keySet())));
+                            Predicates.not(Predicates.in(getWritesForTable(table).keySet())));
                 }
                 if (!areMapsEqual(orignalReads, currentCells)) {
                     handleTransactionConflict(table);
@@ -519,31 +637,39 @@ public class SerializableTransaction extends SnapshotTransaction {
         return true;
     }
 
-    private void verifyCells(Transaction readOnlyTransaction) {
+    private void addCellVerificationTasks(Transaction readOnlyTransaction, List<Runnable> tasks) {
         for (Entry<TableReference, Set<Cell>> tableAndCellsEntry : cellsRead.entrySet()) {
             TableReference table = tableAndCellsEntry.getKey();
             Set<Cell> cells = tableAndCellsEntry.getValue();
 
             final ConcurrentNavigableMap<Cell, byte[]> readsForTable = getReadsForTable(table);
-            for (Iterable<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
-                // We don't want to verify any reads that we wrote to cause we will just read our own values.
-                // NB: If the value has changed between read and write, our normal SI checking handles this case
-                Iterable<Cell> batchWithoutWrites = writesByTable.get(table) != null
-                        ? Iterables.filter(batch, Predicates.not(Predicates.in(writesByTable.get(table).keySet())))
-                        : batch;
-                ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
-                Map<Cell, byte[]> currentBatch = readOnlyTransaction.get(table, batchWithoutWritesSet);
-                ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
-                        Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
-                        Functions.forMap(readsForTable));
-                if (!areMapsEqual(currentBatch, originalReads)) {
-                    handleTransactionConflict(table);
-                }
+            for (List<Cell> batch : Iterables.partition(cells, BATCH_SIZE)) {
+                tasks.add(() -> verifyCells(readOnlyTransaction, table, readsForTable, batch));
             }
         }
     }
 
-    private void verifyRanges(Transaction readOnlyTransaction) {
+    private void verifyCells(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            ConcurrentNavigableMap<Cell, byte[]> readsForTable,
+            List<Cell> batch) {
+        // We don't want to verify any reads that we wrote to cause we will just read our own values.
+        // NB: If the value has changed between read and write, our normal SI checking handles this case
+        Iterable<Cell> batchWithoutWrites = getWritesForTable(table) != null
+                ? Iterables.filter(batch, Predicates.not(Predicates.in(getWritesForTable(table).keySet())))
+                : batch;
+        ImmutableSet<Cell> batchWithoutWritesSet = ImmutableSet.copyOf(batchWithoutWrites);
+        Map<Cell, byte[]> currentBatch = recordedForm(readOnlyTransaction.get(table, batchWithoutWritesSet));
+        ImmutableMap<Cell, byte[]> originalReads = Maps.toMap(
+                Sets.intersection(batchWithoutWritesSet, readsForTable.keySet()),
+                Functions.forMap(readsForTable));
+        if (!areMapsEqual(currentBatch, originalReads)) {
+            handleTransactionConflict(table);
+        }
+    }
+
+    private void addRangeVerificationTasks(Transaction readOnlyTransaction, List<Runnable> tasks) {
         // verify each set of reads to ensure they are the same.
         for (Entry<TableReference, ConcurrentMap<RangeRequest, byte[]>> tableAndRange : rangeEndByTable.entrySet()) {
             TableReference table = tableAndRange.getKey();
@@ -552,23 +678,31 @@ public class SerializableTransaction extends SnapshotTransaction {
             for (Entry<RangeRequest, byte[]> rangeAndRangeEndEntry : rangeEnds.entrySet()) {
                 RangeRequest range = rangeAndRangeEndEntry.getKey();
                 byte[] rangeEnd = rangeAndRangeEndEntry.getValue();
+                tasks.add(() -> verifyRange(readOnlyTransaction, table, range, rangeEnd));
+            }
+        }
+    }
 
-                if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(range.isReverse(), rangeEnd)) {
-                    range = range.getBuilder()
-                            .endRowExclusive(RangeRequests.getNextStartRow(range.isReverse(), rangeEnd))
-                            .build();
-                }
+    private void verifyRange(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            RangeRequest originalRange,
+            byte[] rangeEnd) {
+        RangeRequest range = originalRange;
+        if (rangeEnd.length != 0 && !RangeRequests.isTerminalRow(range.isReverse(), rangeEnd)) {
+            range = range.getBuilder()
+                    .endRowExclusive(RangeRequests.getNextStartRow(range.isReverse(), rangeEnd))
+                    .build();
+        }
 
-                ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
-                BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
-                        readOnlyTransaction.getRange(table, range));
-                NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                        getReadsInRange(table, range),
-                        ByteBuffer::wrap);
-                if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
-                    handleTransactionConflict(table);
-                }
-            }
+        Map<Cell, byte[]> writes = getWritesForTable(table);
+        BatchingVisitableView<RowResult<byte[]>> bv = BatchingVisitableView.of(
+                readOnlyTransaction.getRange(table, range));
+        NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                getReadsInRange(table, range),
+                ByteBuffer::wrap);
+        if (!bv.transformBatch(input -> filterWritesFromRows(input, writes)).isEqual(readsInRange.entrySet())) {
+            handleTransactionConflict(table);
         }
     }
 
@@ -590,14 +724,14 @@ public class SerializableTransaction extends SnapshotTransaction {
                 reads = reads.headMap(endCell, false);
             }
         }
-        ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(table);
+        Map<Cell, byte[]> writes = getWritesForTable(table);
         if (writes != null) {
             reads = Maps.filterKeys(reads, Predicates.not(Predicates.in(writes.keySet())));
         }
         return reads;
     }
 
-    private void verifyColumnRanges(Transaction readOnlyTransaction) {
+    private void addColumnRangeVerificationTasks(Transaction readOnlyTransaction, List<Runnable> tasks) {
         // verify each set of reads to ensure they are the same.
         for (Entry<TableReference,
                 ConcurrentMap<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>>> tableAndRange :
@@ -605,7 +739,7 @@ public class SerializableTransaction extends SnapshotTransaction {
             TableReference table = tableAndRange.getKey();
             Map<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> columnRangeEnds = tableAndRange.getValue();
 
-            Map<Cell, byte[]> writes = writesByTable.get(table);
+            Map<Cell, byte[]> writes = getWritesForTable(table);
             Map<BatchColumnRangeSelection, List<byte[]>> rangesToRows = Maps.newHashMap();
             for (Entry<byte[], ConcurrentMap<BatchColumnRangeSelection, byte[]>> rowAndRangeEnds :
                     columnRangeEnds.entrySet()) {
@@ -631,20 +765,29 @@ public class SerializableTransaction extends SnapshotTransaction {
             for (Entry<BatchColumnRangeSelection, List<byte[]>> e : rangesToRows.entrySet()) {
                 BatchColumnRangeSelection range = e.getKey();
                 List<byte[]> rows = e.getValue();
-                Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
-                        readOnlyTransaction.getRowsColumnRange(table, rows, range);
-                for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> res : result.entrySet()) {
-                    byte[] row = res.getKey();
-                    BatchingVisitableView<Entry<Cell, byte[]>> bv = BatchingVisitableView.of(res.getValue());
-                    NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
-                            getReadsInColumnRange(table, row, range),
-                            input -> ByteBuffer.wrap(input));
-                    boolean isEqual = bv.transformBatch(input -> filterWritesFromCells(input, writes))
-                            .isEqual(readsInRange.entrySet());
-                    if (!isEqual) {
-                        handleTransactionConflict(table);
-                    }
-                }
+                tasks.add(() -> verifyColumnRange(readOnlyTransaction, table, writes, range, rows));
+            }
+        }
+    }
+
+    private void verifyColumnRange(
+            Transaction readOnlyTransaction,
+            TableReference table,
+            Map<Cell, byte[]> writes,
+            BatchColumnRangeSelection range,
+            List<byte[]> rows) {
+        Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> result =
+                readOnlyTransaction.getRowsColumnRange(table, rows, range);
+        for (Entry<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> res : result.entrySet()) {
+            byte[] row = res.getKey();
+            BatchingVisitableView<Entry<Cell, byte[]>> bv = BatchingVisitableView.of(res.getValue());
+            NavigableMap<Cell, ByteBuffer> readsInRange = Maps.transformValues(
+                    getReadsInColumnRange(table, row, range),
+                    input -> ByteBuffer.wrap(input));
+            boolean isEqual = bv.transformBatch(input -> filterWritesFromCells(input, writes))
+                    .isEqual(readsInRange.entrySet());
+            if (!isEqual) {
+                handleTransactionConflict(table);
             }
         }
     }
@@ -657,7 +800,8 @@ public class SerializableTransaction extends SnapshotTransaction {
             // NB: We filter our write set out here because our normal SI
             // checking handles this case to ensure the value hasn't changed.
             if (writes == null || !writes.containsKey(cell.getKey())) {
-                cellsWithoutWrites.add(Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(cell.getValue())));
+                cellsWithoutWrites.add(
+                        Maps.immutableEntry(cell.getKey(), ByteBuffer.wrap(recordedForm(cell.getValue()))));
             }
         }
         return cellsWithoutWrites;
@@ -682,7 +826,7 @@ public class SerializableTransaction extends SnapshotTransaction {
         if (range.getEndExclusive().length != 0) {
             reads = reads.headMap(Cells.createSmallestCellForRow(range.getEndExclusive()), false);
         }
-        Map<Cell, byte[]> writes = writesByTable.get(table);
+        Map<Cell, byte[]> writes = getWritesForTable(table);
         if (writes != null) {
             reads = Maps.filterKeys(reads, Predicates.not(Predicates.in(writes.keySet())));
         }
@@ -714,7 +858,9 @@ public class SerializableTransaction extends SnapshotTransaction {
                 timestampValidationReadCache,
                 lockAcquireTimeoutMs,
                 getRangesExecutor,
-                defaultGetRangesConcurrency) {
+                defaultGetRangesConcurrency,
+                // treats our own writes as committed, so must not populate the shared cache
+                ImmutableTableCache.disabled()) {
             @Override
             protected Map<Long, Long> getCommitTimestamps(TableReference tableRef,
                                                           Iterable<Long> startTimestamps,
@@ -761,6 +907,12 @@ public class SerializableTransaction extends SnapshotTransaction {
         };
     }
 
+    @Nullable
+    private Map<Cell, byte[]> getWritesForTable(TableReference table) {
+        LocalWriteBuffer writes = writesByTable.get(table);
+        return writes != null ? writes.asSortedMap() : null;
+    }
+
     private void handleTransactionConflict(TableReference tableRef) {
         getTransactionConflictsMeter().mark();
         throw TransactionSerializableConflictException.create(tableRef, getTimestamp(),
@@ -38,6 +38,8 @@ import com.palantir.timestamp.TimestampService;
 @AutoDelegate(typeToExtend = SerializableTransactionManager.class)
 public class SerializableTransactionManager extends SnapshotTransactionManager {
 
+    private final Supplier<ReadSetVerificationOptions> readSetVerificationOptions;
+
     public static class InitializeCheckingWrapper extends AutoDelegate_SerializableTransactionManager {
         private final SerializableTransactionManager manager;
         private final Supplier<Boolean> initializationPrerequisite;
@@ -106,6 +108,45 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
             int defaultGetRangesConcurrency,
             boolean initializeAsync,
             Supplier<Long> timestampCacheSize) {
+        return create(
+                keyValueService,
+                timelockService,
+                lockService,
+                transactionService,
+                constraintModeSupplier,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                cleaner,
+                initializationPrerequisite,
+                allowHiddenTableAccess,
+                lockAcquireTimeoutMs,
+                concurrentGetRangesThreadPoolSize,
+                defaultGetRangesConcurrency,
+                initializeAsync,
+                timestampCacheSize,
+                () -> ReadSetVerificationOptions.DEFAULT,
+                () -> false,
+                AtlasDbConstants.DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES);
+    }
+
+    public static SerializableTransactionManager create(KeyValueService keyValueService,
+            TimelockService timelockService,
+            LockService lockService,
+            TransactionService transactionService,
+            Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier,
+            ConflictDetectionManager conflictDetectionManager,
+            SweepStrategyManager sweepStrategyManager,
+            Cleaner cleaner,
+            Supplier<Boolean> initializationPrerequisite,
+            boolean allowHiddenTableAccess,
+            Supplier<Long> lockAcquireTimeoutMs,
+            int concurrentGetRangesThreadPoolSize,
+            int defaultGetRangesConcurrency,
+            boolean initializeAsync,
+            Supplier<Long> timestampCacheSize,
+            Supplier<ReadSetVerificationOptions> readSetVerificationOptions,
+            Supplier<Boolean> transactionStartBatchingEnabled,
+            long immutableTableCacheSizeBytes) {
         TimestampTracker timestampTracker = TimestampTrackerImpl.createWithDefaultTrackers(
                 timelockService, cleaner, initializeAsync);
         SerializableTransactionManager serializableTransactionManager = new SerializableTransactionManager(
@@ -122,7 +163,10 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 allowHiddenTableAccess,
                 lockAcquireTimeoutMs,
                 concurrentGetRangesThreadPoolSize,
-                defaultGetRangesConcurrency);
+                defaultGetRangesConcurrency,
+                readSetVerificationOptions,
+                transactionStartBatchingEnabled,
+                immutableTableCacheSizeBytes);
 
         return initializeAsync
                 ? new InitializeCheckingWrapper(serializableTransactionManager, initializationPrerequisite)
@@ -194,7 +238,6 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
         );
     }
 
-    // Canonical constructor.
     public SerializableTransactionManager(KeyValueService keyValueService,
             TimelockService timelockService,
             LockService lockService,
@@ -209,6 +252,44 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
             Supplier<Long> lockAcquireTimeoutMs,
             int concurrentGetRangesThreadPoolSize,
             int defaultGetRangesConcurrency) {
+        this(
+                keyValueService,
+                timelockService,
+                lockService,
+                transactionService,
+                constraintModeSupplier,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                cleaner,
+                timestampTracker,
+                timestampCacheSize,
+                allowHiddenTableAccess,
+                lockAcquireTimeoutMs,
+                concurrentGetRangesThreadPoolSize,
+                defaultGetRangesConcurrency,
+                () -> ReadSetVerificationOptions.DEFAULT,
+                () -> false,
+                AtlasDbConstants.DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES);
+    }
+
+    // Canonical constructor.
+    public SerializableTransactionManager(KeyValueService keyValueService,
+            TimelockService timelockService,
+            LockService lockService,
+            TransactionService transactionService,
+            Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier,
+            ConflictDetectionManager conflictDetectionManager,
+            SweepStrategyManager sweepStrategyManager,
+            Cleaner cleaner,
+            TimestampTracker timestampTracker,
+            Supplier<Long> timestampCacheSize,
+            boolean allowHiddenTableAccess,
+            Supplier<Long> lockAcquireTimeoutMs,
+            int concurrentGetRangesThreadPoolSize,
+            int defaultGetRangesConcurrency,
+            Supplier<ReadSetVerificationOptions> readSetVerificationOptions,
+            Supplier<Boolean> transactionStartBatchingEnabled,
+            long immutableTableCacheSizeBytes) {
         super(
                 keyValueService,
                 timelockService,
@@ -223,7 +304,10 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 timestampTracker,
                 concurrentGetRangesThreadPoolSize,
                 defaultGetRangesConcurrency,
-                timestampCacheSize);
+                timestampCacheSize,
+                transactionStartBatchingEnabled,
+                immutableTableCacheSizeBytes);
+        this.readSetVerificationOptions = readSetVerificationOptions;
     }
 
     @Override
@@ -249,7 +333,9 @@ public class SerializableTransactionManager extends SnapshotTransactionManager {
                 timestampValidationReadCache,
                 lockAcquireTimeoutMs.get(),
                 getRangesExecutor,
-                defaultGetRangesConcurrency);
+                defaultGetRangesConcurrency,
+                immutableTableCache,
+                readSetVerificationOptions.get());
     }
 
 }
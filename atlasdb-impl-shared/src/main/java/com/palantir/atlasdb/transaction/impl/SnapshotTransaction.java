@@ -26,10 +26,11 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -78,6 +79,7 @@ import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbPerformanceConstants;
+import com.palantir.atlasdb.cache.ImmutableTableCache;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
@@ -184,8 +186,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     private final AdvisoryLockPreCommitCheck advisoryLockCheck;
     protected final long timeCreated = System.currentTimeMillis();
 
-    protected final ConcurrentMap<TableReference, ConcurrentNavigableMap<Cell, byte[]>> writesByTable =
-            Maps.newConcurrentMap();
+    protected final ConcurrentMap<TableReference, LocalWriteBuffer> writesByTable = Maps.newConcurrentMap();
     protected final ConflictDetectionManager conflictDetectionManager;
     private final AtomicLong byteCount = new AtomicLong();
 
@@ -205,6 +206,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     protected final long lockAcquireTimeoutMs;
     protected final ExecutorService getRangesExecutor;
     protected final int defaultGetRangesConcurrency;
+    protected final ImmutableTableCache immutableTableCache;
 
     private final MetricRegistry metricRegistry = AtlasDbMetrics.getMetricRegistry();
     private final Timer.Context transactionTimerContext = getTimer("transactionMillis").time();
@@ -232,7 +234,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                                TimestampCache timestampValidationReadCache,
                                long lockAcquireTimeoutMs,
                                ExecutorService getRangesExecutor,
-                               int defaultGetRangesConcurrency) {
+                               int defaultGetRangesConcurrency,
+                               ImmutableTableCache immutableTableCache) {
         this.keyValueService = keyValueService;
         this.timelockService = timelockService;
         this.defaultTransactionService = transactionService;
@@ -251,6 +254,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.lockAcquireTimeoutMs = lockAcquireTimeoutMs;
         this.getRangesExecutor = getRangesExecutor;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
+        this.immutableTableCache = immutableTableCache;
     }
 
     // TEST ONLY
@@ -284,6 +288,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.lockAcquireTimeoutMs = AtlasDbConstants.DEFAULT_TRANSACTION_LOCK_ACQUIRE_TIMEOUT_MS;
         this.getRangesExecutor = getRangesExecutor;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
+        this.immutableTableCache = ImmutableTableCache.disabled();
     }
 
     protected SnapshotTransaction(KeyValueService keyValueService,
@@ -315,6 +320,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         this.lockAcquireTimeoutMs = lockAcquireTimeoutMs;
         this.getRangesExecutor = getRangesExecutor;
         this.defaultGetRangesConcurrency = defaultGetRangesConcurrency;
+        this.immutableTableCache = ImmutableTableCache.disabled();
     }
 
     @Override
@@ -354,14 +360,16 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             return AbstractTransaction.EMPTY_SORTED_ROWS;
         }
         Map<Cell, byte[]> result = Maps.newHashMap();
+        Map<Cell, byte[]> cachedResults = getFullyCachedRows(tableRef, rows, columnSelection);
         Map<Cell, Value> rawResults = Maps.newHashMap(
-                keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp()));
-        SortedMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+                readUncachedRows(tableRef, rows, columnSelection, cachedResults));
+        LocalWriteBuffer writes = writesByTable.get(tableRef);
         if (writes != null) {
             for (byte[] row : rows) {
                 extractLocalWritesForRow(result, writes, row);
             }
         }
+        cachedResults.forEach(result::putIfAbsent);
 
         // We don't need to do work postFiltering if we have a write locally.
         rawResults.keySet().removeAll(result.keySet());
@@ -376,6 +384,64 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return results;
     }
 
+    /**
+     * Returns the cached values of those rows whose every selected column is in the {@link ImmutableTableCache}.
+     * Such rows do not need to be read from the key value service.
+     */
+    private Map<Cell, byte[]> getFullyCachedRows(TableReference tableRef,
+                                                 Iterable<byte[]> rows,
+                                                 ColumnSelection columnSelection) {
+        if (columnSelection.allColumnsSelected() || !isImmutableTableCacheable(tableRef)) {
+            return ImmutableMap.of();
+        }
+        Collection<byte[]> columns = columnSelection.getSelectedColumns();
+        Set<Cell> cells = Sets.newHashSet();
+        for (byte[] row : rows) {
+            for (byte[] column : columns) {
+                cells.add(Cell.create(row, column));
+            }
+        }
+        Map<Cell, byte[]> cached = immutableTableCache.getVisible(tableRef, cells, getStartTimestamp());
+        if (cached.isEmpty()) {
+            return cached;
+        }
+
+        Map<Cell, byte[]> fullyCachedRows = Maps.newHashMapWithExpectedSize(cached.size());
+        for (byte[] row : rows) {
+            Map<Cell, byte[]> rowValues = Maps.newHashMapWithExpectedSize(columns.size());
+            for (byte[] column : columns) {
+                Cell cell = Cell.create(row, column);
+                byte[] value = cached.get(cell);
+                if (value == null) {
+                    break;
+                }
+                rowValues.put(cell, value);
+            }
+            if (rowValues.size() == columns.size()) {
+                fullyCachedRows.putAll(rowValues);
+            }
+        }
+        return fullyCachedRows;
+    }
+
+    private Map<Cell, Value> readUncachedRows(TableReference tableRef,
+                                              Iterable<byte[]> rows,
+                                              ColumnSelection columnSelection,
+                                              Map<Cell, byte[]> cachedResults) {
+        if (cachedResults.isEmpty()) {
+            return keyValueService.getRows(tableRef, rows, columnSelection, getStartTimestamp());
+        }
+        Set<byte[]> cachedRows = Sets.newTreeSet(UnsignedBytes.lexicographicalComparator());
+        for (Cell cell : cachedResults.keySet()) {
+            cachedRows.add(cell.getRowName());
+        }
+        List<byte[]> rowsToRead = ImmutableList.copyOf(Iterables.filter(rows, row -> !cachedRows.contains(row)));
+        if (rowsToRead.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        return keyValueService.getRows(tableRef, rowsToRead, columnSelection, getStartTimestamp());
+    }
+
     @Override
     public Map<byte[], BatchingVisitable<Map.Entry<Cell, byte[]>>> getRowsColumnRange(
             TableReference tableRef,
@@ -436,8 +502,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             RowColumnRangeIterator rawIterator) {
         Iterator<Map.Entry<Cell, byte[]>> postFilterIterator =
                 getRowColumnRangePostFiltered(tableRef, row, batchColumnRangeSelection, rawIterator);
-        SortedMap<Cell, byte[]> localWrites = getLocalWritesForColumnRange(tableRef, batchColumnRangeSelection, row);
-        Iterator<Map.Entry<Cell, byte[]>> localIterator = localWrites.entrySet().iterator();
+        Iterator<Map.Entry<Cell, byte[]>> localIterator =
+                getLocalWritesForColumnRange(tableRef, batchColumnRangeSelection, row);
         Iterator<Map.Entry<Cell, byte[]>> mergedIterator =
                 IteratorUtils.mergeIterators(localIterator,
                         postFilterIterator,
@@ -560,9 +626,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      * If an empty value was written as a delete, this will also be included in the map.
      */
     private void extractLocalWritesForRow(@Output Map<Cell, byte[]> result,
-            SortedMap<Cell, byte[]> writes, byte[] row) {
+            LocalWriteBuffer writes, byte[] row) {
         Cell lowCell = Cells.createSmallestCellForRow(row);
-        Iterator<Entry<Cell, byte[]>> it = writes.tailMap(lowCell).entrySet().iterator();
+        Iterator<Entry<Cell, byte[]>> it = writes.entriesInRange(lowCell, null);
         while (it.hasNext()) {
             Entry<Cell, byte[]> entry = it.next();
             Cell cell = entry.getKey();
@@ -582,11 +648,12 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
 
         Map<Cell, byte[]> result = Maps.newHashMap();
-        SortedMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+        LocalWriteBuffer writes = writesByTable.get(tableRef);
         if (writes != null) {
             for (Cell cell : cells) {
-                if (writes.containsKey(cell)) {
-                    result.put(cell, writes.get(cell));
+                byte[] value = writes.get(cell);
+                if (value != null) {
+                    result.put(cell, value);
                 }
             }
         }
@@ -623,12 +690,24 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      */
     private Map<Cell, byte[]> getFromKeyValueService(TableReference tableRef, Set<Cell> cells) {
         Map<Cell, byte[]> result = Maps.newHashMap();
-        Map<Cell, Long> toRead = Cells.constantValueMap(cells, getStartTimestamp());
+        Set<Cell> cellsToRead = cells;
+        if (isImmutableTableCacheable(tableRef)) {
+            result.putAll(immutableTableCache.getVisible(tableRef, cells, getStartTimestamp()));
+            if (result.size() == cells.size()) {
+                return result;
+            }
+            cellsToRead = ImmutableSet.copyOf(Sets.difference(cells, result.keySet()));
+        }
+        Map<Cell, Long> toRead = Cells.constantValueMap(cellsToRead, getStartTimestamp());
         Map<Cell, Value> rawResults = keyValueService.get(tableRef, toRead);
         getWithPostFiltering(tableRef, rawResults, result, Value.GET_VALUE);
         return result;
     }
 
+    private boolean isImmutableTableCacheable(TableReference tableRef) {
+        return !AtlasDbConstants.hiddenTables.contains(tableRef) && immutableTableCache.isCacheable(tableRef);
+    }
+
     private static byte[] getNextStartRowName(
             RangeRequest range,
             TokenBackedBasicResultsPage<RowResult<Value>, byte[]> prePostFilter) {
@@ -781,13 +860,13 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 Predicates.compose(
                         Predicates.in(prePostFilterCells.keySet()),
                         MapEntries.getKeyFunction()));
-        Collection<Entry<Cell, byte[]>> localWritesInRange = getLocalWritesForRange(
+        Iterator<Entry<Cell, byte[]>> localWritesInRange = getLocalWritesForRange(
                 tableRef,
                 rangeRequest.getStartInclusive(),
-                endRowExclusive).entrySet();
+                endRowExclusive);
         return ImmutableList.copyOf(mergeInLocalWrites(
                 postFilteredCells.iterator(),
-                localWritesInRange.iterator(),
+                localWritesInRange,
                 rangeRequest.isReverse()));
     }
 
@@ -833,7 +912,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 postFilterIterator(tableRef, range, preFilterBatchSize, Value.GET_VALUE);
         try {
             Iterator<RowResult<byte[]>> localWritesInRange = Cells.createRowView(
-                    getLocalWritesForRange(tableRef, range.getStartInclusive(), range.getEndExclusive()).entrySet());
+                    getLocalWritesForRange(tableRef, range.getStartInclusive(), range.getEndExclusive()));
             Iterator<RowResult<byte[]>> mergeIterators =
                     mergeInLocalWritesRows(postFilterIterator, localWritesInRange, range.isReverse());
             return BatchingVisitableFromIterable.create(mergeIterators).batchAccept(userRequestedSize, visitor);
@@ -919,11 +998,11 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         };
     }
 
-    private ConcurrentNavigableMap<Cell, byte[]> getLocalWrites(TableReference tableRef) {
-        ConcurrentNavigableMap<Cell, byte[]> writes = writesByTable.get(tableRef);
+    private LocalWriteBuffer getLocalWrites(TableReference tableRef) {
+        LocalWriteBuffer writes = writesByTable.get(tableRef);
         if (writes == null) {
-            writes = new ConcurrentSkipListMap<Cell, byte[]>();
-            ConcurrentNavigableMap<Cell, byte[]> previous = writesByTable.putIfAbsent(tableRef, writes);
+            writes = new LocalWriteBuffer();
+            LocalWriteBuffer previous = writesByTable.putIfAbsent(tableRef, writes);
             if (previous != null) {
                 writes = previous;
             }
@@ -934,31 +1013,28 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
     /**
      * This includes deleted writes as zero length byte arrays, be sure to strip them out.
      */
-    private SortedMap<Cell, byte[]> getLocalWritesForRange(TableReference tableRef, byte[] startRow, byte[] endRow) {
-        SortedMap<Cell, byte[]> writes = getLocalWrites(tableRef);
-        if (startRow.length != 0) {
-            writes = writes.tailMap(Cells.createSmallestCellForRow(startRow));
-        }
-        if (endRow.length != 0) {
-            writes = writes.headMap(Cells.createSmallestCellForRow(endRow));
-        }
-        return writes;
+    private Iterator<Entry<Cell, byte[]>> getLocalWritesForRange(
+            TableReference tableRef,
+            byte[] startRow,
+            byte[] endRow) {
+        return getLocalWrites(tableRef).entriesInRange(
+                startRow.length != 0 ? Cells.createSmallestCellForRow(startRow) : null,
+                endRow.length != 0 ? Cells.createSmallestCellForRow(endRow) : null);
     }
 
-    private SortedMap<Cell, byte[]> getLocalWritesForColumnRange(
+    private Iterator<Entry<Cell, byte[]>> getLocalWritesForColumnRange(
             TableReference tableRef,
             BatchColumnRangeSelection columnRangeSelection,
             byte[] row) {
-        SortedMap<Cell, byte[]> writes = getLocalWrites(tableRef);
+        LocalWriteBuffer writes = getLocalWrites(tableRef);
         Cell startCell;
         if (columnRangeSelection.getStartCol().length != 0) {
             startCell = Cell.create(row, columnRangeSelection.getStartCol());
         } else {
             startCell = Cells.createSmallestCellForRow(row);
         }
-        writes = writes.tailMap(startCell);
         if (RangeRequests.isLastRowName(row)) {
-            return writes;
+            return writes.entriesInRange(startCell, null);
         }
         Cell endCell;
         if (columnRangeSelection.getEndCol().length != 0) {
@@ -966,8 +1042,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         } else {
             endCell = Cells.createSmallestCellForRow(RangeRequests.nextLexicographicName(row));
         }
-        writes = writes.headMap(endCell);
-        return writes;
+        return writes.entriesInRange(startCell, endCell);
     }
 
     private SortedMap<Cell, byte[]> postFilterPages(TableReference tableRef,
@@ -1056,6 +1131,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         Map<Long, Long> commitTimestamps = getCommitTimestamps(tableRef, startTimestampsForValues, true);
         Map<Cell, Long> keysToReload = Maps.newHashMapWithExpectedSize(0);
         Map<Cell, Long> keysToDelete = Maps.newHashMapWithExpectedSize(0);
+        boolean cacheable = isImmutableTableCacheable(tableRef);
         for (Map.Entry<Cell, Value> e :  rawResults.entrySet()) {
             Cell key = e.getKey();
             Value value = e.getValue();
@@ -1093,6 +1169,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                     // The value has a commit timestamp less than our start timestamp, and is visible and valid.
                     if (value.getContents().length != 0) {
                         results.put(key, transformer.apply(value));
+                        if (cacheable) {
+                            immutableTableCache.put(tableRef, key, value.getContents(), theirCommitTimestamp);
+                        }
                     }
                 }
             }
@@ -1150,7 +1229,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             // We need to check the status after incrementing writers to ensure that we fail if we are committing.
             Preconditions.checkState(state.get() == State.UNCOMMITTED, "Transaction must be uncommitted.");
 
-            ConcurrentNavigableMap<Cell, byte[]> writes = getLocalWrites(tableRef);
+            LocalWriteBuffer writes = getLocalWrites(tableRef);
 
             putWritesAndLogIfTooLarge(valuesToWrite, writes);
         } finally {
@@ -1181,22 +1260,23 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         return expiringValues;
     }
 
-    private void putWritesAndLogIfTooLarge(Map<Cell, byte[]> values, SortedMap<Cell, byte[]> writes) {
+    private void putWritesAndLogIfTooLarge(Map<Cell, byte[]> values, LocalWriteBuffer writes) {
+        // Writes are only deduplicated lazily, so this counts every byte put, including overwrites of a cell.
+        long toAdd = 0;
         for (Map.Entry<Cell, byte[]> e : values.entrySet()) {
             byte[] val = MoreObjects.firstNonNull(e.getValue(), PtBytes.EMPTY_BYTE_ARRAY);
-            Cell cell = e.getKey();
-            if (writes.put(cell, val) == null) {
-                long toAdd = val.length + Cells.getApproxSizeOfCell(cell);
-                long newVal = byteCount.addAndGet(toAdd);
-                if (newVal >= TransactionConstants.WARN_LEVEL_FOR_QUEUED_BYTES
-                        && newVal - toAdd < TransactionConstants.WARN_LEVEL_FOR_QUEUED_BYTES) {
-                    log.warn("A single transaction has put quite a few bytes: {}. "
-                            + "Enable debug logging for more information", newVal);
-                    if (log.isDebugEnabled()) {
-                        log.debug("This exception and stack trace are provided for debugging purposes.",
-                                new RuntimeException());
-                    }
-                }
+            toAdd += val.length + Cells.getApproxSizeOfCell(e.getKey());
+        }
+        writes.putAll(Maps.transformValues(values, val -> MoreObjects.firstNonNull(val, PtBytes.EMPTY_BYTE_ARRAY)));
+
+        long newVal = byteCount.addAndGet(toAdd);
+        if (newVal >= TransactionConstants.WARN_LEVEL_FOR_QUEUED_BYTES
+                && newVal - toAdd < TransactionConstants.WARN_LEVEL_FOR_QUEUED_BYTES) {
+            log.warn("A single transaction has put quite a few bytes: {}. "
+                    + "Enable debug logging for more information", newVal);
+            if (log.isDebugEnabled()) {
+                log.debug("This exception and stack trace are provided for debugging purposes.",
+                        new RuntimeException());
             }
         }
     }
@@ -1238,9 +1318,68 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
 
     @Override
     public void commit(TransactionService transactionService) {
-        if (state.get() == State.COMMITTED) {
+        if (!startCommitting()) {
             return;
         }
+
+        boolean success = false;
+        try {
+            checkPreconditionsForCommit();
+            commitWrites(transactionService);
+            logTransactionCommitted();
+            success = true;
+        } finally {
+            // Once we are in state committing, we need to try/finally to set the state to a terminal state.
+            state.set(success ? State.COMMITTED : State.FAILED);
+        }
+    }
+
+    public CompletableFuture<Void> commitAsync(Executor executor) {
+        return commitAsync(defaultTransactionService, executor);
+    }
+
+    /**
+     * Commits this transaction like {@link #commit(TransactionService)}, but runs the commit as a pipeline on the
+     * given executor, overlapping the stages that the commit protocol allows to overlap. Once the commit timestamp
+     * is known, punching happens in the background while the serializable read-write conflict check and then the
+     * lock check run; once the commit timestamp is written, the commit locks are released in the background.
+     *
+     * The returned future completes when the commit timestamp has been written or the commit has failed, with the
+     * same exceptions {@link #commit(TransactionService)} would throw as its cause. An
+     * {@link IllegalStateException} is thrown immediately if this transaction has already failed.
+     */
+    public CompletableFuture<Void> commitAsync(TransactionService transactionService, Executor executor) {
+        if (!startCommitting()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> preconditionsChecked;
+        try {
+            preconditionsChecked = CompletableFuture.runAsync(this::checkPreconditionsForCommit, executor);
+        } catch (RuntimeException e) {
+            state.set(State.FAILED);
+            throw e;
+        }
+        return preconditionsChecked
+                .thenCompose(ignored -> commitWritesAsync(transactionService, executor))
+                .whenComplete((ignored, throwable) -> {
+                    // Once we are in state committing, we need to set the state to a terminal state.
+                    state.set(throwable == null ? State.COMMITTED : State.FAILED);
+                    if (throwable == null) {
+                        logTransactionCommitted();
+                    }
+                });
+    }
+
+    /**
+     * Moves this transaction into state committing.
+     *
+     * @return false if this transaction has already been committed
+     */
+    private boolean startCommitting() {
+        if (state.get() == State.COMMITTED) {
+            return false;
+        }
         if (state.get() == State.FAILED) {
             throw new IllegalStateException("this transaction has already failed");
         }
@@ -1258,35 +1397,34 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 || getTransactionType() == TransactionType.HARD_DELETE) {
             cleaner.queueCellsForScrubbing(getCellsToQueueForScrubbing(), getStartTimestamp());
         }
+        return true;
+    }
 
-        boolean success = false;
-        try {
-            if (numWriters.get() > 0) {
-                // After we set state to committing we need to make sure no one is still writing.
-                throw new IllegalStateException("Cannot commit while other threads are still calling put.");
-            }
+    private void checkPreconditionsForCommit() {
+        if (numWriters.get() > 0) {
+            // After we set state to committing we need to make sure no one is still writing.
+            throw new IllegalStateException("Cannot commit while other threads are still calling put.");
+        }
 
-            checkConstraints();
-            commitWrites(transactionService);
-            if (perfLogger.isDebugEnabled()) {
-                long transactionMillis = TimeUnit.NANOSECONDS.toMillis(transactionTimerContext.stop());
-                perfLogger.debug("Committed transaction {} in {}ms",
-                        getStartTimestamp(),
-                        transactionMillis);
-            }
-            success = true;
-        } finally {
-            // Once we are in state committing, we need to try/finally to set the state to a terminal state.
-            state.set(success ? State.COMMITTED : State.FAILED);
+        checkConstraints();
+    }
+
+    private void logTransactionCommitted() {
+        if (perfLogger.isDebugEnabled()) {
+            long transactionMillis = TimeUnit.NANOSECONDS.toMillis(transactionTimerContext.stop());
+            perfLogger.debug("Committed transaction {} in {}ms",
+                    getStartTimestamp(),
+                    transactionMillis);
         }
     }
 
     private void checkConstraints() {
         List<String> violations = Lists.newArrayList();
         for (Map.Entry<TableReference, ConstraintCheckable> entry : constraintsByTableName.entrySet()) {
-            SortedMap<Cell, byte[]> sortedMap = writesByTable.get(entry.getKey());
-            if (sortedMap != null) {
-                violations.addAll(entry.getValue().findConstraintFailures(sortedMap, this, constraintCheckingMode));
+            LocalWriteBuffer writes = writesByTable.get(entry.getKey());
+            if (writes != null) {
+                violations.addAll(entry.getValue().findConstraintFailures(
+                        writes.asSortedMap(), this, constraintCheckingMode));
             }
         }
         if (!violations.isEmpty()) {
@@ -1312,7 +1450,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             throwIfConflictOnCommit(commitLocksToken, transactionService);
             long millisCheckingForConflicts = TimeUnit.NANOSECONDS.toMillis(conflictsTimer.stop());
             Timer.Context writesTimer = getTimer("commitWrite").time();
-            keyValueService.multiPut(writesByTable, getStartTimestamp());
+            keyValueService.multiPut(getSortedWritesByTable(), getStartTimestamp());
             long millisForWrites = TimeUnit.NANOSECONDS.toMillis(writesTimer.stop());
 
             // Now that all writes are done, get the commit timestamp
@@ -1339,18 +1477,8 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService);
             long millisForCommitTs = TimeUnit.NANOSECONDS.toMillis(commitTsTimer.stop());
 
-            Set<LockToken> expiredLocks = refreshCommitAndImmutableTsLocks(commitLocksToken);
-            if (!expiredLocks.isEmpty()) {
-                final String baseMsg = "This isn't a bug but it should happen very infrequently. "
-                        + "Required locks are no longer valid but we have already committed successfully. ";
-                String expiredLocksErrorString = getExpiredLocksErrorString(commitLocksToken, expiredLocks);
-                log.error(baseMsg + "{}", expiredLocksErrorString,
-                        new TransactionFailedRetriableException(baseMsg + expiredLocksErrorString));
-            }
-            long millisSinceCreation = System.currentTimeMillis() - timeCreated;
-            getTimer("commitTotalTimeSinceTxCreation").update(millisSinceCreation, TimeUnit.MILLISECONDS);
-            Histogram byteSizeTx = getHistogram("byteSizeTx");
-            byteSizeTx.update(byteCount.get());
+            logIfLocksExpiredAfterCommit(commitLocksToken);
+            long millisSinceCreation = updateCommitMetrics();
             if (perfLogger.isDebugEnabled()) {
                 perfLogger.debug("Committed {} bytes with locks, start ts {}, commit ts {}, "
                         + "acquiring locks took {} ms, checking for conflicts took {} ms, "
@@ -1365,14 +1493,119 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         }
     }
 
+    private CompletableFuture<Void> commitWritesAsync(TransactionService transactionService, Executor executor) {
+        if (!hasWrites()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Timer.Context acquireLocksTimer = getTimer("commitAcquireLocks").time();
+        LockToken commitLocksToken = acquireLocksForCommit();
+        acquireLocksTimer.stop();
+        CompletableFuture<Void> commit;
+        try {
+            // The conflict check must finish before we write, as it would otherwise find (and roll back) our own
+            // writes, and the commit timestamp must be fetched after all writes are done; so these stay in order.
+            Timer.Context conflictsTimer = getTimer("commitCheckingForConflicts").time();
+            throwIfConflictOnCommit(commitLocksToken, transactionService);
+            conflictsTimer.stop();
+            Timer.Context writesTimer = getTimer("commitWrite").time();
+            keyValueService.multiPut(getSortedWritesByTable(), getStartTimestamp());
+            writesTimer.stop();
+
+            Timer.Context commitTsTimer = getTimer("commitGetCommitTs").time();
+            long commitTimestamp = timelockService.getFreshTimestamp();
+            commitTsTimer.stop();
+            commitTsForScrubbing = commitTimestamp;
+
+            // Punching only lets the unreadable timestamp advance, so the commit need not wait for it.
+            runInBackground(() -> {
+                Timer.Context punchTimer = getTimer("millisForPunch").time();
+                cleaner.punch(commitTimestamp);
+                punchTimer.stop();
+            }, executor);
+
+            // As in commitWrites, the locks must still be valid after the reads have been verified, so the lock check
+            // runs after the read-write conflict check rather than alongside it.
+            commit = CompletableFuture.runAsync(() -> {
+                Timer.Context preCommitChecksTimer = getTimer("commitPreCommitChecks").time();
+                throwIfReadWriteConflictForSerializable(commitTimestamp);
+                throwIfPreCommitRequirementsNotMet(commitLocksToken);
+                preCommitChecksTimer.stop();
+                Timer.Context putCommitTsTimer = getTimer("commitPutCommitTs").time();
+                putCommitTimestamp(commitTimestamp, commitLocksToken, transactionService);
+                putCommitTsTimer.stop();
+                updateCommitMetrics();
+            }, executor);
+        } catch (RuntimeException e) {
+            timelockService.unlock(ImmutableSet.of(commitLocksToken));
+            throw e;
+        }
+
+        return commit.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                // Release the locks before reporting the failure, so that a retry does not wait on our own locks.
+                timelockService.unlock(ImmutableSet.of(commitLocksToken));
+            } else {
+                runInBackground(() -> {
+                    try {
+                        logIfLocksExpiredAfterCommit(commitLocksToken);
+                    } finally {
+                        timelockService.unlock(ImmutableSet.of(commitLocksToken));
+                    }
+                }, executor);
+            }
+        });
+    }
+
+    private void runInBackground(Runnable task, Executor executor) {
+        try {
+            CompletableFuture.runAsync(task, executor).exceptionally(throwable -> {
+                log.warn("Background commit task failed for transaction {}.",
+                        SafeArg.of("startTs", getStartTimestamp()), throwable);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void logIfLocksExpiredAfterCommit(LockToken commitLocksToken) {
+        Set<LockToken> expiredLocks = refreshCommitAndImmutableTsLocks(commitLocksToken);
+        if (!expiredLocks.isEmpty()) {
+            final String baseMsg = "This isn't a bug but it should happen very infrequently. "
+                    + "Required locks are no longer valid but we have already committed successfully. ";
+            String expiredLocksErrorString = getExpiredLocksErrorString(commitLocksToken, expiredLocks);
+            log.error(baseMsg + "{}", expiredLocksErrorString,
+                    new TransactionFailedRetriableException(baseMsg + expiredLocksErrorString));
+        }
+    }
+
+    /**
+     * @return milliseconds since this transaction was created
+     */
+    private long updateCommitMetrics() {
+        long millisSinceCreation = System.currentTimeMillis() - timeCreated;
+        getTimer("commitTotalTimeSinceTxCreation").update(millisSinceCreation, TimeUnit.MILLISECONDS);
+        Histogram byteSizeTx = getHistogram("byteSizeTx");
+        byteSizeTx.update(byteCount.get());
+        return millisSinceCreation;
+    }
+
     protected void throwIfReadWriteConflictForSerializable(long commitTimestamp) {
         // This is for overriding to get serializable transactions
     }
 
+    /**
+     * The writes of this transaction, sorted and deduplicated. Must only be called once no more writes can be made.
+     */
+    private Map<TableReference, Map<Cell, byte[]>> getSortedWritesByTable() {
+        return Maps.transformValues(writesByTable, LocalWriteBuffer::asSortedMap);
+    }
+
     private boolean hasWrites() {
         boolean hasWrites = false;
-        for (SortedMap<?, ?> map : writesByTable.values()) {
-            if (!map.isEmpty()) {
+        for (LocalWriteBuffer writes : writesByTable.values()) {
+            if (!writes.isEmpty()) {
                 hasWrites = true;
                 break;
             }
@@ -1432,11 +1665,11 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
      */
     protected void throwIfConflictOnCommit(LockToken commitLocksToken, TransactionService transactionService)
             throws TransactionConflictException {
-        for (Entry<TableReference, ConcurrentNavigableMap<Cell, byte[]>> write : writesByTable.entrySet()) {
+        for (Entry<TableReference, LocalWriteBuffer> write : writesByTable.entrySet()) {
             ConflictHandler conflictHandler = getConflictHandlerForTable(write.getKey());
             throwIfWriteAlreadyCommitted(
                     write.getKey(),
-                    write.getValue(),
+                    write.getValue().asSortedMap(),
                     conflictHandler,
                     commitLocksToken,
                     transactionService);
@@ -1698,7 +1931,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
             }
             ConflictHandler conflictHandler = getConflictHandlerForTable(tableRef);
             if (conflictHandler == ConflictHandler.RETRY_ON_WRITE_WRITE_CELL) {
-                for (Cell cell : getLocalWrites(tableRef).keySet()) {
+                for (Cell cell : getLocalWrites(tableRef).asSortedMap().keySet()) {
                     result.add(
                             AtlasCellLockDescriptor.of(
                                     tableRef.getQualifiedName(),
@@ -1707,7 +1940,7 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
                 }
             } else if (conflictHandler != ConflictHandler.IGNORE_ALL) {
                 Cell lastCell = null;
-                for (Cell cell : getLocalWrites(tableRef).keySet()) {
+                for (Cell cell : getLocalWrites(tableRef).asSortedMap().keySet()) {
                     if (lastCell == null || !Arrays.equals(lastCell.getRowName(), cell.getRowName())) {
                         result.add(
                                 AtlasRowLockDescriptor.of(tableRef.getQualifiedName(), cell.getRowName()));
@@ -1919,9 +2152,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         Multimap<Cell, TableReference> cellToTableName = HashMultimap.create();
         State actualState = state.get();
         if (expectedState == actualState) {
-            for (Entry<TableReference, ConcurrentNavigableMap<Cell, byte[]>> entry : writesByTable.entrySet()) {
+            for (Entry<TableReference, LocalWriteBuffer> entry : writesByTable.entrySet()) {
                 TableReference table = entry.getKey();
-                Set<Cell> cells = entry.getValue().keySet();
+                Set<Cell> cells = entry.getValue().asSortedMap().keySet();
                 for (Cell c : cells) {
                     cellToTableName.put(c, table);
                 }
@@ -1937,9 +2170,9 @@ public class SnapshotTransaction extends AbstractTransaction implements Constrai
         Multimap<TableReference, Cell> tableRefToCells = HashMultimap.create();
         State actualState = state.get();
         if (expectedState == actualState) {
-            for (Entry<TableReference, ConcurrentNavigableMap<Cell, byte[]>> entry : writesByTable.entrySet()) {
+            for (Entry<TableReference, LocalWriteBuffer> entry : writesByTable.entrySet()) {
                 TableReference table = entry.getKey();
-                Set<Cell> cells = entry.getValue().keySet();
+                Set<Cell> cells = entry.getValue().asSortedMap().keySet();
                 tableRefToCells.putAll(table, cells);
             }
         } else {
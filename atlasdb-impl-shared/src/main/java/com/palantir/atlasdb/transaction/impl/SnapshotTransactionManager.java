@@ -31,6 +31,9 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cache.ImmutableTableCache;
+import com.palantir.atlasdb.cache.ImmutableTableCacheInvalidatingKeyValueService;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.keyvalue.api.ClusterAvailabilityStatus;
@@ -52,6 +55,7 @@ import com.palantir.lock.LockService;
 import com.palantir.lock.v2.LockImmutableTimestampRequest;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.timestamp.TimestampService;
 
@@ -61,6 +65,8 @@ import com.palantir.timestamp.TimestampService;
     final KeyValueService keyValueService;
     final TransactionService transactionService;
     final TimelockService timelockService;
+    final BatchingTransactionStarter transactionStarter;
+    final Supplier<Boolean> transactionStartBatchingEnabled;
     final LockService lockService;
     final ConflictDetectionManager conflictDetectionManager;
     final SweepStrategyManager sweepStrategyManager;
@@ -72,6 +78,7 @@ import com.palantir.timestamp.TimestampService;
     final ExecutorService getRangesExecutor;
     final TimestampTracker timestampTracker;
     final int defaultGetRangesConcurrency;
+    final ImmutableTableCache immutableTableCache;
 
     final List<Runnable> closingCallbacks;
     final AtomicBoolean isClosed;
@@ -91,10 +98,53 @@ import com.palantir.timestamp.TimestampService;
             int concurrentGetRangesThreadPoolSize,
             int defaultGetRangesConcurrency,
             Supplier<Long> timestampCacheSize) {
+        this(
+                keyValueService,
+                timelockService,
+                lockService,
+                transactionService,
+                constraintModeSupplier,
+                conflictDetectionManager,
+                sweepStrategyManager,
+                cleaner,
+                allowHiddenTableAccess,
+                lockAcquireTimeoutMs,
+                timestampTracker,
+                concurrentGetRangesThreadPoolSize,
+                defaultGetRangesConcurrency,
+                timestampCacheSize,
+                () -> false,
+                AtlasDbConstants.DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES);
+    }
+
+    protected SnapshotTransactionManager(
+            KeyValueService keyValueService,
+            TimelockService timelockService,
+            LockService lockService,
+            TransactionService transactionService,
+            Supplier<AtlasDbConstraintCheckingMode> constraintModeSupplier,
+            ConflictDetectionManager conflictDetectionManager,
+            SweepStrategyManager sweepStrategyManager,
+            Cleaner cleaner,
+            boolean allowHiddenTableAccess,
+            Supplier<Long> lockAcquireTimeoutMs,
+            TimestampTracker timestampTracker,
+            int concurrentGetRangesThreadPoolSize,
+            int defaultGetRangesConcurrency,
+            Supplier<Long> timestampCacheSize,
+            Supplier<Boolean> transactionStartBatchingEnabled,
+            long immutableTableCacheSizeBytes) {
         super(timestampCacheSize);
 
-        this.keyValueService = keyValueService;
+        this.immutableTableCache = immutableTableCacheSizeBytes > 0
+                ? ImmutableTableCache.create(keyValueService, immutableTableCacheSizeBytes)
+                : ImmutableTableCache.disabled();
+        this.keyValueService = immutableTableCacheSizeBytes > 0
+                ? ImmutableTableCacheInvalidatingKeyValueService.create(keyValueService, immutableTableCache)
+                : keyValueService;
         this.timelockService = timelockService;
+        this.transactionStarter = new BatchingTransactionStarter(timelockService);
+        this.transactionStartBatchingEnabled = transactionStartBatchingEnabled;
         this.lockService = lockService;
         this.transactionService = transactionService;
         this.conflictDetectionManager = conflictDetectionManager;
@@ -134,13 +184,20 @@ import com.palantir.timestamp.TimestampService;
     }
 
     public RawTransaction setupRunTaskWithLocksThrowOnConflict(Iterable<LockRefreshToken> lockTokens) {
-        LockImmutableTimestampResponse immutableTsResponse = timelockService.lockImmutableTimestamp(
-                LockImmutableTimestampRequest.create());
+        LockImmutableTimestampResponse immutableTsResponse;
+        Supplier<Long> startTimestampSupplier;
+        if (transactionStartBatchingEnabled.get()) {
+            StartTransactionResponse startTransactionResponse = transactionStarter.startTransaction();
+            immutableTsResponse = startTransactionResponse.getImmutableTimestamp();
+            startTimestampSupplier = getStartTimestampSupplier(startTransactionResponse.getStartTimestamp());
+        } else {
+            immutableTsResponse = timelockService.lockImmutableTimestamp(LockImmutableTimestampRequest.create());
+            startTimestampSupplier = getStartTimestampSupplier();
+        }
         try {
             LockToken immutableTsLock = immutableTsResponse.getLock();
             long immutableTs = immutableTsResponse.getImmutableTimestamp();
             recordImmutableTimestamp(immutableTs);
-            Supplier<Long> startTimestampSupplier = getStartTimestampSupplier();
 
             AdvisoryLockPreCommitCheck advisoryLockCheck =
                     AdvisoryLockPreCommitCheck.forLockServiceLocks(lockTokens, getLockService());
@@ -195,7 +252,8 @@ import com.palantir.timestamp.TimestampService;
                 timestampValidationReadCache,
                 lockAcquireTimeoutMs.get(),
                 getRangesExecutor,
-                defaultGetRangesConcurrency);
+                defaultGetRangesConcurrency,
+                immutableTableCache);
     }
 
     @Override
@@ -220,7 +278,8 @@ import com.palantir.timestamp.TimestampService;
                 timestampValidationReadCache,
                 lockAcquireTimeoutMs.get(),
                 getRangesExecutor,
-                defaultGetRangesConcurrency);
+                defaultGetRangesConcurrency,
+                immutableTableCache);
         return runTaskThrowOnConflict(task, new ReadTransaction(transaction, sweepStrategyManager));
     }
 
@@ -261,6 +320,7 @@ import com.palantir.timestamp.TimestampService;
     @Override
     public void clearTimestampCache() {
         timestampValidationReadCache.clear();
+        immutableTableCache.clear();
     }
 
     private void closeLockServiceIfPossible() {
@@ -281,6 +341,13 @@ import com.palantir.timestamp.TimestampService;
         });
     }
 
+    private Supplier<Long> getStartTimestampSupplier(long startTimestamp) {
+        return Suppliers.memoize(() -> {
+            cleaner.punch(startTimestamp);
+            return startTimestamp;
+        });
+    }
+
     @Override
     public LockService getLockService() {
         return lockService;
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+import com.palantir.atlasdb.transaction.service.RequestBatcher.PendingRequest;
+
+/**
+ * Group commit for the transactions table: concurrent {@link #putUnlessExists(long, long)} calls are collected
+ * and written with a single multi-cell {@link KeyValueService#putUnlessExists} call.
+ *
+ * Multi-cell putUnlessExists is not atomic, and a {@link KeyAlreadyExistsException} does not say which of the
+ * other cells were written. When a batch fails, the batch's cells are read back: a cell holding the caller's commit
+ * timestamp was written by this batch, a cell holding anything else lost to a concurrent writer and its caller gets
+ * a {@link KeyAlreadyExistsException}, and cells that were never written are retried. Each caller therefore sees
+ * the same outcome as it would have from an individual putUnlessExists.
+ *
+ * Reads go straight to the delegate.
+ */
+@ThreadSafe
+public class GroupCommittingTransactionService implements TransactionService {
+    public static final long DEFAULT_MIN_TIME_BETWEEN_REQUESTS = 0L;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+    private final TransactionService delegate;
+    private final KeyValueService keyValueService;
+    private final RequestBatcher<CommitRequest, Void> batcher;
+
+    public GroupCommittingTransactionService(TransactionService delegate, KeyValueService keyValueService) {
+        this(delegate, keyValueService, DEFAULT_MIN_TIME_BETWEEN_REQUESTS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public GroupCommittingTransactionService(
+            TransactionService delegate,
+            KeyValueService keyValueService,
+            long minTimeBetweenRequestsMillis,
+            int maxBatchSize) {
+        this.delegate = delegate;
+        this.keyValueService = keyValueService;
+        this.batcher = new RequestBatcher<>(
+                this::processBatch,
+                minTimeBetweenRequestsMillis,
+                maxBatchSize,
+                GroupCommittingTransactionService.class);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return delegate.get(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        return delegate.get(startTimestamps);
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        batcher.submit(new CommitRequest(startTimestamp, commitTimestamp));
+    }
+
+    private void processBatch(List<PendingRequest<CommitRequest, Void>> batch) {
+        Map<Long, PendingRequest<CommitRequest, Void>> toWrite = Maps.newLinkedHashMap();
+        List<PendingRequest<CommitRequest, Void>> duplicates = Lists.newArrayList();
+        for (PendingRequest<CommitRequest, Void> pending : batch) {
+            if (toWrite.putIfAbsent(pending.argument().startTimestamp, pending) != null) {
+                duplicates.add(pending);
+            }
+        }
+
+        while (!toWrite.isEmpty()) {
+            toWrite = writeAndResolve(toWrite);
+        }
+
+        // Two writes for the same transaction (e.g. a commit racing a rollback) cannot share one multi-cell
+        // write, so any after the first are written on their own with the usual semantics.
+        for (PendingRequest<CommitRequest, Void> pending : duplicates) {
+            try {
+                putSingle(pending.argument());
+                pending.complete(null);
+            } catch (KeyAlreadyExistsException e) {
+                pending.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the given requests and completes those whose outcome is known, returning the ones that still need
+     * to be written.
+     */
+    private Map<Long, PendingRequest<CommitRequest, Void>> writeAndResolve(
+            Map<Long, PendingRequest<CommitRequest, Void>> toWrite) {
+        Map<Cell, byte[]> values = Maps.newHashMapWithExpectedSize(toWrite.size());
+        for (PendingRequest<CommitRequest, Void> pending : toWrite.values()) {
+            values.put(pending.argument().cell(), pending.argument().value());
+        }
+
+        try {
+            keyValueService.putUnlessExists(TransactionConstants.TRANSACTION_TABLE, values);
+            toWrite.values().forEach(pending -> pending.complete(null));
+            return ImmutableMap.of();
+        } catch (KeyAlreadyExistsException e) {
+            if (toWrite.size() == 1) {
+                toWrite.values().forEach(pending -> pending.fail(e));
+                return ImmutableMap.of();
+            }
+        }
+
+        Map<Long, Long> existing = delegate.get(toWrite.keySet());
+        Map<Long, PendingRequest<CommitRequest, Void>> unwritten = Maps.newLinkedHashMap();
+        for (Map.Entry<Long, PendingRequest<CommitRequest, Void>> entry : toWrite.entrySet()) {
+            Long existingCommitTimestamp = existing.get(entry.getKey());
+            PendingRequest<CommitRequest, Void> pending = entry.getValue();
+            if (existingCommitTimestamp == null) {
+                unwritten.put(entry.getKey(), pending);
+            } else if (existingCommitTimestamp == pending.argument().commitTimestamp) {
+                pending.complete(null);
+            } else {
+                pending.fail(pending.argument().alreadyExists());
+            }
+        }
+
+        if (unwritten.size() == toWrite.size()) {
+            // The failure did not leave any cell behind (the key value service may report spurious failures), so
+            // fall back to writing each cell on its own to guarantee progress.
+            for (PendingRequest<CommitRequest, Void> pending : unwritten.values()) {
+                try {
+                    putSingle(pending.argument());
+                    pending.complete(null);
+                } catch (KeyAlreadyExistsException e) {
+                    pending.fail(e);
+                }
+            }
+            return ImmutableMap.of();
+        }
+        return unwritten;
+    }
+
+    private void putSingle(CommitRequest request) {
+        keyValueService.putUnlessExists(TransactionConstants.TRANSACTION_TABLE,
+                ImmutableMap.of(request.cell(), request.value()));
+    }
+
+    private static final class CommitRequest {
+        private final long startTimestamp;
+        private final long commitTimestamp;
+
+        CommitRequest(long startTimestamp, long commitTimestamp) {
+            this.startTimestamp = startTimestamp;
+            this.commitTimestamp = commitTimestamp;
+        }
+
+        Cell cell() {
+            return SimpleTransactionService.getTransactionCell(startTimestamp);
+        }
+
+        byte[] value() {
+            return TransactionConstants.getValueForTimestamp(commitTimestamp);
+        }
+
+        KeyAlreadyExistsException alreadyExists() {
+            return new KeyAlreadyExistsException(
+                    "The transaction with start timestamp " + startTimestamp + " already has a commit timestamp",
+                    ImmutableList.of(cell()));
+        }
+
+        @Override
+        public String toString() {
+            return "CommitRequest{startTimestamp=" + startTimestamp + ", commitTimestamp=" + commitTimestamp + "}";
+        }
+    }
+}
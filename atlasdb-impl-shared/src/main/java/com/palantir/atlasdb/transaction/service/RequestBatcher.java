@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+
+/**
+ * Queues requests from many threads and has at most one thread at a time process everything queued behind it as
+ * a single batch, so batches form naturally while the previous batch is in flight. A request is only ever served by
+ * a batch that started after it was queued.
+ *
+ * The batch processor must complete or fail every request it is given; any exception it throws fails all requests
+ * in the batch that have not yet been completed.
+ */
+@ThreadSafe
+public final class RequestBatcher<T, R> {
+    private final Consumer<List<PendingRequest<T, R>>> batchProcessor;
+    private final long minTimeBetweenRequestsMillis;
+    private final int maxBatchSize;
+
+    private final Queue<PendingRequest<T, R>> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final Lock batchLock = new ReentrantLock(true);
+
+    @GuardedBy("batchLock")
+    private long lastRequestTimeNanos = 0;
+
+    private final Histogram batchSizes;
+    private final Timer batchLatency;
+
+    public RequestBatcher(
+            Consumer<List<PendingRequest<T, R>>> batchProcessor,
+            long minTimeBetweenRequestsMillis,
+            int maxBatchSize,
+            Class<?> metricsClass) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be positive, but was %s", maxBatchSize);
+        this.batchProcessor = batchProcessor;
+        this.minTimeBetweenRequestsMillis = minTimeBetweenRequestsMillis;
+        this.maxBatchSize = maxBatchSize;
+
+        MetricRegistry metricRegistry = AtlasDbMetrics.getMetricRegistry();
+        this.batchSizes = metricRegistry.histogram(MetricRegistry.name(metricsClass, "batchSize"));
+        this.batchLatency = metricRegistry.timer(MetricRegistry.name(metricsClass, "batchLatency"));
+    }
+
+    public R submit(T argument) {
+        PendingRequest<T, R> request = new PendingRequest<>(argument);
+        pendingRequests.add(request);
+        while (!request.result.isDone()) {
+            batchLock.lock();
+            try {
+                // Someone else may have served us while we were waiting for the lock.
+                if (!request.result.isDone()) {
+                    sleepForRateLimiting();
+                    processBatch();
+                }
+            } finally {
+                batchLock.unlock();
+            }
+        }
+        return getResult(request.result);
+    }
+
+    @GuardedBy("batchLock")
+    private void processBatch() {
+        List<PendingRequest<T, R>> batch = Lists.newArrayList();
+        while (batch.size() < maxBatchSize) {
+            PendingRequest<T, R> request = pendingRequests.poll();
+            if (request == null) {
+                break;
+            }
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batchSizes.update(batch.size());
+        Timer.Context timer = batchLatency.time();
+        try {
+            batchProcessor.accept(batch);
+        } catch (Throwable t) {
+            for (PendingRequest<T, R> pending : batch) {
+                pending.fail(t);
+            }
+        } finally {
+            timer.stop();
+            lastRequestTimeNanos = System.nanoTime();
+        }
+        for (PendingRequest<T, R> pending : batch) {
+            pending.fail(new IllegalStateException("Batch processor did not complete the request for "
+                    + pending.argument()));
+        }
+    }
+
+    @GuardedBy("batchLock")
+    private void sleepForRateLimiting() {
+        if (minTimeBetweenRequestsMillis == 0) {
+            return;
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRequestTimeNanos);
+        long timeToSleepMillis = Math.max(0, minTimeBetweenRequestsMillis - elapsedMillis);
+
+        if (timeToSleepMillis > 0) {
+            try {
+                Thread.sleep(timeToSleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private R getResult(CompletableFuture<R> result) {
+        try {
+            return result.getNow(null);
+        } catch (CompletionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    public static final class PendingRequest<T, R> {
+        private final T argument;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        private PendingRequest(T argument) {
+            this.argument = argument;
+        }
+
+        public T argument() {
+            return argument;
+        }
+
+        public void complete(R value) {
+            result.complete(value);
+        }
+
+        public void fail(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.transaction.service.RequestBatcher.PendingRequest;
+
+/**
+ * Coalesces concurrent single-timestamp {@link #get(long)} calls from many threads into one multi-timestamp
+ * {@link TransactionService#get(Iterable)} call on the delegate, in the same spirit as the
+ * RequestBatchingTimestampService.
+ *
+ * Requests are queued, and at most one thread at a time reads from the delegate on behalf of everyone queued
+ * behind it (see {@link RequestBatcher}). A request is only ever served by a read that started after it was queued,
+ * so callers see the same freshness as an unbatched get.
+ */
+@ThreadSafe
+public class RequestBatchingTransactionService implements TransactionService {
+    public static final long DEFAULT_MIN_TIME_BETWEEN_REQUESTS = 0L;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+    private final TransactionService delegate;
+    private final RequestBatcher<Long, Long> batcher;
+
+    public RequestBatchingTransactionService(TransactionService delegate) {
+        this(delegate, DEFAULT_MIN_TIME_BETWEEN_REQUESTS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public RequestBatchingTransactionService(
+            TransactionService delegate,
+            long minTimeBetweenRequestsMillis,
+            int maxBatchSize) {
+        this.delegate = delegate;
+        this.batcher = new RequestBatcher<>(
+                this::processBatch,
+                minTimeBetweenRequestsMillis,
+                maxBatchSize,
+                RequestBatchingTransactionService.class);
+    }
+
+    @CheckForNull
+    @Override
+    public Long get(long startTimestamp) {
+        return batcher.submit(startTimestamp);
+    }
+
+    @Override
+    public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+        return delegate.get(startTimestamps);
+    }
+
+    @Override
+    public void putUnlessExists(long startTimestamp, long commitTimestamp) throws KeyAlreadyExistsException {
+        delegate.putUnlessExists(startTimestamp, commitTimestamp);
+    }
+
+    private void processBatch(List<PendingRequest<Long, Long>> batch) {
+        Set<Long> startTimestamps = Sets.newHashSetWithExpectedSize(batch.size());
+        for (PendingRequest<Long, Long> pending : batch) {
+            startTimestamps.add(pending.argument());
+        }
+        Map<Long, Long> commitTimestamps = delegate.get(startTimestamps);
+        for (PendingRequest<Long, Long> pending : batch) {
+            pending.complete(commitTimestamps.get(pending.argument()));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.cleaner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.SortedMap;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Multimap;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+
+public class ScrubQueueRangeTest {
+    private static final TableReference TABLE = TableReference.create(Namespace.create("ns"), "table");
+
+    @Test
+    public void claimsEntriesBeforeTheEnd() {
+        ScrubQueueRange range = new ScrubQueueRange(bytes(0x10), bytes(0x20));
+
+        SortedMap<Long, Multimap<TableReference, Cell>> claimed = range.claim(ImmutableList.of(
+                entries(10L, cell(0x11), cell(0x12)),
+                entries(20L, cell(0x13))));
+
+        assertThat(claimed.keySet()).containsExactly(10L, 20L);
+        assertThat(claimed.get(10L).values()).containsExactly(cell(0x11), cell(0x12));
+        assertThat(range.cellsRead()).isEqualTo(3);
+        assertThat(range.isDone()).isFalse();
+    }
+
+    @Test
+    public void claimDropsEntriesPastTheEndAndFinishesTheRange() {
+        ScrubQueueRange range = new ScrubQueueRange(bytes(0x10), bytes(0x20));
+
+        SortedMap<Long, Multimap<TableReference, Cell>> claimed = range.claim(ImmutableList.of(
+                entries(10L, cell(0x1f), cell(0x20), cell(0x21))));
+
+        assertThat(claimed.get(10L).values()).containsExactly(cell(0x1f));
+        assertThat(range.isDone()).isTrue();
+    }
+
+    @Test
+    public void splitHandsTheRestOfTheRangeToTheNewRange() {
+        ScrubQueueRange range = new ScrubQueueRange(PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+        range.claim(ImmutableList.of(entries(10L, cell(0x10))));
+
+        ScrubQueueRange secondHalf = range.split();
+
+        assertThat(secondHalf).isNotNull();
+        assertThat(secondHalf.end()).isEmpty();
+        assertThat(range.end()).isEqualTo(secondHalf.start());
+
+        SortedMap<Long, Multimap<TableReference, Cell>> claimed = range.claim(ImmutableList.of(
+                entries(10L, cell(0x11), cell(0xf0))));
+        assertThat(claimed.get(10L).values()).containsExactly(cell(0x11));
+        assertThat(range.isDone()).isTrue();
+        assertThat(secondHalf.claim(ImmutableList.of(entries(10L, cell(0xf0)))).get(10L).values())
+                .containsExactly(cell(0xf0));
+    }
+
+    @Test
+    public void finishedRangeCannotBeSplit() {
+        ScrubQueueRange range = new ScrubQueueRange(bytes(0x10), bytes(0x20));
+
+        range.finish();
+
+        assertThat(range.split()).isNull();
+    }
+
+    @Test
+    public void rangeTooNarrowToSplitIsNotSplit() {
+        ScrubQueueRange range = new ScrubQueueRange(bytes(0x01), bytes(0x01, 0x00));
+
+        assertThat(range.split()).isNull();
+    }
+
+    private static SortedMap<Long, Multimap<TableReference, Cell>> entries(long scrubTimestamp, Cell... cells) {
+        ImmutableMultimap.Builder<TableReference, Cell> builder = ImmutableMultimap.builder();
+        for (Cell cell : cells) {
+            builder.put(TABLE, cell);
+        }
+        return ImmutableSortedMap.of(scrubTimestamp, builder.build());
+    }
+
+    private static Cell cell(int row) {
+        return Cell.create(bytes(row), bytes(0x00));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -31,6 +31,7 @@ import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.palantir.atlasdb.keyvalue.api.Cell;
@@ -132,8 +133,73 @@ public class ScrubberTest {
         Assert.assertEquals(ImmutableList.of(), scrubQueue);
     }
 
+    @Test
+    public void testScrubQueueIsClearedWithParallelReaders() {
+        scrubber.shutdown();
+        scrubber = getScrubber(kvs, scrubStore, transactions, 2, 4);
+        TableReference tableRef = TableReference.createFromFullyQualifiedName("foo.bar");
+        kvs.createTable(tableRef, new byte[] {});
+
+        // Most of the queue is in one corner of the key space, so the readers have to split it between them.
+        ImmutableMultimap.Builder<Cell, Value> values = ImmutableMultimap.builder();
+        for (int i = 0; i < 200; i++) {
+            Cell cell = Cell.create(new byte[] {0x10, (byte) i}, new byte[] {1});
+            values.put(cell, Value.create(new byte[] {1}, 10));
+            values.put(cell, Value.create(new byte[] {2}, 20));
+            scrubStore.queueCellsForScrubbing(ImmutableMultimap.of(cell, tableRef), 20, 100);
+        }
+        Cell otherCell = Cell.create(new byte[] {(byte) 0xf0}, new byte[] {1});
+        values.put(otherCell, Value.create(new byte[] {1}, 10));
+        values.put(otherCell, Value.create(new byte[] {2}, 20));
+        scrubStore.queueCellsForScrubbing(ImmutableMultimap.of(otherCell, tableRef), 20, 100);
+        kvs.putWithTimestamps(tableRef, values.build());
+        transactions.putUnlessExists(10, 15);
+        transactions.putUnlessExists(20, 25);
+
+        scrubber.runBackgroundScrubTask(null);
+
+        List<SortedMap<Long, Multimap<TableReference, Cell>>> scrubQueue = BatchingVisitables.copyToList(
+                scrubStore.getBatchingVisitableScrubQueue(Long.MAX_VALUE, null, null));
+        Assert.assertEquals(ImmutableList.of(), scrubQueue);
+        Assert.assertEquals(ImmutableSet.of(Value.INVALID_VALUE_TIMESTAMP, 20L), ImmutableSet.copyOf(
+                kvs.getAllTimestamps(tableRef, ImmutableSet.of(otherCell), Long.MAX_VALUE).get(otherCell)));
+    }
+
+    @Test
+    public void cellsQueuedAtDifferentTimestampsOnlyLoseVersionsOlderThanTheirOwnScrubTimestamp() {
+        Cell cell1 = Cell.create(new byte[] {1}, new byte[] {2});
+        Cell cell2 = Cell.create(new byte[] {2}, new byte[] {3});
+        TableReference tableRef = TableReference.createFromFullyQualifiedName("foo.bar");
+        kvs.createTable(tableRef, new byte[] {});
+        kvs.putWithTimestamps(tableRef, ImmutableMultimap.<Cell, Value>builder()
+                .put(cell1, Value.create(new byte[] {3}, 10))
+                .put(cell1, Value.create(new byte[] {4}, 20))
+                .put(cell1, Value.create(new byte[] {5}, 45))
+                .put(cell2, Value.create(new byte[] {6}, 30))
+                .put(cell2, Value.create(new byte[] {7}, 50))
+                .build());
+        transactions.putUnlessExists(20, 25);
+        transactions.putUnlessExists(50, 55);
+        scrubStore.queueCellsForScrubbing(ImmutableMultimap.of(cell1, tableRef), 20, 100);
+        scrubStore.queueCellsForScrubbing(ImmutableMultimap.of(cell2, tableRef), 50, 100);
+
+        scrubber.runBackgroundScrubTask(null);
+
+        Multimap<Cell, Long> remaining = kvs.getAllTimestamps(
+                tableRef, ImmutableSet.of(cell1, cell2), Long.MAX_VALUE);
+        Assert.assertEquals(ImmutableSet.of(Value.INVALID_VALUE_TIMESTAMP, 20L, 45L),
+                ImmutableSet.copyOf(remaining.get(cell1)));
+        Assert.assertEquals(ImmutableSet.of(Value.INVALID_VALUE_TIMESTAMP, 50L),
+                ImmutableSet.copyOf(remaining.get(cell2)));
+    }
+
     private Scrubber getScrubber(KeyValueService keyValueService, ScrubberStore scrubberStore,
             TransactionService transactionService) {
+        return getScrubber(keyValueService, scrubberStore, transactionService, 1, 1);
+    }
+
+    private Scrubber getScrubber(KeyValueService keyValueService, ScrubberStore scrubberStore,
+            TransactionService transactionService, int threadCount, int readThreadCount) {
         return Scrubber.create(keyValueService, scrubberStore,
                 () -> Long.MAX_VALUE, // background scrub frequency millis
                 () -> true, // scrub enabled
@@ -142,8 +208,8 @@ public class ScrubberTest {
                 transactionService,
                 false, // is aggressive
                 () -> 100, //  batch size
-                1, // thread count
-                1, // read thread count
+                threadCount,
+                readThreadCount,
                 ImmutableList.of()); // followers
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+
+public class MigrationRangeTest {
+    private static final TableReference TABLE = TableReference.create(Namespace.create("ns"), "table");
+
+    @Test
+    public void cannotEstimateRemainingBytesBeforeCopyingAnything() {
+        MigrationRange range = new MigrationRange(TABLE, 0, PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+
+        assertThat(range.estimateRemainingBytes()).isEqualTo(-1);
+    }
+
+    @Test
+    public void estimatesRemainingBytesFromObservedDensity() {
+        MigrationRange range = new MigrationRange(TABLE, 0, PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+
+        range.advance(bytes(0x40), 1000);
+
+        assertThat(range.estimateRemainingBytes()).isEqualTo(3000);
+    }
+
+    @Test
+    public void splitShrinksTheRange() {
+        MigrationRange range = new MigrationRange(TABLE, 0, bytes(0x10), bytes(0x20));
+        range.advance(bytes(0x12), 1000);
+
+        byte[] splitRow = range.proposeSplit();
+        assertThat(range.applySplit(splitRow)).isTrue();
+
+        assertThat(range.end()).isEqualTo(splitRow);
+        assertThat(range.advance(splitRow, 1000)).isFalse();
+        assertThat(range.isDone()).isTrue();
+        assertThat(range.checkpoint()).isEmpty();
+    }
+
+    @Test
+    public void splitIsRejectedOnceTheRangeHasCopiedPastIt() {
+        MigrationRange range = new MigrationRange(TABLE, 0, bytes(0x10), bytes(0x20));
+        byte[] splitRow = range.proposeSplit();
+
+        range.advance(bytes(0x1f), 1000);
+
+        assertThat(range.applySplit(splitRow)).isFalse();
+        assertThat(range.end()).isEqualTo(bytes(0x20));
+    }
+
+    @Test
+    public void canBeRestoredFromItsCheckpoint() {
+        MigrationRange range = new MigrationRange(TABLE, 3, bytes(0x10), PtBytes.EMPTY_BYTE_ARRAY);
+        range.advance(bytes(0x12, 0x34), 1000);
+
+        MigrationRange restored = MigrationRange.fromCheckpoint(TABLE, 3, range.checkpoint());
+
+        assertThat(restored.position()).isEqualTo(bytes(0x12, 0x34));
+        assertThat(restored.end()).isEmpty();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.encoding.PtBytes;
+
+public class RowKeySpaceTest {
+    @Test
+    public void midpointLiesStrictlyBetweenBounds() {
+        assertStrictlyBetween(PtBytes.EMPTY_BYTE_ARRAY, PtBytes.EMPTY_BYTE_ARRAY);
+        assertStrictlyBetween(bytes(0x10), bytes(0x20));
+        assertStrictlyBetween(bytes(0x10), bytes(0x11));
+        assertStrictlyBetween(PtBytes.toBytes("user_0001"), PtBytes.toBytes("user_0002"));
+        assertStrictlyBetween(PtBytes.toBytes("user_0001_with_a_long_suffix"), PtBytes.EMPTY_BYTE_ARRAY);
+    }
+
+    @Test
+    public void midpointIsNullWhenNoRowFitsBetweenBounds() {
+        assertThat(RowKeySpace.midpoint(bytes(0x01), bytes(0x01, 0x00))).isNull();
+    }
+
+    private static void assertStrictlyBetween(byte[] lower, byte[] upperExclusive) {
+        byte[] midpoint = RowKeySpace.midpoint(lower, upperExclusive);
+        assertThat(midpoint).isNotNull();
+        assertThat(UnsignedBytes.lexicographicalComparator().compare(lower, midpoint)).isLessThan(0);
+        if (upperExclusive.length > 0) {
+            assertThat(UnsignedBytes.lexicographicalComparator().compare(midpoint, upperExclusive)).isLessThan(0);
+        }
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
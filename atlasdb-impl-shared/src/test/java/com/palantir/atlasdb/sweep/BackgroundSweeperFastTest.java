@@ -20,9 +20,13 @@ import java.util.Optional;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.keyvalue.api.ImmutableSweepResults;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.sweep.priority.ImmutableUpdateSweepPriority;
 import com.palantir.atlasdb.sweep.progress.ImmutableSweepProgress;
+import com.palantir.atlasdb.sweep.progress.SweepProgress;
 
 public class BackgroundSweeperFastTest extends SweeperTestSetup {
 
@@ -88,6 +92,7 @@ public class BackgroundSweeperFastTest extends SweeperTestSetup {
         backgroundSweeper.runOnce();
         Mockito.verify(progressStore).saveProgress(
                 Mockito.any(),
+                Mockito.eq(0),
                 Mockito.eq(ImmutableSweepProgress.builder()
                         .tableRef(TABLE_REF)
                         .staleValuesDeleted(2)
@@ -176,4 +181,93 @@ public class BackgroundSweeperFastTest extends SweeperTestSetup {
         backgroundSweeper.runOnce();
         Mockito.verify(kvs, Mockito.never()).compactInternally(TABLE_REF);
     }
+
+    @Test
+    public void testSkipTablesBeingSweptInOtherSlots() {
+        TableReference otherTable = TableReference.createFromFullyQualifiedName("backgroundsweeper.other");
+        setNoProgress();
+        setNextTableToSweep(TABLE_REF);
+        Mockito.doReturn(ImmutableMap.of(0, progressFor(otherTable), 2, progressFor(TABLE_REF)))
+                .when(progressStore).loadAllProgress(Mockito.any());
+        setupTaskRunner(ImmutableSweepResults.builder()
+                .staleValuesDeleted(0)
+                .cellTsPairsExamined(10)
+                .sweptTimestamp(12345L)
+                .build());
+        createSweeperWithThreads(2).runOnce(1);
+        // Slot 2 is beyond the configured number of threads, so its progress is ignored.
+        Mockito.verify(nextTableToSweepProvider).chooseNextTableToSweep(
+                Mockito.any(), Mockito.anyLong(), Mockito.eq(ImmutableSet.of(otherTable)));
+    }
+
+    @Test
+    public void testWriteProgressToOwnSlot() {
+        setNoProgress();
+        setNextTableToSweep(TABLE_REF);
+        setupTaskRunner(ImmutableSweepResults.builder()
+                .staleValuesDeleted(2)
+                .cellTsPairsExamined(10)
+                .sweptTimestamp(12345L)
+                .nextStartRow(Optional.of(new byte[] {1, 2, 3}))
+                .build());
+        createSweeperWithThreads(2).runOnce(1);
+        Mockito.verify(progressStore).loadProgress(Mockito.any(), Mockito.eq(1));
+        Mockito.verify(progressStore).saveProgress(Mockito.any(), Mockito.eq(1), Mockito.any());
+        Mockito.verify(sweepMetrics).sweptBatchInSlot(1, 10, 2);
+    }
+
+    @Test
+    public void testClearOnlyOwnSlotAfterCompleteRun() {
+        setProgress(progressFor(TABLE_REF));
+        setupTaskRunner(ImmutableSweepResults.builder()
+                .staleValuesDeleted(0)
+                .cellTsPairsExamined(10)
+                .sweptTimestamp(12345L)
+                .build());
+        createSweeperWithThreads(2).runOnce(1);
+        Mockito.verify(progressStore).clearProgress(1);
+        Mockito.verify(progressStore, Mockito.never()).clearProgress();
+    }
+
+    @Test
+    public void testDontSweepIfTableLockHeldElsewhere() throws InterruptedException {
+        setNoProgress();
+        setNextTableToSweep(TABLE_REF);
+        Mockito.doReturn(null).when(lockService).lock(Mockito.anyString(), Mockito.any());
+        createSweeperWithThreads(2).runOnce(1);
+        Mockito.verifyZeroInteractions(sweepTaskRunner);
+    }
+
+    @Test
+    public void testDontStartTableIfAnotherSlotStartedItFirst() {
+        setNoProgress();
+        setNextTableToSweep(TABLE_REF);
+        // The other slot saves its first progress between us choosing the table and taking the table lock.
+        Mockito.doReturn(ImmutableMap.of()).doReturn(ImmutableMap.of(0, progressFor(TABLE_REF)))
+                .when(progressStore).loadAllProgress(Mockito.any());
+        createSweeperWithThreads(2).runOnce(1);
+        Mockito.verifyZeroInteractions(sweepTaskRunner);
+    }
+
+    private BackgroundSweeperImpl createSweeperWithThreads(int numThreads) {
+        return new BackgroundSweeperImpl(
+                lockService,
+                nextTableToSweepProvider,
+                sweepBatchConfigSource,
+                () -> true,
+                () -> 0L, // pauseMillis
+                Mockito.mock(PersistentLockManager.class),
+                specificTableSweeper,
+                numThreads);
+    }
+
+    private static SweepProgress progressFor(TableReference tableRef) {
+        return ImmutableSweepProgress.builder()
+                .tableRef(tableRef)
+                .staleValuesDeleted(3)
+                .cellTsPairsExamined(11)
+                .minimumSweptTimestamp(4567L)
+                .startRow(new byte[] {1, 2, 3})
+                .build();
+    }
 }
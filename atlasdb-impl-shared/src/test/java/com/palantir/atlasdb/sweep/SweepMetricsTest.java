@@ -16,6 +16,7 @@
 package com.palantir.atlasdb.sweep;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import org.junit.After;
@@ -86,6 +87,18 @@ public class SweepMetricsTest {
         assertValuesRecorded("cellTimestampPairsExamined", EXAMINED, OTHER_EXAMINED);
     }
 
+    @Test
+    public void slotThroughputIsRecordedPerSlot() {
+        sweepMetrics.sweptBatchInSlot(0, EXAMINED, DELETED);
+        sweepMetrics.sweptBatchInSlot(1, OTHER_EXAMINED, OTHER_DELETED);
+        sweepMetrics.sweptBatchInSlot(1, OTHER_EXAMINED, OTHER_DELETED);
+
+        assertThat(METRIC_REGISTRY.meter(MetricRegistry.name(SweepMetrics.class, "slot0", "cellsSwept")).getCount(),
+                equalTo(EXAMINED));
+        assertThat(METRIC_REGISTRY.meter(MetricRegistry.name(SweepMetrics.class, "slot1", "cellsDeleted")).getCount(),
+                equalTo(2 * OTHER_DELETED));
+    }
+
     private void assertValuesRecorded(String aggregateMetric, Long... values) {
         Histogram histogram = METRIC_REGISTRY.histogram(MetricRegistry.name(SweepMetrics.class, aggregateMetric));
         assertThat(Longs.asList(histogram.getSnapshot().getValues()), containsInAnyOrder(values));
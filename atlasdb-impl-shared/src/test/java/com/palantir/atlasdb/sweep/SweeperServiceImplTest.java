@@ -17,6 +17,7 @@ package com.palantir.atlasdb.sweep;
 
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -183,7 +184,7 @@ public class SweeperServiceImplTest extends SweeperTestSetup {
     }
 
     private void verifyNoSweepResultsSaved() {
-        verify(progressStore, never()).saveProgress(any(), any());
+        verify(progressStore, never()).saveProgress(any(), anyInt(), any());
         verify(priorityStore, never()).update(any(), any(), any());
     }
 
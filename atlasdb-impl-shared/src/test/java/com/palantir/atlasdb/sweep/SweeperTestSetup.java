@@ -16,6 +16,7 @@
 
 package com.palantir.atlasdb.sweep;
 
+import java.math.BigInteger;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -33,6 +34,7 @@ import com.palantir.atlasdb.sweep.progress.SweepProgressStore;
 import com.palantir.atlasdb.transaction.api.LockAwareTransactionManager;
 import com.palantir.atlasdb.transaction.api.Transaction;
 import com.palantir.atlasdb.transaction.api.TransactionTask;
+import com.palantir.lock.LockRefreshToken;
 import com.palantir.lock.LockService;
 
 public class SweeperTestSetup {
@@ -47,10 +49,11 @@ public class SweeperTestSetup {
     protected KeyValueService kvs = Mockito.mock(KeyValueService.class);
     protected SweepProgressStore progressStore = Mockito.mock(SweepProgressStore.class);
     protected SweepPriorityStore priorityStore = Mockito.mock(SweepPriorityStore.class);
-    private NextTableToSweepProvider nextTableToSweepProvider = Mockito.mock(NextTableToSweepProvider.class);
+    protected NextTableToSweepProvider nextTableToSweepProvider = Mockito.mock(NextTableToSweepProvider.class);
     protected SweepTaskRunner sweepTaskRunner = Mockito.mock(SweepTaskRunner.class);
     private boolean sweepEnabled = true;
     protected SweepMetrics sweepMetrics = Mockito.mock(SweepMetrics.class);
+    protected LockService lockService = Mockito.mock(LockService.class);
     protected long currentTimeMillis = 1000200300L;
 
     @BeforeClass
@@ -64,12 +67,18 @@ public class SweeperTestSetup {
         sweepBatchConfigSource = AdjustableSweepBatchConfigSource.create(() -> sweepBatchConfig);
     }
 
+    @Before
+    public void setUpLockService() throws InterruptedException {
+        Mockito.doReturn(new LockRefreshToken(BigInteger.ONE, Long.MAX_VALUE)).when(lockService)
+                .lock(Mockito.anyString(), Mockito.any());
+    }
+
     @Before
     public void setup() {
         specificTableSweeper = getSpecificTableSweeperService();
 
         backgroundSweeper = new BackgroundSweeperImpl(
-                Mockito.mock(LockService.class),
+                lockService,
                 nextTableToSweepProvider,
                 sweepBatchConfigSource,
                 () -> sweepEnabled,
@@ -103,16 +112,16 @@ public class SweeperTestSetup {
     }
 
     protected void setNoProgress() {
-        Mockito.doReturn(Optional.empty()).when(progressStore).loadProgress(Mockito.any());
+        Mockito.doReturn(Optional.empty()).when(progressStore).loadProgress(Mockito.any(), Mockito.anyInt());
     }
 
     protected void setProgress(SweepProgress progress) {
-        Mockito.doReturn(Optional.of(progress)).when(progressStore).loadProgress(Mockito.any());
+        Mockito.doReturn(Optional.of(progress)).when(progressStore).loadProgress(Mockito.any(), Mockito.anyInt());
     }
 
     protected void setNextTableToSweep(TableReference tableRef) {
         Mockito.doReturn(Optional.of(tableRef)).when(nextTableToSweepProvider)
-                .chooseNextTableToSweep(Mockito.any(), Mockito.anyLong());
+                .chooseNextTableToSweep(Mockito.any(), Mockito.anyLong(), Mockito.any());
     }
 
     protected void setupTaskRunner(SweepResults results) {
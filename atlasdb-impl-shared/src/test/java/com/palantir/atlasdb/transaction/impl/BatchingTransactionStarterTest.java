@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.lock.v2.LockImmutableTimestampResponse;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
+import com.palantir.lock.v2.TimelockService;
+
+public class BatchingTransactionStarterTest {
+    private static final long IMMUTABLE_TIMESTAMP = 1L;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final TimelockService timelockService = mock(TimelockService.class);
+    private final AtomicLong lastTimestamp = new AtomicLong(IMMUTABLE_TIMESTAMP);
+    private final List<StartTransactionsRequest> requests = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void startsTransactionWithItsOwnImmutableTimestampLock() {
+        when(timelockService.startTransactions(any())).thenAnswer(invocation ->
+                startTransactions((StartTransactionsRequest) invocation.getArguments()[0]));
+        BatchingTransactionStarter starter = new BatchingTransactionStarter(timelockService);
+
+        StartTransactionResponse first = starter.startTransaction();
+        StartTransactionResponse second = starter.startTransaction();
+
+        assertThat(first.getImmutableTimestamp().getLock()).isNotEqualTo(second.getImmutableTimestamp().getLock());
+        assertThat(first.getStartTimestamp()).isLessThan(second.getStartTimestamp());
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    public void propagatesExceptionsFromTimelock() {
+        when(timelockService.startTransactions(any())).thenThrow(new IllegalStateException("boom"));
+        BatchingTransactionStarter starter = new BatchingTransactionStarter(timelockService);
+
+        assertThatThrownBy(starter::startTransaction).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @Test
+    public void coalescesStartsQueuedBehindAnInFlightRequest() throws Exception {
+        int numQueuedStarts = 20;
+        CountDownLatch firstRequestStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+        when(timelockService.startTransactions(any())).thenAnswer(invocation -> {
+            StartTransactionsResponse response =
+                    startTransactions((StartTransactionsRequest) invocation.getArguments()[0]);
+            firstRequestStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(releaseFirstRequest);
+            return response;
+        });
+        BatchingTransactionStarter starter = new BatchingTransactionStarter(timelockService);
+
+        Future<StartTransactionResponse> first = executor.submit(starter::startTransaction);
+        firstRequestStarted.await();
+        List<Future<StartTransactionResponse>> queued = IntStream.range(0, numQueuedStarts)
+                .mapToObj(unused -> executor.submit(starter::startTransaction))
+                .collect(Collectors.toList());
+        // give the queued starts a chance to enqueue before letting the first request finish
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        releaseFirstRequest.countDown();
+
+        assertThat(first.get().getStartTimestamp()).isEqualTo(IMMUTABLE_TIMESTAMP + 1);
+        List<Long> startTimestamps = Lists.newArrayList();
+        for (Future<StartTransactionResponse> future : queued) {
+            startTimestamps.add(future.get().getStartTimestamp());
+        }
+        assertThat(startTimestamps).doesNotHaveDuplicates().doesNotContain(IMMUTABLE_TIMESTAMP + 1);
+        assertThat(requests.size()).isLessThan(numQueuedStarts + 1);
+        assertThat(Iterables.getFirst(requests, null).getRequestIds()).hasSize(1);
+    }
+
+    private StartTransactionsResponse startTransactions(StartTransactionsRequest request) {
+        requests.add(request);
+        return StartTransactionsResponse.of(request.getRequestIds().stream()
+                .map(requestId -> StartTransactionResponse.of(
+                        LockImmutableTimestampResponse.of(IMMUTABLE_TIMESTAMP, LockToken.of(requestId)),
+                        lastTimestamp.incrementAndGet()))
+                .collect(Collectors.toList()));
+    }
+}
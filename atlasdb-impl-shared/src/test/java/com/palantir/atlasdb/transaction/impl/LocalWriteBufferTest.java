@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+
+public class LocalWriteBufferTest {
+    private static final byte[] VALUE_1 = PtBytes.toBytes("value1");
+    private static final byte[] VALUE_2 = PtBytes.toBytes("value2");
+
+    private final LocalWriteBuffer buffer = new LocalWriteBuffer();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void isEmptyUntilSomethingIsPut() {
+        assertThat(buffer.isEmpty()).isTrue();
+        buffer.putAll(ImmutableMap.of());
+        assertThat(buffer.isEmpty()).isTrue();
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_1));
+        assertThat(buffer.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void laterPutsOverwriteEarlierOnes() {
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_1, cell(2), VALUE_1));
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_2));
+
+        assertThat(buffer.get(cell(1))).isEqualTo(VALUE_2);
+        assertThat(buffer.get(cell(2))).isEqualTo(VALUE_1);
+        assertThat(buffer.get(cell(3))).isNull();
+        assertThat(buffer.asSortedMap()).containsExactly(
+                entry(cell(1), VALUE_2),
+                entry(cell(2), VALUE_1));
+    }
+
+    @Test
+    public void putsAfterAReadAreVisibleToLaterReads() {
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_1));
+        assertThat(buffer.get(cell(1))).isEqualTo(VALUE_1);
+
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_2, cell(0), VALUE_2));
+        assertThat(buffer.get(cell(1))).isEqualTo(VALUE_2);
+        assertThat(ImmutableList.copyOf(buffer.entriesInRange(null, null))).containsExactly(
+                entry(cell(0), VALUE_2),
+                entry(cell(1), VALUE_2));
+    }
+
+    @Test
+    public void entriesInRangeAreSortedAndBounded() {
+        for (int i = 9; i >= 0; i--) {
+            buffer.putAll(ImmutableMap.of(cell(i), VALUE_1));
+        }
+
+        assertThat(ImmutableList.copyOf(buffer.entriesInRange(cell(3), cell(6)))).containsExactly(
+                entry(cell(3), VALUE_1),
+                entry(cell(4), VALUE_1),
+                entry(cell(5), VALUE_1));
+        assertThat(ImmutableList.copyOf(buffer.entriesInRange(cell(8), null))).containsExactly(
+                entry(cell(8), VALUE_1),
+                entry(cell(9), VALUE_1));
+    }
+
+    @Test
+    public void iteratorIsUnaffectedByLaterPuts() {
+        buffer.putAll(ImmutableMap.of(cell(1), VALUE_1, cell(3), VALUE_1));
+        List<Map.Entry<Cell, byte[]>> seen = Lists.newArrayList();
+
+        Iterator<Map.Entry<Cell, byte[]>> iterator = buffer.entriesInRange(null, null);
+        seen.add(iterator.next());
+        buffer.putAll(ImmutableMap.of(cell(2), VALUE_2));
+        iterator.forEachRemaining(seen::add);
+
+        assertThat(seen).contains(entry(cell(1), VALUE_1), entry(cell(3), VALUE_1));
+        assertThat(buffer.get(cell(2))).isEqualTo(VALUE_2);
+    }
+
+    @Test
+    public void readsStayCorrectAcrossCompactions() {
+        int numCells = 10_000;
+        for (int i = 0; i < numCells; i++) {
+            buffer.putAll(ImmutableMap.of(cell(i), VALUE_1));
+            if (i % 7 == 0) {
+                assertThat(buffer.get(cell(i / 2))).isEqualTo(VALUE_1);
+            }
+        }
+        for (int i = 0; i < numCells; i += 2) {
+            buffer.putAll(ImmutableMap.of(cell(i), VALUE_2));
+        }
+
+        Map<Cell, byte[]> writes = buffer.asSortedMap();
+        assertThat(writes).hasSize(numCells);
+        for (int i = 0; i < numCells; i++) {
+            assertThat(writes.get(cell(i))).isEqualTo(i % 2 == 0 ? VALUE_2 : VALUE_1);
+        }
+    }
+
+    @Test
+    public void concurrentWritersDoNotLoseWrites() throws Exception {
+        int numThreads = 4;
+        int cellsPerThread = 10_000;
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int thread = 0; thread < numThreads; thread++) {
+            int offset = thread * cellsPerThread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < cellsPerThread; i++) {
+                    buffer.putAll(ImmutableMap.of(cell(offset + i), VALUE_1));
+                }
+            }));
+        }
+        while (!futures.stream().allMatch(Future::isDone)) {
+            buffer.entriesInRange(null, null).forEachRemaining(entry -> { });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertThat(buffer.asSortedMap()).hasSize(numThreads * cellsPerThread);
+    }
+
+    @Test
+    public void concurrentReadersSeeWholePuts() throws Exception {
+        int cellsPerPut = 2_000;
+        int numPuts = 100;
+        Future<?> writer = executor.submit(() -> {
+            for (int put = 0; put < numPuts; put++) {
+                Map<Cell, byte[]> values = Maps.newHashMap();
+                for (int i = 0; i < cellsPerPut; i++) {
+                    values.put(cell(put * cellsPerPut + i), VALUE_1);
+                }
+                buffer.putAll(values);
+            }
+        });
+        while (!writer.isDone()) {
+            int numCells = Iterators.size(buffer.entriesInRange(null, null));
+            assertThat(numCells % cellsPerPut).isZero();
+        }
+        writer.get();
+
+        assertThat(buffer.asSortedMap()).hasSize(numPuts * cellsPerPut);
+    }
+
+    @Test
+    public void latestPutWinsAcrossThreads() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            byte[] value = PtBytes.toBytes(i);
+            executor.submit(() -> buffer.putAll(ImmutableMap.of(cell(1), value))).get();
+        }
+        assertThat(buffer.get(cell(1))).isEqualTo(PtBytes.toBytes(99));
+    }
+
+    private static Cell cell(int index) {
+        return Cell.create(PtBytes.toBytes(String.format("row%05d", index)), PtBytes.toBytes("col"));
+    }
+
+    private static Map.Entry<Cell, byte[]> entry(Cell cell, byte[] value) {
+        return new AbstractMap.SimpleImmutableEntry<>(cell, value);
+    }
+}
@@ -18,25 +18,38 @@ package com.palantir.atlasdb.transaction.impl;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 import org.mockito.InOrder;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.cleaner.Cleaner;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.monitoring.TimestampTrackerImpl;
+import com.palantir.atlasdb.transaction.api.AtlasDbConstraintCheckingMode;
 import com.palantir.lock.CloseableLockService;
 import com.palantir.lock.LockClient;
 import com.palantir.lock.LockService;
 import com.palantir.lock.impl.LegacyTimelockService;
+import com.palantir.lock.v2.LockImmutableTimestampResponse;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
+import com.palantir.lock.v2.TimelockService;
 import com.palantir.timestamp.InMemoryTimestampService;
 
 public class SnapshotTransactionManagerTest {
@@ -133,4 +146,61 @@ public class SnapshotTransactionManagerTest {
         inOrder.verify(callback2).run();
         inOrder.verify(callback1).run();
     }
+
+    @Test
+    public void startsTransactionsWithSeparateTimelockCallsByDefault() {
+        TimelockService timelockService = mockTimelockService();
+
+        createTransactionManager(timelockService, () -> false).setupRunTaskWithLocksThrowOnConflict(ImmutableList.of());
+
+        verify(timelockService).lockImmutableTimestamp(any());
+        verify(timelockService, never()).startTransactions(any());
+    }
+
+    @Test
+    public void startsTransactionsWithBatchedTimelockCallIfEnabled() {
+        TimelockService timelockService = mockTimelockService();
+
+        createTransactionManager(timelockService, () -> true).setupRunTaskWithLocksThrowOnConflict(ImmutableList.of());
+
+        verify(timelockService).startTransactions(any());
+        verify(timelockService, never()).lockImmutableTimestamp(any());
+    }
+
+    private SnapshotTransactionManager createTransactionManager(
+            TimelockService timelockService,
+            Supplier<Boolean> transactionStartBatchingEnabled) {
+        return new SnapshotTransactionManager(
+                keyValueService,
+                timelockService,
+                closeableLockService,
+                null,
+                () -> AtlasDbConstraintCheckingMode.NO_CONSTRAINT_CHECKING,
+                null,
+                null,
+                cleaner,
+                false,
+                () -> AtlasDbConstants.DEFAULT_TRANSACTION_LOCK_ACQUIRE_TIMEOUT_MS,
+                TimestampTrackerImpl.createNoOpTracker(),
+                TransactionTestConstants.GET_RANGES_THREAD_POOL_SIZE,
+                TransactionTestConstants.DEFAULT_GET_RANGES_CONCURRENCY,
+                () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE,
+                transactionStartBatchingEnabled,
+                AtlasDbConstants.DEFAULT_IMMUTABLE_TABLE_CACHE_SIZE_BYTES);
+    }
+
+    private static TimelockService mockTimelockService() {
+        TimelockService timelockService = mock(TimelockService.class);
+        when(timelockService.lockImmutableTimestamp(any())).thenAnswer(invocation -> immutableTimestampLock());
+        when(timelockService.startTransactions(any())).thenAnswer(invocation ->
+                StartTransactionsResponse.of(invocation.getArgumentAt(0, StartTransactionsRequest.class)
+                        .getRequestIds().stream()
+                        .map(requestId -> StartTransactionResponse.of(immutableTimestampLock(), 2L))
+                        .collect(Collectors.toList())));
+        return timelockService;
+    }
+
+    private static LockImmutableTimestampResponse immutableTimestampLock() {
+        return LockImmutableTimestampResponse.of(1L, LockToken.of(UUID.randomUUID()));
+    }
 }
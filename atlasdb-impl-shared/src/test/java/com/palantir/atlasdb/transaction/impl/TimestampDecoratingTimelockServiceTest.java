@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.palantir.lock.v2.LockImmutableTimestampRequest;
+import com.palantir.lock.v2.StartTransactionsRequest;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.timestamp.TimestampService;
 
@@ -96,5 +97,9 @@ public class TimestampDecoratingTimelockServiceTest {
         LockImmutableTimestampRequest immutableTimestampRequest = LockImmutableTimestampRequest.create();
         decoratingService.lockImmutableTimestamp(immutableTimestampRequest);
         verify(delegate).lockImmutableTimestamp(eq(immutableTimestampRequest));
+
+        StartTransactionsRequest startTransactionsRequest = StartTransactionsRequest.create(2);
+        decoratingService.startTransactions(startTransactionsRequest);
+        verify(delegate).startTransactions(eq(startTransactionsRequest));
     }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyAlreadyExistsException;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.impl.ForwardingKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.transaction.impl.TransactionConstants;
+
+public class GroupCommittingTransactionServiceTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+
+    private BlockingKeyValueService kvs;
+    private TransactionService simpleService;
+    private TransactionService groupCommittingService;
+
+    @Before
+    public void setUp() {
+        KeyValueService inMemoryKvs = new InMemoryKeyValueService(false, MoreExecutors.newDirectExecutorService());
+        inMemoryKvs.createTable(TransactionConstants.TRANSACTION_TABLE, new byte[] {});
+        // set up and check state without going through the blocking key value service
+        simpleService = new SimpleTransactionService(inMemoryKvs);
+        kvs = new BlockingKeyValueService(inMemoryKvs);
+        groupCommittingService = new GroupCommittingTransactionService(new SimpleTransactionService(kvs), kvs);
+    }
+
+    @After
+    public void tearDown() {
+        releaseFirstWrite.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void singlePutIsWritten() {
+        releaseFirstWrite.countDown();
+        groupCommittingService.putUnlessExists(1L, 2L);
+
+        assertThat(groupCommittingService.get(1L)).isEqualTo(2L);
+    }
+
+    @Test
+    public void singlePutThrowsIfAlreadyCommitted() {
+        releaseFirstWrite.countDown();
+        simpleService.putUnlessExists(1L, 2L);
+
+        assertThatThrownBy(() -> groupCommittingService.putUnlessExists(1L, 3L))
+                .isInstanceOf(KeyAlreadyExistsException.class);
+        assertThat(groupCommittingService.get(1L)).isEqualTo(2L);
+    }
+
+    @Test
+    public void eachQueuedPutLearnsItsOwnOutcome() throws Exception {
+        long alreadyCommitted = 5L;
+        simpleService.putUnlessExists(alreadyCommitted, TransactionConstants.FAILED_COMMIT_TS);
+
+        Future<?> first = executor.submit(() -> groupCommittingService.putUnlessExists(0L, 100L));
+        firstWriteStarted.await();
+        List<Long> queuedStartTimestamps = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+        List<Future<?>> queued = queuedStartTimestamps.stream()
+                .map(ts -> executor.submit(() -> groupCommittingService.putUnlessExists(ts, ts + 100)))
+                .collect(Collectors.toList());
+        // give the queued puts a chance to enqueue before letting the first write finish
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        releaseFirstWrite.countDown();
+
+        first.get();
+        for (int i = 0; i < queuedStartTimestamps.size(); i++) {
+            long startTs = queuedStartTimestamps.get(i);
+            if (startTs == alreadyCommitted) {
+                assertThatThrownBy(queued.get(i)::get)
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(KeyAlreadyExistsException.class);
+                assertThat(simpleService.get(startTs)).isEqualTo(TransactionConstants.FAILED_COMMIT_TS);
+            } else {
+                queued.get(i).get();
+                assertThat(simpleService.get(startTs)).isEqualTo(startTs + 100);
+            }
+        }
+        assertThat(kvs.batchSizes.size()).isLessThan(queuedStartTimestamps.size() + 1);
+        assertThat(kvs.batchSizes.get(0)).isEqualTo(1);
+    }
+
+    @Test
+    public void exactlyOneOfTwoQueuedPutsForTheSameTransactionWins() throws Exception {
+        Future<?> first = executor.submit(() -> groupCommittingService.putUnlessExists(0L, 100L));
+        firstWriteStarted.await();
+        Future<?> commit = executor.submit(() -> groupCommittingService.putUnlessExists(1L, 2L));
+        Future<?> rollback = executor.submit(
+                () -> groupCommittingService.putUnlessExists(1L, TransactionConstants.FAILED_COMMIT_TS));
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        releaseFirstWrite.countDown();
+
+        first.get();
+        boolean commitWon = succeeded(commit);
+        boolean rollbackWon = succeeded(rollback);
+        assertThat(commitWon).isNotEqualTo(rollbackWon);
+        assertThat(simpleService.get(1L)).isEqualTo(commitWon ? 2L : TransactionConstants.FAILED_COMMIT_TS);
+    }
+
+    private static boolean succeeded(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+            return true;
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(KeyAlreadyExistsException.class);
+            return false;
+        }
+    }
+
+    private final class BlockingKeyValueService extends ForwardingKeyValueService {
+        private final KeyValueService delegate;
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        BlockingKeyValueService(KeyValueService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected KeyValueService delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void putUnlessExists(TableReference tableRef, Map<Cell, byte[]> values) {
+            batchSizes.add(values.size());
+            firstWriteStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(releaseFirstWrite);
+            super.putUnlessExists(tableRef, values);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class RequestBatchingTransactionServiceTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void singleGetIsServedByBatchedGet() {
+        TransactionService delegate = mock(TransactionService.class);
+        when(delegate.get(anyCollectionOf(Long.class))).thenReturn(ImmutableMap.of(1L, 2L));
+        TransactionService service = new RequestBatchingTransactionService(delegate);
+
+        assertThat(service.get(1L)).isEqualTo(2L);
+        verify(delegate).get(ImmutableSet.of(1L));
+    }
+
+    @Test
+    public void returnsNullForUncommittedTransactions() {
+        TransactionService delegate = mock(TransactionService.class);
+        when(delegate.get(anyCollectionOf(Long.class))).thenReturn(ImmutableMap.of());
+        TransactionService service = new RequestBatchingTransactionService(delegate);
+
+        assertThat(service.get(1L)).isNull();
+    }
+
+    @Test
+    public void propagatesExceptionsFromDelegate() {
+        TransactionService delegate = mock(TransactionService.class);
+        when(delegate.get(anyCollectionOf(Long.class))).thenThrow(new IllegalStateException("boom"));
+        TransactionService service = new RequestBatchingTransactionService(delegate);
+
+        assertThatThrownBy(() -> service.get(1L)).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @Test
+    public void delegatesPutUnlessExists() {
+        TransactionService delegate = mock(TransactionService.class);
+        TransactionService service = new RequestBatchingTransactionService(delegate);
+
+        service.putUnlessExists(1L, 2L);
+        verify(delegate).putUnlessExists(1L, 2L);
+    }
+
+    @Test
+    public void coalescesRequestsQueuedBehindAnInFlightRead() throws Exception {
+        int numQueuedRequests = 20;
+        CountDownLatch firstReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRead = new CountDownLatch(1);
+        BlockingTransactionService delegate = new BlockingTransactionService(firstReadStarted, releaseFirstRead);
+        TransactionService service = new RequestBatchingTransactionService(delegate);
+
+        Future<Long> first = executor.submit(() -> service.get(0L));
+        firstReadStarted.await();
+        List<Future<Long>> queued = IntStream.rangeClosed(1, numQueuedRequests)
+                .mapToObj(ts -> executor.submit(() -> service.get(ts)))
+                .collect(Collectors.toList());
+        // give the queued requests a chance to enqueue before letting the first read finish
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        releaseFirstRead.countDown();
+
+        assertThat(first.get()).isEqualTo(1L);
+        for (int i = 0; i < numQueuedRequests; i++) {
+            assertThat(queued.get(i).get()).isEqualTo(i + 2L);
+        }
+        assertThat(delegate.batches.size()).isLessThan(numQueuedRequests + 1);
+        assertThat(Iterables.getFirst(delegate.batches, null)).containsExactly(0L);
+    }
+
+    private static final class BlockingTransactionService implements TransactionService {
+        private final CountDownLatch firstReadStarted;
+        private final CountDownLatch releaseFirstRead;
+        private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+        BlockingTransactionService(CountDownLatch firstReadStarted, CountDownLatch releaseFirstRead) {
+            this.firstReadStarted = firstReadStarted;
+            this.releaseFirstRead = releaseFirstRead;
+        }
+
+        @Override
+        public Long get(long startTimestamp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Long, Long> get(Iterable<Long> startTimestamps) {
+            batches.add(ImmutableList.copyOf(startTimestamps));
+            firstReadStarted.countDown();
+            Uninterruptibles.awaitUninterruptibly(releaseFirstRead);
+            return Maps.toMap(startTimestamps, ts -> ts + 1);
+        }
+
+        @Override
+        public void putUnlessExists(long startTimestamp, long commitTimestamp) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
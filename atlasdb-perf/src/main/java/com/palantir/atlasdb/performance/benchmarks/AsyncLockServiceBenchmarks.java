@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.timelock.lock.AsyncLockService;
+import com.palantir.atlasdb.timelock.lock.AsyncResult;
+import com.palantir.atlasdb.timelock.lock.TimeLimit;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.lock.StringLockDescriptor;
+import com.palantir.lock.v2.LockToken;
+
+/**
+ * Measures lock-then-unlock throughput of the timelock {@link AsyncLockService} from many threads. Uncontended
+ * requests each lock a descriptor from a large pool, so they almost never meet; contended requests share a handful
+ * of descriptors, either exclusively or in shared mode.
+ */
+public class AsyncLockServiceBenchmarks {
+    private static final int UNCONTENDED_DESCRIPTORS = 1_000_000;
+    private static final int CONTENDED_DESCRIPTORS = 4;
+    private static final TimeLimit TIMEOUT = TimeLimit.of(TimeUnit.SECONDS.toMillis(10));
+
+    @State(Scope.Benchmark)
+    public static class LockServiceState {
+        private ScheduledExecutorService reaperExecutor;
+        private ScheduledExecutorService timeoutExecutor;
+        private AsyncLockService lockService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            reaperExecutor = Executors.newSingleThreadScheduledExecutor();
+            timeoutExecutor = Executors.newSingleThreadScheduledExecutor();
+            lockService = AsyncLockService.createDefault(reaperExecutor, timeoutExecutor);
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            lockService.close();
+            timeoutExecutor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public LockToken uncontendedLockAndUnlock(LockServiceState state) {
+        return lockAndUnlock(state.lockService, randomDescriptor(UNCONTENDED_DESCRIPTORS));
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public LockToken contendedLockAndUnlock(LockServiceState state) {
+        return lockAndUnlock(state.lockService, randomDescriptor(CONTENDED_DESCRIPTORS));
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public LockToken contendedSharedLockAndUnlock(LockServiceState state) {
+        AsyncResult<LockToken> result = state.lockService.lock(
+                UUID.randomUUID(),
+                ImmutableMap.of(randomDescriptor(CONTENDED_DESCRIPTORS), LockMode.READ),
+                TIMEOUT);
+        return unlockWhenAcquired(state.lockService, result);
+    }
+
+    private static LockToken lockAndUnlock(AsyncLockService lockService, LockDescriptor descriptor) {
+        Set<LockDescriptor> descriptors = ImmutableSet.of(descriptor);
+        return unlockWhenAcquired(lockService, lockService.lock(UUID.randomUUID(), descriptors, TIMEOUT));
+    }
+
+    private static LockToken unlockWhenAcquired(AsyncLockService lockService, AsyncResult<LockToken> result) {
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        result.onComplete(() -> completed.complete(null));
+        completed.join();
+
+        LockToken token = result.get();
+        lockService.unlock(token);
+        return token;
+    }
+
+    private static LockDescriptor randomDescriptor(int numDescriptors) {
+        return StringLockDescriptor.of("lock" + ThreadLocalRandom.current().nextInt(numDescriptors));
+    }
+}
@@ -54,13 +54,22 @@ public final class Benchmarks {
             String rowComponent,
             String columnName,
             TableMetadataPersistence.SweepStrategy sweepStrategy) {
+        createTable(kvs, tableRef, rowComponent, columnName, sweepStrategy, ConflictHandler.IGNORE_ALL);
+    }
+
+    public static void createTable(KeyValueService kvs,
+            TableReference tableRef,
+            String rowComponent,
+            String columnName,
+            TableMetadataPersistence.SweepStrategy sweepStrategy,
+            ConflictHandler conflictHandler) {
         TableDefinition tableDef = new TableDefinition() {
             {
                 rowName();
                 rowComponent(rowComponent, ValueType.STRING);
                 columns();
                 column(columnName, columnName, ValueType.BLOB);
-                conflictHandler(ConflictHandler.IGNORE_ALL);
+                conflictHandler(conflictHandler);
                 sweepStrategy(sweepStrategy);
             }
         };
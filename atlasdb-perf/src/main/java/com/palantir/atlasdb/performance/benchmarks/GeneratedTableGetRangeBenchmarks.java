@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+import com.palantir.atlasdb.performance.benchmarks.table.KeyValueRowsTable;
+import com.palantir.atlasdb.performance.schema.generated.KeyValueTable;
+import com.palantir.atlasdb.ptobject.EncodingUtils;
+import com.palantir.common.base.BatchingVisitableView;
+import com.palantir.common.base.BatchingVisitables;
+
+/**
+ * Compares scanning the generated {@link KeyValueTable} through its lazily hydrated row results against eagerly
+ * hydrating every row name and column value, as generated tables without lazy row hydration do. Run with
+ * {@code -prof gc} to compare allocation per row as well as throughput.
+ */
+@State(Scope.Benchmark)
+public class GeneratedTableGetRangeBenchmarks {
+    private static final int BATCH_SIZE = 1_000;
+    private static final byte[] STREAM_ID_COLUMN = KeyValueTable.KeyValueNamedColumn.STREAM_ID.getShortName();
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public int getRangeEagerlyHydrated(KeyValueRowsTable table, Blackhole blackhole) {
+        return table.getTransactionManager().runTaskReadOnly(txn -> {
+            KeyValueTable kvTable = table.getTableFactory().getKeyValueTable(txn);
+            BatchingVisitableView<EagerRow> rows = BatchingVisitables.transform(
+                    txn.getRange(kvTable.getTableRef(), RangeRequest.all()),
+                    new Function<RowResult<byte[]>, EagerRow>() {
+                        @Override
+                        public EagerRow apply(RowResult<byte[]> input) {
+                            return new EagerRow(input);
+                        }
+                    });
+            int[] count = new int[1];
+            rows.forEach(BATCH_SIZE, row -> {
+                blackhole.consume(row);
+                count[0]++;
+            });
+            return checkRowCount(count[0]);
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public int getRangeReadingRowNames(KeyValueRowsTable table, Blackhole blackhole) {
+        return table.getTransactionManager().runTaskReadOnly(txn -> {
+            int[] count = new int[1];
+            table.getTableFactory().getKeyValueTable(txn).getRange(RangeRequest.all()).forEach(BATCH_SIZE, row -> {
+                blackhole.consume(row.getRowName().getKey());
+                count[0]++;
+            });
+            return checkRowCount(count[0]);
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public int getRangeReadingRowViews(KeyValueRowsTable table, Blackhole blackhole) {
+        return table.getTransactionManager().runTaskReadOnly(txn -> {
+            int[] count = new int[1];
+            table.getTableFactory().getKeyValueTable(txn).getRange(RangeRequest.all()).forEach(BATCH_SIZE, row -> {
+                blackhole.consume(row.getRowView().getKey());
+                count[0]++;
+            });
+            return checkRowCount(count[0]);
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public int getRangeReadingOneColumn(KeyValueRowsTable table, Blackhole blackhole) {
+        return table.getTransactionManager().runTaskReadOnly(txn -> {
+            int[] count = new int[1];
+            table.getTableFactory().getKeyValueTable(txn).getRange(RangeRequest.all()).forEach(BATCH_SIZE, row -> {
+                blackhole.consume(row.getStreamId());
+                count[0]++;
+            });
+            return checkRowCount(count[0]);
+        });
+    }
+
+    private static int checkRowCount(int count) {
+        Preconditions.checkState(count == KeyValueRowsTable.NUM_ROWS,
+                "Expected %s rows, found %s", KeyValueRowsTable.NUM_ROWS, count);
+        return count;
+    }
+
+    private static final class EagerRow {
+        private final KeyValueTable.KeyValueRow rowName;
+        private final Long streamId;
+
+        EagerRow(RowResult<byte[]> row) {
+            this.rowName = KeyValueTable.KeyValueRow.BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());
+            byte[] streamIdBytes = row.getColumns().get(STREAM_ID_COLUMN);
+            this.streamId = streamIdBytes == null ? null : EncodingUtils.decodeUnsignedVarLong(streamIdBytes, 0);
+        }
+    }
+}
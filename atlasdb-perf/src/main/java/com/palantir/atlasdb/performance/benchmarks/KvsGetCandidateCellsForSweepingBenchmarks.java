@@ -18,6 +18,7 @@ package com.palantir.atlasdb.performance.benchmarks;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Measurement;
@@ -35,10 +36,15 @@ import com.palantir.atlasdb.keyvalue.api.ImmutableCandidateCellForSweepingReques
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.GetCandidateCellsForSweepingShim;
 import com.palantir.atlasdb.performance.benchmarks.table.ConsecutiveNarrowTable;
 import com.palantir.atlasdb.performance.benchmarks.table.VeryWideRowTable;
 import com.palantir.common.base.ClosableIterator;
 
+/**
+ * The benchmarks suffixed with ViaShim read the same tables through {@link GetCandidateCellsForSweepingShim}, which
+ * scans timestamps and latest values separately, as a baseline for key value services with a native implementation.
+ */
 @State(Scope.Benchmark)
 public class KvsGetCandidateCellsForSweepingBenchmarks {
 
@@ -82,16 +88,55 @@ public class KvsGetCandidateCellsForSweepingBenchmarks {
         return fullTableScan(table.getTableRef(), table.getKvs(), table.getNumCols(), true);
     }
 
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 20, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 160, timeUnit = TimeUnit.SECONDS)
+    public Object fullTableScanDirtyConservativeViaShim(ConsecutiveNarrowTable.DirtyNarrowTable table) {
+        return fullTableScanViaShim(table, false);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 20, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 160, timeUnit = TimeUnit.SECONDS)
+    public Object fullTableScanDirtyThoroughViaShim(ConsecutiveNarrowTable.DirtyNarrowTable table) {
+        return fullTableScanViaShim(table, true);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 20, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 160, timeUnit = TimeUnit.SECONDS)
+    public Object fullTableScanOneWideRowThoroughViaShim(VeryWideRowTable table) {
+        return fullTableScan(table.getTableRef(), table.getNumCols(), true,
+                new GetCandidateCellsForSweepingShim(table.getKvs())::getCandidateCellsForSweeping);
+    }
+
     private int fullTableScan(ConsecutiveNarrowTable table, boolean thorough) {
         // TODO(gsheasby): consider extracting a common interface for WideRowTable and ConsecutiveNarrowTable
         // to avoid unpacking here
         return fullTableScan(table.getTableRef(), table.getKvs(), table.getNumRows(), thorough);
     }
 
+    private int fullTableScanViaShim(ConsecutiveNarrowTable table, boolean thorough) {
+        return fullTableScan(table.getTableRef(), table.getNumRows(), thorough,
+                new GetCandidateCellsForSweepingShim(table.getKvs())::getCandidateCellsForSweeping);
+    }
+
     private int fullTableScan(TableReference tableRef,
                               KeyValueService kvs,
                               int numCellsExpected,
                               boolean thorough) {
+        return fullTableScan(tableRef, numCellsExpected, thorough, kvs::getCandidateCellsForSweeping);
+    }
+
+    private int fullTableScan(
+            TableReference tableRef,
+            int numCellsExpected,
+            boolean thorough,
+            BiFunction<TableReference, CandidateCellForSweepingRequest,
+                    ClosableIterator<List<CandidateCellForSweeping>>> getCandidateCellsForSweeping) {
         CandidateCellForSweepingRequest request = ImmutableCandidateCellForSweepingRequest.builder()
                     .startRowInclusive(PtBytes.EMPTY_BYTE_ARRAY)
                     .batchSizeHint(1000)
@@ -99,7 +144,7 @@ public class KvsGetCandidateCellsForSweepingBenchmarks {
                     .shouldCheckIfLatestValueIsEmpty(thorough)
                     .timestampsToIgnore(thorough ? new long[] {} : new long[] { Value.INVALID_VALUE_TIMESTAMP })
                     .build();
-        try (ClosableIterator<List<CandidateCellForSweeping>> iter = kvs.getCandidateCellsForSweeping(
+        try (ClosableIterator<List<CandidateCellForSweeping>> iter = getCandidateCellsForSweeping.apply(
                     tableRef, request)) {
             int numCandidates = Iterators.size(Iterators.concat(Iterators.transform(iter, List::iterator)));
             Preconditions.checkState(numCandidates == numCellsExpected,
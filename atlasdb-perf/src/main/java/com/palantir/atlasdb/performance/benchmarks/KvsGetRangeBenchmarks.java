@@ -28,6 +28,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
@@ -43,6 +44,12 @@ import com.palantir.util.paging.TokenBackedBasicResultsPage;
 @State(Scope.Benchmark)
 public class KvsGetRangeBenchmarks {
 
+    /**
+     * Simulated per-row work done by the caller of a range scan, so that reading the next page from the database
+     * can overlap with processing the current one.
+     */
+    private static final long CONSUMER_WORK_TOKENS_PER_ROW = 1000;
+
     private Object getSingleRangeInner(ConsecutiveNarrowTable table, int sliceSize) {
         RangeRequest request = Iterables.getOnlyElement(table.getRangeRequests(1, sliceSize, false));
         int startRow = Ints.fromByteArray(request.getStartInclusive());
@@ -60,8 +67,30 @@ public class KvsGetRangeBenchmarks {
         return result;
     }
 
+    private Object getSingleRangeWithConsumerWorkInner(
+            ConsecutiveNarrowTable table,
+            int sliceSize,
+            Blackhole blackhole) {
+        RangeRequest request = Iterables.getOnlyElement(table.getRangeRequests(1, sliceSize, false));
+        int rowsRead = 0;
+        try (ClosableIterator<RowResult<Value>> result =
+                table.getKvs().getRange(table.getTableRef(), request, Long.MAX_VALUE)) {
+            while (result.hasNext()) {
+                blackhole.consume(result.next());
+                Blackhole.consumeCPU(CONSUMER_WORK_TOKENS_PER_ROW);
+                rowsRead++;
+            }
+        }
+        Preconditions.checkState(rowsRead == sliceSize, "Rows read %s != %s", rowsRead, sliceSize);
+        return rowsRead;
+    }
+
     private Object getMultiRangeInner(ConsecutiveNarrowTable table) {
-        Iterable<RangeRequest> requests = table.getRangeRequests(1000, 1, false);
+        return getMultiRangeInner(table, 1000, 1);
+    }
+
+    private Object getMultiRangeInner(ConsecutiveNarrowTable table, int numRanges, int sliceSize) {
+        Iterable<RangeRequest> requests = table.getRangeRequests(numRanges, sliceSize, false);
         Map<RangeRequest, TokenBackedBasicResultsPage<RowResult<Value>, byte[]>> results =
                 table.getKvs().getFirstBatchForRanges(table.getTableRef(), requests, Long.MAX_VALUE);
 
@@ -72,11 +101,11 @@ public class KvsGetRangeBenchmarks {
                 numRequests, results.size(), requests, results);
 
         results.forEach((request, result) -> {
-            Preconditions.checkState(1 == result.getResults().size(), "Key %s, List size is %s",
+            Preconditions.checkState(sliceSize == result.getResults().size(), "Key %s, List size is %s",
                     Ints.fromByteArray(request.getStartInclusive()), result.getResults().size());
             Preconditions.checkState(!result.moreResultsAvailable(), "Key %s, result.moreResultsAvailable() %s",
                     Ints.fromByteArray(request.getStartInclusive()), result.moreResultsAvailable());
-            RowResult<Value> row = Iterables.getOnlyElement(result.getResults());
+            RowResult<Value> row = Iterables.getFirst(result.getResults(), null);
             Preconditions.checkState(Arrays.equals(request.getStartInclusive(), row.getRowName()),
                     "Request row is %s, result is %s",
                     Ints.fromByteArray(request.getStartInclusive()),
@@ -120,6 +149,15 @@ public class KvsGetRangeBenchmarks {
     }
 
 
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 2, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS)
+    public Object getSingleLargeRangeWithConsumerWork(ConsecutiveNarrowTable.CleanNarrowTable table,
+                                                      Blackhole blackhole) {
+        return getSingleRangeWithConsumerWorkInner(table, (int) (0.1 * table.getNumRows()), blackhole);
+    }
+
     @Benchmark
     @Threads(1)
     @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
@@ -136,4 +174,12 @@ public class KvsGetRangeBenchmarks {
         return getMultiRangeInner(table);
     }
 
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public Object getMultiLargeRange(ConsecutiveNarrowTable.CleanNarrowTable table) {
+        return getMultiRangeInner(table, 100, 100);
+    }
+
 }
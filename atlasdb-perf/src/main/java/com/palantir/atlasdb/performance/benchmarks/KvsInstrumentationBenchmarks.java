@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.KeyValueService;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.keyvalue.api.Value;
+import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.InstrumentedKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.ProfilingKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.SweepStatsKeyValueService;
+import com.palantir.atlasdb.keyvalue.impl.SweepStatsRecorder;
+import com.palantir.atlasdb.keyvalue.impl.TracingKeyValueService;
+import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.timestamp.InMemoryTimestampService;
+
+/**
+ * Measures the overhead of instrumenting an in-memory key value service, comparing the previous stack of profiling,
+ * sweep stats, tracing and proxy-based metrics decorators against the single {@link InstrumentedKeyValueService}.
+ * The uninstrumented service is included as a baseline.
+ */
+public class KvsInstrumentationBenchmarks {
+    private static final TableReference TABLE = TableReference.createFromFullyQualifiedName("benchmark.instrumented");
+    private static final int NUM_CELLS = 10_000;
+    private static final long TIMESTAMP = 10L;
+    private static final byte[] COLUMN = {0};
+    private static final byte[] VALUE = new byte[64];
+
+    @State(Scope.Benchmark)
+    public static class Uninstrumented {
+        private KeyValueService kvs;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            kvs = createAndPopulate();
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            kvs.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StackedDecorators {
+        private KeyValueService kvs;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            KeyValueService rawKvs = createAndPopulate();
+            kvs = ProfilingKeyValueService.create(rawKvs);
+            kvs = SweepStatsKeyValueService.create(kvs, new InMemoryTimestampService());
+            kvs = TracingKeyValueService.create(kvs);
+            kvs = AtlasDbMetrics.instrument(KeyValueService.class, kvs);
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            kvs.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Fused {
+        private KeyValueService kvs;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            KeyValueService rawKvs = createAndPopulate();
+            kvs = InstrumentedKeyValueService.create(rawKvs,
+                    SweepStatsRecorder.create(rawKvs, new InMemoryTimestampService()));
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            kvs.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> uninstrumentedGet(Uninstrumented state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> stackedGet(StackedDecorators state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> fusedGet(Fused state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> uninstrumentedGetManyThreads(Uninstrumented state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> stackedGetManyThreads(StackedDecorators state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Map<Cell, Value> fusedGetManyThreads(Fused state) {
+        return getRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public void uninstrumentedPut(Uninstrumented state) {
+        putRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public void stackedPut(StackedDecorators state) {
+        putRandomCell(state.kvs);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public void fusedPut(Fused state) {
+        putRandomCell(state.kvs);
+    }
+
+    private static KeyValueService createAndPopulate() {
+        KeyValueService kvs = new InMemoryKeyValueService(true);
+        for (int i = 0; i < NUM_CELLS; i++) {
+            kvs.put(TABLE, ImmutableMap.of(cell(i), VALUE), TIMESTAMP);
+        }
+        return kvs;
+    }
+
+    private static Map<Cell, Value> getRandomCell(KeyValueService kvs) {
+        Cell cell = cell(ThreadLocalRandom.current().nextInt(NUM_CELLS));
+        return kvs.get(TABLE, ImmutableMap.of(cell, TIMESTAMP + 1));
+    }
+
+    private static void putRandomCell(KeyValueService kvs) {
+        Cell cell = cell(ThreadLocalRandom.current().nextInt(NUM_CELLS));
+        kvs.put(TABLE, ImmutableMap.of(cell, VALUE), TIMESTAMP);
+    }
+
+    private static Cell cell(int index) {
+        return Cell.create(ByteBuffer.allocate(4).putInt(index).array(), COLUMN);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.config.AtlasDbConfig;
+import com.palantir.atlasdb.config.AtlasDbRuntimeConfig;
+import com.palantir.atlasdb.config.ImmutableAtlasDbConfig;
+import com.palantir.atlasdb.config.ImmutableAtlasDbRuntimeConfig;
+import com.palantir.atlasdb.config.ImmutableTransactionConfig;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.factory.TransactionManagers;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.RangeRequest;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.memory.InMemoryAtlasDbConfig;
+import com.palantir.atlasdb.protos.generated.TableMetadataPersistence;
+import com.palantir.atlasdb.transaction.api.ConflictHandler;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.atlasdb.transaction.impl.SerializableTransactionManager;
+import com.palantir.common.base.BatchingVisitables;
+
+/**
+ * Measures transactions that read a large set of cells from several serializable tables and then write a single
+ * cell, so that most of the time goes into checking the read set at commit time. Each benchmark runs with read-set
+ * hashing and parallel verification switched on and off.
+ */
+public class SerializableTransactionCommitBenchmarks {
+    private static final String ROW_COMPONENT = "key";
+    private static final String COLUMN_NAME = "value";
+    private static final byte[] COLUMN = PtBytes.toBytes(COLUMN_NAME);
+    private static final int NUM_TABLES = 4;
+    private static final int ROWS_PER_TABLE = 1_000;
+    private static final int VALUE_SIZE = 1_000;
+    private static final int WRITE_ROWS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class SerializableTables {
+        @Param({"false", "true"})
+        private boolean hashReadValues;
+
+        @Param({"false", "true"})
+        private boolean verifyInParallel;
+
+        private SerializableTransactionManager transactionManager;
+        private ImmutableList<TableReference> readTables;
+        private TableReference writeTable;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            AtlasDbConfig config = ImmutableAtlasDbConfig.builder()
+                    .keyValueService(new InMemoryAtlasDbConfig())
+                    .build();
+            AtlasDbRuntimeConfig runtimeConfig = ImmutableAtlasDbRuntimeConfig.builder()
+                    .transaction(ImmutableTransactionConfig.builder()
+                            .enableReadSetHashing(hashReadValues)
+                            .enableParallelReadSetVerification(verifyInParallel)
+                            .build())
+                    .build();
+            transactionManager = TransactionManagers.builder()
+                    .config(config)
+                    .runtimeConfigSupplier(() -> Optional.of(runtimeConfig))
+                    .schemas(ImmutableSet.of())
+                    .userAgent("benchmarks")
+                    .buildSerializable();
+
+            ImmutableList.Builder<TableReference> tables = ImmutableList.builder();
+            for (int i = 0; i < NUM_TABLES; i++) {
+                tables.add(createTable("read" + i));
+            }
+            readTables = tables.build();
+            writeTable = createTable("write");
+
+            Random random = new Random(0);
+            for (TableReference table : readTables) {
+                Map<Cell, byte[]> values = Maps.newHashMap();
+                for (int row = 0; row < ROWS_PER_TABLE; row++) {
+                    byte[] value = new byte[VALUE_SIZE];
+                    random.nextBytes(value);
+                    values.put(cell(row), value);
+                }
+                transactionManager.runTaskThrowOnConflict(txn -> {
+                    txn.put(table, values);
+                    return null;
+                });
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            transactionManager.close();
+        }
+
+        private TableReference createTable(String tableName) {
+            TableReference tableRef = TableReference.createFromFullyQualifiedName("benchmarks." + tableName);
+            Benchmarks.createTable(transactionManager.getKeyValueService(), tableRef, ROW_COMPONENT, COLUMN_NAME,
+                    TableMetadataPersistence.SweepStrategy.NOTHING, ConflictHandler.SERIALIZABLE);
+            return tableRef;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public Integer readCellsThenCommit(SerializableTables state) {
+        return state.transactionManager.runTaskThrowOnConflict(txn -> {
+            int cellsRead = 0;
+            for (TableReference table : state.readTables) {
+                cellsRead += txn.get(table, allCells()).size();
+            }
+            Preconditions.checkState(cellsRead == NUM_TABLES * ROWS_PER_TABLE,
+                    "expected %s cells, found %s cells", NUM_TABLES * ROWS_PER_TABLE, cellsRead);
+            writeRandomCell(txn, state.writeTable);
+            return cellsRead;
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public Integer readRangesThenCommit(SerializableTables state) {
+        return state.transactionManager.runTaskThrowOnConflict(txn -> {
+            int rowsRead = 0;
+            for (TableReference table : state.readTables) {
+                rowsRead += BatchingVisitables.copyToList(txn.getRange(table, RangeRequest.all())).size();
+            }
+            Preconditions.checkState(rowsRead == NUM_TABLES * ROWS_PER_TABLE,
+                    "expected %s rows, found %s rows", NUM_TABLES * ROWS_PER_TABLE, rowsRead);
+            writeRandomCell(txn, state.writeTable);
+            return rowsRead;
+        });
+    }
+
+    private static Set<Cell> allCells() {
+        ImmutableSet.Builder<Cell> cells = ImmutableSet.builder();
+        for (int row = 0; row < ROWS_PER_TABLE; row++) {
+            cells.add(cell(row));
+        }
+        return cells.build();
+    }
+
+    private static void writeRandomCell(Transaction txn, TableReference table) {
+        int row = ThreadLocalRandom.current().nextInt(WRITE_ROWS);
+        txn.put(table, ImmutableMap.of(cell(row), PtBytes.toBytes(row)));
+    }
+
+    private static Cell cell(int row) {
+        return Cell.create(PtBytes.toBytes(ROW_COMPONENT + row), COLUMN);
+    }
+}
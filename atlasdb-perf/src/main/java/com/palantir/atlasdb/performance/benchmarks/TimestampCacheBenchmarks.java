@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.palantir.atlasdb.cache.GuavaTimestampCache;
+import com.palantir.atlasdb.cache.OffHeapTimestampCache;
+import com.palantir.atlasdb.cache.TimestampCache;
+
+/**
+ * Compares the on-heap Guava backed {@link TimestampCache} against the off-heap one. The read benchmarks only ever
+ * hit the cache; the churn benchmarks write to a working set four times the size of the cache, so that most puts
+ * cause an eviction.
+ */
+public class TimestampCacheBenchmarks {
+    private static final long CACHE_SIZE = 1_000_000L;
+    private static final long CHURN_WORKING_SET = 4 * CACHE_SIZE;
+
+    @State(Scope.Benchmark)
+    public static class GuavaCache {
+        private TimestampCache cache;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cache = new GuavaTimestampCache(() -> CACHE_SIZE);
+            populate(cache);
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            cache.clear();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OffHeapCache {
+        private TimestampCache cache;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            cache = new OffHeapTimestampCache(() -> CACHE_SIZE);
+            populate(cache);
+        }
+
+        @TearDown(Level.Trial)
+        public void cleanup() {
+            cache.clear();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long guavaGetCommitTimestamp(GuavaCache state) {
+        return getRandomCommitTimestamp(state.cache);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long offHeapGetCommitTimestamp(OffHeapCache state) {
+        return getRandomCommitTimestamp(state.cache);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long guavaGetCommitTimestampManyThreads(GuavaCache state) {
+        return getRandomCommitTimestamp(state.cache);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long offHeapGetCommitTimestampManyThreads(OffHeapCache state) {
+        return getRandomCommitTimestamp(state.cache);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long guavaChurnManyThreads(GuavaCache state) {
+        return churn(state.cache);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(time = 1, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 5, timeUnit = TimeUnit.SECONDS)
+    public Long offHeapChurnManyThreads(OffHeapCache state) {
+        return churn(state.cache);
+    }
+
+    private static void populate(TimestampCache cache) {
+        for (long startTs = 0; startTs < CACHE_SIZE; startTs++) {
+            cache.putAlreadyCommittedTransaction(startTs, startTs + 1);
+        }
+    }
+
+    private static Long getRandomCommitTimestamp(TimestampCache cache) {
+        return cache.getCommitTimestampIfPresent(ThreadLocalRandom.current().nextLong(CACHE_SIZE));
+    }
+
+    private static Long churn(TimestampCache cache) {
+        long startTs = ThreadLocalRandom.current().nextLong(CHURN_WORKING_SET);
+        Long commitTs = cache.getCommitTimestampIfPresent(startTs);
+        if (commitTs == null) {
+            cache.putAlreadyCommittedTransaction(startTs, startTs + 1);
+        }
+        return commitTs;
+    }
+}
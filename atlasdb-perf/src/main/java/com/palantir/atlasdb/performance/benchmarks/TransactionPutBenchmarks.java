@@ -38,6 +38,7 @@ import com.palantir.atlasdb.performance.benchmarks.table.EmptyTables;
 public class TransactionPutBenchmarks {
 
     private static final int BATCH_SIZE = 250;
+    private static final int BULK_LOAD_BATCHES = 200;
 
     @Benchmark
     @Threads(1)
@@ -63,4 +64,20 @@ public class TransactionPutBenchmarks {
         });
     }
 
+    @Benchmark
+    @Threads(1)
+    @Warmup(time = 5, timeUnit = TimeUnit.SECONDS)
+    @Measurement(time = 30, timeUnit = TimeUnit.SECONDS)
+    public Object bulkLoadPut(EmptyTables tables) {
+        return tables.getTransactionManager().runTaskThrowOnConflict(txn -> {
+            int numCells = 0;
+            for (int i = 0; i < BULK_LOAD_BATCHES; i++) {
+                Map<Cell, byte[]> batch = tables.generateBatchToInsert(BATCH_SIZE);
+                txn.put(tables.getFirstTableRef(), batch);
+                numCells += batch.size();
+            }
+            return numCells;
+        });
+    }
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.performance.benchmarks.table;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.Maps;
+import com.palantir.atlasdb.keyvalue.api.Namespace;
+import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.performance.backend.AtlasDbServicesConnector;
+import com.palantir.atlasdb.performance.schema.StreamTestSchema;
+import com.palantir.atlasdb.performance.schema.generated.KeyValueTable;
+import com.palantir.atlasdb.performance.schema.generated.StreamTestTableFactory;
+import com.palantir.atlasdb.services.AtlasDbServices;
+import com.palantir.atlasdb.table.description.Schemas;
+import com.palantir.atlasdb.transaction.api.TransactionManager;
+
+/**
+ * State class which fills the generated {@link KeyValueTable} with {@link #NUM_ROWS} rows, for benchmarking reads
+ * through the generated table API rather than the raw key value service.
+ */
+@State(Scope.Benchmark)
+public class KeyValueRowsTable {
+    public static final int NUM_ROWS = 10_000;
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    private final StreamTestTableFactory tableFactory = StreamTestTableFactory.of();
+
+    private AtlasDbServicesConnector connector;
+    private AtlasDbServices services;
+
+    public TransactionManager getTransactionManager() {
+        return services.getTransactionManager();
+    }
+
+    public StreamTestTableFactory getTableFactory() {
+        return tableFactory;
+    }
+
+    public TableReference getTableRef() {
+        return TableReference.create(Namespace.DEFAULT_NAMESPACE, KeyValueTable.getRawTableName());
+    }
+
+    @Setup(Level.Trial)
+    public void setup(AtlasDbServicesConnector conn) {
+        this.connector = conn;
+        this.services = conn.connect();
+        Schemas.createTablesAndIndexes(StreamTestSchema.getSchema(), services.getKeyValueService());
+        setupData();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() throws Exception {
+        services.getKeyValueService().dropTable(getTableRef());
+        this.connector.close();
+    }
+
+    private void setupData() {
+        for (int start = 0; start < NUM_ROWS; start += ROWS_PER_TRANSACTION) {
+            int first = start;
+            getTransactionManager().runTaskThrowOnConflict(txn -> {
+                Map<KeyValueTable.KeyValueRow, Long> streamIds = Maps.newHashMap();
+                for (int i = first; i < first + ROWS_PER_TRANSACTION; i++) {
+                    streamIds.put(KeyValueTable.KeyValueRow.of(rowKey(i)), (long) i);
+                }
+                tableFactory.getKeyValueTable(txn).putStreamId(streamIds);
+                return null;
+            });
+        }
+    }
+
+    public static String rowKey(int index) {
+        return String.format("row-%08d", index);
+    }
+}
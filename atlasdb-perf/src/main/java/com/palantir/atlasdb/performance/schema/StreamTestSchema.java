@@ -43,6 +43,7 @@ public final class StreamTestSchema implements AtlasSchema {
                 javaTableName("KeyValue");
 
                 rangeScanAllowed();
+                enableLazyRowHydration();
 
                 rowName();
                 rowComponent("key", ValueType.STRING);
@@ -224,6 +224,42 @@ public final class KeyValueTable implements
         }
     }
 
+    /**
+     * A view of the persisted bytes of a {@link KeyValueRow}. Components are decoded from the
+     * underlying array each time they are read, and the array is not copied.
+     */
+    public static final class KeyValueRowView {
+        private final byte[] bytes;
+
+        public static KeyValueRowView of(byte[] bytes) {
+            return new KeyValueRowView(bytes);
+        }
+
+        private KeyValueRowView(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public String getKey() {
+            int __index = 0;
+            return PtBytes.toString(bytes, __index, bytes.length-__index);
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public KeyValueRow hydrate() {
+            return KeyValueRow.BYTES_HYDRATOR.hydrateFromBytes(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass().getSimpleName())
+                .add("key", getKey())
+                .toString();
+        }
+    }
+
     public interface KeyValueNamedColumnValue<T> extends NamedColumnValue<T> { /* */ }
 
     /**
@@ -292,6 +328,7 @@ public final class KeyValueTable implements
 
     public static final class KeyValueRowResult implements TypedRowResult {
         private final RowResult<byte[]> row;
+        private KeyValueRow rowName;
 
         public static KeyValueRowResult of(RowResult<byte[]> row) {
             return new KeyValueRowResult(row);
@@ -303,7 +340,14 @@ public final class KeyValueTable implements
 
         @Override
         public KeyValueRow getRowName() {
-            return KeyValueRow.BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());
+            if (rowName == null) {
+                rowName = KeyValueRow.BYTES_HYDRATOR.hydrateFromBytes(row.getRowName());
+            }
+            return rowName;
+        }
+
+        public KeyValueRowView getRowView() {
+            return KeyValueRowView.of(row.getRowName());
         }
 
         public static Function<KeyValueRowResult, KeyValueRow> getRowNameFun() {
@@ -573,28 +617,13 @@ public final class KeyValueTable implements
         if (range.getColumnNames().isEmpty()) {
             range = range.getBuilder().retainColumns(allColumns).build();
         }
-        return BatchingVisitables.transform(t.getRange(tableRef, range), new Function<RowResult<byte[]>, KeyValueRowResult>() {
-            @Override
-            public KeyValueRowResult apply(RowResult<byte[]> input) {
-                return KeyValueRowResult.of(input);
-            }
-        });
+        return BatchingVisitables.transform(t.getRange(tableRef, range), KeyValueRowResult::of);
     }
 
     public IterableView<BatchingVisitable<KeyValueRowResult>> getRanges(Iterable<RangeRequest> ranges) {
         Iterable<BatchingVisitable<RowResult<byte[]>>> rangeResults = t.getRanges(tableRef, ranges);
         return IterableView.of(rangeResults).transform(
-                new Function<BatchingVisitable<RowResult<byte[]>>, BatchingVisitable<KeyValueRowResult>>() {
-            @Override
-            public BatchingVisitable<KeyValueRowResult> apply(BatchingVisitable<RowResult<byte[]>> visitable) {
-                return BatchingVisitables.transform(visitable, new Function<RowResult<byte[]>, KeyValueRowResult>() {
-                    @Override
-                    public KeyValueRowResult apply(RowResult<byte[]> row) {
-                        return KeyValueRowResult.of(row);
-                    }
-                });
-            }
-        });
+                visitable -> BatchingVisitables.transform(visitable, KeyValueRowResult::of));
     }
 
     public void deleteRange(RangeRequest range) {
@@ -602,11 +631,13 @@ public final class KeyValueTable implements
     }
 
     public void deleteRanges(Iterable<RangeRequest> ranges) {
-        BatchingVisitables.concat(getRanges(ranges))
-                          .transform(KeyValueRowResult.getRowNameFun())
-                          .batchAccept(1000, new AbortingVisitor<List<KeyValueRow>, RuntimeException>() {
+        BatchingVisitables.concat(getRanges(ranges)).batchAccept(1000, new AbortingVisitor<List<KeyValueRowResult>, RuntimeException>() {
             @Override
-            public boolean visit(List<KeyValueRow> rows) {
+            public boolean visit(List<KeyValueRowResult> rowResults) {
+                List<KeyValueRow> rows = Lists.newArrayListWithCapacity(rowResults.size());
+                for (KeyValueRowResult rowResult : rowResults) {
+                    rows.add(rowResult.getRowName());
+                }
                 delete(rows);
                 return true;
             }
@@ -710,5 +741,5 @@ public final class KeyValueTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "DVmy8BAhP93Nqv/yw36IGw==";
+    static String __CLASS_HASH = "IPeDQtVsAineZtZmyxA4hQ==";
 }
@@ -15,6 +15,7 @@
  */
 package com.palantir.atlasdb.server;
 
+import com.palantir.atlasdb.binary.AtlasBinaryMessageBodyProvider;
 import com.palantir.atlasdb.factory.TransactionManagers;
 import com.palantir.atlasdb.impl.AtlasDbServiceImpl;
 import com.palantir.atlasdb.impl.TableMetadataCache;
@@ -52,6 +53,7 @@ public class AtlasDbServiceServer extends Application<AtlasDbServiceServerConfig
         TableMetadataCache cache = new TableMetadataCache(tm.getKeyValueService());
 
         environment.jersey().register(new AtlasDbServiceImpl(tm.getKeyValueService(), tm, cache));
+        environment.jersey().register(new AtlasBinaryMessageBodyProvider());
         environment.getObjectMapper().registerModule(new AtlasJacksonModule(cache).createModule());
     }
 
@@ -24,6 +24,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.common.annotation.Idempotent;
@@ -57,41 +58,57 @@ public interface AtlasDbService {
     @Idempotent
     @POST
     @Path("rows/{token}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
     TableRowResult getRows(@PathParam("token") TransactionToken token,
                            TableRowSelection rows);
 
     @Idempotent
     @POST
     @Path("cells/{token}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
     TableCellVal getCells(@PathParam("token") TransactionToken token,
                           TableCell cells);
 
     @Idempotent
     @POST
     @Path("range/{token}")
-    @Produces(MediaType.APPLICATION_JSON)
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
     RangeToken getRange(@PathParam("token") TransactionToken token,
                         TableRange rangeRequest);
 
     @Idempotent
     @POST
     @Path("put/{token}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
     void put(@PathParam("token") TransactionToken token,
              TableCellVal data);
 
     @Idempotent
     @POST
     @Path("delete/{token}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, AtlasDbMediaTypes.BINARY})
     void delete(@PathParam("token") TransactionToken token,
                 TableCell cells);
 
+    /**
+     * Executes the operations of the batch in order against a single transaction, streaming their
+     * results back in the {@link AtlasDbMediaTypes#BINARY} encoding as they are produced; ranges are
+     * read in full and sent back one batch of rows at a time.
+     * <p>
+     * An auto-commit batch is committed once all of its operations have run, and is not retried on
+     * conflict because part of its results may already have been sent. The response is read with
+     * {@link com.palantir.atlasdb.binary.AtlasBinaryFormat#readBatchResponse}.
+     */
+    @POST
+    @Path("batch/{token}")
+    @Produces(AtlasDbMediaTypes.BINARY)
+    @Consumes(AtlasDbMediaTypes.BINARY)
+    StreamingOutput executeBatch(@PathParam("token") TransactionToken token,
+                                 BatchRequest batch);
+
     @Idempotent
     @POST
     @Path("truncate-table/{tableName}")
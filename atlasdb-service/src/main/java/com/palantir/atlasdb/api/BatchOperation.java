@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.api;
+
+import com.google.common.base.Preconditions;
+
+public final class BatchOperation {
+    public enum Type {
+        GET_ROWS,
+        GET_CELLS,
+        GET_RANGE,
+        PUT,
+        DELETE
+    }
+
+    private final Type type;
+    private final Object request;
+
+    private BatchOperation(Type type, Object request) {
+        this.type = type;
+        this.request = Preconditions.checkNotNull(request, "request must not be null!");
+    }
+
+    public static BatchOperation getRows(TableRowSelection rows) {
+        return new BatchOperation(Type.GET_ROWS, rows);
+    }
+
+    public static BatchOperation getCells(TableCell cells) {
+        return new BatchOperation(Type.GET_CELLS, cells);
+    }
+
+    /**
+     * Reads the whole of the given range. Unlike {@link AtlasDbService#getRange(TransactionToken, TableRange)},
+     * the batch size of the range only determines how many rows are sent back at a time.
+     */
+    public static BatchOperation getRange(TableRange range) {
+        return new BatchOperation(Type.GET_RANGE, range);
+    }
+
+    public static BatchOperation put(TableCellVal data) {
+        return new BatchOperation(Type.PUT, data);
+    }
+
+    public static BatchOperation delete(TableCell cells) {
+        return new BatchOperation(Type.DELETE, cells);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public TableRowSelection getRowSelection() {
+        return getRequest(Type.GET_ROWS, TableRowSelection.class);
+    }
+
+    public TableCell getCells() {
+        Preconditions.checkState(type == Type.GET_CELLS || type == Type.DELETE,
+                "Operation %s does not refer to cells", type);
+        return (TableCell) request;
+    }
+
+    public TableRange getRange() {
+        return getRequest(Type.GET_RANGE, TableRange.class);
+    }
+
+    public TableCellVal getData() {
+        return getRequest(Type.PUT, TableCellVal.class);
+    }
+
+    private <T> T getRequest(Type expectedType, Class<T> requestClass) {
+        Preconditions.checkState(type == expectedType, "Operation %s is not %s", type, expectedType);
+        return requestClass.cast(request);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOperation [type=" + type + ", request=" + request + "]";
+    }
+}
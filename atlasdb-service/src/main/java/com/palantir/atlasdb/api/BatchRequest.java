@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.api;
+
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A sequence of reads and writes to be executed in order against a single transaction.
+ * See {@link AtlasDbService#executeBatch(TransactionToken, BatchRequest)}.
+ */
+public class BatchRequest {
+    private final List<BatchOperation> operations;
+
+    public BatchRequest(List<BatchOperation> operations) {
+        this.operations = ImmutableList.copyOf(Preconditions.checkNotNull(operations, "operations must not be null!"));
+    }
+
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchRequest [operations=" + operations + "]";
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.api.BatchOperation;
+import com.palantir.atlasdb.api.BatchRequest;
+import com.palantir.atlasdb.api.RangeToken;
+import com.palantir.atlasdb.api.TableCell;
+import com.palantir.atlasdb.api.TableCellVal;
+import com.palantir.atlasdb.api.TableRange;
+import com.palantir.atlasdb.api.TableRowResult;
+import com.palantir.atlasdb.api.TableRowSelection;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+
+/**
+ * The binary encoding of {@link com.palantir.atlasdb.api.AtlasDbService} requests and responses.
+ * <p>
+ * Every message starts with a version byte. Byte arrays are written as a 4-byte length followed by
+ * the raw bytes (a length of -1 denotes null), collections as a 4-byte count followed by their
+ * elements, and table names as modified UTF-8. Lengths and counts come from the client, so they
+ * are never trusted to size an allocation up front: collections grow as their elements arrive and
+ * long byte arrays are read in chunks, so a message cannot claim more memory than it actually sends.
+ * Messages that do not follow the format fail with a {@link MalformedAtlasBinaryException}.
+ * <p>
+ * The response to a batch is a stream of frames, each tagged with the index of the operation it
+ * answers. Reads of rows and cells produce a single frame, ranges produce one frame per batch of
+ * rows followed by a range end frame, and writes produce a write done frame. The stream is
+ * terminated by an end frame once the transaction has been committed (or, for an explicit
+ * transaction, once every operation has run), so a stream that ends without one has failed. If an
+ * operation or the commit fails, the server writes an error frame with the index of the failed
+ * operation and the error message in its place, and the transaction is aborted.
+ */
+public final class AtlasBinaryFormat {
+    /**
+     * The operation index of an error frame for a failure that is not caused by a single operation.
+     */
+    public static final int NO_OPERATION = -1;
+
+    private static final byte VERSION = 1;
+
+    private static final byte FRAME_ROWS = 1;
+    private static final byte FRAME_CELLS = 2;
+    private static final byte FRAME_RANGE_END = 3;
+    private static final byte FRAME_WRITE_DONE = 4;
+    private static final byte FRAME_END = 5;
+    private static final byte FRAME_ERROR = 6;
+
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    // writeUTF is limited to 64KB and a char takes at most three bytes
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 16 * 1024;
+
+    private AtlasBinaryFormat() {
+        // utility
+    }
+
+    public static void writeHeader(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+    }
+
+    public static void readHeader(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new MalformedAtlasBinaryException("Unsupported AtlasDB binary protocol version " + version);
+        }
+    }
+
+    public static void writeRowSelection(DataOutput out, TableRowSelection selection) throws IOException {
+        out.writeUTF(selection.getTableName());
+        writeByteArrays(out, selection.getRows());
+        ColumnSelection columns = selection.getColumnSelection();
+        if (columns == null || columns.allColumnsSelected()) {
+            out.writeBoolean(true);
+        } else {
+            out.writeBoolean(false);
+            writeByteArrays(out, columns.getSelectedColumns());
+        }
+    }
+
+    public static TableRowSelection readRowSelection(DataInput in) throws IOException {
+        String tableName = in.readUTF();
+        List<byte[]> rows = readByteArrays(in);
+        ColumnSelection columns = in.readBoolean() ? ColumnSelection.all() : ColumnSelection.create(readByteArrays(in));
+        return new TableRowSelection(tableName, rows, columns);
+    }
+
+    public static void writeCells(DataOutput out, TableCell cells) throws IOException {
+        out.writeUTF(cells.getTableName());
+        out.writeInt(Iterables.size(cells.getCells()));
+        for (Cell cell : cells.getCells()) {
+            writeCell(out, cell);
+        }
+    }
+
+    public static TableCell readCells(DataInput in) throws IOException {
+        String tableName = in.readUTF();
+        int size = readCount(in);
+        ImmutableList.Builder<Cell> cells = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            cells.add(readCell(in));
+        }
+        return new TableCell(tableName, cells.build());
+    }
+
+    public static void writeCellValues(DataOutput out, TableCellVal cellValues) throws IOException {
+        out.writeUTF(cellValues.getTableName());
+        Map<Cell, byte[]> results = cellValues.getResults();
+        out.writeInt(results.size());
+        for (Entry<Cell, byte[]> result : results.entrySet()) {
+            writeCell(out, result.getKey());
+            writeBytes(out, result.getValue());
+        }
+    }
+
+    public static TableCellVal readCellValues(DataInput in) throws IOException {
+        String tableName = in.readUTF();
+        int size = readCount(in);
+        Map<Cell, byte[]> results = Maps.newHashMap();
+        for (int i = 0; i < size; i++) {
+            results.put(readCell(in), readBytes(in));
+        }
+        return new TableCellVal(tableName, results);
+    }
+
+    public static void writeRange(DataOutput out, TableRange range) throws IOException {
+        out.writeUTF(range.getTableName());
+        writeBytes(out, range.getStartRow());
+        writeBytes(out, range.getEndRow());
+        writeByteArrays(out, range.getColumns());
+        out.writeInt(range.getBatchSize());
+    }
+
+    public static TableRange readRange(DataInput in) throws IOException {
+        String tableName = in.readUTF();
+        byte[] startRow = readBytes(in);
+        byte[] endRow = readBytes(in);
+        List<byte[]> columns = readByteArrays(in);
+        int batchSize = in.readInt();
+        return new TableRange(tableName, startRow, endRow, columns, batchSize);
+    }
+
+    public static void writeRowResult(DataOutput out, TableRowResult rowResult) throws IOException {
+        out.writeUTF(rowResult.getTableName());
+        writeRows(out, rowResult.getResults());
+    }
+
+    public static TableRowResult readRowResult(DataInput in) throws IOException {
+        String tableName = in.readUTF();
+        return new TableRowResult(tableName, readRows(in));
+    }
+
+    public static void writeRangeToken(DataOutput out, RangeToken token) throws IOException {
+        writeRowResult(out, token.getResults());
+        out.writeBoolean(token.hasMoreResults());
+        if (token.hasMoreResults()) {
+            writeRange(out, token.getNextRange());
+        }
+    }
+
+    public static RangeToken readRangeToken(DataInput in) throws IOException {
+        TableRowResult results = readRowResult(in);
+        TableRange nextRange = in.readBoolean() ? readRange(in) : null;
+        return new RangeToken(results, nextRange);
+    }
+
+    public static void writeBatchRequest(DataOutput out, BatchRequest batch) throws IOException {
+        out.writeInt(batch.getOperations().size());
+        for (BatchOperation operation : batch.getOperations()) {
+            out.writeByte(operation.getType().ordinal());
+            switch (operation.getType()) {
+                case GET_ROWS:
+                    writeRowSelection(out, operation.getRowSelection());
+                    break;
+                case GET_CELLS:
+                case DELETE:
+                    writeCells(out, operation.getCells());
+                    break;
+                case GET_RANGE:
+                    writeRange(out, operation.getRange());
+                    break;
+                case PUT:
+                    writeCellValues(out, operation.getData());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown batch operation " + operation.getType());
+            }
+        }
+    }
+
+    public static BatchRequest readBatchRequest(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableList.Builder<BatchOperation> operations = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            operations.add(readBatchOperation(in));
+        }
+        return new BatchRequest(operations.build());
+    }
+
+    private static BatchOperation readBatchOperation(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        BatchOperation.Type[] types = BatchOperation.Type.values();
+        if (ordinal >= types.length) {
+            throw new MalformedAtlasBinaryException("Unknown batch operation " + ordinal);
+        }
+        switch (types[ordinal]) {
+            case GET_ROWS:
+                return BatchOperation.getRows(readRowSelection(in));
+            case GET_CELLS:
+                return BatchOperation.getCells(readCells(in));
+            case GET_RANGE:
+                return BatchOperation.getRange(readRange(in));
+            case PUT:
+                return BatchOperation.put(readCellValues(in));
+            case DELETE:
+                return BatchOperation.delete(readCells(in));
+            default:
+                throw new MalformedAtlasBinaryException("Unknown batch operation " + types[ordinal]);
+        }
+    }
+
+    public static void writeRowsFrame(DataOutput out, int operation, TableRowResult rows) throws IOException {
+        out.writeByte(FRAME_ROWS);
+        out.writeInt(operation);
+        writeRowResult(out, rows);
+    }
+
+    public static void writeCellsFrame(DataOutput out, int operation, TableCellVal cells) throws IOException {
+        out.writeByte(FRAME_CELLS);
+        out.writeInt(operation);
+        writeCellValues(out, cells);
+    }
+
+    public static void writeRangeEndFrame(DataOutput out, int operation) throws IOException {
+        out.writeByte(FRAME_RANGE_END);
+        out.writeInt(operation);
+    }
+
+    public static void writeWriteDoneFrame(DataOutput out, int operation) throws IOException {
+        out.writeByte(FRAME_WRITE_DONE);
+        out.writeInt(operation);
+    }
+
+    public static void writeEndFrame(DataOutput out) throws IOException {
+        out.writeByte(FRAME_END);
+    }
+
+    public static void writeErrorFrame(DataOutput out, int operation, String message) throws IOException {
+        out.writeByte(FRAME_ERROR);
+        out.writeInt(operation);
+        out.writeUTF(message.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, MAX_ERROR_MESSAGE_LENGTH)
+                : message);
+    }
+
+    /**
+     * Reads a batch response written by {@link com.palantir.atlasdb.api.AtlasDbService#executeBatch},
+     * passing each frame to the visitor as it arrives.
+     *
+     * @throws BatchFailedException if the server reports that the batch failed
+     * @throws java.io.EOFException if the stream ends before the end frame, which means the batch failed
+     */
+    public static void readBatchResponse(DataInput in, BatchResponseVisitor visitor) throws IOException {
+        readHeader(in);
+        while (true) {
+            byte frame = in.readByte();
+            if (frame == FRAME_END) {
+                return;
+            }
+            int operation = in.readInt();
+            switch (frame) {
+                case FRAME_ROWS:
+                    visitor.visitRows(operation, readRowResult(in));
+                    break;
+                case FRAME_CELLS:
+                    visitor.visitCells(operation, readCellValues(in));
+                    break;
+                case FRAME_RANGE_END:
+                    visitor.visitRangeEnd(operation);
+                    break;
+                case FRAME_WRITE_DONE:
+                    visitor.visitWriteDone(operation);
+                    break;
+                case FRAME_ERROR:
+                    throw new BatchFailedException(operation, in.readUTF());
+                default:
+                    throw new MalformedAtlasBinaryException("Unknown batch response frame " + frame);
+            }
+        }
+    }
+
+    private static void writeRows(DataOutput out, Iterable<RowResult<byte[]>> rows) throws IOException {
+        out.writeInt(Iterables.size(rows));
+        for (RowResult<byte[]> row : rows) {
+            writeBytes(out, row.getRowName());
+            SortedMap<byte[], byte[]> columns = row.getColumns();
+            out.writeInt(columns.size());
+            for (Entry<byte[], byte[]> column : columns.entrySet()) {
+                writeBytes(out, column.getKey());
+                writeBytes(out, column.getValue());
+            }
+        }
+    }
+
+    private static List<RowResult<byte[]>> readRows(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableList.Builder<RowResult<byte[]>> rows = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            byte[] rowName = readBytes(in);
+            int numColumns = readCount(in);
+            ImmutableSortedMap.Builder<byte[], byte[]> columns =
+                    ImmutableSortedMap.orderedBy(UnsignedBytes.lexicographicalComparator());
+            for (int j = 0; j < numColumns; j++) {
+                columns.put(readBytes(in), readBytes(in));
+            }
+            rows.add(RowResult.create(rowName, columns.build()));
+        }
+        return rows.build();
+    }
+
+    private static void writeCell(DataOutput out, Cell cell) throws IOException {
+        writeBytes(out, cell.getRowName());
+        writeBytes(out, cell.getColumnName());
+    }
+
+    private static Cell readCell(DataInput in) throws IOException {
+        return Cell.create(readName(in), readName(in));
+    }
+
+    private static byte[] readName(DataInput in) throws IOException {
+        byte[] name = readBytes(in);
+        if (!Cell.isNameValid(name)) {
+            throw new MalformedAtlasBinaryException("Cell names must have between 1 and "
+                    + Cell.MAX_NAME_LENGTH + " bytes, but got " + (name == null ? "null" : name.length + " bytes"));
+        }
+        return name;
+    }
+
+    private static void writeByteArrays(DataOutput out, @Nullable Iterable<byte[]> arrays) throws IOException {
+        if (arrays == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(Iterables.size(arrays));
+        for (byte[] array : arrays) {
+            writeBytes(out, array);
+        }
+    }
+
+    @Nullable
+    private static List<byte[]> readByteArrays(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size == -1) {
+            return null;
+        }
+        checkNotNegative(size, "count");
+        ImmutableList.Builder<byte[]> arrays = ImmutableList.builder();
+        for (int i = 0; i < size; i++) {
+            arrays.add(readBytes(in));
+        }
+        return arrays.build();
+    }
+
+    private static void writeBytes(DataOutput out, @Nullable byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        checkNotNegative(length, "length");
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+        in.readFully(bytes);
+        while (bytes.length < length) {
+            int read = bytes.length;
+            bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+            in.readFully(bytes, read, bytes.length - read);
+        }
+        return bytes;
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        checkNotNegative(count, "count");
+        return count;
+    }
+
+    private static void checkNotNegative(int value, String name) throws MalformedAtlasBinaryException {
+        if (value < 0) {
+            throw new MalformedAtlasBinaryException("Negative " + name + " " + value);
+        }
+    }
+}
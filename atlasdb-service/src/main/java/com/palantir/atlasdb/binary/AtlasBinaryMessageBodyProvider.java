@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.atlasdb.api.AtlasDbMediaTypes;
+import com.palantir.atlasdb.api.BatchRequest;
+import com.palantir.atlasdb.api.RangeToken;
+import com.palantir.atlasdb.api.TableCell;
+import com.palantir.atlasdb.api.TableCellVal;
+import com.palantir.atlasdb.api.TableRange;
+import com.palantir.atlasdb.api.TableRowResult;
+import com.palantir.atlasdb.api.TableRowSelection;
+
+/**
+ * Reads and writes {@link com.palantir.atlasdb.api.AtlasDbService} entities in the
+ * {@link AtlasDbMediaTypes#BINARY} encoding. Register it alongside the service to let clients
+ * negotiate the binary encoding with their Content-Type and Accept headers. Request entities that
+ * are truncated or otherwise malformed are rejected with a 400.
+ */
+@Provider
+@Consumes(AtlasDbMediaTypes.BINARY)
+@Produces(AtlasDbMediaTypes.BINARY)
+public class AtlasBinaryMessageBodyProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    private static final MediaType BINARY_TYPE = new MediaType("application", "x-atlasdb-binary");
+    private static final Set<Class<?>> SUPPORTED_TYPES = ImmutableSet.of(
+            TableRowSelection.class,
+            TableCell.class,
+            TableCellVal.class,
+            TableRange.class,
+            TableRowResult.class,
+            RangeToken.class,
+            BatchRequest.class);
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return SUPPORTED_TYPES.contains(type) && BINARY_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type,
+                           Type genericType,
+                           Annotation[] annotations,
+                           MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders,
+                           InputStream entityStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(entityStream));
+        try {
+            return read(type, mediaType, in);
+        } catch (EOFException | UTFDataFormatException | MalformedAtlasBinaryException e) {
+            throw new BadRequestException("Malformed AtlasDB binary entity: " + e.getMessage(), e);
+        }
+    }
+
+    private static Object read(Class<Object> type, MediaType mediaType, DataInputStream in) throws IOException {
+        AtlasBinaryFormat.readHeader(in);
+        if (TableRowSelection.class.equals(type)) {
+            return AtlasBinaryFormat.readRowSelection(in);
+        } else if (TableCell.class.equals(type)) {
+            return AtlasBinaryFormat.readCells(in);
+        } else if (TableCellVal.class.equals(type)) {
+            return AtlasBinaryFormat.readCellValues(in);
+        } else if (TableRange.class.equals(type)) {
+            return AtlasBinaryFormat.readRange(in);
+        } else if (TableRowResult.class.equals(type)) {
+            return AtlasBinaryFormat.readRowResult(in);
+        } else if (RangeToken.class.equals(type)) {
+            return AtlasBinaryFormat.readRangeToken(in);
+        } else if (BatchRequest.class.equals(type)) {
+            return AtlasBinaryFormat.readBatchRequest(in);
+        }
+        throw new IllegalArgumentException("Cannot read " + type + " as " + mediaType);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return SUPPORTED_TYPES.contains(type) && BINARY_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value,
+                        Class<?> type,
+                        Type genericType,
+                        Annotation[] annotations,
+                        MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(entityStream));
+        AtlasBinaryFormat.writeHeader(out);
+        if (value instanceof TableRowSelection) {
+            AtlasBinaryFormat.writeRowSelection(out, (TableRowSelection) value);
+        } else if (value instanceof TableCell) {
+            AtlasBinaryFormat.writeCells(out, (TableCell) value);
+        } else if (value instanceof TableCellVal) {
+            AtlasBinaryFormat.writeCellValues(out, (TableCellVal) value);
+        } else if (value instanceof TableRange) {
+            AtlasBinaryFormat.writeRange(out, (TableRange) value);
+        } else if (value instanceof TableRowResult) {
+            AtlasBinaryFormat.writeRowResult(out, (TableRowResult) value);
+        } else if (value instanceof RangeToken) {
+            AtlasBinaryFormat.writeRangeToken(out, (RangeToken) value);
+        } else if (value instanceof BatchRequest) {
+            AtlasBinaryFormat.writeBatchRequest(out, (BatchRequest) value);
+        } else {
+            throw new IllegalArgumentException("Cannot write " + type + " as " + mediaType);
+        }
+        out.flush();
+    }
+}
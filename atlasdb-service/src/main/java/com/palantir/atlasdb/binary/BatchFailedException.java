@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link AtlasBinaryFormat#readBatchResponse} when the server reports that a batch failed.
+ * Frames visited before the failure were produced by the failed transaction and must not be trusted
+ * as committed.
+ */
+public class BatchFailedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int operation;
+
+    public BatchFailedException(int operation, String message) {
+        super(operation == AtlasBinaryFormat.NO_OPERATION
+                ? "Batch failed: " + message
+                : "Batch failed at operation " + operation + ": " + message);
+        this.operation = operation;
+    }
+
+    /**
+     * The index of the operation that failed, or {@link AtlasBinaryFormat#NO_OPERATION} if the batch
+     * failed outside of any single operation, for example when committing.
+     */
+    public int getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import com.palantir.atlasdb.api.TableCellVal;
+import com.palantir.atlasdb.api.TableRowResult;
+
+/**
+ * Receives the frames of a batch response, see {@link AtlasBinaryFormat#readBatchResponse}.
+ * Each callback is given the index of the operation in the batch that the frame answers.
+ */
+public interface BatchResponseVisitor {
+    /**
+     * Called once with the result of a rows read, and once per batch of rows of a range read.
+     */
+    void visitRows(int operation, TableRowResult rows);
+
+    void visitCells(int operation, TableCellVal cells);
+
+    void visitRangeEnd(int operation);
+
+    void visitWriteDone(int operation);
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a message does not follow the {@link AtlasBinaryFormat}, for example because it has an
+ * unknown version or frame type, or a negative or out of range length.
+ */
+public class MalformedAtlasBinaryException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public MalformedAtlasBinaryException(String message) {
+        super(message);
+    }
+}
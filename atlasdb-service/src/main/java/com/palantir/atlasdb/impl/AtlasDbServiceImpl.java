@@ -15,15 +15,20 @@
  */
 package com.palantir.atlasdb.impl;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
@@ -31,6 +36,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.api.AtlasDbService;
+import com.palantir.atlasdb.api.BatchOperation;
+import com.palantir.atlasdb.api.BatchRequest;
 import com.palantir.atlasdb.api.RangeToken;
 import com.palantir.atlasdb.api.TableCell;
 import com.palantir.atlasdb.api.TableCellVal;
@@ -38,6 +45,7 @@ import com.palantir.atlasdb.api.TableRange;
 import com.palantir.atlasdb.api.TableRowResult;
 import com.palantir.atlasdb.api.TableRowSelection;
 import com.palantir.atlasdb.api.TransactionToken;
+import com.palantir.atlasdb.binary.AtlasBinaryFormat;
 import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.RangeRequest;
@@ -52,6 +60,8 @@ import com.palantir.atlasdb.table.description.TableMetadata;
 import com.palantir.atlasdb.table.description.ValueType;
 import com.palantir.atlasdb.transaction.api.ConflictHandler;
 import com.palantir.atlasdb.transaction.api.RuntimeTransactionTask;
+import com.palantir.atlasdb.transaction.api.Transaction;
+import com.palantir.atlasdb.transaction.api.TransactionTask;
 import com.palantir.atlasdb.transaction.impl.RawTransaction;
 import com.palantir.atlasdb.transaction.impl.SerializableTransactionManager;
 import com.palantir.atlasdb.transaction.impl.TxTask;
@@ -101,21 +111,25 @@ public class AtlasDbServiceImpl implements AtlasDbService {
     @Override
     public TableRowResult getRows(TransactionToken token,
             final TableRowSelection rows) {
-        return runReadOnly(token, transaction -> {
-            Collection<RowResult<byte[]>> values = transaction.getRows(
-                    getTableRef(rows.getTableName()), rows.getRows(), rows.getColumnSelection()).values();
-            return new TableRowResult(rows.getTableName(), values);
-        });
+        return runReadOnly(token, transaction -> getRows(transaction, rows));
+    }
+
+    private TableRowResult getRows(Transaction transaction, TableRowSelection rows) {
+        Collection<RowResult<byte[]>> values = transaction.getRows(
+                getTableRef(rows.getTableName()), rows.getRows(), rows.getColumnSelection()).values();
+        return new TableRowResult(rows.getTableName(), values);
     }
 
     @Override
     public TableCellVal getCells(TransactionToken token,
             final TableCell cells) {
-        return runReadOnly(token, transaction -> {
-            Map<Cell, byte[]> values = transaction.get(getTableRef(cells.getTableName()),
-                    ImmutableSet.copyOf(cells.getCells()));
-            return new TableCellVal(cells.getTableName(), values);
-        });
+        return runReadOnly(token, transaction -> getCells(transaction, cells));
+    }
+
+    private TableCellVal getCells(Transaction transaction, TableCell cells) {
+        Map<Cell, byte[]> values = transaction.get(getTableRef(cells.getTableName()),
+                ImmutableSet.copyOf(cells.getCells()));
+        return new TableCellVal(cells.getTableName(), values);
     }
 
     @Override
@@ -123,14 +137,8 @@ public class AtlasDbServiceImpl implements AtlasDbService {
             final TableRange range) {
         return runReadOnly(token, transaction -> {
             int limit = range.getBatchSize() + 1;
-            RangeRequest request = RangeRequest.builder()
-                    .startRowInclusive(range.getStartRow())
-                    .endRowExclusive(range.getEndRow())
-                    .batchHint(limit)
-                    .retainColumns(range.getColumns())
-                    .build();
             BatchingVisitable<RowResult<byte[]>> visitable = transaction.getRange(getTableRef(range.getTableName()),
-                    request);
+                    toRangeRequest(range, limit));
             List<RowResult<byte[]>> results = BatchingVisitables.limit(visitable, limit).immutableCopy();
             if (results.size() == limit) {
                 TableRowResult data = new TableRowResult(range.getTableName(), results.subList(0, limit - 1));
@@ -144,6 +152,15 @@ public class AtlasDbServiceImpl implements AtlasDbService {
         });
     }
 
+    private static RangeRequest toRangeRequest(TableRange range, int batchHint) {
+        return RangeRequest.builder()
+                .startRowInclusive(range.getStartRow())
+                .endRowExclusive(range.getEndRow())
+                .batchHint(batchHint)
+                .retainColumns(range.getColumns())
+                .build();
+    }
+
     @Override
     public void put(TransactionToken token,
             final TableCellVal data) {
@@ -162,6 +179,89 @@ public class AtlasDbServiceImpl implements AtlasDbService {
         });
     }
 
+    @Override
+    public StreamingOutput executeBatch(TransactionToken token, final BatchRequest batch) {
+        return output -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+            AtlasBinaryFormat.writeHeader(out);
+            AtomicInteger currentOperation = new AtomicInteger(AtlasBinaryFormat.NO_OPERATION);
+            try {
+                runWithoutRetry(token, (TransactionTask<Void, IOException>) transaction -> {
+                    List<BatchOperation> operations = batch.getOperations();
+                    for (int i = 0; i < operations.size(); i++) {
+                        currentOperation.set(i);
+                        executeBatchOperation(transaction, i, operations.get(i), out);
+                    }
+                    currentOperation.set(AtlasBinaryFormat.NO_OPERATION);
+                    return null;
+                });
+            } catch (IOException | RuntimeException e) {
+                failBatch(token, currentOperation.get(), e, out);
+                throw e;
+            }
+            AtlasBinaryFormat.writeEndFrame(out);
+            out.flush();
+        };
+    }
+
+    /**
+     * Results of earlier operations may already have been streamed by the time an operation fails, so the
+     * failure is reported in an error frame rather than through the response status. An explicit transaction
+     * is aborted so that it cannot be committed with only part of the batch applied.
+     */
+    private void failBatch(TransactionToken token, int operation, Exception failure, DataOutputStream out) {
+        try {
+            AtlasBinaryFormat.writeErrorFrame(out, operation, failure.toString());
+            out.flush();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        if (!token.shouldAutoCommit()) {
+            try {
+                abort(token);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private void executeBatchOperation(Transaction transaction,
+            int index,
+            BatchOperation operation,
+            DataOutputStream out) throws IOException {
+        switch (operation.getType()) {
+            case GET_ROWS:
+                AtlasBinaryFormat.writeRowsFrame(out, index, getRows(transaction, operation.getRowSelection()));
+                break;
+            case GET_CELLS:
+                AtlasBinaryFormat.writeCellsFrame(out, index, getCells(transaction, operation.getCells()));
+                break;
+            case GET_RANGE:
+                TableRange range = operation.getRange();
+                String tableName = range.getTableName();
+                transaction.getRange(getTableRef(tableName), toRangeRequest(range, range.getBatchSize()))
+                        .batchAccept(range.getBatchSize(), rows -> {
+                            AtlasBinaryFormat.writeRowsFrame(out, index, new TableRowResult(tableName, rows));
+                            out.flush();
+                            return true;
+                        });
+                AtlasBinaryFormat.writeRangeEndFrame(out, index);
+                break;
+            case PUT:
+                TableCellVal data = operation.getData();
+                transaction.put(getTableRef(data.getTableName()), data.getResults());
+                AtlasBinaryFormat.writeWriteDoneFrame(out, index);
+                break;
+            case DELETE:
+                TableCell cells = operation.getCells();
+                transaction.delete(getTableRef(cells.getTableName()), ImmutableSet.copyOf(cells.getCells()));
+                AtlasBinaryFormat.writeWriteDoneFrame(out, index);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown batch operation " + operation.getType());
+        }
+    }
+
     @Override
     public void truncateTable(final String fullyQualifiedTableName) {
         kvs.truncateTable(getTableRef(fullyQualifiedTableName));
@@ -187,6 +287,16 @@ public class AtlasDbServiceImpl implements AtlasDbService {
         }
     }
 
+    private <T, E extends Exception> T runWithoutRetry(TransactionToken token, TransactionTask<T, E> task) throws E {
+        if (token.shouldAutoCommit()) {
+            return txManager.runTaskThrowOnConflict(task);
+        } else {
+            RawTransaction tx = transactions.getIfPresent(token);
+            Preconditions.checkNotNull(tx, "The given transaction does not exist.");
+            return task.execute(tx);
+        }
+    }
+
     @Override
     public TransactionToken startTransaction() {
         String id = UUID.randomUUID().toString();
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.UnsignedBytes;
+import com.palantir.atlasdb.api.BatchOperation;
+import com.palantir.atlasdb.api.BatchRequest;
+import com.palantir.atlasdb.api.RangeToken;
+import com.palantir.atlasdb.api.TableCell;
+import com.palantir.atlasdb.api.TableCellVal;
+import com.palantir.atlasdb.api.TableRange;
+import com.palantir.atlasdb.api.TableRowResult;
+import com.palantir.atlasdb.api.TableRowSelection;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
+import com.palantir.atlasdb.keyvalue.api.ColumnSelection;
+import com.palantir.atlasdb.keyvalue.api.RowResult;
+
+public class AtlasBinaryFormatTest {
+    private static final String TABLE = "ns.table";
+    private static final Cell CELL = Cell.create(PtBytes.toBytes("row"), PtBytes.toBytes("col"));
+    private static final byte[] VALUE = PtBytes.toBytes("value");
+
+    @Test
+    public void testRowSelectionRoundTrip() throws IOException {
+        TableRowSelection selection = new TableRowSelection(TABLE,
+                ImmutableList.of(PtBytes.toBytes("row1"), PtBytes.toBytes("row2")),
+                ColumnSelection.create(ImmutableList.of(PtBytes.toBytes("col"))));
+        TableRowSelection result = roundTrip(selection,
+                AtlasBinaryFormat::writeRowSelection, AtlasBinaryFormat::readRowSelection);
+
+        Assert.assertEquals(TABLE, result.getTableName());
+        Assert.assertEquals(2, Iterables.size(result.getRows()));
+        Assert.assertArrayEquals(PtBytes.toBytes("row2"), Iterables.get(result.getRows(), 1));
+        Assert.assertEquals(selection.getColumnSelection(), result.getColumnSelection());
+    }
+
+    @Test
+    public void testAllColumnsSelectionRoundTrip() throws IOException {
+        TableRowSelection selection = new TableRowSelection(TABLE, ImmutableList.of(), ColumnSelection.all());
+        TableRowSelection result = roundTrip(selection,
+                AtlasBinaryFormat::writeRowSelection, AtlasBinaryFormat::readRowSelection);
+
+        Assert.assertTrue(result.getColumnSelection().allColumnsSelected());
+    }
+
+    @Test
+    public void testCellValuesRoundTrip() throws IOException {
+        TableCellVal cellValues = new TableCellVal(TABLE, ImmutableMap.of(CELL, VALUE));
+        TableCellVal result = roundTrip(cellValues,
+                AtlasBinaryFormat::writeCellValues, AtlasBinaryFormat::readCellValues);
+
+        Assert.assertEquals(TABLE, result.getTableName());
+        Assert.assertArrayEquals(VALUE, result.getResults().get(CELL));
+    }
+
+    @Test
+    public void testValueLongerThanOneReadChunkRoundTrip() throws IOException {
+        byte[] value = new byte[1_000_000];
+        new Random(0).nextBytes(value);
+        TableCellVal result = roundTrip(new TableCellVal(TABLE, ImmutableMap.of(CELL, value)),
+                AtlasBinaryFormat::writeCellValues, AtlasBinaryFormat::readCellValues);
+
+        Assert.assertArrayEquals(value, result.getResults().get(CELL));
+    }
+
+    @Test(expected = EOFException.class)
+    public void testLengthPastTheEndOfTheMessageFailsBeforeAllocatingIt() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(TABLE);
+        out.writeInt(1);
+        out.writeInt(Integer.MAX_VALUE);
+        out.write(VALUE);
+
+        AtlasBinaryFormat.readCellValues(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test(expected = MalformedAtlasBinaryException.class)
+    public void testNegativeCountIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(TABLE);
+        out.writeInt(-2);
+
+        AtlasBinaryFormat.readCellValues(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test(expected = MalformedAtlasBinaryException.class)
+    public void testNegativeLengthIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(TABLE);
+        out.writeInt(1);
+        out.writeInt(-2);
+
+        AtlasBinaryFormat.readCells(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testRangeTokenRoundTripPreservesNullBounds() throws IOException {
+        TableRange nextRange = new TableRange(TABLE, PtBytes.toBytes("start"), null, ImmutableList.of(), 100);
+        RangeToken token = new RangeToken(new TableRowResult(TABLE, ImmutableList.of(row("row", "col", "val"))),
+                nextRange);
+        RangeToken result = roundTrip(token, AtlasBinaryFormat::writeRangeToken, AtlasBinaryFormat::readRangeToken);
+
+        Assert.assertTrue(result.hasMoreResults());
+        Assert.assertArrayEquals(PtBytes.toBytes("start"), result.getNextRange().getStartRow());
+        Assert.assertNull(result.getNextRange().getEndRow());
+        Assert.assertEquals(100, result.getNextRange().getBatchSize());
+        RowResult<byte[]> row = Iterables.getOnlyElement(result.getResults().getResults());
+        Assert.assertArrayEquals(PtBytes.toBytes("val"), row.getColumns().get(PtBytes.toBytes("col")));
+    }
+
+    @Test
+    public void testBatchRequestRoundTrip() throws IOException {
+        BatchRequest batch = new BatchRequest(ImmutableList.of(
+                BatchOperation.put(new TableCellVal(TABLE, ImmutableMap.of(CELL, VALUE))),
+                BatchOperation.getCells(new TableCell(TABLE, ImmutableList.of(CELL))),
+                BatchOperation.delete(new TableCell(TABLE, ImmutableList.of(CELL)))));
+        BatchRequest result = roundTrip(batch,
+                AtlasBinaryFormat::writeBatchRequest, AtlasBinaryFormat::readBatchRequest);
+
+        Assert.assertEquals(3, result.getOperations().size());
+        Assert.assertEquals(BatchOperation.Type.PUT, result.getOperations().get(0).getType());
+        Assert.assertEquals(BatchOperation.Type.GET_CELLS, result.getOperations().get(1).getType());
+        Assert.assertEquals(BatchOperation.Type.DELETE, result.getOperations().get(2).getType());
+        Assert.assertEquals(CELL, Iterables.getOnlyElement(result.getOperations().get(2).getCells().getCells()));
+    }
+
+    @Test
+    public void testReadBatchResponse() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        AtlasBinaryFormat.writeHeader(out);
+        AtlasBinaryFormat.writeWriteDoneFrame(out, 0);
+        AtlasBinaryFormat.writeRowsFrame(out, 1, new TableRowResult(TABLE, ImmutableList.of(row("a", "c", "v"))));
+        AtlasBinaryFormat.writeRowsFrame(out, 1, new TableRowResult(TABLE, ImmutableList.of(row("b", "c", "v"))));
+        AtlasBinaryFormat.writeRangeEndFrame(out, 1);
+        AtlasBinaryFormat.writeEndFrame(out);
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        AtlasBinaryFormat.readBatchResponse(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                visitor);
+
+        Assert.assertEquals(ImmutableList.of("done 0", "rows 1 [a]", "rows 1 [b]", "range end 1"), visitor.events);
+    }
+
+    @Test(expected = EOFException.class)
+    public void testTruncatedBatchResponseFails() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        AtlasBinaryFormat.writeHeader(out);
+        AtlasBinaryFormat.writeWriteDoneFrame(out, 0);
+
+        AtlasBinaryFormat.readBatchResponse(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                new RecordingVisitor());
+    }
+
+    @Test
+    public void testErrorFrameFailsTheBatchResponse() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        AtlasBinaryFormat.writeHeader(out);
+        AtlasBinaryFormat.writeWriteDoneFrame(out, 0);
+        AtlasBinaryFormat.writeErrorFrame(out, 1, "boom");
+
+        RecordingVisitor visitor = new RecordingVisitor();
+        try {
+            AtlasBinaryFormat.readBatchResponse(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                    visitor);
+            Assert.fail("Expected the error frame to fail the batch");
+        } catch (BatchFailedException e) {
+            Assert.assertEquals(1, e.getOperation());
+            Assert.assertEquals("Batch failed at operation 1: boom", e.getMessage());
+        }
+        Assert.assertEquals(ImmutableList.of("done 0"), visitor.events);
+    }
+
+    private static RowResult<byte[]> row(String row, String col, String val) {
+        return RowResult.create(PtBytes.toBytes(row),
+                ImmutableSortedMap.<byte[], byte[]>orderedBy(UnsignedBytes.lexicographicalComparator())
+                        .put(PtBytes.toBytes(col), PtBytes.toBytes(val))
+                        .build());
+    }
+
+    private static <T> T roundTrip(T value, Writer<T> writer, Reader<T> reader) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.write(new DataOutputStream(bytes), value);
+        return reader.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private interface Writer<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static class RecordingVisitor implements BatchResponseVisitor {
+        private final List<String> events = Lists.newArrayList();
+
+        @Override
+        public void visitRows(int operation, TableRowResult rows) {
+            List<String> rowNames = Lists.newArrayList();
+            for (RowResult<byte[]> row : rows.getResults()) {
+                rowNames.add(PtBytes.toString(row.getRowName()));
+            }
+            events.add("rows " + operation + " " + rowNames);
+        }
+
+        @Override
+        public void visitCells(int operation, TableCellVal cells) {
+            events.add("cells " + operation);
+        }
+
+        @Override
+        public void visitRangeEnd(int operation) {
+            events.add("range end " + operation);
+        }
+
+        @Override
+        public void visitWriteDone(int operation) {
+            events.add("done " + operation);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.palantir.atlasdb.api.BatchRequest;
+
+public class AtlasBinaryMessageBodyProviderTest {
+    private static final MediaType BINARY_TYPE = new MediaType("application", "x-atlasdb-binary");
+
+    private final AtlasBinaryMessageBodyProvider provider = new AtlasBinaryMessageBodyProvider();
+
+    @Test
+    public void testMalformedEntityIsABadRequest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        AtlasBinaryFormat.writeHeader(out);
+        out.writeInt(-1);
+
+        assertBadRequest(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void testTruncatedEntityIsABadRequest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        AtlasBinaryFormat.writeHeader(out);
+        out.writeInt(1);
+
+        assertBadRequest(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertBadRequest(InputStream entity) throws IOException {
+        try {
+            provider.readFrom((Class<Object>) (Class<?>) BatchRequest.class, BatchRequest.class, null, BINARY_TYPE,
+                    null, entity);
+            Assert.fail("Expected the entity to be rejected");
+        } catch (BadRequestException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
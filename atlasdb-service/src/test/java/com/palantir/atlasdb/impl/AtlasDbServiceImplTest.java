@@ -15,25 +15,56 @@
  */
 package com.palantir.atlasdb.impl;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.palantir.atlasdb.api.BatchOperation;
+import com.palantir.atlasdb.api.BatchRequest;
+import com.palantir.atlasdb.api.TableCell;
+import com.palantir.atlasdb.api.TableCellVal;
+import com.palantir.atlasdb.api.TableRowResult;
+import com.palantir.atlasdb.api.TransactionToken;
+import com.palantir.atlasdb.binary.AtlasBinaryFormat;
+import com.palantir.atlasdb.binary.BatchFailedException;
+import com.palantir.atlasdb.binary.BatchResponseVisitor;
+import com.palantir.atlasdb.encoding.PtBytes;
+import com.palantir.atlasdb.keyvalue.api.Cell;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
+import com.palantir.atlasdb.transaction.impl.RawTransaction;
 import com.palantir.atlasdb.transaction.impl.SerializableTransactionManager;
 
 public class AtlasDbServiceImplTest {
+    private static final String TABLE = "ns.table";
+    private static final Cell CELL = Cell.create(PtBytes.toBytes("row"), PtBytes.toBytes("col"));
+    private static final Map<Cell, byte[]> VALUES = ImmutableMap.of(CELL, PtBytes.toBytes("value"));
+
     private KeyValueService kvs;
+    private SerializableTransactionManager txManager;
     private AtlasDbServiceImpl atlasDbService;
 
     @Before
     public void setUp() {
         kvs = mock(KeyValueService.class);
-        SerializableTransactionManager txManager = mock(SerializableTransactionManager.class);
+        txManager = mock(SerializableTransactionManager.class);
         TableMetadataCache metadataCache = mock(TableMetadataCache.class);
         atlasDbService = new AtlasDbServiceImpl(kvs, txManager, metadataCache);
     }
@@ -53,4 +84,82 @@ public class AtlasDbServiceImplTest {
         TableReference tableToTruncate = TableReference.createFromFullyQualifiedName("ns.table");
         verify(kvs, atLeastOnce()).truncateTable(tableToTruncate);
     }
+
+    @Test
+    public void shouldStreamBatchResultsInOrder() throws Exception {
+        RawTransaction transaction = mock(RawTransaction.class);
+        when(txManager.setupRunTaskWithLocksThrowOnConflict(any())).thenReturn(transaction);
+        TableReference tableRef = TableReference.createFromFullyQualifiedName(TABLE);
+        when(transaction.get(tableRef, ImmutableSet.of(CELL))).thenReturn(VALUES);
+        TransactionToken token = atlasDbService.startTransaction();
+
+        BatchRequest batch = new BatchRequest(ImmutableList.of(
+                BatchOperation.put(new TableCellVal(TABLE, VALUES)),
+                BatchOperation.getCells(new TableCell(TABLE, ImmutableList.of(CELL)))));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        atlasDbService.executeBatch(token, batch).write(output);
+
+        verify(transaction).put(tableRef, VALUES);
+        RecordingVisitor visitor = new RecordingVisitor();
+        AtlasBinaryFormat.readBatchResponse(new DataInputStream(new ByteArrayInputStream(output.toByteArray())),
+                visitor);
+        Assert.assertEquals(ImmutableList.of("done 0", "cells 1"), visitor.frames);
+    }
+
+    @Test
+    public void shouldReportAFailedBatchOperationAndAbortTheTransaction() throws Exception {
+        RawTransaction transaction = mock(RawTransaction.class);
+        when(txManager.setupRunTaskWithLocksThrowOnConflict(any())).thenReturn(transaction);
+        TableReference tableRef = TableReference.createFromFullyQualifiedName(TABLE);
+        when(transaction.get(tableRef, ImmutableSet.of(CELL))).thenThrow(new IllegalStateException("boom"));
+        TransactionToken token = atlasDbService.startTransaction();
+
+        BatchRequest batch = new BatchRequest(ImmutableList.of(
+                BatchOperation.put(new TableCellVal(TABLE, VALUES)),
+                BatchOperation.getCells(new TableCell(TABLE, ImmutableList.of(CELL)))));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            atlasDbService.executeBatch(token, batch).write(output);
+            Assert.fail("Expected the batch to fail");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("boom", e.getMessage());
+        }
+
+        verify(txManager).finishRunTaskWithLockThrowOnConflict(eq(transaction), any());
+        RecordingVisitor visitor = new RecordingVisitor();
+        try {
+            AtlasBinaryFormat.readBatchResponse(new DataInputStream(new ByteArrayInputStream(output.toByteArray())),
+                    visitor);
+            Assert.fail("Expected the batch response to report the failure");
+        } catch (BatchFailedException e) {
+            Assert.assertEquals(1, e.getOperation());
+            Assert.assertTrue(e.getMessage().contains("boom"));
+        }
+        Assert.assertEquals(ImmutableList.of("done 0"), visitor.frames);
+    }
+
+    private static class RecordingVisitor implements BatchResponseVisitor {
+        private final List<String> frames = Lists.newArrayList();
+
+        @Override
+        public void visitRows(int operation, TableRowResult rows) {
+            frames.add("rows " + operation);
+        }
+
+        @Override
+        public void visitCells(int operation, TableCellVal cells) {
+            Assert.assertArrayEquals(VALUES.get(CELL), cells.getResults().get(CELL));
+            frames.add("cells " + operation);
+        }
+
+        @Override
+        public void visitRangeEnd(int operation) {
+            frames.add("range end " + operation);
+        }
+
+        @Override
+        public void visitWriteDone(int operation) {
+            frames.add("done " + operation);
+        }
+    }
 }
@@ -40,6 +40,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.primitives.UnsignedBytes;
 import com.palantir.atlasdb.AtlasDbConstants;
+import com.palantir.atlasdb.cache.ImmutableTableCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.encoding.PtBytes;
 import com.palantir.atlasdb.keyvalue.api.BatchColumnRangeSelection;
@@ -81,6 +82,10 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE);
     }
 
+    protected ReadSetVerificationOptions getReadSetVerificationOptions() {
+        return ReadSetVerificationOptions.DEFAULT;
+    }
+
     @Override
     protected Transaction startTransaction() {
         ImmutableMap<TableReference, ConflictHandler> tablesToWriteWrite = ImmutableMap.of(
@@ -106,7 +111,9 @@ public abstract class AbstractSerializableTransactionTest extends AbstractTransa
                 timestampCache,
                 AtlasDbConstants.DEFAULT_TRANSACTION_LOCK_ACQUIRE_TIMEOUT_MS,
                 AbstractTransactionTest.GET_RANGES_EXECUTOR,
-                AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY) {
+                AbstractTransactionTest.DEFAULT_GET_RANGES_CONCURRENCY,
+                ImmutableTableCache.disabled(),
+                getReadSetVerificationOptions()) {
             @Override
             protected Map<Cell, byte[]> transformGetsForTesting(Map<Cell, byte[]> map) {
                 return Maps.transformValues(map, input -> input.clone());
@@ -19,10 +19,13 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.palantir.atlasdb.table.description.ColumnValueDescription.Compression;
 
 public class CompressionUtilsTest {
@@ -39,6 +42,56 @@ public class CompressionUtilsTest {
         assertFalse(Arrays.equals(original, compressed));
         decompressed = CompressionUtils.decompress(compressed, Compression.SNAPPY);
         assertArrayEquals(original, decompressed);
+
+        compressed = CompressionUtils.compress(original, Compression.LZ4);
+        assertFalse(Arrays.equals(original, compressed));
+        decompressed = CompressionUtils.decompress(compressed, Compression.LZ4);
+        assertArrayEquals(original, decompressed);
+
+        compressed = CompressionUtils.compress(original, Compression.ZSTD);
+        assertFalse(Arrays.equals(original, compressed));
+        decompressed = CompressionUtils.decompress(compressed, Compression.ZSTD);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testCompressAndDecompressEmptyValues() {
+        for (Compression compression : Compression.values()) {
+            byte[] compressed = CompressionUtils.compress(new byte[0], compression);
+            assertArrayEquals(new byte[0], CompressionUtils.decompress(compressed, compression));
+        }
+    }
+
+    @Test
+    public void testCompressAndDecompressWithLz4() {
+        byte[] original = new byte[1024];
+        byte[] compressed = CompressionUtils.compressWithLz4(original);
+        assertTrue(compressed.length < original.length);
+        byte[] decompressed = CompressionUtils.decompressWithLz4(compressed);
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test
+    public void testCompressAndDecompressWithZstdDictionary() {
+        List<byte[]> samples = Lists.newArrayList();
+        for (int i = 0; i < 2000; i++) {
+            samples.add(("{\"id\":" + i + ",\"status\":\"ACTIVE\",\"owner\":\"user-" + (i % 97) + "\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        CompressionDictionary dictionary = CompressionDictionary.train(samples, 4096);
+
+        byte[] original = samples.get(1234);
+        byte[] compressed = CompressionUtils.compress(original, Compression.ZSTD, dictionary);
+        assertTrue(compressed.length < CompressionUtils.compress(original, Compression.ZSTD).length);
+        byte[] decompressed = CompressionUtils.decompress(compressed, Compression.ZSTD,
+                CompressionDictionary.fromBase64(dictionary.toBase64()));
+        assertArrayEquals(original, decompressed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDictionaryRequiresZstd() {
+        CompressionDictionary dictionary = CompressionDictionary.of(new byte[] { 1, 2, 3 });
+        CompressionUtils.compress(new byte[] { 1 }, Compression.SNAPPY, dictionary);
     }
 
     @Test
@@ -62,6 +115,30 @@ public class CompressionUtilsTest {
         assertTrue(threwIllegalArgumentException);
     }
 
+    @Test
+    public void testDecompressExceptionWithLz4() {
+        byte[] compressed = new byte[] { 0, 0, 0, 10, 1, 2, 3 };  // invalid
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompress(compressed, Compression.LZ4);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
+    @Test
+    public void testDecompressExceptionWithZstd() {
+        byte[] compressed = new byte[] { 1, 2, 3 };  // invalid
+        boolean threwIllegalArgumentException = false;
+        try {
+            CompressionUtils.decompress(compressed, Compression.ZSTD);
+        } catch (IllegalArgumentException e) {
+            threwIllegalArgumentException = true;
+        }
+        assertTrue(threwIllegalArgumentException);
+    }
+
     @Test
     public void testDecompressExceptionWithSnappy() {
         byte[] compressed = new byte[] { 1, 2, 3 };  // invalid
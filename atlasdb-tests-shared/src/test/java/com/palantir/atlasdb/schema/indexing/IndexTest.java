@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -26,6 +27,7 @@ import org.junit.Test;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.hash.Hashing;
 import com.palantir.atlasdb.AtlasDbTestCase;
@@ -111,6 +113,53 @@ public class IndexTest extends AtlasDbTestCase {
         });
     }
 
+    @Test
+    public void testUpdateWithUnchangedValueKeepsIndexEntry() {
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            DataTable table = getTableFactory().getDataTable(txn);
+            table.putValue(DataTable.DataRow.of(1L), 2L);
+            return null;
+        });
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            DataTable table = getTableFactory().getDataTable(txn);
+            table.putValue(DataTable.DataRow.of(1L), 2L);
+            return null;
+        });
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            DataTable.Index1IdxTable index1 = DataTable.Index1IdxTable.of(getTableFactory().getDataTable(txn));
+            assertEquals(1L,
+                    Iterables.getOnlyElement(index1.getRowColumns(Index1IdxRow.of(2L))).getColumnName().getId());
+            return null;
+        });
+    }
+
+    @Test
+    public void testBulkUpdate() {
+        Map<DataTable.DataRow, Long> initialValues = Maps.newHashMap();
+        Map<DataTable.DataRow, Long> updatedValues = Maps.newHashMap();
+        for (long id = 0; id < 100; id++) {
+            initialValues.put(DataTable.DataRow.of(id), id % 10);
+            updatedValues.put(DataTable.DataRow.of(id), id % 2 == 0 ? id % 10 : 10L);
+        }
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            getTableFactory().getDataTable(txn).putValue(initialValues);
+            return null;
+        });
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            getTableFactory().getDataTable(txn).putValue(updatedValues);
+            return null;
+        });
+        txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
+            DataTable.Index1IdxTable index1 = DataTable.Index1IdxTable.of(getTableFactory().getDataTable(txn));
+            DataTable.Index2IdxTable index2 = DataTable.Index2IdxTable.of(getTableFactory().getDataTable(txn));
+            assertEquals(10, index1.getRowColumns(Index1IdxRow.of(0L)).size());
+            assertEquals(0, index1.getRowColumns(Index1IdxRow.of(1L)).size());
+            assertEquals(50, index1.getRowColumns(Index1IdxRow.of(10L)).size());
+            assertEquals(100, index2.getRange(RangeRequest.builder().build()).count());
+            return null;
+        });
+    }
+
     @Test
     public void testTwoColumns() {
         txManager.runTaskWithRetry((RuntimeTransactionTask<Void>) txn -> {
@@ -437,19 +437,22 @@ public final class DataTable implements
         deleteIndex2Idx(affectedCells);
         deleteIndex3Idx(affectedCells);
         deleteIndex4Idx(affectedCells);
+        Multimap<Index1IdxTable.Index1IdxRow, Index1IdxTable.Index1IdxColumnValue> index1IdxPuts = ArrayListMultimap.create();
+        Multimap<Index2IdxTable.Index2IdxRow, Index2IdxTable.Index2IdxColumnValue> index2IdxPuts = ArrayListMultimap.create();
+        Multimap<Index3IdxTable.Index3IdxRow, Index3IdxTable.Index3IdxColumnValue> index3IdxPuts = ArrayListMultimap.create();
+        Multimap<Index4IdxTable.Index4IdxRow, Index4IdxTable.Index4IdxColumnValue> index4IdxPuts = ArrayListMultimap.create();
         for (Entry<DataRow, ? extends DataNamedColumnValue<?>> e : rows.entries()) {
             if (e.getValue() instanceof Value)
             {
                 Value col = (Value) e.getValue();
                 {
                     DataRow row = e.getKey();
-                    Index1IdxTable table = Index1IdxTable.of(this);
                     long value = col.getValue();
                     long id = row.getId();
                     Index1IdxTable.Index1IdxRow indexRow = Index1IdxTable.Index1IdxRow.of(value);
                     Index1IdxTable.Index1IdxColumn indexCol = Index1IdxTable.Index1IdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                     Index1IdxTable.Index1IdxColumnValue indexColVal = Index1IdxTable.Index1IdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    index1IdxPuts.put(indexRow, indexColVal);
                 }
             }
             if (e.getValue() instanceof Value)
@@ -457,13 +460,12 @@ public final class DataTable implements
                 Value col = (Value) e.getValue();
                 {
                     DataRow row = e.getKey();
-                    Index2IdxTable table = Index2IdxTable.of(this);
                     long value = col.getValue();
                     long id = row.getId();
                     Index2IdxTable.Index2IdxRow indexRow = Index2IdxTable.Index2IdxRow.of(value, id);
                     Index2IdxTable.Index2IdxColumn indexCol = Index2IdxTable.Index2IdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName());
                     Index2IdxTable.Index2IdxColumnValue indexColVal = Index2IdxTable.Index2IdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    index2IdxPuts.put(indexRow, indexColVal);
                 }
             }
             if (e.getValue() instanceof Value)
@@ -471,13 +473,12 @@ public final class DataTable implements
                 Value col = (Value) e.getValue();
                 {
                     DataRow row = e.getKey();
-                    Index3IdxTable table = Index3IdxTable.of(this);
                     Iterable<Long> valueIterable = ImmutableList.of(col.getValue());
                     for (long value : valueIterable) {
                         Index3IdxTable.Index3IdxRow indexRow = Index3IdxTable.Index3IdxRow.of(value);
                         Index3IdxTable.Index3IdxColumn indexCol = Index3IdxTable.Index3IdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName());
                         Index3IdxTable.Index3IdxColumnValue indexColVal = Index3IdxTable.Index3IdxColumnValue.of(indexCol, 0L);
-                        table.put(indexRow, indexColVal);
+                        index3IdxPuts.put(indexRow, indexColVal);
                     }
                 }
             }
@@ -486,7 +487,6 @@ public final class DataTable implements
                 Value col = (Value) e.getValue();
                 {
                     DataRow row = e.getKey();
-                    Index4IdxTable table = Index4IdxTable.of(this);
                     Iterable<Long> value1Iterable = ImmutableList.of(col.getValue());
                     Iterable<Long> value2Iterable = ImmutableList.of(col.getValue());
                     for (long value1 : value1Iterable) {
@@ -494,12 +494,24 @@ public final class DataTable implements
                             Index4IdxTable.Index4IdxRow indexRow = Index4IdxTable.Index4IdxRow.of(value1, value2);
                             Index4IdxTable.Index4IdxColumn indexCol = Index4IdxTable.Index4IdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName());
                             Index4IdxTable.Index4IdxColumnValue indexColVal = Index4IdxTable.Index4IdxColumnValue.of(indexCol, 0L);
-                            table.put(indexRow, indexColVal);
+                            index4IdxPuts.put(indexRow, indexColVal);
                         }
                     }
                 }
             }
         }
+        if (!index1IdxPuts.isEmpty()) {
+            Index1IdxTable.of(this).put(index1IdxPuts);
+        }
+        if (!index2IdxPuts.isEmpty()) {
+            Index2IdxTable.of(this).put(index2IdxPuts);
+        }
+        if (!index3IdxPuts.isEmpty()) {
+            Index3IdxTable.of(this).put(index3IdxPuts);
+        }
+        if (!index4IdxPuts.isEmpty()) {
+            Index4IdxTable.of(this).put(index4IdxPuts);
+        }
         t.put(tableRef, ColumnValues.toCellValues(rows));
         for (DataTrigger trigger : triggers) {
             trigger.putData(rows);
@@ -714,15 +726,21 @@ public final class DataTable implements
     }
 
     private Multimap<DataRow, DataNamedColumnValue<?>> getAffectedCells(Multimap<DataRow, ? extends DataNamedColumnValue<?>> rows) {
-        Multimap<DataRow, DataNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet());
+        Set<String> shortColumnNames = new HashSet<String>();
+        for (DataNamedColumnValue<?> v : rows.values()) {
+            shortColumnNames.add(v.getShortColumnName());
+        }
+        ColumnSelection columns = ColumnSelection.create(Collections2.transform(shortColumnNames, PtBytes::toCachedBytes));
+        Multimap<DataRow, DataNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet(), columns);
         Multimap<DataRow, DataNamedColumnValue<?>> cellsAffected = ArrayListMultimap.create();
         for (DataRow row : oldData.keySet()) {
-            Set<String> columns = new HashSet<String>();
+            Map<String, byte[]> newValues = Maps.newHashMap();
             for (DataNamedColumnValue<?> v : rows.get(row)) {
-                columns.add(v.getColumnName());
+                newValues.put(v.getColumnName(), v.persistValue());
             }
             for (DataNamedColumnValue<?> v : oldData.get(row)) {
-                if (columns.contains(v.getColumnName())) {
+                byte[] newValue = newValues.get(v.getColumnName());
+                if (newValue != null && !Arrays.equals(newValue, v.persistValue())) {
                     cellsAffected.put(row, v);
                 }
             }
@@ -3602,5 +3620,5 @@ public final class DataTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "AZloIvQuqPMNdSVikR5Giw==";
+    static String __CLASS_HASH = "vUCKnIiKut4jHxb1oRmCdA==";
 }
@@ -563,6 +563,8 @@ public final class TwoColumnsTable implements
         Multimap<TwoColumnsRow, TwoColumnsNamedColumnValue<?>> affectedCells = getAffectedCells(rows);
         deleteFooToIdCondIdx(affectedCells);
         deleteFooToIdIdx(affectedCells);
+        Multimap<FooToIdCondIdxTable.FooToIdCondIdxRow, FooToIdCondIdxTable.FooToIdCondIdxColumnValue> fooToIdCondIdxPuts = ArrayListMultimap.create();
+        Multimap<FooToIdIdxTable.FooToIdIdxRow, FooToIdIdxTable.FooToIdIdxColumnValue> fooToIdIdxPuts = ArrayListMultimap.create();
         for (Entry<TwoColumnsRow, ? extends TwoColumnsNamedColumnValue<?>> e : rows.entries()) {
             if (e.getValue() instanceof Foo)
             {
@@ -570,13 +572,12 @@ public final class TwoColumnsTable implements
                 if (col.getValue() > 1)
                 {
                     TwoColumnsRow row = e.getKey();
-                    FooToIdCondIdxTable table = FooToIdCondIdxTable.of(this);
                     long foo = col.getValue();
                     long id = row.getId();
                     FooToIdCondIdxTable.FooToIdCondIdxRow indexRow = FooToIdCondIdxTable.FooToIdCondIdxRow.of(foo);
                     FooToIdCondIdxTable.FooToIdCondIdxColumn indexCol = FooToIdCondIdxTable.FooToIdCondIdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                     FooToIdCondIdxTable.FooToIdCondIdxColumnValue indexColVal = FooToIdCondIdxTable.FooToIdCondIdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    fooToIdCondIdxPuts.put(indexRow, indexColVal);
                 }
             }
             if (e.getValue() instanceof Foo)
@@ -584,16 +585,21 @@ public final class TwoColumnsTable implements
                 Foo col = (Foo) e.getValue();
                 {
                     TwoColumnsRow row = e.getKey();
-                    FooToIdIdxTable table = FooToIdIdxTable.of(this);
                     long foo = col.getValue();
                     long id = row.getId();
                     FooToIdIdxTable.FooToIdIdxRow indexRow = FooToIdIdxTable.FooToIdIdxRow.of(foo);
                     FooToIdIdxTable.FooToIdIdxColumn indexCol = FooToIdIdxTable.FooToIdIdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                     FooToIdIdxTable.FooToIdIdxColumnValue indexColVal = FooToIdIdxTable.FooToIdIdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    fooToIdIdxPuts.put(indexRow, indexColVal);
                 }
             }
         }
+        if (!fooToIdCondIdxPuts.isEmpty()) {
+            FooToIdCondIdxTable.of(this).put(fooToIdCondIdxPuts);
+        }
+        if (!fooToIdIdxPuts.isEmpty()) {
+            FooToIdIdxTable.of(this).put(fooToIdIdxPuts);
+        }
         t.put(tableRef, ColumnValues.toCellValues(rows));
         for (TwoColumnsTrigger trigger : triggers) {
             trigger.putTwoColumns(rows);
@@ -782,15 +788,21 @@ public final class TwoColumnsTable implements
     }
 
     private Multimap<TwoColumnsRow, TwoColumnsNamedColumnValue<?>> getAffectedCells(Multimap<TwoColumnsRow, ? extends TwoColumnsNamedColumnValue<?>> rows) {
-        Multimap<TwoColumnsRow, TwoColumnsNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet());
+        Set<String> shortColumnNames = new HashSet<String>();
+        for (TwoColumnsNamedColumnValue<?> v : rows.values()) {
+            shortColumnNames.add(v.getShortColumnName());
+        }
+        ColumnSelection columns = ColumnSelection.create(Collections2.transform(shortColumnNames, PtBytes::toCachedBytes));
+        Multimap<TwoColumnsRow, TwoColumnsNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet(), columns);
         Multimap<TwoColumnsRow, TwoColumnsNamedColumnValue<?>> cellsAffected = ArrayListMultimap.create();
         for (TwoColumnsRow row : oldData.keySet()) {
-            Set<String> columns = new HashSet<String>();
+            Map<String, byte[]> newValues = Maps.newHashMap();
             for (TwoColumnsNamedColumnValue<?> v : rows.get(row)) {
-                columns.add(v.getColumnName());
+                newValues.put(v.getColumnName(), v.persistValue());
             }
             for (TwoColumnsNamedColumnValue<?> v : oldData.get(row)) {
-                if (columns.contains(v.getColumnName())) {
+                byte[] newValue = newValues.get(v.getColumnName());
+                if (newValue != null && !Arrays.equals(newValue, v.persistValue())) {
                     cellsAffected.put(row, v);
                 }
             }
@@ -2226,5 +2238,5 @@ public final class TwoColumnsTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "wP29qfigRwiVB/u5Iav3sQ==";
+    static String __CLASS_HASH = "/ESoKJY+o19JxIT218hu/A==";
 }
@@ -23,6 +23,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.palantir.atlasdb.keyvalue.api.KeyValueService;
 import com.palantir.atlasdb.keyvalue.api.TableReference;
 import com.palantir.atlasdb.keyvalue.impl.InMemoryKeyValueService;
@@ -103,4 +104,29 @@ public class SweepProgressStoreTest {
         Assert.assertFalse(txManager.runTaskReadOnly(progressStore::loadProgress).isPresent());
     }
 
+    @Test
+    public void testSlotsAreIndependent() {
+        txManager.runTaskWithRetry(tx -> {
+            progressStore.saveProgress(tx, 0, PROGRESS);
+            progressStore.saveProgress(tx, 3, OTHER_PROGRESS);
+            return null;
+        });
+        Assert.assertEquals(Optional.of(PROGRESS), txManager.runTaskReadOnly(tx -> progressStore.loadProgress(tx, 0)));
+        Assert.assertEquals(Optional.of(OTHER_PROGRESS),
+                txManager.runTaskReadOnly(tx -> progressStore.loadProgress(tx, 3)));
+        Assert.assertEquals(ImmutableMap.of(0, PROGRESS, 3, OTHER_PROGRESS),
+                txManager.runTaskReadOnly(progressStore::loadAllProgress));
+    }
+
+    @Test
+    public void testClearSingleSlot() {
+        txManager.runTaskWithRetry(tx -> {
+            progressStore.saveProgress(tx, 0, PROGRESS);
+            progressStore.saveProgress(tx, 1, OTHER_PROGRESS);
+            return null;
+        });
+        progressStore.clearProgress(1);
+        Assert.assertFalse(txManager.runTaskReadOnly(tx -> progressStore.loadProgress(tx, 1)).isPresent());
+        Assert.assertEquals(Optional.of(PROGRESS), txManager.runTaskReadOnly(progressStore::loadProgress));
+    }
 }
@@ -17,10 +17,12 @@ package com.palantir.atlasdb.transaction.impl;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -67,6 +69,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.palantir.atlasdb.AtlasDbConstants;
 import com.palantir.atlasdb.AtlasDbTestCase;
+import com.palantir.atlasdb.cache.OffHeapTimestampCache;
 import com.palantir.atlasdb.cache.TimestampCache;
 import com.palantir.atlasdb.cleaner.NoOpCleaner;
 import com.palantir.atlasdb.encoding.PtBytes;
@@ -117,7 +120,7 @@ import com.palantir.remoting2.tracing.Tracers;
 
 @SuppressWarnings("checkstyle:all")
 public class SnapshotTransactionTest extends AtlasDbTestCase {
-    protected final TimestampCache timestampCache = new TimestampCache(
+    protected final TimestampCache timestampCache = new OffHeapTimestampCache(
             () -> AtlasDbConstants.DEFAULT_TIMESTAMP_CACHE_SIZE);
     protected final ExecutorService getRangesExecutor = Executors.newFixedThreadPool(8);
     protected final int defaultGetRangesConcurrency = 2;
@@ -756,6 +759,44 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
         }
     }
 
+    @Test
+    public void commitAsyncMakesWritesVisible() throws Exception {
+        byte[] defaultRow = PtBytes.toBytes("row1");
+        Cell cell = Cell.create(defaultRow, PtBytes.toBytes("column1"));
+        Transaction t1 = txManager.createNewTransaction();
+        t1.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("value")));
+
+        SnapshotTransaction snapshotTx = unwrapNewSnapshotTransaction(t1);
+        snapshotTx.commitAsync(getRangesExecutor).get();
+
+        assertFalse(snapshotTx.isUncommitted());
+        assertThat(readRow(defaultRow).getCellSet(), hasItem(cell));
+    }
+
+    @Test
+    public void commitAsyncFailsOnWriteWriteConflict() throws Exception {
+        overrideConflictHandlerForTable(TABLE, ConflictHandler.RETRY_ON_WRITE_WRITE);
+        Cell cell = Cell.create(PtBytes.toBytes("row1"), PtBytes.toBytes("column1"));
+        Transaction t1 = txManager.createNewTransaction();
+        Transaction t2 = txManager.createNewTransaction();
+        t1.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("t1")));
+        t2.put(TABLE, ImmutableMap.of(cell, PtBytes.toBytes("t2")));
+        t1.commit();
+
+        try {
+            unwrapNewSnapshotTransaction(t2).commitAsync(getRangesExecutor).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(TransactionConflictException.class));
+        }
+        try {
+            t2.commit();
+            fail();
+        } catch (IllegalStateException e) {
+            // good
+        }
+    }
+
     private void writeCells(TableReference table, ImmutableMap<Cell, byte[]> cellsToWrite) {
         Transaction writeTransaction = txManager.createNewTransaction();
         writeTransaction.put(table, cellsToWrite);
@@ -815,4 +856,12 @@ public class SnapshotTransactionTest extends AtlasDbTestCase {
         return ((RawTransaction) unwrapped).delegate();
     }
 
+    /**
+     * As {@link #unwrapSnapshotTransaction(Transaction)}, for transactions from
+     * {@link TestTransactionManager#createNewTransaction()}, which are not wrapped in a {@link RawTransaction}.
+     */
+    private static SnapshotTransaction unwrapNewSnapshotTransaction(Transaction cachingTransaction) {
+        return (SnapshotTransaction) ((CachingTransaction) cachingTransaction).delegate();
+    }
+
 }
@@ -837,20 +837,22 @@ public final class UserProfileTable implements
         deleteCookiesIdx(affectedCells);
         deleteCreatedIdx(affectedCells);
         deleteUserBirthdaysIdx(affectedCells);
+        Multimap<CookiesIdxTable.CookiesIdxRow, CookiesIdxTable.CookiesIdxColumnValue> cookiesIdxPuts = ArrayListMultimap.create();
+        Multimap<CreatedIdxTable.CreatedIdxRow, CreatedIdxTable.CreatedIdxColumnValue> createdIdxPuts = ArrayListMultimap.create();
+        Multimap<UserBirthdaysIdxTable.UserBirthdaysIdxRow, UserBirthdaysIdxTable.UserBirthdaysIdxColumnValue> userBirthdaysIdxPuts = ArrayListMultimap.create();
         for (Entry<UserProfileRow, ? extends UserProfileNamedColumnValue<?>> e : rows.entries()) {
             if (e.getValue() instanceof Json)
             {
                 Json col = (Json) e.getValue();
                 {
                     UserProfileRow row = e.getKey();
-                    CookiesIdxTable table = CookiesIdxTable.of(this);
                     Iterable<String> cookieIterable = com.palantir.example.profile.schema.ProfileSchema.getCookies(col.getValue());
                     java.util.UUID id = row.getId();
                     for (String cookie : cookieIterable) {
                         CookiesIdxTable.CookiesIdxRow indexRow = CookiesIdxTable.CookiesIdxRow.of(cookie);
                         CookiesIdxTable.CookiesIdxColumn indexCol = CookiesIdxTable.CookiesIdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                         CookiesIdxTable.CookiesIdxColumnValue indexColVal = CookiesIdxTable.CookiesIdxColumnValue.of(indexCol, 0L);
-                        table.put(indexRow, indexColVal);
+                        cookiesIdxPuts.put(indexRow, indexColVal);
                     }
                 }
             }
@@ -859,13 +861,12 @@ public final class UserProfileTable implements
                 Create col = (Create) e.getValue();
                 {
                     UserProfileRow row = e.getKey();
-                    CreatedIdxTable table = CreatedIdxTable.of(this);
                     long time = col.getValue().getTimeCreated();
                     java.util.UUID id = row.getId();
                     CreatedIdxTable.CreatedIdxRow indexRow = CreatedIdxTable.CreatedIdxRow.of(time);
                     CreatedIdxTable.CreatedIdxColumn indexCol = CreatedIdxTable.CreatedIdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                     CreatedIdxTable.CreatedIdxColumnValue indexColVal = CreatedIdxTable.CreatedIdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    createdIdxPuts.put(indexRow, indexColVal);
                 }
             }
             if (e.getValue() instanceof Metadata)
@@ -873,16 +874,24 @@ public final class UserProfileTable implements
                 Metadata col = (Metadata) e.getValue();
                 {
                     UserProfileRow row = e.getKey();
-                    UserBirthdaysIdxTable table = UserBirthdaysIdxTable.of(this);
                     long birthday = col.getValue().getBirthEpochDay();
                     java.util.UUID id = row.getId();
                     UserBirthdaysIdxTable.UserBirthdaysIdxRow indexRow = UserBirthdaysIdxTable.UserBirthdaysIdxRow.of(birthday);
                     UserBirthdaysIdxTable.UserBirthdaysIdxColumn indexCol = UserBirthdaysIdxTable.UserBirthdaysIdxColumn.of(row.persistToBytes(), e.getValue().persistColumnName(), id);
                     UserBirthdaysIdxTable.UserBirthdaysIdxColumnValue indexColVal = UserBirthdaysIdxTable.UserBirthdaysIdxColumnValue.of(indexCol, 0L);
-                    table.put(indexRow, indexColVal);
+                    userBirthdaysIdxPuts.put(indexRow, indexColVal);
                 }
             }
         }
+        if (!cookiesIdxPuts.isEmpty()) {
+            CookiesIdxTable.of(this).put(cookiesIdxPuts);
+        }
+        if (!createdIdxPuts.isEmpty()) {
+            CreatedIdxTable.of(this).put(createdIdxPuts);
+        }
+        if (!userBirthdaysIdxPuts.isEmpty()) {
+            UserBirthdaysIdxTable.of(this).put(userBirthdaysIdxPuts);
+        }
         t.put(tableRef, ColumnValues.toCellValues(rows));
         for (UserProfileTrigger trigger : triggers) {
             trigger.putUserProfile(rows);
@@ -1113,15 +1122,21 @@ public final class UserProfileTable implements
     }
 
     private Multimap<UserProfileRow, UserProfileNamedColumnValue<?>> getAffectedCells(Multimap<UserProfileRow, ? extends UserProfileNamedColumnValue<?>> rows) {
-        Multimap<UserProfileRow, UserProfileNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet());
+        Set<String> shortColumnNames = new HashSet<String>();
+        for (UserProfileNamedColumnValue<?> v : rows.values()) {
+            shortColumnNames.add(v.getShortColumnName());
+        }
+        ColumnSelection columns = ColumnSelection.create(Collections2.transform(shortColumnNames, PtBytes::toCachedBytes));
+        Multimap<UserProfileRow, UserProfileNamedColumnValue<?>> oldData = getRowsMultimap(rows.keySet(), columns);
         Multimap<UserProfileRow, UserProfileNamedColumnValue<?>> cellsAffected = ArrayListMultimap.create();
         for (UserProfileRow row : oldData.keySet()) {
-            Set<String> columns = new HashSet<String>();
+            Map<String, byte[]> newValues = Maps.newHashMap();
             for (UserProfileNamedColumnValue<?> v : rows.get(row)) {
-                columns.add(v.getColumnName());
+                newValues.put(v.getColumnName(), v.persistValue());
             }
             for (UserProfileNamedColumnValue<?> v : oldData.get(row)) {
-                if (columns.contains(v.getColumnName())) {
+                byte[] newValue = newValues.get(v.getColumnName());
+                if (newValue != null && !Arrays.equals(newValue, v.persistValue())) {
                     cellsAffected.put(row, v);
                 }
             }
@@ -3353,5 +3368,5 @@ public final class UserProfileTable implements
      * {@link UnsignedBytes}
      * {@link ValueType}
      */
-    static String __CLASS_HASH = "3fqOZ+qIJ6uwBrHQDwnW6Q==";
+    static String __CLASS_HASH = "xKGMsl1hfoYGcjm7jfFUEA==";
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.leader;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.palantir.paxos.PaxosValue;
+
+/**
+ * Tracks the lease under which a leader may confirm its leadership without a quorum round.
+ *
+ * Whenever a quorum confirms that this node's round is still the latest, the lease for that round is extended to
+ * the lease duration after the confirmation <em>started</em>, as measured on a monotonic clock. Any newer round
+ * must be prepared on a quorum before it can win, after which no confirmation of the old round can succeed; so
+ * the old leader's lease always expires within the lease duration of the new round being chosen.
+ *
+ * A node that gains leadership of a new round therefore waits out a promise window, which is safely longer than the
+ * lease duration to allow for clock rate differences between nodes, before it serves anything (see
+ * {@link #isActiveFor}). Leases are only granted for rounds that have been activated this way. All nodes in a
+ * cluster must use the same lease duration.
+ */
+@ThreadSafe
+class LeaderLease {
+    static final int PROMISE_WINDOW_TO_LEASE_RATIO = 2;
+
+    private static final Lease NO_LEASE = new Lease(Long.MIN_VALUE, 0L);
+
+    private final long leaseDurationNanos;
+    private final Ticker ticker;
+
+    private volatile long activatedRound = Long.MIN_VALUE;
+    private final AtomicReference<Lease> currentLease = new AtomicReference<>(NO_LEASE);
+
+    LeaderLease(long leaseDurationMillis, Ticker ticker) {
+        Preconditions.checkArgument(leaseDurationMillis >= 0,
+                "The lease duration must not be negative, but was %s", leaseDurationMillis);
+        this.leaseDurationNanos = TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis);
+        this.ticker = ticker;
+    }
+
+    static LeaderLease create(long leaseDurationMillis) {
+        return new LeaderLease(leaseDurationMillis, Ticker.systemTicker());
+    }
+
+    boolean isEnabled() {
+        return leaseDurationNanos > 0;
+    }
+
+    long promiseWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(leaseDurationNanos) * PROMISE_WINDOW_TO_LEASE_RATIO;
+    }
+
+    /**
+     * Whether this node has waited out the promise window since gaining leadership of the given round, and may
+     * therefore serve requests for it. Always true if leases are disabled.
+     */
+    boolean isActiveFor(PaxosValue value) {
+        return !isEnabled() || activatedRound == value.getRound();
+    }
+
+    void activate(PaxosValue value) {
+        activatedRound = value.getRound();
+    }
+
+    /**
+     * Returns the time to pass to {@link #renew} once a quorum confirmation, started now, succeeds.
+     */
+    long startRenewal() {
+        return ticker.read();
+    }
+
+    /**
+     * Extends the lease for the given round after a quorum confirmed it, returning whether a lease was granted.
+     */
+    boolean renew(PaxosValue value, long renewalStartNanos) {
+        if (!isEnabled() || !isActiveFor(value)) {
+            return false;
+        }
+        Lease renewed = new Lease(value.getRound(), renewalStartNanos + leaseDurationNanos);
+        currentLease.accumulateAndGet(renewed, Lease::later);
+        return true;
+    }
+
+    boolean isHeldFor(PaxosValue value) {
+        Lease lease = currentLease.get();
+        return isEnabled() && lease.round == value.getRound() && ticker.read() - lease.expiryNanos < 0;
+    }
+
+    private static final class Lease {
+        private final long round;
+        private final long expiryNanos;
+
+        Lease(long round, long expiryNanos) {
+            this.round = round;
+            this.expiryNanos = expiryNanos;
+        }
+
+        static Lease later(Lease first, Lease second) {
+            if (first.round != second.round) {
+                return first.round > second.round ? first : second;
+            }
+            return first.expiryNanos - second.expiryNanos >= 0 ? first : second;
+        }
+    }
+}
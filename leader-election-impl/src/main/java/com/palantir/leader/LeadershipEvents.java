@@ -41,6 +41,8 @@ class LeadershipEvents {
     private final Meter leaderPingFailure;
     private final Meter leaderPingTimeout;
     private final Meter leaderPingReturnedFalse;
+    private final Meter leaseRenewed;
+    private final Meter requestServedUnderLease;
 
     public LeadershipEvents(MetricRegistry metrics) {
         gainedLeadership = metrics.meter("leadership.gained");
@@ -51,6 +53,8 @@ class LeadershipEvents {
         leaderPingFailure = metrics.meter("leadership.ping-leader.failure");
         leaderPingTimeout = metrics.meter("leadership.ping-leader.timeout");
         leaderPingReturnedFalse = metrics.meter("leadership.ping-leader.returned-false");
+        leaseRenewed = metrics.meter("leadership.lease.renewed");
+        requestServedUnderLease = metrics.meter("leadership.lease.served-request");
     }
 
     public void proposedLeadershipFor(long round) {
@@ -89,6 +93,14 @@ class LeadershipEvents {
         leaderPingReturnedFalse.mark();
     }
 
+    public void leaseRenewed() {
+        leaseRenewed.mark();
+    }
+
+    public void requestServedUnderLease() {
+        requestServedUnderLease.mark();
+    }
+
     public void proposalFailure(PaxosRoundFailureException e) {
         leaderLog.warn("Leadership was not gained.\n"
                 + "We should recover automatically. If this recurs often, try to \n"
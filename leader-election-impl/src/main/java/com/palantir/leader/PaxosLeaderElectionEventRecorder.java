@@ -42,6 +42,12 @@ public interface PaxosLeaderElectionEventRecorder {
     /** Called when we successfully contacted the suspected leader, but it reported that it was not the leader. */
     void recordLeaderPingReturnedFalse();
 
+    /** Called when a quorum confirms our leadership and our leader lease is extended. */
+    void recordLeaseRenewal();
+
+    /** Called when our leadership is confirmed from our leader lease, without contacting a quorum. */
+    void recordRequestServedUnderLease();
+
     PaxosLeaderElectionEventRecorder NO_OP = new PaxosLeaderElectionEventRecorder() {
         @Override
         public void recordNotLeading(PaxosValue value) { }
@@ -63,6 +69,12 @@ public interface PaxosLeaderElectionEventRecorder {
 
         @Override
         public void recordLeaderPingReturnedFalse() { }
+
+        @Override
+        public void recordLeaseRenewal() { }
+
+        @Override
+        public void recordRequestServedUnderLease() { }
     };
 
 }
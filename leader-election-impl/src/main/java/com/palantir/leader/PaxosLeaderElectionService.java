@@ -46,6 +46,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.net.HostAndPort;
 import com.palantir.common.base.Throwables;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.paxos.CoalescingPaxosLatestRoundVerifier;
 import com.palantir.paxos.PaxosAcceptor;
 import com.palantir.paxos.PaxosLatestRoundVerifierImpl;
@@ -67,6 +68,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
 
     private final ReentrantLock lock;
     private final CoalescingPaxosLatestRoundVerifier latestRoundVerifier;
+    private final LeaderLease leaderLease;
 
     final PaxosProposer proposer;
     final PaxosLearner knowledge;
@@ -97,7 +99,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
                                       long leaderPingResponseWaitMs) {
         this(proposer, knowledge, potentialLeadersToHosts, acceptors, learners, executor,
                 updatePollingWaitInMs, randomWaitBeforeProposingLeadership, leaderPingResponseWaitMs,
-                PaxosLeaderElectionEventRecorder.NO_OP);
+                LeaderLease.create(0L), PaxosLeaderElectionEventRecorder.NO_OP);
     }
 
     PaxosLeaderElectionService(PaxosProposer proposer,
@@ -109,6 +111,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
             long updatePollingWaitInMs,
             long randomWaitBeforeProposingLeadership,
             long leaderPingResponseWaitMs,
+            LeaderLease leaderLease,
             PaxosLeaderElectionEventRecorder eventRecorder) {
         this.proposer = proposer;
         this.knowledge = knowledge;
@@ -121,6 +124,7 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
         this.randomWaitBeforeProposingLeadership = randomWaitBeforeProposingLeadership;
         this.leaderPingResponseWaitMs = leaderPingResponseWaitMs;
         lock = new ReentrantLock();
+        this.leaderLease = leaderLease;
         this.eventRecorder = eventRecorder;
         this.latestRoundVerifier = new CoalescingPaxosLatestRoundVerifier(
                 new PaxosLatestRoundVerifierImpl(acceptors, proposer.getQuorumSize(), executor));
@@ -133,6 +137,12 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
 
             switch (currentState.status()) {
                 case LEADING:
+                    PaxosValue value = currentState.greatestLearnedValue().get();
+                    if (!leaderLease.isActiveFor(value)) {
+                        waitOutPromiseWindow(value);
+                        // Confirm leadership again now that the previous leader's lease has expired.
+                        continue;
+                    }
                     return currentState.confirmedToken().get();
                 case NO_QUORUM:
                     // If we don't have quorum we should just retry our calls.
@@ -146,6 +156,18 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
         }
     }
 
+    /**
+     * Waits until any lease held by the previous leader has certainly expired, so that this node does not start
+     * serving requests while the previous leader may still be serving them under its lease.
+     */
+    private void waitOutPromiseWindow(PaxosValue value) throws InterruptedException {
+        log.info("Gained leadership for round {}; waiting {} ms for the previous leader's lease to expire",
+                SafeArg.of("round", value.getRound()),
+                SafeArg.of("promiseWindowMillis", leaderLease.promiseWindowMillis()));
+        Thread.sleep(leaderLease.promiseWindowMillis());
+        leaderLease.activate(value);
+    }
+
     private void proposeLeadershipOrWaitForBackoff(LeadershipState currentState)
             throws InterruptedException {
         if (pingLeader()) {
@@ -166,7 +188,13 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
 
     @Override
     public Optional<LeadershipToken> getCurrentTokenIfLeading() {
-        return determineLeadershipState().confirmedToken();
+        LeadershipState currentState = determineLeadershipState();
+        if (currentState.status() == StillLeadingStatus.LEADING
+                && !leaderLease.isActiveFor(currentState.greatestLearnedValue().get())) {
+            // we must go through blockOnBecomingLeader to wait out the previous leader's lease
+            return Optional.empty();
+        }
+        return currentState.confirmedToken();
     }
 
     private LeadershipState determineLeadershipState() {
@@ -392,9 +420,18 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
         }
 
         PaxosLeadershipToken paxosToken = (PaxosLeadershipToken)token;
+        if (isLeaseHeldFor(paxosToken.value)) {
+            eventRecorder.recordRequestServedUnderLease();
+            return StillLeadingStatus.LEADING;
+        }
         return determineAndRecordLeadershipStatus(paxosToken);
     }
 
+    private boolean isLeaseHeldFor(PaxosValue value) {
+        // the local checks still apply: if we have learned of a newer round, we are no longer the leader
+        return leaderLease.isHeldFor(value) && isThisNodeTheLeaderFor(value) && isLatestRound(value);
+    }
+
     private StillLeadingStatus determineAndRecordLeadershipStatus(
             PaxosLeadershipToken paxosToken) {
         StillLeadingStatus status = determineLeadershipStatus(paxosToken.value);
@@ -415,8 +452,13 @@ public class PaxosLeaderElectionService implements PingableLeader, LeaderElectio
             return StillLeadingStatus.NOT_LEADING;
         }
 
-        return latestRoundVerifier.isLatestRound(value.getRound())
+        long renewalStartNanos = leaderLease.startRenewal();
+        StillLeadingStatus status = latestRoundVerifier.isLatestRound(value.getRound())
                 .toStillLeadingStatus();
+        if (status == StillLeadingStatus.LEADING && leaderLease.renew(value, renewalStartNanos)) {
+            eventRecorder.recordLeaseRenewal();
+        }
+        return status;
     }
 
     private boolean isLatestRound(PaxosValue value) {
@@ -35,6 +35,7 @@ public class PaxosLeaderElectionServiceBuilder {
     private long pingRateMs;
     private long randomWaitBeforeProposingLeadershipMs;
     private long leaderPingResponseWaitMs;
+    private long leaderLeaseDurationMs = 0L;
     private PaxosLeaderElectionEventRecorder eventRecorder = PaxosLeaderElectionEventRecorder.NO_OP;
 
     public PaxosLeaderElectionServiceBuilder proposer(PaxosProposer proposer) {
@@ -84,6 +85,15 @@ public class PaxosLeaderElectionServiceBuilder {
         return this;
     }
 
+    /**
+     * How long a leader may keep serving requests after a quorum last confirmed its leadership, without
+     * confirming it again. Zero, the default, disables leases. Must be the same on all nodes.
+     */
+    public PaxosLeaderElectionServiceBuilder leaderLeaseDurationMs(long leaderLeaseDurationMs) {
+        this.leaderLeaseDurationMs = leaderLeaseDurationMs;
+        return this;
+    }
+
     public PaxosLeaderElectionServiceBuilder eventRecorder(PaxosLeaderElectionEventRecorder eventRecorder) {
         this.eventRecorder = eventRecorder;
         return this;
@@ -100,6 +110,7 @@ public class PaxosLeaderElectionServiceBuilder {
                 pingRateMs,
                 randomWaitBeforeProposingLeadershipMs,
                 leaderPingResponseWaitMs,
+                LeaderLease.create(leaderLeaseDurationMs),
                 eventRecorder);
     }
 }
@@ -61,6 +61,16 @@ public class PaxosLeadershipEventRecorder implements PaxosKnowledgeEventRecorder
         events.leaderPingReturnedFalse();
     }
 
+    @Override
+    public void recordLeaseRenewal() {
+        events.leaseRenewed();
+    }
+
+    @Override
+    public void recordRequestServedUnderLease() {
+        events.requestServedUnderLease();
+    }
+
     @Override
     public void recordProposalFailure(PaxosRoundFailureException e) {
         events.proposalFailure(e);
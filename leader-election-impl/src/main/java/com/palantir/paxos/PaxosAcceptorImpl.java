@@ -32,7 +32,18 @@ public class PaxosAcceptorImpl implements PaxosAcceptor {
      * @return a new acceptor
      */
     public static PaxosAcceptor newAcceptor(String logDir) {
-        PaxosStateLog<PaxosAcceptorState> log = new PaxosStateLogImpl<PaxosAcceptorState>(logDir);
+        return newAcceptor(logDir, false);
+    }
+
+    /**
+     * @param logDir string path for directory to place durable logs
+     * @param useSegmentedStateLog whether to keep the log in segment files (see {@link SegmentedPaxosStateLog})
+     * @return a new acceptor
+     */
+    public static PaxosAcceptor newAcceptor(String logDir, boolean useSegmentedStateLog) {
+        PaxosStateLog<PaxosAcceptorState> log = useSegmentedStateLog
+                ? new SegmentedPaxosStateLog<PaxosAcceptorState>(logDir)
+                : new PaxosStateLogImpl<PaxosAcceptorState>(logDir);
         return new PaxosAcceptorImpl(
                 new ConcurrentSkipListMap<Long, PaxosAcceptorState>(),
                 log,
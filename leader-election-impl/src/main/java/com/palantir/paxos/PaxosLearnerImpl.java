@@ -41,7 +41,16 @@ public class PaxosLearnerImpl implements PaxosLearner {
     }
 
     public static PaxosLearner newLearner(String logDir, PaxosKnowledgeEventRecorder eventRecorder) {
-        PaxosStateLogImpl<PaxosValue> log = new PaxosStateLogImpl<PaxosValue>(logDir);
+        return newLearner(logDir, false, eventRecorder);
+    }
+
+    public static PaxosLearner newLearner(
+            String logDir,
+            boolean useSegmentedStateLog,
+            PaxosKnowledgeEventRecorder eventRecorder) {
+        PaxosStateLog<PaxosValue> log = useSegmentedStateLog
+                ? new SegmentedPaxosStateLog<PaxosValue>(logDir)
+                : new PaxosStateLogImpl<PaxosValue>(logDir);
         ConcurrentSkipListMap<Long, PaxosValue> state = new ConcurrentSkipListMap<Long, PaxosValue>();
 
         byte[] greatestValidValue = PaxosStateLogs.getGreatestValidLogEntry(log);
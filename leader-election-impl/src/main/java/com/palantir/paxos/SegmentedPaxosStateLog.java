@@ -0,0 +1,566 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.protobuf.CodedInputStream;
+import com.palantir.common.base.Throwables;
+import com.palantir.common.persist.Persistable;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.paxos.persistence.generated.PaxosPersistence;
+import com.palantir.util.crypto.Sha256Hash;
+
+/**
+ * A {@link PaxosStateLog} that appends rounds to preallocated, memory-mapped segment files instead of writing one
+ * file per round.
+ *
+ * Each record carries a CRC32 of its header and payload, so a record torn by a crash is detected and ends the replay
+ * of its segment. Concurrent {@link #writeRound} calls share fsyncs: a writer copies its record into the active
+ * segment, then whichever writer next gets to flush forces everything appended so far, which makes the writes of
+ * every writer queued behind it durable as well. The location of the latest record for each sequence number is kept
+ * in memory and rebuilt from the segments on startup. A reopened log carries on appending to its last segment, unless
+ * that segment ends in a torn record; the first append then starts a new segment, so a torn tail never needs
+ * repairing. Segments are only created when there is something to append to them.
+ *
+ * Truncation appends a marker recording the truncation point, and then deletes every segment that only holds rounds
+ * at or below it. Records that survive in other segments are hidden by the marker on replay.
+ *
+ * A directory written by {@link PaxosStateLogImpl} is migrated on startup: its rounds are copied into a segment and
+ * the per-round files are deleted once the segment has been synced. A migration interrupted while deleting the files
+ * is finished on the next startup. The migration is one way; the old implementation
+ * does not read segments.
+ */
+public class SegmentedPaxosStateLog<V extends Persistable & Versionable> implements PaxosStateLog<V> {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedPaxosStateLog.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+
+    private static final Pattern SEGMENT_FILE_NAME = Pattern.compile("segment-(\\d+)\\.log");
+
+    // Preallocated segments are zero-filled, so a zero marker is the end of the written part of a segment.
+    private static final int END_OF_SEGMENT = 0;
+    private static final int ROUND_RECORD = 0x50415852;
+    private static final int TRUNCATE_RECORD = 0x50415854;
+
+    // marker (int), payload length (int), seq (long), crc (int)
+    private static final int HEADER_SIZE = 20;
+    private static final int CRC_OFFSET = 16;
+
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final long NOT_TRUNCATED = Long.MIN_VALUE;
+
+    final String path;
+    private final int segmentSizeBytes;
+
+    private final NavigableMap<Long, RecordLocation> index = new ConcurrentSkipListMap<>();
+
+    private final Lock appendLock = new ReentrantLock();
+    @GuardedBy("appendLock")
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    // Null until the first append if the log has no segment that can be appended to.
+    @GuardedBy("appendLock")
+    private Segment activeSegment;
+    @GuardedBy("appendLock")
+    private long appendedRecords = 0;
+
+    // Read without the lock by getLeastLogEntry.
+    private volatile long truncatedUpTo = NOT_TRUNCATED;
+
+    private final Lock flushLock = new ReentrantLock();
+    @GuardedBy("flushLock")
+    private long durableRecords = 0;
+
+    public SegmentedPaxosStateLog(String path) {
+        this(path, DEFAULT_SEGMENT_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    SegmentedPaxosStateLog(String path, int segmentSizeBytes) {
+        Preconditions.checkArgument(segmentSizeBytes > HEADER_SIZE,
+                "segmentSizeBytes must be greater than %s, but was %s", HEADER_SIZE, segmentSizeBytes);
+        this.path = path;
+        this.segmentSizeBytes = segmentSizeBytes;
+        try {
+            File dir = new File(path);
+            FileUtils.forceMkdir(dir);
+            replaySegments(dir);
+            migrateLegacyRounds(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("IO problem related to the path " + new File(path).getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public void writeRound(long seq, V round) {
+        byte[] bytes = round.persistToBytes();
+        long recordNumber;
+        appendLock.lock();
+        try {
+            // reject old state
+            RecordLocation latest = index.get(seq);
+            if (latest != null && latest.version != NO_VERSION && round.getVersion() < latest.version) {
+                return;
+            }
+            recordNumber = append(ROUND_RECORD, seq, bytes, round.getVersion());
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(recordNumber);
+    }
+
+    @Override
+    public byte[] readRound(long seq) throws IOException {
+        RecordLocation location = index.get(seq);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = location.segment.buffer.duplicate();
+        buffer.position(location.offset);
+        Record record = Record.read(buffer);
+        if (record == null || record.marker != ROUND_RECORD || record.seq != seq) {
+            log.error("Problem reading paxos state, specifically when reading round {} from segment {}",
+                    SafeArg.of("seq", seq),
+                    UnsafeArg.of("segment", location.segment.file.getAbsolutePath()));
+            throw new CorruptLogFileException();
+        }
+        return record.payload;
+    }
+
+    @Override
+    public long getLeastLogEntry() {
+        // Until the log is first truncated there may be rounds before the first one we have seen, which we must not
+        // claim to know about; this is the same as the empty entry that PaxosStateLogImpl creates for a new log.
+        if (truncatedUpTo == NOT_TRUNCATED) {
+            return PaxosAcceptor.NO_LOG_ENTRY;
+        }
+        Map.Entry<Long, RecordLocation> least = index.firstEntry();
+        return least == null ? PaxosAcceptor.NO_LOG_ENTRY : least.getKey();
+    }
+
+    @Override
+    public long getGreatestLogEntry() {
+        Map.Entry<Long, RecordLocation> greatest = index.lastEntry();
+        return greatest == null ? PaxosAcceptor.NO_LOG_ENTRY : greatest.getKey();
+    }
+
+    @Override
+    public void truncate(long toDeleteInclusive) {
+        long recordNumber;
+        long markerSegmentId;
+        appendLock.lock();
+        try {
+            long greatestLogEntry = getGreatestLogEntry();
+            if (greatestLogEntry >= 0) {
+                // We never want to remove our most recent entry
+                toDeleteInclusive = Math.min(greatestLogEntry - 1, toDeleteInclusive);
+            }
+            if (truncatedUpTo != NOT_TRUNCATED
+                    && toDeleteInclusive <= truncatedUpTo
+                    && index.headMap(toDeleteInclusive, true).isEmpty()) {
+                return;
+            }
+            recordNumber = append(TRUNCATE_RECORD, toDeleteInclusive, new byte[0], NO_VERSION);
+            markerSegmentId = segments.lastKey();
+        } finally {
+            appendLock.unlock();
+        }
+
+        // The marker has to be durable before any segment goes, or rounds it hides could come back on replay.
+        awaitDurable(recordNumber);
+
+        // A segment can go if everything in it comes before the marker and is hidden by it. That includes earlier
+        // markers: one with a greater bound hides rounds that this marker does not.
+        appendLock.lock();
+        try {
+            Iterator<Segment> iterator = segments.headMap(markerSegmentId, false).values().iterator();
+            while (iterator.hasNext()) {
+                Segment segment = iterator.next();
+                if (segment.maxSeq <= toDeleteInclusive && segment.maxTruncateBound <= toDeleteInclusive) {
+                    iterator.remove();
+                    if (!segment.file.delete()) {
+                        log.warn("failed to delete log segment {}",
+                                UnsafeArg.of("path", segment.file.getAbsolutePath()));
+                    }
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @GuardedBy("appendLock")
+    private long append(int marker, long seq, byte[] payload, long version) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (activeSegment == null
+                || activeSegment.capacity() - activeSegment.writePosition < recordSize + Integer.BYTES) {
+            rollSegment(recordSize);
+        }
+        int offset = activeSegment.writePosition;
+        ByteBuffer buffer = activeSegment.buffer.duplicate();
+        buffer.position(offset);
+        Record.write(buffer, marker, seq, payload);
+        activeSegment.writePosition = buffer.position();
+        apply(marker, seq, new RecordLocation(activeSegment, offset, version));
+        return ++appendedRecords;
+    }
+
+    /**
+     * Updates the in-memory state for a record, both when it is appended and when it is replayed on startup.
+     */
+    private void apply(int marker, long seq, RecordLocation location) {
+        if (marker == ROUND_RECORD) {
+            index.put(seq, location);
+            location.segment.maxSeq = Math.max(location.segment.maxSeq, seq);
+        } else {
+            index.headMap(seq, true).clear();
+            truncatedUpTo = Math.max(truncatedUpTo, seq);
+            location.segment.maxTruncateBound = Math.max(location.segment.maxTruncateBound, seq);
+        }
+    }
+
+    /**
+     * Blocks until the given record is durable. Whoever gets to flush first forces every record appended so far,
+     * so concurrent writers share one fsync.
+     */
+    private void awaitDurable(long recordNumber) {
+        flushLock.lock();
+        try {
+            if (durableRecords >= recordNumber) {
+                return;
+            }
+            Segment segment;
+            long appended;
+            appendLock.lock();
+            try {
+                segment = activeSegment;
+                appended = appendedRecords;
+            } finally {
+                appendLock.unlock();
+            }
+            // Segments are forced when they are rolled, so only the active one can hold unsynced records.
+            segment.buffer.force();
+            durableRecords = appended;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @GuardedBy("appendLock")
+    private void rollSegment(int minimumRecordSize) {
+        long segmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        File file = new File(path, String.format("segment-%019d.log", segmentId));
+        int size = Math.max(segmentSizeBytes, minimumRecordSize + Integer.BYTES);
+        try {
+            Segment segment = Segment.create(file, size);
+            if (activeSegment != null) {
+                activeSegment.buffer.force();
+            }
+            segments.put(segmentId, segment);
+            activeSegment = segment;
+        } catch (IOException e) {
+            log.error("problem creating paxos log segment", e);
+            throw Throwables.throwUncheckedException(e);
+        }
+    }
+
+    private void replaySegments(File dir) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        NavigableMap<Long, File> segmentFiles = new ConcurrentSkipListMap<>();
+        for (File file : files) {
+            Matcher matcher = SEGMENT_FILE_NAME.matcher(file.getName());
+            if (matcher.matches()) {
+                segmentFiles.put(Long.parseLong(matcher.group(1)), file);
+            }
+        }
+        appendLock.lock();
+        try {
+            for (Map.Entry<Long, File> entry : segmentFiles.entrySet()) {
+                boolean last = entry.getKey().equals(segmentFiles.lastKey());
+                Segment segment = last ? Segment.openForAppend(entry.getValue()) : Segment.open(entry.getValue());
+                segments.put(entry.getKey(), segment);
+                int end = replaySegment(segment);
+                if (last && segment.isZeroFrom(end)) {
+                    segment.writePosition = end;
+                    activeSegment = segment;
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the valid records at the start of a segment, returning the offset just after the last one.
+     */
+    private int replaySegment(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int offset = buffer.position();
+            Record record = Record.read(buffer);
+            if (record == null) {
+                if (segment.buffer.getInt(offset) != END_OF_SEGMENT) {
+                    // Only records that were never acknowledged can be torn, so nothing is lost here.
+                    log.warn("Ignoring the rest of paxos log segment {} from offset {} as it is not valid",
+                            UnsafeArg.of("segment", segment.file.getAbsolutePath()),
+                            SafeArg.of("offset", offset));
+                }
+                return offset;
+            }
+            apply(record.marker, record.seq, new RecordLocation(segment, offset, NO_VERSION));
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Copies the rounds written by {@link PaxosStateLogImpl}, one file per sequence number, into the log.
+     */
+    private void migrateLegacyRounds(File dir) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        NavigableMap<Long, File> legacyFiles = new ConcurrentSkipListMap<>();
+        for (File file : files) {
+            try {
+                legacyFiles.put(Long.parseLong(file.getName()), file);
+            } catch (NumberFormatException e) {
+                // not a round
+            }
+        }
+        if (legacyFiles.isEmpty()) {
+            return;
+        }
+        log.info("Migrating {} paxos rounds from per-round files in {}",
+                SafeArg.of("rounds", legacyFiles.size()),
+                UnsafeArg.of("path", dir.getAbsolutePath()));
+
+        // A new PaxosStateLogImpl creates an empty file for NO_LOG_ENTRY, which goes away when the log is truncated.
+        File noLogEntryFile = legacyFiles.remove(PaxosAcceptor.NO_LOG_ENTRY);
+        long recordNumber = 0;
+        appendLock.lock();
+        try {
+            // The marker goes before the migrated rounds, so if the index holds any round then an earlier attempt at
+            // this migration already wrote it. That attempt was interrupted while deleting the files, lowest first,
+            // so the lowest remaining file is no longer the truncation point and must not be used as one.
+            if (noLogEntryFile == null && !legacyFiles.isEmpty()
+                    && index.isEmpty() && truncatedUpTo == NOT_TRUNCATED) {
+                recordNumber = append(TRUNCATE_RECORD, legacyFiles.firstKey() - 1, new byte[0], NO_VERSION);
+            }
+            for (Map.Entry<Long, File> entry : legacyFiles.entrySet()) {
+                recordNumber = append(ROUND_RECORD, entry.getKey(), readLegacyRound(entry.getValue()), NO_VERSION);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(recordNumber);
+
+        // The NO_LOG_ENTRY file goes last, so that a migration interrupted here does not look like a truncation.
+        List<File> toDelete = Lists.newArrayList(legacyFiles.values());
+        if (noLogEntryFile != null) {
+            toDelete.add(noLogEntryFile);
+        }
+        for (File file : toDelete) {
+            // A round left behind would be migrated again on the next startup, on top of anything written since.
+            if (!file.delete()) {
+                throw new IOException("Could not delete migrated paxos log file " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    private static byte[] readLegacyRound(File file) throws IOException {
+        InputStream fileIn = null;
+        try {
+            fileIn = new FileInputStream(file);
+            PaxosPersistence.PaxosHeader.Builder headerBuilder = PaxosPersistence.PaxosHeader.newBuilder();
+            headerBuilder.mergeDelimitedFrom(fileIn);
+            byte[] bytes = CodedInputStream.newInstance(fileIn).readBytes().toByteArray();
+            byte[] checksum = Sha256Hash.computeHash(bytes).getBytes();
+            if (!Arrays.equals(headerBuilder.getChecksum().toByteArray(), checksum)) {
+                // Carrying on would lose the round, which is worse for an acceptor than not starting at all.
+                throw new IOException("Checksum mismatch in paxos log file " + file.getAbsolutePath());
+            }
+            return bytes;
+        } finally {
+            IOUtils.closeQuietly(fileIn);
+        }
+    }
+
+    private static final class Segment {
+        private final File file;
+        private final MappedByteBuffer buffer;
+        @GuardedBy("appendLock")
+        private int writePosition = 0;
+        private volatile long maxSeq = Long.MIN_VALUE;
+        private volatile long maxTruncateBound = Long.MIN_VALUE;
+
+        private Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        static Segment create(File file, int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // Write the zeroes out rather than leaving a sparse file, so that appends do not allocate blocks
+                // and the syncs that follow them only have data to write.
+                FileChannel channel = raf.getChannel();
+                ByteBuffer zeroes = ByteBuffer.allocate(Math.min(size, 1024 * 1024));
+                long position = 0;
+                while (position < size) {
+                    zeroes.clear();
+                    zeroes.limit((int) Math.min(zeroes.capacity(), size - position));
+                    position += channel.write(zeroes, position);
+                }
+                channel.force(true);
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        static Segment open(File file) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                FileChannel channel = raf.getChannel();
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        static Segment openForAppend(File file) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                FileChannel channel = raf.getChannel();
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            }
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        /**
+         * Whether the segment is still zero-filled from the given offset, so that records can be appended there.
+         * Anything else is left over from a torn record, which a record appended over it would not fully overwrite.
+         */
+        boolean isZeroFrom(int offset) {
+            for (int i = offset; i < buffer.capacity(); i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class RecordLocation {
+        private final Segment segment;
+        private final int offset;
+        // The version of a round written by this process; rounds read back from disk have NO_VERSION.
+        private final long version;
+
+        RecordLocation(Segment segment, int offset, long version) {
+            this.segment = segment;
+            this.offset = offset;
+            this.version = version;
+        }
+    }
+
+    private static final class Record {
+        private final int marker;
+        private final long seq;
+        private final byte[] payload;
+
+        private Record(int marker, long seq, byte[] payload) {
+            this.marker = marker;
+            this.seq = seq;
+            this.payload = payload;
+        }
+
+        static void write(ByteBuffer buffer, int marker, long seq, byte[] payload) {
+            int start = buffer.position();
+            buffer.putInt(marker);
+            buffer.putInt(payload.length);
+            buffer.putLong(seq);
+            buffer.putInt(0);
+            buffer.put(payload);
+            buffer.putInt(start + CRC_OFFSET, checksum(buffer, start, payload.length));
+        }
+
+        /**
+         * Reads the record at the buffer's position, returning null if there is no valid record there.
+         */
+        static Record read(ByteBuffer buffer) {
+            int start = buffer.position();
+            if (buffer.remaining() < HEADER_SIZE) {
+                return null;
+            }
+            int marker = buffer.getInt();
+            int length = buffer.getInt();
+            long seq = buffer.getLong();
+            int storedChecksum = buffer.getInt();
+            if ((marker != ROUND_RECORD && marker != TRUNCATE_RECORD) || length < 0 || length > buffer.remaining()) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (checksum(buffer, start, length) != storedChecksum) {
+                return null;
+            }
+            return new Record(marker, seq, payload);
+        }
+
+        private static int checksum(ByteBuffer buffer, int start, int payloadLength) {
+            CRC32 crc = new CRC32();
+            ByteBuffer header = buffer.duplicate();
+            header.position(start);
+            header.limit(start + CRC_OFFSET);
+            crc.update(header);
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(start + HEADER_SIZE);
+            payload.limit(start + HEADER_SIZE + payloadLength);
+            crc.update(payload);
+            return (int) crc.getValue();
+        }
+    }
+}
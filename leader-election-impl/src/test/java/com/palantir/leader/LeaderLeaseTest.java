@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.leader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.palantir.paxos.PaxosValue;
+
+public class LeaderLeaseTest {
+    private static final long LEASE_DURATION_MS = 1_000L;
+    private static final PaxosValue ROUND_1 = new PaxosValue("leader", 1L, null);
+    private static final PaxosValue ROUND_2 = new PaxosValue("leader", 2L, null);
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final LeaderLease lease = new LeaderLease(LEASE_DURATION_MS, ticker);
+
+    @Test
+    public void disabledLeaseIsAlwaysActiveButNeverHeld() {
+        LeaderLease disabled = new LeaderLease(0L, ticker);
+
+        assertThat(disabled.isActiveFor(ROUND_1)).isTrue();
+        assertThat(disabled.renew(ROUND_1, disabled.startRenewal())).isFalse();
+        assertThat(disabled.isHeldFor(ROUND_1)).isFalse();
+    }
+
+    @Test
+    public void promiseWindowIsLongerThanTheLease() {
+        assertThat(lease.promiseWindowMillis()).isGreaterThan(LEASE_DURATION_MS);
+    }
+
+    @Test
+    public void doesNotGrantLeaseBeforeRoundIsActivated() {
+        assertThat(lease.isActiveFor(ROUND_1)).isFalse();
+        assertThat(lease.renew(ROUND_1, lease.startRenewal())).isFalse();
+        assertThat(lease.isHeldFor(ROUND_1)).isFalse();
+    }
+
+    @Test
+    public void leaseIsHeldUntilLeaseDurationAfterRenewalStarted() {
+        lease.activate(ROUND_1);
+        long renewalStart = lease.startRenewal();
+        ticker.advance(400L);
+
+        assertThat(lease.renew(ROUND_1, renewalStart)).isTrue();
+        assertThat(lease.isHeldFor(ROUND_1)).isTrue();
+
+        ticker.advance(599L);
+        assertThat(lease.isHeldFor(ROUND_1)).isTrue();
+
+        ticker.advance(1L);
+        assertThat(lease.isHeldFor(ROUND_1)).isFalse();
+    }
+
+    @Test
+    public void leaseIsOnlyHeldForTheRenewedRound() {
+        lease.activate(ROUND_1);
+        lease.renew(ROUND_1, lease.startRenewal());
+
+        assertThat(lease.isHeldFor(ROUND_2)).isFalse();
+        assertThat(lease.isActiveFor(ROUND_2)).isFalse();
+    }
+
+    @Test
+    public void staleRenewalDoesNotShortenLease() {
+        lease.activate(ROUND_1);
+        long staleRenewalStart = lease.startRenewal();
+        ticker.advance(500L);
+        lease.renew(ROUND_1, lease.startRenewal());
+        lease.renew(ROUND_1, staleRenewalStart);
+
+        ticker.advance(900L);
+        assertThat(lease.isHeldFor(ROUND_1)).isTrue();
+    }
+
+    private static final class FakeTicker extends Ticker {
+        private long nanos = 0L;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -25,7 +25,8 @@ import com.palantir.paxos.persistence.ProtobufTest;
 @SuiteClasses({
     ProtobufTest.class,
     PaxosConsensusFastTest.class,
-    PaxosConsensusSlowTest.class
+    PaxosConsensusSlowTest.class,
+    PaxosLeaderLeaseTest.class
 })
 public class AllLeaderElectionTests {
 }
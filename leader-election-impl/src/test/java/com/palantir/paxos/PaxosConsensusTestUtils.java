@@ -49,6 +49,12 @@ public final class PaxosConsensusTestUtils {
 
     public static PaxosTestState setup(int numLeaders,
                                        int quorumSize) {
+        return setup(numLeaders, quorumSize, 0L /* no leader lease */);
+    }
+
+    public static PaxosTestState setup(int numLeaders,
+                                       int quorumSize,
+                                       long leaderLeaseDurationMs) {
         List<LeaderElectionService> leaders = Lists.newArrayList();
         List<PaxosAcceptor> acceptors = Lists.newArrayList();
         List<PaxosLearner> learners = Lists.newArrayList();
@@ -92,6 +98,7 @@ public final class PaxosConsensusTestUtils {
                     .pingRateMs(0L)
                     .randomWaitBeforeProposingLeadershipMs(0L)
                     .leaderPingResponseWaitMs(0L)
+                    .leaderLeaseDurationMs(leaderLeaseDurationMs)
                     .build();
             leaders.add(SimulatingFailingServerProxy.newProxyInstance(
                     LeaderElectionService.class,
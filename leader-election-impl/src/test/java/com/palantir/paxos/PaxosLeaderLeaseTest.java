@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.leader.LeaderElectionService.LeadershipToken;
+import com.palantir.leader.LeaderElectionService.StillLeadingStatus;
+
+public class PaxosLeaderLeaseTest {
+    private static final int NUM_POTENTIAL_LEADERS = 3;
+    private static final int QUORUM_SIZE = 2;
+    private static final long LEASE_DURATION_MS = 1_000L;
+
+    private PaxosTestState state;
+
+    @Before
+    public void setup() {
+        state = PaxosConsensusTestUtils.setup(NUM_POTENTIAL_LEADERS, QUORUM_SIZE, LEASE_DURATION_MS);
+    }
+
+    @After
+    public void teardown() throws Exception {
+        PaxosConsensusTestUtils.teardown(state);
+    }
+
+    @Test
+    public void newLeaderWaitsOutThePromiseWindowBeforeLeading() {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        state.gainLeadership(0);
+
+        assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2 * LEASE_DURATION_MS);
+    }
+
+    @Test
+    public void leaderKeepsLeadingWithoutQuorumUntilItsLeaseExpires() {
+        LeadershipToken token = state.gainLeadership(0);
+        state.goDown(1);
+        state.goDown(2);
+
+        assertThat(state.leader(0).isStillLeading(token)).isEqualTo(StillLeadingStatus.LEADING);
+
+        Uninterruptibles.sleepUninterruptibly(LEASE_DURATION_MS, TimeUnit.MILLISECONDS);
+        assertThat(state.leader(0).isStillLeading(token)).isNotEqualTo(StillLeadingStatus.LEADING);
+    }
+
+    @Test
+    public void leaderStopsLeadingUnderLeaseOnceItLearnsOfANewerRound() {
+        LeadershipToken token = state.gainLeadership(0);
+        state.gainLeadership(1);
+
+        assertThat(state.leader(0).isStillLeading(token)).isEqualTo(StillLeadingStatus.NOT_LEADING);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.paxos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+public class SegmentedPaxosStateLogTest {
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        path = folder.newFolder().getPath();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void newLogHasNoEntries() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.readRound(0)).isNull();
+    }
+
+    @Test
+    public void roundsSurviveRestart() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        for (long seq = 0; seq < 200; seq++) {
+            log.writeRound(seq, value(seq));
+        }
+
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(199L);
+        for (long seq = 0; seq < 200; seq++) {
+            assertThat(readValue(reopened, seq)).isEqualTo(value(seq));
+        }
+    }
+
+    @Test
+    public void reopeningTheLogDoesNotCreateSegments() throws IOException {
+        assertThat(new File(path).list()).isEmpty();
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        assertThat(new File(path).list()).isEmpty();
+        log.writeRound(0, value(0));
+        int segments = new File(path).list().length;
+
+        newLog();
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        reopened.writeRound(1, value(1));
+
+        assertThat(new File(path).list().length).isEqualTo(segments);
+        SegmentedPaxosStateLog<PaxosValue> reopenedAgain = newLog();
+        assertThat(readValue(reopenedAgain, 0)).isEqualTo(value(0));
+        assertThat(readValue(reopenedAgain, 1)).isEqualTo(value(1));
+    }
+
+    @Test
+    public void latestWriteForASequenceNumberWins() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        log.writeRound(1, value(1));
+        log.writeRound(1, new PaxosValue("other", 1, new byte[] {7}));
+
+        assertThat(readValue(newLog(), 1)).isEqualTo(new PaxosValue("other", 1, new byte[] {7}));
+    }
+
+    @Test
+    public void rejectsOlderVersionOfARound() throws IOException {
+        SegmentedPaxosStateLog<PaxosAcceptorState> log = new SegmentedPaxosStateLog<>(path, SEGMENT_SIZE);
+        PaxosAcceptorState state = PaxosAcceptorState.newState(new PaxosProposalId(1, "uuid"));
+        PaxosAcceptorState promised = state.withPromise(new PaxosProposalId(2, "uuid"));
+
+        log.writeRound(0, promised);
+        log.writeRound(0, state);
+
+        PaxosAcceptorState read = PaxosAcceptorState.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(0));
+        assertThat(read.lastPromisedId).isEqualTo(new PaxosProposalId(2, "uuid"));
+    }
+
+    @Test
+    public void concurrentWritesAreAllPersisted() throws Exception {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int thread = 0; thread < 8; thread++) {
+            long firstSeq = thread * 100;
+            futures.add(executor.submit(() -> {
+                for (long seq = firstSeq; seq < firstSeq + 100; seq++) {
+                    log.writeRound(seq, value(seq));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        for (long seq = 0; seq < 800; seq++) {
+            assertThat(readValue(reopened, seq)).isEqualTo(value(seq));
+        }
+    }
+
+    @Test
+    public void truncateHidesRoundsAcrossRestarts() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        for (long seq = 0; seq < 200; seq++) {
+            log.writeRound(seq, value(seq));
+        }
+
+        log.truncate(99);
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(100L);
+        assertThat(log.readRound(99)).isNull();
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(100L);
+        assertThat(reopened.readRound(99)).isNull();
+        assertThat(readValue(reopened, 100)).isEqualTo(value(100));
+    }
+
+    @Test
+    public void truncateNeverRemovesTheGreatestEntry() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        log.writeRound(5, value(5));
+        log.writeRound(6, value(6));
+
+        log.truncate(Long.MAX_VALUE);
+
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(6L);
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(6L);
+        assertThat(readValue(reopened, 6)).isEqualTo(value(6));
+    }
+
+    @Test
+    public void truncateDeletesSegments() throws IOException {
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+        for (long seq = 0; seq < 1000; seq++) {
+            log.writeRound(seq, value(seq));
+        }
+        int segmentsBeforeTruncate = new File(path).list().length;
+
+        log.truncate(990);
+
+        assertThat(new File(path).list().length).isLessThan(segmentsBeforeTruncate);
+        assertThat(readValue(newLog(), 999)).isEqualTo(value(999));
+    }
+
+    @Test
+    public void migratesRoundsFromPerRoundFiles() throws IOException {
+        PaxosStateLogImpl<PaxosValue> legacyLog = new PaxosStateLogImpl<>(path);
+        for (long seq = 0; seq < 10; seq++) {
+            legacyLog.writeRound(seq, value(seq));
+        }
+
+        SegmentedPaxosStateLog<PaxosValue> log = newLog();
+
+        assertThat(log.getLeastLogEntry()).isEqualTo(PaxosAcceptor.NO_LOG_ENTRY);
+        assertThat(log.getGreatestLogEntry()).isEqualTo(9L);
+        for (long seq = 0; seq < 10; seq++) {
+            assertThat(readValue(log, seq)).isEqualTo(value(seq));
+        }
+        assertThat(new File(path).list()).allMatch(name -> name.startsWith("segment-"));
+    }
+
+    @Test
+    public void migratesTruncatedPerRoundFiles() throws IOException {
+        PaxosStateLogImpl<PaxosValue> legacyLog = new PaxosStateLogImpl<>(path);
+        for (long seq = 0; seq < 10; seq++) {
+            legacyLog.writeRound(seq, value(seq));
+        }
+        legacyLog.truncate(4);
+
+        newLog();
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(5L);
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(9L);
+        assertThat(readValue(reopened, 5)).isEqualTo(value(5));
+    }
+
+    @Test
+    public void finishesAMigrationInterruptedWhileDeletingFiles() throws IOException {
+        PaxosStateLogImpl<PaxosValue> legacyLog = new PaxosStateLogImpl<>(path);
+        for (long seq = 0; seq < 10; seq++) {
+            legacyLog.writeRound(seq, value(seq));
+        }
+        legacyLog.truncate(4);
+        File leftBehind = folder.newFolder();
+        for (long seq = 7; seq < 10; seq++) {
+            FileUtils.copyFileToDirectory(new File(path, Long.toString(seq)), leftBehind);
+        }
+
+        newLog();
+        // put back the files that the interrupted migration did not get to delete
+        FileUtils.copyDirectory(leftBehind, new File(path));
+        SegmentedPaxosStateLog<PaxosValue> reopened = newLog();
+
+        assertThat(reopened.getLeastLogEntry()).isEqualTo(5L);
+        assertThat(reopened.getGreatestLogEntry()).isEqualTo(9L);
+        for (long seq = 5; seq < 10; seq++) {
+            assertThat(readValue(reopened, seq)).isEqualTo(value(seq));
+        }
+        assertThat(new File(path).list()).allMatch(name -> name.startsWith("segment-"));
+    }
+
+    private SegmentedPaxosStateLog<PaxosValue> newLog() {
+        return new SegmentedPaxosStateLog<>(path, SEGMENT_SIZE);
+    }
+
+    private static PaxosValue value(long seq) {
+        return new PaxosValue("leader", seq, new byte[] {(byte) seq});
+    }
+
+    private static PaxosValue readValue(PaxosStateLog<PaxosValue> log, long seq) throws IOException {
+        return PaxosValue.BYTES_HYDRATOR.hydrateFromBytes(log.readRound(seq));
+    }
+}
@@ -26,6 +26,8 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.lock.v2.WaitForLocksResponse;
@@ -76,6 +78,14 @@ public class LockRefreshingTimelockService implements AutoCloseable, TimelockSer
         return response;
     }
 
+    @Override
+    public StartTransactionsResponse startTransactions(StartTransactionsRequest request) {
+        StartTransactionsResponse response = delegate.startTransactions(request);
+        response.getTransactions().forEach(
+                transaction -> lockRefresher.registerLock(transaction.getImmutableTimestamp().getLock()));
+        return response;
+    }
+
     @Override
     public long getImmutableTimestamp() {
         return delegate.getImmutableTimestamp();
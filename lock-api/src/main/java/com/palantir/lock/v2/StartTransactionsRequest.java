@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.lock.v2;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.immutables.value.Value;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Starts one transaction per request id; each request id identifies the immutable timestamp lock of its
+ * transaction in the same way as {@link LockImmutableTimestampRequest#getRequestId()}.
+ */
+@Value.Immutable
+@JsonSerialize(as = ImmutableStartTransactionsRequest.class)
+@JsonDeserialize(as = ImmutableStartTransactionsRequest.class)
+public interface StartTransactionsRequest {
+
+    @Value.Parameter
+    List<UUID> getRequestIds();
+
+    static StartTransactionsRequest of(List<UUID> requestIds) {
+        return ImmutableStartTransactionsRequest.of(requestIds);
+    }
+
+    static StartTransactionsRequest create(int numTransactions) {
+        return of(IntStream.range(0, numTransactions)
+                .mapToObj(unused -> UUID.randomUUID())
+                .collect(Collectors.toList()));
+    }
+
+}
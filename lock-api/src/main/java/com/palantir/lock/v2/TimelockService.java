@@ -55,6 +55,15 @@ public interface TimelockService {
     @Path("lock-immutable-timestamp")
     LockImmutableTimestampResponse lockImmutableTimestamp(LockImmutableTimestampRequest request);
 
+    /**
+     * Starts one transaction per request id: locks an immutable timestamp for each, then issues each a start
+     * timestamp. Equivalent to calling {@link #lockImmutableTimestamp} followed by {@link #getFreshTimestamp} for
+     * every request id, but in a single round trip.
+     */
+    @POST
+    @Path("start-transactions")
+    StartTransactionsResponse startTransactions(StartTransactionsRequest request);
+
     @POST
     @Path("immutable-timestamp")
     long getImmutableTimestamp();
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.StringLockDescriptor;
@@ -40,6 +41,9 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.timestamp.TimestampRange;
@@ -77,6 +81,17 @@ public class LockRefreshingTimelockServiceTest {
         verify(refresher).registerLock(TOKEN_1);
     }
 
+    @Test
+    public void registersImmutableTimestampLocksOfStartedTransactions() {
+        when(delegate.startTransactions(any())).thenReturn(StartTransactionsResponse.of(ImmutableList.of(
+                StartTransactionResponse.of(LockImmutableTimestampResponse.of(123L, TOKEN_1), 124L),
+                StartTransactionResponse.of(LockImmutableTimestampResponse.of(123L, TOKEN_2), 125L))));
+        timelock.startTransactions(StartTransactionsRequest.create(2));
+
+        verify(refresher).registerLock(TOKEN_1);
+        verify(refresher).registerLock(TOKEN_2);
+    }
+
     @Test
     public void registersLocks() {
         LockRequest request = LockRequest.of(LOCKS, TIMEOUT);
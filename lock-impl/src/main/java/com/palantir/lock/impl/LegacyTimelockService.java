@@ -16,12 +16,15 @@
 
 package com.palantir.lock.impl;
 
+import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.palantir.common.base.Throwables;
@@ -32,15 +35,20 @@ import com.palantir.lock.LockMode;
 import com.palantir.lock.LockRefreshToken;
 import com.palantir.lock.LockService;
 import com.palantir.lock.SimpleTimeDuration;
+import com.palantir.lock.v2.ImmutableLockImmutableTimestampRequest;
 import com.palantir.lock.v2.LockImmutableTimestampRequest;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.TimelockService;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.lock.v2.WaitForLocksResponse;
 import com.palantir.timestamp.TimestampRange;
+import com.palantir.timestamp.TimestampRanges;
 import com.palantir.timestamp.TimestampService;
 
 /**
@@ -101,6 +109,29 @@ public class LegacyTimelockService implements TimelockService {
         }
     }
 
+    @Override
+    public StartTransactionsResponse startTransactions(StartTransactionsRequest request) {
+        List<UUID> requestIds = request.getRequestIds();
+        List<LockImmutableTimestampResponse> immutableTsResponses = Lists.newArrayListWithCapacity(requestIds.size());
+        try {
+            for (UUID requestId : requestIds) {
+                immutableTsResponses.add(lockImmutableTimestamp(ImmutableLockImmutableTimestampRequest.of(requestId)));
+            }
+            long[] startTimestamps = TimestampRanges.getFreshTimestamps(timestampService, requestIds.size());
+
+            List<StartTransactionResponse> transactions = Lists.newArrayListWithCapacity(requestIds.size());
+            for (int i = 0; i < requestIds.size(); i++) {
+                transactions.add(StartTransactionResponse.of(immutableTsResponses.get(i), startTimestamps[i]));
+            }
+            return StartTransactionsResponse.of(transactions);
+        } catch (Throwable e) {
+            unlock(immutableTsResponses.stream()
+                    .map(LockImmutableTimestampResponse::getLock)
+                    .collect(Collectors.toSet()));
+            throw Throwables.rewrapAndThrowUncheckedException(e);
+        }
+    }
+
     @Override
     public long getImmutableTimestamp() {
         long ts = timestampService.getFreshTimestamp();
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
@@ -48,6 +49,9 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.timestamp.TimestampRange;
 import com.palantir.timestamp.TimestampService;
@@ -102,6 +106,26 @@ public class LegacyTimelockServiceTest {
         assertEquals(expectedResponse, timelock.lockImmutableTimestamp(LockImmutableTimestampRequest.create()));
     }
 
+    @Test
+    public void startTransactionsIssuesStartTimestampsAfterLockingImmutableTimestamps() throws InterruptedException {
+        long immutableTs = 3L;
+        long startTs = FRESH_TIMESTAMP + 1;
+
+        InOrder inOrder = Mockito.inOrder(timestampService, lockService);
+
+        LockRefreshToken expectedToken = mockImmutableTsLockResponse();
+        mockMinLockedInVersionIdResponse(immutableTs);
+        when(timestampService.getFreshTimestamps(1)).thenReturn(TimestampRange.createInclusiveRange(startTs, startTs));
+
+        StartTransactionResponse expectedResponse = StartTransactionResponse.of(
+                LockImmutableTimestampResponse.of(immutableTs, toTokenV2(expectedToken)),
+                startTs);
+        assertEquals(StartTransactionsResponse.of(ImmutableList.of(expectedResponse)),
+                timelock.startTransactions(StartTransactionsRequest.create(1)));
+        inOrder.verify(lockService).lock(Mockito.eq(LOCK_CLIENT.getClientId()), Mockito.any());
+        inOrder.verify(timestampService).getFreshTimestamps(1);
+    }
+
     @Test
     public void getImmutableTimestampDelegatesInProperOrder() throws InterruptedException {
         long immutableTs = 3L;
@@ -27,6 +27,27 @@ public interface PaxosInstallConfiguration {
         return new File("var/data/paxos");
     }
 
+    /**
+     * Whether to keep the paxos logs in append-only segment files rather than one file per round. Existing logs
+     * are migrated on startup, and cannot be read by older versions once migrated.
+     */
+    @JsonProperty("use-segmented-state-log")
+    @Value.Default
+    default boolean useSegmentedStateLog() {
+        return false;
+    }
+
+    /**
+     * How long the leader may serve requests after a quorum last confirmed its leadership, without confirming it
+     * again for every request. A newly elected leader waits twice this long before serving anything. Zero disables
+     * leader leases.
+     */
+    @JsonProperty("leader-lease-duration-ms")
+    @Value.Default
+    default long leaderLeaseDurationMs() {
+        return 0L;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkArgument(dataDirectory().mkdirs() || dataDirectory().isDirectory(),
@@ -95,6 +95,8 @@ public class PaxosLeadershipCreator {
                 .learnerLogDir(Paths.get(install.paxos().dataDirectory().toString(),
                         PaxosTimeLockConstants.LEADER_PAXOS_NAMESPACE,
                         PaxosTimeLockConstants.LEARNER_SUBDIRECTORY_PATH).toFile())
+                .useSegmentedStateLog(install.paxos().useSegmentedStateLog())
+                .leaderLeaseDurationMs(install.paxos().leaderLeaseDurationMs())
                 .pingRateMs(paxosRuntimeConfiguration.pingRateMs())
                 .quorumSize(PaxosRemotingUtils.getQuorumSize(PaxosRemotingUtils.getClusterAddresses(install)))
                 .leaderPingResponseWaitMs(paxosRuntimeConfiguration.pingRateMs())
@@ -68,7 +68,9 @@ public class TimeLockAgent {
         this.runtime = runtime;
         this.registrar = registrar;
 
-        this.paxosResource = PaxosResource.create(install.paxos().dataDirectory().toString());
+        this.paxosResource = PaxosResource.create(
+                install.paxos().dataDirectory().toString(),
+                install.paxos().useSegmentedStateLog());
         this.leadershipCreator = new PaxosLeadershipCreator(install, runtime, registrar);
         this.lockCreator = new LockCreator(runtime, deprecated);
         this.timestampCreator = getTimestampCreator();
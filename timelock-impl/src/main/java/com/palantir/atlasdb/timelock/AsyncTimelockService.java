@@ -25,6 +25,8 @@ import com.palantir.lock.v2.LockImmutableTimestampRequest;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.WaitForLocksRequest;
 
 public interface AsyncTimelockService extends ManagedTimestampService, Closeable {
@@ -43,4 +45,6 @@ public interface AsyncTimelockService extends ManagedTimestampService, Closeable
 
     LockImmutableTimestampResponse lockImmutableTimestamp(LockImmutableTimestampRequest request);
 
+    StartTransactionsResponse startTransactions(StartTransactionsRequest request);
+
 }
@@ -17,8 +17,13 @@
 package com.palantir.atlasdb.timelock;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.palantir.atlasdb.timelock.lock.AsyncLockService;
 import com.palantir.atlasdb.timelock.lock.AsyncResult;
 import com.palantir.atlasdb.timelock.lock.TimeLimit;
@@ -27,8 +32,12 @@ import com.palantir.lock.v2.LockImmutableTimestampRequest;
 import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.lock.v2.StartTransactionsResponse;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.timestamp.TimestampRange;
+import com.palantir.timestamp.TimestampRanges;
 
 public class AsyncTimelockServiceImpl implements AsyncTimelockService {
 
@@ -66,6 +75,38 @@ public class AsyncTimelockServiceImpl implements AsyncTimelockService {
         return LockImmutableTimestampResponse.of(immutableTs, token);
     }
 
+    @Override
+    public StartTransactionsResponse startTransactions(StartTransactionsRequest request) {
+        List<UUID> requestIds = request.getRequestIds();
+        if (requestIds.isEmpty()) {
+            return StartTransactionsResponse.of(ImmutableList.of());
+        }
+
+        long[] lockTimestamps = TimestampRanges.getFreshTimestamps(timestampService, requestIds.size());
+        List<LockToken> tokens = Lists.newArrayListWithCapacity(requestIds.size());
+        try {
+            for (int i = 0; i < requestIds.size(); i++) {
+                // this will always return synchronously
+                tokens.add(lockService.lockImmutableTimestamp(requestIds.get(i), lockTimestamps[i]).get());
+            }
+
+            long immutableTs = lockService.getImmutableTimestamp().orElse(lockTimestamps[0]);
+            // the start timestamps must be issued after the immutable timestamp locks are taken
+            long[] startTimestamps = TimestampRanges.getFreshTimestamps(timestampService, requestIds.size());
+
+            List<StartTransactionResponse> transactions = Lists.newArrayListWithCapacity(requestIds.size());
+            for (int i = 0; i < requestIds.size(); i++) {
+                transactions.add(StartTransactionResponse.of(
+                        LockImmutableTimestampResponse.of(immutableTs, tokens.get(i)),
+                        startTimestamps[i]));
+            }
+            return StartTransactionsResponse.of(transactions);
+        } catch (RuntimeException e) {
+            lockService.unlock(ImmutableSet.copyOf(tokens));
+            throw e;
+        }
+    }
+
     @Override
     public long getImmutableTimestamp() {
         long timestamp = timestampService.getFreshTimestamp();
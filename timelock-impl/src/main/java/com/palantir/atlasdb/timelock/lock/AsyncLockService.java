@@ -17,6 +17,7 @@
 package com.palantir.atlasdb.timelock.lock;
 
 import java.io.Closeable;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -28,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableSet;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.v2.LockToken;
 
 public class AsyncLockService implements Closeable {
@@ -86,6 +88,19 @@ public class AsyncLockService implements Closeable {
                 () -> acquireLocks(requestId, lockDescriptors, timeout));
     }
 
+    /**
+     * Like {@link #lock(UUID, Set, TimeLimit)}, but acquires each lock in the given mode: any number of requests may
+     * hold a lock in {@link LockMode#READ} mode at once, while {@link LockMode#WRITE} mode is exclusive.
+     */
+    public AsyncResult<LockToken> lock(
+            UUID requestId,
+            Map<LockDescriptor, LockMode> lockDescriptorsToModes,
+            TimeLimit timeout) {
+        return heldLocks.getExistingOrAcquire(
+                requestId,
+                () -> lockAcquirer.acquireLocks(requestId, locks.getAll(lockDescriptorsToModes), timeout));
+    }
+
     public AsyncResult<LockToken> lockImmutableTimestamp(UUID requestId, long timestamp) {
         return heldLocks.getExistingOrAcquire(
                 requestId,
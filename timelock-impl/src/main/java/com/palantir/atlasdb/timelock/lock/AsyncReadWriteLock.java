@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.palantir.atlasdb.timelock.util.LoggableIllegalStateException;
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
+import com.palantir.logsafe.SafeArg;
+
+/**
+ * A lock that can be held either by any number of requests in shared ({@link LockMode#READ}) mode or by a single
+ * request in exclusive ({@link LockMode#WRITE}) mode, mirroring {@link LockMode} in the legacy lock service.
+ *
+ * Requests are served in FIFO order: a shared request queued behind an exclusive request waits for it, so that
+ * a steady stream of readers cannot starve a writer. Each mode is exposed as an {@link AsyncLock} view, so the rest
+ * of the lock service does not need to know which mode it is acquiring.
+ */
+public class AsyncReadWriteLock {
+
+    private final LockDescriptor descriptor;
+    private final AsyncLock readLock = new LockView(LockMode.READ);
+    private final AsyncLock writeLock = new LockView(LockMode.WRITE);
+
+    @GuardedBy("this")
+    private final LockRequestQueue queue = new LockRequestQueue();
+    @GuardedBy("this")
+    private final Set<UUID> sharedHolders = Sets.newHashSet();
+    @GuardedBy("this")
+    private UUID exclusiveHolder = null;
+
+    public AsyncReadWriteLock(LockDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    public AsyncLock readLock() {
+        return readLock;
+    }
+
+    public AsyncLock writeLock() {
+        return writeLock;
+    }
+
+    public AsyncLock get(LockMode mode) {
+        return mode == LockMode.READ ? readLock : writeLock;
+    }
+
+    public LockDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    @VisibleForTesting
+    synchronized UUID getExclusiveHolder() {
+        return exclusiveHolder;
+    }
+
+    @VisibleForTesting
+    synchronized Set<UUID> getSharedHolders() {
+        return ImmutableSet.copyOf(sharedHolders);
+    }
+
+    private synchronized AsyncResult<Void> submit(LockRequest request) {
+        queue.enqueue(request);
+        processQueue();
+
+        return request.result;
+    }
+
+    private synchronized void unlock(UUID requestId) {
+        if (requestId.equals(exclusiveHolder)) {
+            exclusiveHolder = null;
+            processQueue();
+        } else if (sharedHolders.remove(requestId)) {
+            processQueue();
+        }
+    }
+
+    private synchronized void timeout(UUID requestId) {
+        if (queue.timeoutAndRemoveIfStillQueued(requestId)) {
+            // the request may have been blocking shared requests queued behind it
+            processQueue();
+        }
+    }
+
+    @GuardedBy("this")
+    private void processQueue() {
+        while (!queue.isEmpty() && canBeGranted(queue.peek().mode)) {
+            LockRequest head = queue.dequeue();
+
+            if (!head.releaseImmediately) {
+                if (head.mode == LockMode.READ) {
+                    sharedHolders.add(head.requestId);
+                } else {
+                    exclusiveHolder = head.requestId;
+                }
+            }
+
+            head.result.complete(null);
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean canBeGranted(LockMode mode) {
+        if (exclusiveHolder != null) {
+            return false;
+        }
+        return mode == LockMode.READ || sharedHolders.isEmpty();
+    }
+
+    private final class LockView implements AsyncLock {
+        private final LockMode mode;
+
+        private LockView(LockMode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public AsyncResult<Void> lock(UUID requestId) {
+            return submit(new LockRequest(requestId, mode, false));
+        }
+
+        @Override
+        public AsyncResult<Void> waitUntilAvailable(UUID requestId) {
+            return submit(new LockRequest(requestId, mode, true));
+        }
+
+        @Override
+        public void unlock(UUID requestId) {
+            AsyncReadWriteLock.this.unlock(requestId);
+        }
+
+        @Override
+        public void timeout(UUID requestId) {
+            AsyncReadWriteLock.this.timeout(requestId);
+        }
+
+        @Override
+        public LockDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncReadWriteLock{descriptor=" + descriptor + ", mode=" + mode + "}";
+        }
+    }
+
+    private static class LockRequest {
+        private final AsyncResult<Void> result = new AsyncResult<>();
+        private final UUID requestId;
+        private final LockMode mode;
+        private final boolean releaseImmediately;
+
+        LockRequest(UUID requestId, LockMode mode, boolean releaseImmediately) {
+            this.requestId = requestId;
+            this.mode = mode;
+            this.releaseImmediately = releaseImmediately;
+        }
+    }
+
+    @NotThreadSafe
+    private static class LockRequestQueue {
+
+        @SuppressWarnings("checkstyle:illegaltype")
+        private final LinkedHashMap<UUID, LockRequest> queue = Maps.newLinkedHashMap();
+
+        public void enqueue(LockRequest request) {
+            LockRequest existingRequest = queue.putIfAbsent(request.requestId, request);
+            if (existingRequest != null) {
+                throw new LoggableIllegalStateException(
+                        "Cannot enqueue the same request id twice.",
+                        SafeArg.of("requestId", request.requestId));
+            }
+        }
+
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        public LockRequest peek() {
+            return queue.values().iterator().next();
+        }
+
+        public LockRequest dequeue() {
+            return queue.remove(queue.keySet().iterator().next());
+        }
+
+        public boolean timeoutAndRemoveIfStillQueued(UUID requestId) {
+            LockRequest request = queue.remove(requestId);
+            if (request != null) {
+                request.result.timeout();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -13,53 +13,95 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.palantir.atlasdb.timelock.lock;
 
-
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 
+/**
+ * Hands out the lock for each descriptor, creating it on demand.
+ *
+ * Locks are held in a {@link ConcurrentMap} through weak references, so looking up an existing lock does not take
+ * any lock and creating one only contends with lookups of the same map bin. A lock is kept alive by whoever
+ * holds or waits for it; once it is unreachable, its entry is removed on a later call.
+ */
 public class LockCollection {
 
-    private final LoadingCache<LockDescriptor, ExclusiveLock> locksById;
+    private final ConcurrentMap<LockDescriptor, LockReference> locksById = Maps.newConcurrentMap();
+    private final ReferenceQueue<AsyncReadWriteLock> collectedLocks = new ReferenceQueue<>();
 
-    public LockCollection() {
-        locksById = CacheBuilder.newBuilder()
-                .weakValues()
-                .build(new CacheLoader<LockDescriptor, ExclusiveLock>() {
-                    @Override
-                    public ExclusiveLock load(LockDescriptor descriptor) throws Exception {
-                        return new ExclusiveLock(descriptor);
-                    }
-                });
+    public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
+        return getAll(Maps.asMap(descriptors, ignored -> LockMode.WRITE));
     }
 
-    public OrderedLocks getAll(Set<LockDescriptor> descriptors) {
-        List<LockDescriptor> orderedDescriptors = sort(descriptors);
+    public OrderedLocks getAll(Map<LockDescriptor, LockMode> descriptorsToModes) {
+        removeCollectedLocks();
+        List<LockDescriptor> orderedDescriptors = sort(descriptorsToModes.keySet());
 
-        List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(descriptors.size());
+        List<AsyncLock> locks = Lists.newArrayListWithExpectedSize(orderedDescriptors.size());
         for (LockDescriptor descriptor : orderedDescriptors) {
-            locks.add(getLock(descriptor));
+            locks.add(getLock(descriptor).get(descriptorsToModes.get(descriptor)));
         }
         return OrderedLocks.fromOrderedList(locks);
     }
 
+    @VisibleForTesting
+    int size() {
+        removeCollectedLocks();
+        return locksById.size();
+    }
+
     private List<LockDescriptor> sort(Set<LockDescriptor> descriptors) {
         List<LockDescriptor> orderedDescriptors = Lists.newArrayList(descriptors);
         orderedDescriptors.sort(Comparator.naturalOrder());
         return orderedDescriptors;
     }
 
-    private AsyncLock getLock(LockDescriptor descriptor) {
-        return locksById.getUnchecked(descriptor);
+    private AsyncReadWriteLock getLock(LockDescriptor descriptor) {
+        while (true) {
+            LockReference existingReference = locksById.get(descriptor);
+            AsyncReadWriteLock existingLock = existingReference == null ? null : existingReference.get();
+            if (existingLock != null) {
+                return existingLock;
+            }
+
+            AsyncReadWriteLock newLock = new AsyncReadWriteLock(descriptor);
+            LockReference newReference = new LockReference(newLock, collectedLocks);
+            boolean installed = existingReference == null
+                    ? locksById.putIfAbsent(descriptor, newReference) == null
+                    : locksById.replace(descriptor, existingReference, newReference);
+            if (installed) {
+                return newLock;
+            }
+        }
+    }
+
+    private void removeCollectedLocks() {
+        for (Reference<?> reference = collectedLocks.poll(); reference != null; reference = collectedLocks.poll()) {
+            LockReference lockReference = (LockReference) reference;
+            locksById.remove(lockReference.descriptor, lockReference);
+        }
+    }
+
+    private static final class LockReference extends WeakReference<AsyncReadWriteLock> {
+        private final LockDescriptor descriptor;
+
+        private LockReference(AsyncReadWriteLock lock, ReferenceQueue<AsyncReadWriteLock> queue) {
+            super(lock, queue);
+            this.descriptor = lock.getDescriptor();
+        }
     }
 
 }
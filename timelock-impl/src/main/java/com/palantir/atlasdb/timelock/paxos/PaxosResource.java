@@ -26,6 +26,7 @@ import org.immutables.value.Value;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Maps;
 import com.palantir.atlasdb.util.AtlasDbMetrics;
+import com.palantir.leader.PaxosKnowledgeEventRecorder;
 import com.palantir.paxos.PaxosAcceptor;
 import com.palantir.paxos.PaxosAcceptorImpl;
 import com.palantir.paxos.PaxosLearner;
@@ -36,10 +37,12 @@ import com.palantir.paxos.PaxosLearnerImpl;
         + "/{client: [a-zA-Z0-9_-]+}")
 public final class PaxosResource {
     private final String logDirectory;
+    private final boolean useSegmentedStateLog;
     private final Map<String, PaxosComponents> paxosComponentsByClient = Maps.newConcurrentMap();
 
-    private PaxosResource(String logDirectory) {
+    private PaxosResource(String logDirectory, boolean useSegmentedStateLog) {
         this.logDirectory = logDirectory;
+        this.useSegmentedStateLog = useSegmentedStateLog;
     }
 
     public static PaxosResource create() {
@@ -47,7 +50,11 @@ public final class PaxosResource {
     }
 
     public static PaxosResource create(String logDirectory) {
-        return new PaxosResource(logDirectory);
+        return create(logDirectory, false);
+    }
+
+    public static PaxosResource create(String logDirectory, boolean useSegmentedStateLog) {
+        return new PaxosResource(logDirectory, useSegmentedStateLog);
     }
 
     public PaxosComponents createInstrumentedComponents(String client) {
@@ -55,14 +62,14 @@ public final class PaxosResource {
                 .toString();
         PaxosLearner learner = instrument(
                 PaxosLearner.class,
-                PaxosLearnerImpl.newLearner(learnerLogDir),
+                PaxosLearnerImpl.newLearner(learnerLogDir, useSegmentedStateLog, PaxosKnowledgeEventRecorder.NO_OP),
                 client);
 
         String acceptorLogDir = Paths.get(logDirectory, client, PaxosTimeLockConstants.ACCEPTOR_SUBDIRECTORY_PATH)
                 .toString();
         PaxosAcceptor acceptor = instrument(
                 PaxosAcceptor.class,
-                PaxosAcceptorImpl.newAcceptor(acceptorLogDir),
+                PaxosAcceptorImpl.newAcceptor(acceptorLogDir, useSegmentedStateLog),
                 client);
 
         return ImmutablePaxosComponents.builder()
@@ -16,15 +16,31 @@
 
 package com.palantir.atlasdb.timelock;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.palantir.atlasdb.timelock.lock.AsyncLockService;
+import com.palantir.atlasdb.timelock.lock.AsyncResult;
+import com.palantir.atlasdb.timelock.paxos.DelegatingManagedTimestampService;
 import com.palantir.atlasdb.timelock.paxos.ManagedTimestampService;
+import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
+import com.palantir.timestamp.InMemoryTimestampService;
 
 public class AsyncTimelockServiceImplTest {
     @Test
@@ -38,4 +54,50 @@ public class AsyncTimelockServiceImplTest {
         assertFalse(service.isInitialized());
         assertTrue(service.isInitialized());
     }
+
+    @Test
+    public void startTransactionsIssuesStartTimestampsAfterLockingImmutableTimestamps() {
+        InMemoryTimestampService timestampService = new InMemoryTimestampService();
+        AsyncTimelockServiceImpl service = new AsyncTimelockServiceImpl(
+                AsyncLockService.createDefault(
+                        Executors.newSingleThreadScheduledExecutor(),
+                        Executors.newSingleThreadScheduledExecutor()),
+                new DelegatingManagedTimestampService(timestampService, timestampService));
+
+        StartTransactionsRequest request = StartTransactionsRequest.create(3);
+        List<StartTransactionResponse> transactions = service.startTransactions(request).getTransactions();
+
+        assertThat(transactions).hasSize(3);
+        assertThat(transactions.stream().map(transaction -> transaction.getImmutableTimestamp().getLock()
+                .getRequestId()).collect(Collectors.toList()))
+                .isEqualTo(request.getRequestIds());
+        // timestamps 1 to 3 are locked, and the transactions start at 4 to 6
+        assertThat(transactions.stream().map(transaction -> transaction.getImmutableTimestamp()
+                .getImmutableTimestamp()).collect(Collectors.toList()))
+                .containsExactly(1L, 1L, 1L);
+        assertThat(transactions.stream().map(StartTransactionResponse::getStartTimestamp)
+                .collect(Collectors.toList()))
+                .containsExactly(4L, 5L, 6L);
+        assertThat(service.getImmutableTimestamp()).isEqualTo(1L);
+    }
+
+    @Test
+    public void startTransactionsUnlocksAcquiredLocksIfALaterLockFails() {
+        AsyncLockService lockService = mock(AsyncLockService.class);
+        InMemoryTimestampService timestampService = new InMemoryTimestampService();
+        AsyncTimelockServiceImpl service = new AsyncTimelockServiceImpl(
+                lockService,
+                new DelegatingManagedTimestampService(timestampService, timestampService));
+
+        StartTransactionsRequest request = StartTransactionsRequest.create(3);
+        LockToken firstToken = LockToken.of(request.getRequestIds().get(0));
+        AsyncResult<LockToken> firstLock = new AsyncResult<>();
+        firstLock.complete(firstToken);
+        when(lockService.lockImmutableTimestamp(eq(request.getRequestIds().get(0)), anyLong())).thenReturn(firstLock);
+        when(lockService.lockImmutableTimestamp(eq(request.getRequestIds().get(1)), anyLong()))
+                .thenThrow(new IllegalStateException("test"));
+
+        assertThatThrownBy(() -> service.startTransactions(request)).isInstanceOf(IllegalStateException.class);
+        verify(lockService).unlock(ImmutableSet.of(firstToken));
+    }
 }
@@ -55,6 +55,8 @@ import com.palantir.lock.v2.LockImmutableTimestampResponse;
 import com.palantir.lock.v2.LockRequest;
 import com.palantir.lock.v2.LockResponse;
 import com.palantir.lock.v2.LockToken;
+import com.palantir.lock.v2.StartTransactionResponse;
+import com.palantir.lock.v2.StartTransactionsRequest;
 import com.palantir.lock.v2.WaitForLocksRequest;
 import com.palantir.lock.v2.WaitForLocksResponse;
 import com.palantir.timestamp.TimestampRange;
@@ -114,6 +116,23 @@ public class AsyncTimelockServiceIntegrationTest extends AbstractAsyncTimelockSe
         cluster.unlock(response2.getLock());
     }
 
+    @Test
+    public void canStartTransactions() {
+        long freshTs = cluster.getFreshTimestamp();
+        List<StartTransactionResponse> transactions = cluster.timelockService()
+                .startTransactions(StartTransactionsRequest.create(2))
+                .getTransactions();
+
+        assertThat(transactions).hasSize(2);
+        for (StartTransactionResponse transaction : transactions) {
+            long immutableTs = transaction.getImmutableTimestamp().getImmutableTimestamp();
+            assertThat(transaction.getStartTimestamp()).isGreaterThan(freshTs).isGreaterThan(immutableTs);
+            assertThat(cluster.timelockService().getImmutableTimestamp()).isLessThanOrEqualTo(immutableTs);
+        }
+
+        transactions.forEach(transaction -> cluster.unlock(transaction.getImmutableTimestamp().getLock()));
+    }
+
     @Test
     public void immutableTimestampIsGreaterThanFreshTimestampWhenNotLocked() {
         long freshTs = cluster.getFreshTimestamp();
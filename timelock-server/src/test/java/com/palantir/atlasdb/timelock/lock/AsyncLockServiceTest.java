@@ -118,7 +118,7 @@ public class AsyncLockServiceTest {
     public void delegatesImmutableTimestampRequestsToTracker() {
         UUID requestId = UUID.randomUUID();
         long timestamp = 123L;
-        AsyncLock immutableTsLock = spy(newLock());
+        AsyncLock immutableTsLock = newLock();
         when(immutableTimestampTracker.getLockFor(timestamp)).thenReturn(immutableTsLock);
 
         lockService.lockImmutableTimestamp(requestId, timestamp);
@@ -155,8 +155,8 @@ public class AsyncLockServiceTest {
         assertThat(result.isTimedOut()).isTrue();
     }
 
-    private ExclusiveLock newLock() {
-        return new ExclusiveLock(LOCK_DESCRIPTOR);
+    private AsyncLock newLock() {
+        return new AsyncReadWriteLock(LOCK_DESCRIPTOR).writeLock();
     }
 
     private Set<LockDescriptor> descriptors(String... lockNames) {
@@ -27,7 +27,7 @@ import org.junit.Test;
 import com.palantir.lock.LockDescriptor;
 import com.palantir.lock.StringLockDescriptor;
 
-public class ExclusiveLockTests {
+public class AsyncReadWriteLockExclusiveTests {
 
     private static final UUID REQUEST_1 = UUID.randomUUID();
     private static final UUID REQUEST_2 = UUID.randomUUID();
@@ -35,7 +35,8 @@ public class ExclusiveLockTests {
 
     private static final LockDescriptor LOCK_DESCRIPTOR = StringLockDescriptor.of("foo");
 
-    private final ExclusiveLock lock = new ExclusiveLock(LOCK_DESCRIPTOR);
+    private final AsyncReadWriteLock readWriteLock = new AsyncReadWriteLock(LOCK_DESCRIPTOR);
+    private final AsyncLock lock = readWriteLock.writeLock();
 
     @Test
     public void canLockAndUnlock() {
@@ -90,7 +91,7 @@ public class ExclusiveLockTests {
         lockSynchronously(REQUEST_1);
 
         unlock(UUID.randomUUID());
-        assertThat(lock.getCurrentHolder()).isEqualTo(REQUEST_1);
+        assertThat(readWriteLock.getExclusiveHolder()).isEqualTo(REQUEST_1);
     }
 
     @Test
@@ -100,7 +101,7 @@ public class ExclusiveLockTests {
         AsyncResult<Void> request2 = lockAsync(REQUEST_2);
         unlock(REQUEST_2);
 
-        assertThat(lock.getCurrentHolder()).isEqualTo(REQUEST_1);
+        assertThat(readWriteLock.getExclusiveHolder()).isEqualTo(REQUEST_1);
         assertThat(request2.isComplete()).isFalse();
 
         // request2 should still get the lock when it's available
@@ -185,7 +186,7 @@ public class ExclusiveLockTests {
         lock.timeout(REQUEST_2);
         unlock(REQUEST_1);
 
-        assertThat(lock.getCurrentHolder()).isNull();
+        assertThat(readWriteLock.getExclusiveHolder()).isNull();
         lockSynchronously(REQUEST_1);
     }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.atlasdb.timelock.lock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.StringLockDescriptor;
+
+public class AsyncReadWriteLockTest {
+
+    private static final UUID REQUEST_1 = UUID.randomUUID();
+    private static final UUID REQUEST_2 = UUID.randomUUID();
+    private static final UUID REQUEST_3 = UUID.randomUUID();
+
+    private static final LockDescriptor LOCK_DESCRIPTOR = StringLockDescriptor.of("foo");
+
+    private final AsyncReadWriteLock lock = new AsyncReadWriteLock(LOCK_DESCRIPTOR);
+
+    @Test
+    public void readLockIsShared() {
+        assertThat(lock.readLock().lock(REQUEST_1).isCompletedSuccessfully()).isTrue();
+        assertThat(lock.readLock().lock(REQUEST_2).isCompletedSuccessfully()).isTrue();
+
+        assertThat(lock.getSharedHolders()).containsExactlyInAnyOrder(REQUEST_1, REQUEST_2);
+    }
+
+    @Test
+    public void writeLockIsExclusive() {
+        assertThat(lock.writeLock().lock(REQUEST_1).isCompletedSuccessfully()).isTrue();
+
+        assertThat(lock.writeLock().lock(REQUEST_2).isComplete()).isFalse();
+        assertThat(lock.readLock().lock(REQUEST_3).isComplete()).isFalse();
+        assertThat(lock.getExclusiveHolder()).isEqualTo(REQUEST_1);
+    }
+
+    @Test
+    public void writeLockWaitsForAllReaders() {
+        lock.readLock().lock(REQUEST_1);
+        lock.readLock().lock(REQUEST_2);
+        AsyncResult<Void> writeRequest = lock.writeLock().lock(REQUEST_3);
+
+        lock.readLock().unlock(REQUEST_1);
+        assertThat(writeRequest.isComplete()).isFalse();
+
+        lock.readLock().unlock(REQUEST_2);
+        assertThat(writeRequest.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void readersQueueBehindWaitingWriter() {
+        lock.readLock().lock(REQUEST_1);
+        AsyncResult<Void> writeRequest = lock.writeLock().lock(REQUEST_2);
+        AsyncResult<Void> readRequest = lock.readLock().lock(REQUEST_3);
+
+        assertThat(readRequest.isComplete()).isFalse();
+
+        lock.readLock().unlock(REQUEST_1);
+        assertThat(writeRequest.isCompletedSuccessfully()).isTrue();
+        assertThat(readRequest.isComplete()).isFalse();
+
+        lock.writeLock().unlock(REQUEST_2);
+        assertThat(readRequest.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void timingOutQueuedWriterUnblocksReadersBehindIt() {
+        lock.readLock().lock(REQUEST_1);
+        AsyncResult<Void> writeRequest = lock.writeLock().lock(REQUEST_2);
+        AsyncResult<Void> readRequest = lock.readLock().lock(REQUEST_3);
+
+        lock.writeLock().timeout(REQUEST_2);
+
+        assertThat(writeRequest.isTimedOut()).isTrue();
+        assertThat(readRequest.isCompletedSuccessfully()).isTrue();
+    }
+
+    @Test
+    public void waitUntilAvailableInReadModeOnlyWaitsForWriters() {
+        lock.readLock().lock(REQUEST_1);
+
+        assertThat(lock.readLock().waitUntilAvailable(REQUEST_2).isCompletedSuccessfully()).isTrue();
+        assertThat(lock.getSharedHolders()).containsExactly(REQUEST_1);
+    }
+
+    @Test
+    public void waitUntilAvailableInWriteModeWaitsForReaders() {
+        lock.readLock().lock(REQUEST_1);
+        AsyncResult<Void> waitRequest = lock.writeLock().waitUntilAvailable(REQUEST_2);
+
+        assertThat(waitRequest.isComplete()).isFalse();
+
+        lock.readLock().unlock(REQUEST_1);
+        assertThat(waitRequest.isCompletedSuccessfully()).isTrue();
+        assertThat(lock.getExclusiveHolder()).isNull();
+    }
+
+    @Test
+    public void unlockByNonHolderNoOps() {
+        lock.readLock().lock(REQUEST_1);
+        AsyncResult<Void> writeRequest = lock.writeLock().lock(REQUEST_2);
+
+        lock.readLock().unlock(REQUEST_3);
+
+        assertThat(lock.getSharedHolders()).containsExactly(REQUEST_1);
+        assertThat(writeRequest.isComplete()).isFalse();
+    }
+}
@@ -18,8 +18,8 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,8 +38,8 @@ public class HeldLocksTest {
 
     private static final LockDescriptor LOCK_DESCRIPTOR = StringLockDescriptor.of("foo");
 
-    private final ExclusiveLock lockA = spy(new ExclusiveLock(LOCK_DESCRIPTOR));
-    private final ExclusiveLock lockB = spy(new ExclusiveLock(LOCK_DESCRIPTOR));
+    private final AsyncLock lockA = newSpiedLock();
+    private final AsyncLock lockB = newSpiedLock();
 
     private final LeaseExpirationTimer timer = mock(LeaseExpirationTimer.class);
 
@@ -97,4 +97,7 @@ public class HeldLocksTest {
         verify(timer).refresh();
     }
 
+    private static AsyncLock newSpiedLock() {
+        return mock(AsyncLock.class, delegatesTo(new AsyncReadWriteLock(LOCK_DESCRIPTOR).writeLock()));
+    }
 }
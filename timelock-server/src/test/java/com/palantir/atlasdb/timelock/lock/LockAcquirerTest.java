@@ -18,12 +18,13 @@ package com.palantir.atlasdb.timelock.lock;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertFalse;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -52,9 +53,9 @@ public class LockAcquirerTest {
 
     private final DeterministicScheduler executor = new DeterministicScheduler();
 
-    private final ExclusiveLock lockA = spy(new ExclusiveLock(LOCK_DESCRIPTOR));
-    private final ExclusiveLock lockB = spy(new ExclusiveLock(LOCK_DESCRIPTOR));
-    private final ExclusiveLock lockC = spy(new ExclusiveLock(LOCK_DESCRIPTOR));
+    private final AsyncLock lockA = newSpiedLock();
+    private final AsyncLock lockB = newSpiedLock();
+    private final AsyncLock lockC = newSpiedLock();
 
     private final LockAcquirer lockAcquirer = new LockAcquirer(executor);
 
@@ -87,7 +88,7 @@ public class LockAcquirerTest {
     @Test(timeout = 10_000)
     public void doesNotStackOverflowIfLocksAreAcquiredSynchronously() {
         List<AsyncLock> locks = IntStream.range(0, 10_000)
-                .mapToObj(i -> new ExclusiveLock(LOCK_DESCRIPTOR))
+                .mapToObj(i -> new AsyncReadWriteLock(LOCK_DESCRIPTOR).writeLock())
                 .collect(Collectors.toList());
 
         AsyncResult<HeldLocks> acquisitions = acquire(locks);
@@ -226,8 +227,11 @@ public class LockAcquirerTest {
         return lockAcquirer.acquireLocks(REQUEST_ID, OrderedLocks.fromOrderedList(locks), TIMEOUT);
     }
 
-    private void assertNotLocked(ExclusiveLock lock) {
+    private void assertNotLocked(AsyncLock lock) {
         assertThat(lock.lock(UUID.randomUUID()).isCompletedSuccessfully()).isTrue();
     }
 
+    private static AsyncLock newSpiedLock() {
+        return mock(AsyncLock.class, delegatesTo(new AsyncReadWriteLock(LOCK_DESCRIPTOR).writeLock()));
+    }
 }
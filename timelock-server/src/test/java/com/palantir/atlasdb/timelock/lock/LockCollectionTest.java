@@ -27,8 +27,10 @@ import java.util.stream.IntStream;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.lock.LockDescriptor;
+import com.palantir.lock.LockMode;
 import com.palantir.lock.StringLockDescriptor;
 
 public class LockCollectionTest {
@@ -71,6 +73,23 @@ public class LockCollectionTest {
         assertThat(actualOrder).isEqualTo(expectedOrder);
     }
 
+    @Test
+    public void returnsLocksInRequestedModes() {
+        LockDescriptor foo = StringLockDescriptor.of("foo");
+        LockDescriptor bar = StringLockDescriptor.of("bar");
+
+        List<AsyncLock> locks = lockCollection.getAll(ImmutableMap.of(foo, LockMode.READ, bar, LockMode.WRITE)).get();
+        UUID reader = UUID.randomUUID();
+        UUID writer = UUID.randomUUID();
+        locks.forEach(lock -> lock.lock(reader));
+
+        List<AsyncLock> sharedFoo = lockCollection.getAll(ImmutableMap.of(foo, LockMode.READ)).get();
+        List<AsyncLock> exclusiveBar = lockCollection.getAll(ImmutableSet.of(bar)).get();
+        assertThat(sharedFoo.get(0).lock(writer).isCompletedSuccessfully()).isTrue();
+        assertThat(exclusiveBar.get(0).lock(writer).isComplete()).isFalse();
+        assertThat(locks).containsExactly(exclusiveBar.get(0), sharedFoo.get(0));
+    }
+
     private Set<LockDescriptor> descriptors(String... names) {
         return Arrays.stream(names)
                 .map(StringLockDescriptor::of)
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.timestamp;
+
+public final class TimestampRanges {
+    private TimestampRanges() {
+        // utility
+    }
+
+    /**
+     * Returns exactly {@code count} fresh timestamps in increasing order, making as many calls to
+     * {@link TimestampService#getFreshTimestamps(int)} as needed, since each call may return fewer timestamps
+     * than were requested.
+     */
+    public static long[] getFreshTimestamps(TimestampService timestampService, int count) {
+        long[] timestamps = new long[count];
+        int numFetched = 0;
+        while (numFetched < count) {
+            TimestampRange range = timestampService.getFreshTimestamps(count - numFetched);
+            for (long timestamp = range.getLowerBound();
+                    timestamp <= range.getUpperBound() && numFetched < count;
+                    timestamp++) {
+                timestamps[numFetched++] = timestamp;
+            }
+        }
+        return timestamps;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the BSD-3 License (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://opensource.org/licenses/BSD-3-Clause
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.timestamp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class TimestampRangesTest {
+    private static final int MAX_TIMESTAMPS_PER_CALL = 3;
+
+    private final TimestampService stingyTimestampService = new TimestampService() {
+        private long lastTimestamp = 0;
+
+        @Override
+        public long getFreshTimestamp() {
+            return ++lastTimestamp;
+        }
+
+        @Override
+        public TimestampRange getFreshTimestamps(int numTimestampsRequested) {
+            int numTimestamps = Math.min(numTimestampsRequested, MAX_TIMESTAMPS_PER_CALL);
+            TimestampRange range = TimestampRange.createInclusiveRange(
+                    lastTimestamp + 1, lastTimestamp + numTimestamps);
+            lastTimestamp += numTimestamps;
+            return range;
+        }
+    };
+
+    @Test
+    public void returnsExactlyTheRequestedNumberOfTimestamps() {
+        assertThat(TimestampRanges.getFreshTimestamps(stingyTimestampService, 7))
+                .containsExactly(1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    public void returnsNoTimestampsWhenNoneAreRequested() {
+        assertThat(TimestampRanges.getFreshTimestamps(stingyTimestampService, 0)).isEmpty();
+        assertThat(stingyTimestampService.getFreshTimestamp()).isEqualTo(1);
+    }
+}